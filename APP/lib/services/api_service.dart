@@ -1,6 +1,7 @@
 import 'dart:convert';
 import 'package:http/http.dart' as http;
 import '../utils/api_constants.dart';
+import '../utils/cbor_decoder.dart';
 import '../models/auth_response.dart';
 import 'storage_service.dart';
 
@@ -20,11 +21,15 @@ class ApiService {
 
   ApiService(this._storage, [http.Client? client]) : _client = client ?? http.Client();
 
-  Map<String, String> _getHeaders({bool includeAuth = true}) {
+  Map<String, String> _getHeaders({bool includeAuth = true, bool acceptBinary = false}) {
     final headers = {
       'Content-Type': 'application/json',
     };
 
+    if (acceptBinary && ApiConstants.useCbor) {
+      headers['Accept'] = 'application/cbor, application/json;q=0.9';
+    }
+
     if (includeAuth) {
       final token = _storage.getAccessToken();
       if (token != null) {
@@ -35,9 +40,15 @@ class ApiService {
     return headers;
   }
 
+  bool _isCbor(http.Response response) =>
+      response.headers['content-type']?.contains('application/cbor') ?? false;
+
   Future<dynamic> _handleResponse(http.Response response) async {
     if (response.statusCode >= 200 && response.statusCode < 300) {
-      if (response.body.isEmpty) return null;
+      if (response.bodyBytes.isEmpty) return null;
+      if (_isCbor(response)) {
+        return CborDecoder.decode(response.bodyBytes);
+      }
       try {
         return json.decode(response.body);
       } catch (e) {
@@ -53,7 +64,7 @@ class ApiService {
     }
     
     try {
-      final error = json.decode(response.body);
+      final error = _isCbor(response) ? CborDecoder.decode(response.bodyBytes) : json.decode(response.body);
       errorMessage = error['message'] ?? errorMessage;
     } catch (e) {
       // Use default error message
@@ -69,12 +80,12 @@ class ApiService {
     }
 
     try {
-      final response = await _client.get(uri, headers: _getHeaders());
+      final response = await _client.get(uri, headers: _getHeaders(acceptBinary: true));
       
       // Handle 401 and try to refresh token
       if (response.statusCode == 401) {
         await _refreshToken();
-        final retryResponse = await _client.get(uri, headers: _getHeaders());
+        final retryResponse = await _client.get(uri, headers: _getHeaders(acceptBinary: true));
         return await _handleResponse(retryResponse);
       }
       
@@ -15,6 +15,10 @@ class ApiConstants {
   static const bool _isProduction = true; // Set to true before building release APK
   
   static String get baseUrl => _isProduction ? _prodBaseUrl : _devBaseUrl;
+
+  // Ask for CBOR bodies on GET requests (smaller and cheaper to parse on slow networks).
+  // Enable with --dart-define=API_USE_CBOR=true; JSON stays the fallback.
+  static const bool useCbor = bool.fromEnvironment('API_USE_CBOR');
   
   // Auth endpoints
   static const String login = '/auth/login';
@@ -0,0 +1,147 @@
+import 'dart:convert';
+import 'dart:math' as math;
+import 'dart:typed_data';
+
+/// Minimal CBOR (RFC 8949) decoder for API responses.
+///
+/// Covers what the backend's Jackson CBOR encoder emits: maps, arrays, text,
+/// integers, floats, decimals, booleans and null, in definite or indefinite
+/// length. The result has the same shape as `json.decode` would return.
+class CborDecoder {
+  static final Object _break = Object();
+
+  final ByteData _data;
+  final Uint8List _bytes;
+  int _offset = 0;
+
+  CborDecoder._(Uint8List bytes)
+      : _bytes = bytes,
+        _data = ByteData.sublistView(bytes);
+
+  static dynamic decode(Uint8List bytes) {
+    if (bytes.isEmpty) return null;
+    return CborDecoder._(bytes)._readItem();
+  }
+
+  int _readLength(int info) {
+    if (info < 24) return info;
+    switch (info) {
+      case 24:
+        return _data.getUint8(_offset++);
+      case 25:
+        final value = _data.getUint16(_offset);
+        _offset += 2;
+        return value;
+      case 26:
+        final value = _data.getUint32(_offset);
+        _offset += 4;
+        return value;
+      case 27:
+        // Two 32-bit reads, since getUint64 is not available on the web
+        final value = _data.getUint32(_offset) * 4294967296 + _data.getUint32(_offset + 4);
+        _offset += 8;
+        return value;
+      case 31:
+        return -1; // indefinite length
+      default:
+        throw FormatException('Invalid CBOR length encoding: $info');
+    }
+  }
+
+  double _readHalf() {
+    final half = _data.getUint16(_offset);
+    _offset += 2;
+    final exponent = (half >> 10) & 0x1f;
+    final mantissa = half & 0x3ff;
+    final sign = (half & 0x8000) != 0 ? -1.0 : 1.0;
+    if (exponent == 0) return sign * math.pow(2, -14) * (mantissa / 1024);
+    if (exponent == 31) return mantissa != 0 ? double.nan : sign * double.infinity;
+    return sign * math.pow(2, exponent - 15) * (1 + mantissa / 1024);
+  }
+
+  dynamic _readItem() {
+    final initial = _data.getUint8(_offset++);
+    final major = initial >> 5;
+    final info = initial & 0x1f;
+
+    switch (major) {
+      case 0:
+        return _readLength(info);
+      case 1:
+        return -1 - _readLength(info);
+      case 2:
+      case 3:
+        final length = _readLength(info);
+        if (length < 0) {
+          final chunks = <dynamic>[];
+          for (var chunk = _readItem(); !identical(chunk, _break); chunk = _readItem()) {
+            chunks.add(chunk);
+          }
+          return major == 3
+              ? chunks.join()
+              : Uint8List.fromList(chunks.expand((c) => c as Uint8List).toList());
+        }
+        final slice = Uint8List.sublistView(_bytes, _offset, _offset + length);
+        _offset += length;
+        return major == 3 ? utf8.decode(slice) : slice;
+      case 4:
+        final length = _readLength(info);
+        final list = <dynamic>[];
+        if (length < 0) {
+          for (var item = _readItem(); !identical(item, _break); item = _readItem()) {
+            list.add(item);
+          }
+        } else {
+          for (var i = 0; i < length; i++) {
+            list.add(_readItem());
+          }
+        }
+        return list;
+      case 5:
+        final length = _readLength(info);
+        final map = <String, dynamic>{};
+        if (length < 0) {
+          for (var key = _readItem(); !identical(key, _break); key = _readItem()) {
+            map[key.toString()] = _readItem();
+          }
+        } else {
+          for (var i = 0; i < length; i++) {
+            map[_readItem().toString()] = _readItem();
+          }
+        }
+        return map;
+      case 6:
+        final tag = _readLength(info);
+        final content = _readItem();
+        // Decimal fraction [exponent, mantissa], used for BigDecimal fields
+        if (tag == 4 && content is List && content.length == 2) {
+          return double.parse('${content[1]}e${content[0]}');
+        }
+        return content;
+      default:
+        switch (info) {
+          case 20:
+            return false;
+          case 21:
+            return true;
+          case 22:
+          case 23:
+            return null;
+          case 25:
+            return _readHalf();
+          case 26:
+            final value = _data.getFloat32(_offset);
+            _offset += 4;
+            return value;
+          case 27:
+            final value = _data.getFloat64(_offset);
+            _offset += 8;
+            return value;
+          case 31:
+            return _break;
+          default:
+            throw FormatException('Unsupported CBOR simple value: $info');
+        }
+    }
+  }
+}
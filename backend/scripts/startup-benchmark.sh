@@ -0,0 +1,74 @@
+#!/usr/bin/env bash
+#
+# Time-to-first-request of the backend, default start vs the AOT + AppCDS start.
+#
+#   ./mvnw -Pfast-startup package -DskipTests
+#   DB_URL=... DB_USERNAME=... DB_PASSWORD=... JWT_SECRET_KEY=... scripts/startup-benchmark.sh [runs]
+#
+# Each run launches the JVM, polls until the first HTTP response comes back
+# (any status counts, the request went through the filter chain) and stops it.
+# Needs a migrated database, like a real deploy.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS="${1:-5}"
+PORT="${BENCHMARK_PORT:-18080}"
+JAR="$(ls target/*.jar | grep -v '\.original$' | head -n 1)"
+APP_DIR="target/application"
+URL="http://localhost:${PORT}/api/v1/auth/login"
+
+if [[ ! -f "$APP_DIR/application.jsa" ]]; then
+    echo "No CDS archive in $APP_DIR, build with: ./mvnw -Pfast-startup package -DskipTests" >&2
+    exit 1
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+# Prints the milliseconds from launch to the first response
+measure() {
+    local dir="$1"
+    shift
+    local start pid status elapsed
+    start=$(now_ms)
+    (cd "$dir" && exec java "$@" --server.port="$PORT" --spring.jpa.show-sql=false) > /tmp/startup-benchmark.log 2>&1 &
+    pid=$!
+    while true; do
+        status=$(curl -s -o /dev/null -w '%{http_code}' "$URL" || true)
+        if [[ "$status" != "000" ]]; then
+            break
+        fi
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Application exited before answering, see /tmp/startup-benchmark.log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(( $(now_ms) - start ))
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$elapsed"
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+run_mode() {
+    local label="$1"
+    shift
+    local results=() elapsed
+    for ((i = 1; i <= RUNS; i++)); do
+        elapsed=$(measure "$@") || exit 1
+        results+=("$elapsed")
+    done
+    printf '%-10s %8s ms   (%s)\n' "$label" "$(printf '%s\n' "${results[@]}" | median)" "${results[*]}"
+}
+
+echo "time to first request, median of $RUNS"
+run_mode "default" . -jar "$JAR"
+run_mode "aot+cds" "$APP_DIR" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+    -Dspring.profiles.active=fast-startup -jar "$(basename "$JAR")"
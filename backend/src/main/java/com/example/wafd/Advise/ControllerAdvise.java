@@ -2,9 +2,11 @@ package com.example.wafd.Advise;
 
 import com.example.wafd.Api.ApiException;
 import com.example.wafd.Api.ApiResponse;
+import com.example.wafd.Api.RateLimitException;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -31,6 +33,14 @@ public class ControllerAdvise {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponse(message));
     }
 
+    // Rate limited or overloaded
+    @ExceptionHandler(value = RateLimitException.class)
+    public ResponseEntity<ApiResponse> handleRateLimit(RateLimitException exception) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(new ApiResponse(exception.getMessage()));
+    }
+
     // Authentication failure
     @ExceptionHandler(value = BadCredentialsException.class)
     public ResponseEntity<ApiResponse> handleBadCredentials(BadCredentialsException exception) {
@@ -0,0 +1,19 @@
+package com.example.wafd.Api;
+
+/**
+ * The request was turned away to protect the server; mapped to 429 with a
+ * {@code Retry-After} header.
+ */
+public class RateLimitException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.wafd.Config;
 
+import com.example.wafd.Service.CacheInvalidationService;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
@@ -10,9 +11,10 @@ import org.springframework.context.annotation.Configuration;
 @EnableCaching
 public class CacheConfig {
 
+    // Each instance caches locally; evictions reach the other instances through the invalidation log
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
+    public CacheManager cacheManager(CacheInvalidationService cacheInvalidationService) {
+        ConcurrentMapCacheManager local = new ConcurrentMapCacheManager(
             "pilgrims",
             "agencies",
             "tents",
@@ -27,5 +29,6 @@ public class CacheConfig {
             "settings",
             "categories"
         );
+        return new ClusterCacheManager(local, cacheInvalidationService);
     }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.example.wafd.Config;
+
+import com.example.wafd.Service.CacheInvalidationService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps the local cache manager so every eviction, whether from
+ * {@code @CacheEvict} or a direct {@link Cache#clear()}, is also appended to
+ * the invalidation log for the other instances. Reads and puts stay local.
+ */
+public class ClusterCacheManager implements CacheManager {
+
+    private final CacheManager local;
+    private final CacheInvalidationService invalidations;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public ClusterCacheManager(CacheManager local, CacheInvalidationService invalidations) {
+        this.local = local;
+        this.invalidations = invalidations;
+        invalidations.register(local);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = local.getCache(name);
+        return target != null ? caches.computeIfAbsent(name, key -> new ClusterCache(target)) : null;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return local.getCacheNames();
+    }
+
+    private class ClusterCache implements Cache {
+
+        private final Cache target;
+
+        ClusterCache(Cache target) {
+            this.target = target;
+        }
+
+        @Override
+        public String getName() {
+            return target.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return target.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return target.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return target.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return target.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            target.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return target.putIfAbsent(key, value);
+        }
+
+        // Keys are not shipped: the other instances clear the whole cache
+        @Override
+        public void evict(Object key) {
+            target.evict(key);
+            invalidations.publish(getName());
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            boolean present = target.evictIfPresent(key);
+            invalidations.publish(getName());
+            return present;
+        }
+
+        @Override
+        public void clear() {
+            target.clear();
+            invalidations.publish(getName());
+        }
+
+        @Override
+        public boolean invalidate() {
+            boolean present = target.invalidate();
+            invalidations.publish(getName());
+            return present;
+        }
+    }
+}
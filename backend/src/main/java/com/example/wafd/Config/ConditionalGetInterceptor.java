@@ -0,0 +1,148 @@
+package com.example.wafd.Config;
+
+import com.example.wafd.Model.User;
+import com.example.wafd.Service.CollectionVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.example.wafd.Service.CollectionVersionService.*;
+
+/**
+ * Answers {@code If-None-Match} on the polled list endpoints from the
+ * in-memory collection versions, before the controller touches a repository.
+ * Each endpoint lists the collections its body is built from; supervisors get
+ * agency-scoped versions for the collections their view is filtered on.
+ *
+ * <p>The dashboard's tag also carries the current {@code dashboard.cache-ttl-ms}
+ * window, so neither a 304 nor the response cache outlives the dashboard's
+ * own bound on staleness.</p>
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private record Dependencies(List<String> collections, List<String> agencyScoped) { }
+
+    private static final String DASHBOARD = "/api/v1/dashboard/get";
+
+    private static final Map<String, Dependencies> ENDPOINTS = Map.of(
+            "/api/v1/tent/get/all", new Dependencies(List.of(TENTS, BEDS, BOOKINGS, PILGRIMS), List.of()),
+            "/api/v1/tent/get/summary", new Dependencies(List.of(TENTS, BEDS, PILGRIMS), List.of()),
+            "/api/v1/agency/get/all", new Dependencies(List.of(AGENCIES, PILGRIMS), List.of()),
+            "/api/v1/bed/get/all", new Dependencies(List.of(BEDS, TENTS, BOOKINGS, PILGRIMS), List.of()),
+            // Bookings only matter with the tent filter, but dependencies are per path
+            "/api/v1/pilgrim/stats", new Dependencies(List.of(PILGRIMS, BOOKINGS), List.of(PILGRIMS)),
+            DASHBOARD, new Dependencies(List.of(PILGRIMS, TENTS, AGENCIES, BEDS, BOOKINGS),
+                    List.of(PILGRIMS, BOOKINGS))
+    );
+
+    private final CollectionVersionService collectionVersionService;
+    private final long dashboardTtlMs;
+
+    public ConditionalGetInterceptor(CollectionVersionService collectionVersionService,
+                                     @Value("${dashboard.cache-ttl-ms:30000}") long dashboardTtlMs) {
+        this.collectionVersionService = collectionVersionService;
+        this.dashboardTtlMs = dashboardTtlMs;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        String etag = etag(request);
+        if (etag == null) {
+            return true;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * The ETag the current user's response to this GET would carry, or null
+     * when the endpoint is not versioned. Two requests with the same tag get
+     * the same body.
+     */
+    public String etag(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return null;
+        }
+        Dependencies dependencies = ENDPOINTS.get(request.getRequestURI());
+        if (dependencies == null) {
+            return null;
+        }
+
+        Integer agencyId = scopedAgencyId();
+        StringBuilder tag = new StringBuilder("\"")
+                .append(collectionVersionService.getEpoch())
+                .append('-').append(scope());
+        for (String collection : dependencies.collections()) {
+            long version = agencyId != null && dependencies.agencyScoped().contains(collection)
+                    ? collectionVersionService.version(collection, agencyId)
+                    : collectionVersionService.version(collection);
+            tag.append('-').append(Long.toHexString(version));
+        }
+        if (DASHBOARD.equals(request.getRequestURI())) {
+            tag.append('-').append(Long.toHexString(System.currentTimeMillis() / dashboardTtlMs));
+        }
+        if (request.getQueryString() != null) {
+            tag.append('-').append(Integer.toHexString(request.getQueryString().hashCode()));
+        }
+        // The same version can be served as JSON, CBOR or Smile
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && !accept.isBlank()) {
+            tag.append('-').append(Integer.toHexString(accept.hashCode()));
+        }
+        return tag.append('"').toString();
+    }
+
+    /** Whose view a versioned response is: the role, plus the agency for supervisors. */
+    public static String scope() {
+        Integer agencyId = scopedAgencyId();
+        return currentRole() + (agencyId != null ? "." + agencyId : "");
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if ("*".equals(value) || etag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static User currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof User user ? user : null;
+    }
+
+    private static String currentRole() {
+        User user = currentUser();
+        return user != null && user.getRole() != null ? user.getRole().toLowerCase() : "anonymous";
+    }
+
+    private static Integer scopedAgencyId() {
+        User user = currentUser();
+        if (user != null && "Supervisor".equals(user.getRole()) && user.getManagedAgency() != null) {
+            return user.getManagedAgency().getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.wafd.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs the migrations on startup, except in the AppCDS training start of the
+ * fast-startup build. That start has no database, and AOT processing fixes the
+ * Flyway beans at build time, so {@code spring.flyway.enabled} cannot switch
+ * them off there.
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${startup.skip-migrations:false}") boolean skipMigrations) {
+        return flyway -> {
+            if (!skipMigrations) {
+                flyway.migrate();
+            }
+        };
+    }
+}
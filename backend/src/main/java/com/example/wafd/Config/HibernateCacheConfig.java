@@ -0,0 +1,34 @@
+package com.example.wafd.Config;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.IOException;
+
+/**
+ * Local JCache (Ehcache) manager backing Hibernate's second-level cache. The
+ * regions are declared in {@code ehcache.xml}; the entities opt in with
+ * {@code @Cache}. Kept separate from the Spring {@code CacheManager} in
+ * {@link CacheConfig}, which caches controller responses.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() throws IOException {
+        ClassLoader classLoader = getClass().getClassLoader();
+        return Caching.getCachingProvider(EhcacheCachingProvider.class.getName(), classLoader)
+                .getCacheManager(new ClassPathResource("ehcache.xml").getURI(), classLoader);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateSecondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
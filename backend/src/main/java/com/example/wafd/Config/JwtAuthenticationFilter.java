@@ -1,6 +1,8 @@
 package com.example.wafd.Config;
 
 import com.example.wafd.Service.JwtService;
+import com.example.wafd.Service.TokenRegistryService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +25,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRegistryService tokenRegistryService;
 
     @Override
     protected void doFilterInternal(
@@ -32,7 +35,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
         String jwt;
-        String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -42,12 +44,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            // Parsing verifies the signature and expiry, so the claims are only read once
+            Claims claims = jwtService.extractAllClaims(jwt);
+            String userEmail = claims.getSubject();
+            String sessionId = claims.get(JwtService.SESSION_ID, String.class);
 
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (userEmail != null
+                    && !JwtService.isRefreshToken(claims)
+                    && (sessionId == null || !tokenRegistryService.isRevoked(sessionId))
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
                 UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (userEmail.equals(userDetails.getUsername())) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -0,0 +1,78 @@
+package com.example.wafd.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read/write split. The primary pool is built from the usual
+ * {@code spring.datasource.*} settings, the replica pool from
+ * {@code replica.datasource.*}.
+ *
+ * <p>The beans are always registered and the replica URL is only looked at
+ * when the pool is created, because the AOT image fixes the bean definitions
+ * at build time: setting {@code DB_REPLICA_URL} on a container built without
+ * it still turns routing on. Without a URL there is no replica pool and both
+ * routes lead to the primary.</p>
+ */
+@Configuration
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // Null (no bean) when no replica is configured; replica.datasource.hikari.* is bound here
+    // rather than through @ConfigurationProperties, which cannot bind to a null bean
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              Environment environment,
+                                              @Value("${replica.datasource.url:}") String url,
+                                              @Value("${replica.datasource.username:}") String username,
+                                              @Value("${replica.datasource.password:}") String password) {
+        if (url.isBlank()) {
+            return null;
+        }
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(username.isEmpty() ? properties.determinePassword() : password)
+                .build();
+        Binder.get(environment).bind("replica.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName("replica");
+        // Writes that reach the replica by mistake fail instead of diverging from the primary
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaProvider,
+                                 @Value("${replica.lag-guard-ms:2000}") long lagGuardMs) {
+        DataSource replica = replicaProvider.getIfAvailable();
+        ReadWriteRoutingDataSource routing = replica != null
+                ? new ReadWriteRoutingDataSource(primary, replica, lagGuardMs)
+                : new ReadWriteRoutingDataSource(primary, primary, 0);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
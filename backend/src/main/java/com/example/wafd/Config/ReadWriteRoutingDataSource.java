@@ -0,0 +1,88 @@
+package com.example.wafd.Config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the
+ * primary. Must sit behind a {@code LazyConnectionDataSourceProxy} so the
+ * connection is picked after the transaction's read-only flag is set.
+ *
+ * <p>Read-your-writes: for {@code lagGuardMs} after a caller commits a write,
+ * that caller's reads stay on the primary, so a booking shows up in the very
+ * next tent view even if the replica is behind. Callers are keyed by the
+ * authenticated user; unauthenticated work shares one key.</p>
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private static final String ANONYMOUS = "";
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final long lagGuardMs;
+    private final Map<String, Long> lastWriteAt = new ConcurrentHashMap<>();
+
+    public ReadWriteRoutingDataSource(Object primary, Object replica, long lagGuardMs) {
+        this.lagGuardMs = lagGuardMs;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String caller = currentCaller();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWrite(caller);
+            return PRIMARY;
+        }
+        return recentlyWrote(caller) ? PRIMARY : REPLICA;
+    }
+
+    private void recordWrite(String caller) {
+        // Only read-write transactions count. Connections taken outside one (schema checks,
+        // the invalidation tailer) do not write, and the replica can only fall behind from
+        // the moment the write is committed.
+        if (lagGuardMs <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                markWrite(caller);
+            }
+        });
+    }
+
+    private void markWrite(String caller) {
+        long now = System.currentTimeMillis();
+        lastWriteAt.put(caller, now);
+        if (lastWriteAt.size() > SWEEP_THRESHOLD) {
+            lastWriteAt.values().removeIf(writtenAt -> now - writtenAt >= lagGuardMs);
+        }
+    }
+
+    boolean recentlyWrote(String caller) {
+        Long writtenAt = lastWriteAt.get(caller);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - writtenAt < lagGuardMs) {
+            return true;
+        }
+        lastWriteAt.remove(caller, writtenAt);
+        return false;
+    }
+
+    private static String currentCaller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : ANONYMOUS;
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.wafd.Config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the final bytes of the versioned GET endpoints listed in
+ * {@code response-cache.paths}, so a repeat request skips the controller,
+ * Jackson and compression and is answered with a copy of the stored body.
+ * The streamed lists are left out: their bodies are written asynchronously
+ * and could not be stored anyway.
+ *
+ * <p>An entry is keyed by path, query, {@code Accept} and the caller's scope,
+ * and is valid for exactly one ETag of {@link ConditionalGetInterceptor}: the
+ * tag already changes whenever the body can, on every instance. Entries also
+ * expire after {@code response-cache.ttl-ms}, and the least recently used go
+ * once the stored bodies pass {@code response-cache.max-bytes}. When
+ * compression is enabled the gzipped body is made once, when the entry is
+ * stored, and served to clients that accept gzip.</p>
+ *
+ * <p>Bytes are copied on their way to the client rather than held back, so a
+ * handler that goes async streams as usual and is simply not stored.</p>
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private record CachedResponse(String etag, String contentType, byte[] body, byte[] gzipped) { }
+
+    private final Cache<String, CachedResponse> responses;
+    private final ConditionalGetInterceptor conditionalGetInterceptor;
+    private final boolean enabled;
+    private final Set<String> paths;
+    private final int maxEntryBytes;
+    private final boolean compressionEnabled;
+    private final long compressionMinBytes;
+    private final List<String> compressionMimeTypes;
+
+    public ResponseCacheFilter(ConditionalGetInterceptor conditionalGetInterceptor,
+                               @Value("${response-cache.enabled:true}") boolean enabled,
+                               @Value("${response-cache.paths:}") List<String> paths,
+                               @Value("${response-cache.max-bytes:64MB}") DataSize maxSize,
+                               @Value("${response-cache.max-entry-bytes:2097152}") int maxEntryBytes,
+                               @Value("${response-cache.ttl-ms:60000}") long ttlMs,
+                               @Value("${server.compression.enabled:false}") boolean compressionEnabled,
+                               @Value("${server.compression.min-response-size:2KB}") DataSize compressionMinSize,
+                               @Value("${server.compression.mime-types:application/json}") List<String> compressionMimeTypes) {
+        this.conditionalGetInterceptor = conditionalGetInterceptor;
+        this.enabled = enabled;
+        this.paths = Set.copyOf(paths);
+        this.maxEntryBytes = maxEntryBytes;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<String, CachedResponse>weigher((key, cached) -> key.length() + cached.body().length
+                        + (cached.gzipped() != null ? cached.gzipped().length : 0))
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+        this.compressionEnabled = compressionEnabled;
+        this.compressionMinBytes = compressionMinSize.toBytes();
+        this.compressionMimeTypes = compressionMimeTypes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod()) || !paths.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        String etag = conditionalGetInterceptor.etag(request);
+        // Not versioned, or a 304 the interceptor answers without a body anyway
+        if (etag == null || ConditionalGetInterceptor.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = request.getRequestURI() + "?" + request.getQueryString()
+                + "\n" + request.getHeader(HttpHeaders.ACCEPT)
+                + "\n" + ConditionalGetInterceptor.scope();
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached != null && cached.etag().equals(etag)) {
+            serve(request, response, cached);
+            return;
+        }
+
+        CopyingResponse copying = new CopyingResponse(response, maxEntryBytes);
+        filterChain.doFilter(request, copying);
+        if (request.isAsyncStarted()) {
+            copying.stopCopying();
+            return;
+        }
+        byte[] body = copying.copiedBody();
+        if (body != null && copying.getStatus() == HttpServletResponse.SC_OK && copying.getContentType() != null
+                && copying.getHeader(HttpHeaders.CONTENT_ENCODING) == null) {
+            responses.put(key, new CachedResponse(etag, copying.getContentType(), body,
+                    compressible(copying.getContentType(), body) ? gzip(body) : null));
+        }
+    }
+
+    private void serve(HttpServletRequest request, HttpServletResponse response, CachedResponse cached) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        response.setHeader(HttpHeaders.ETAG, cached.etag());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader("Server-Timing", "response-cache;desc=\"hit\"");
+        byte[] body = cached.body();
+        if (cached.gzipped() != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(request)) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                body = cached.gzipped();
+            }
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private boolean compressible(String contentType, byte[] body) {
+        return compressionEnabled && body.length >= compressionMinBytes
+                && compressionMimeTypes.stream().anyMatch(mimeType -> contentType.startsWith(mimeType.trim()));
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    // Passes every byte through to the client and keeps a copy, up to a limit
+    private static class CopyingResponse extends HttpServletResponseWrapper {
+
+        private final int maxBytes;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        private volatile boolean copying = true;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CopyingResponse(HttpServletResponse response, int maxBytes) {
+            super(response);
+            this.maxBytes = maxBytes;
+        }
+
+        void stopCopying() {
+            copying = false;
+        }
+
+        // Null when the body outgrew the limit or was not copied
+        byte[] copiedBody() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            synchronized (this) {
+                return copying ? copy.toByteArray() : null;
+            }
+        }
+
+        private synchronized void copy(byte[] bytes, int offset, int length) {
+            if (!copying) {
+                return;
+            }
+            if (copy.size() + length > maxBytes) {
+                copying = false;
+                copy = null;
+                return;
+            }
+            copy.write(bytes, offset, length);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream target = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        target.write(b);
+                        copy(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        target.write(b, off, len);
+                        copy(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        target.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        target.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return target.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        target.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(),
+                        Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            resetCopy();
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            resetCopy();
+        }
+
+        private synchronized void resetCopy() {
+            if (copy != null) {
+                copy.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.wafd.Config;
+
+import com.example.wafd.Service.CacheInvalidationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Extends Hibernate's second-level cache eviction to the other instances.
+ * Every insert, update or delete of a cached entity appends a row naming its
+ * region to the invalidation log, in the writing transaction; an instance
+ * that reads the row drops that region and the cached query results, which
+ * may hold the changed row.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheInvalidator implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener, CacheInvalidationService.Subscriber {
+
+    static final String PREFIX = "l2:";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationService invalidations;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = sessionFactory().getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        invalidations.subscribe(PREFIX, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        published(event.getPersister());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        published(event.getPersister());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        published(event.getPersister());
+    }
+
+    // Published at flush so the row commits or rolls back with the write
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void apply(String entityName) {
+        org.hibernate.Cache cache = sessionFactory().getCache();
+        cache.evictEntityData(entityName);
+        cache.evictDefaultQueryRegion();
+    }
+
+    @Override
+    public void applyAll() {
+        sessionFactory().getCache().evictAllRegions();
+    }
+
+    private void published(EntityPersister persister) {
+        if (persister.canWriteToCache()) {
+            invalidations.publish(PREFIX + persister.getEntityName());
+        }
+    }
+
+    private SessionFactoryImplementor sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+}
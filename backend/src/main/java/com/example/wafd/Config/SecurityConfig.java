@@ -29,12 +29,21 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/v1/auth/**").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/api/v1/pilgrim/**").hasAnyRole("ADMIN", "SUPERVISOR")
                 .requestMatchers("/api/v1/agency/**").hasAnyRole("ADMIN", "SUPERVISOR")
                 .requestMatchers("/api/v1/tent/**").hasAnyRole("ADMIN", "SUPERVISOR")
                 .requestMatchers("/api/v1/bed/**").hasAnyRole("ADMIN", "SUPERVISOR")
                 .requestMatchers("/api/v1/booking/**").hasAnyRole("ADMIN", "SUPERVISOR")
+                .requestMatchers("/api/v1/occupancy/**").hasAnyRole("ADMIN", "SUPERVISOR")
+                .requestMatchers("/api/v1/checkin/**").hasAnyRole("ADMIN", "SUPERVISOR")
+                .requestMatchers("/api/v1/sync/**").hasAnyRole("ADMIN", "SUPERVISOR")
+                .requestMatchers("/api/v1/dashboard/**").hasAnyRole("ADMIN", "SUPERVISOR")
                 .requestMatchers("/api/v1/user/**").hasRole("ADMIN")
+                .requestMatchers("/api/v1/job/**").hasRole("ADMIN")
+                .requestMatchers("/api/v1/reconciliation/**").hasRole("ADMIN")
+                .requestMatchers("/api/v1/audit/**").hasRole("ADMIN")
                 .requestMatchers("/api/v1/reports/**").hasAnyRole("ADMIN", "SUPERVISOR")
                 .anyRequest().authenticated()
             )
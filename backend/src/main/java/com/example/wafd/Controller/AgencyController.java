@@ -3,13 +3,16 @@ package com.example.wafd.Controller;
 import com.example.wafd.Api.ApiResponse;
 import com.example.wafd.DTO.AgencyDTO;
 import com.example.wafd.Service.AgencyService;
+import com.example.wafd.Service.ListStreamingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequiredArgsConstructor
@@ -31,9 +34,10 @@ public class AgencyController {
     }
 
     @GetMapping("/get/{id}/pilgrims")
-    @Cacheable(value = "agencySearch", key = "'pilgrims_' + #id")
-    public ResponseEntity<?> getPilgrimsByAgencyId(@PathVariable Integer id){
-        return ResponseEntity.ok(agencyService.findPilgrimsByAgencyId(id));
+    public ResponseEntity<StreamingResponseBody> getPilgrimsByAgencyId(@PathVariable Integer id,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+        ListStreamingService.ListStream pilgrims = agencyService.streamPilgrimsByAgencyId(id, accept);
+        return ResponseEntity.ok().contentType(pilgrims.contentType()).body(pilgrims.body());
     }
 
     @PostMapping("/add")
@@ -0,0 +1,30 @@
+package com.example.wafd.Controller;
+
+import com.example.wafd.Service.AuditService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/audit")
+public class AuditController {
+
+    private final AuditService auditService;
+
+    @GetMapping("/get/all")
+    public ResponseEntity<?> findAuditEvents(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) Integer entityId,
+            @RequestParam(required = false) Integer actorId,
+            @RequestParam(required = false) Integer agencyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size){
+        return ResponseEntity.ok(auditService.search(entityType, entityId, actorId, agencyId, from, to, page, size));
+    }
+}
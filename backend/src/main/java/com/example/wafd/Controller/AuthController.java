@@ -4,6 +4,7 @@ import com.example.wafd.Api.ApiResponse;
 import com.example.wafd.DTO.LoginDTOIn;
 import com.example.wafd.DTO.RefreshTokenDTOIn;
 import com.example.wafd.Service.AuthenticationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -17,8 +18,8 @@ public class AuthController {
     private final AuthenticationService authenticationService;
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody @Valid LoginDTOIn loginDTOIn) {
-        return ResponseEntity.ok(authenticationService.authenticate(loginDTOIn));
+    public ResponseEntity<?> login(@RequestBody @Valid LoginDTOIn loginDTOIn, HttpServletRequest request) {
+        return ResponseEntity.ok(authenticationService.authenticate(loginDTOIn, request.getRemoteAddr()));
     }
 
     @PostMapping("/refresh")
@@ -32,6 +33,12 @@ public class AuthController {
         return ResponseEntity.ok(new ApiResponse("Logged out successfully"));
     }
 
+    @PostMapping("/logout/all")
+    public ResponseEntity<?> logoutAllSessions(@RequestHeader("Authorization") String authHeader) {
+        authenticationService.logoutAllSessions(authHeader.substring(7));
+        return ResponseEntity.ok(new ApiResponse("Logged out of all sessions"));
+    }
+
     @GetMapping("/get/me")
     public ResponseEntity<?> getCurrentUser() {
         return ResponseEntity.ok(authenticationService.getCurrentUser());
@@ -3,15 +3,19 @@ package com.example.wafd.Controller;
 import com.example.wafd.Api.ApiResponse;
 import com.example.wafd.Model.Bed;
 import com.example.wafd.Service.BedAssignmentService;
+import com.example.wafd.Service.BedHoldService;
 import com.example.wafd.Service.BedService;
+import com.example.wafd.Service.ListStreamingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -21,11 +25,17 @@ public class BedController {
 
     private final BedService bedService;
     private final BedAssignmentService bedAssignmentService;
+    private final BedHoldService bedHoldService;
 
     @GetMapping("/get/all")
-    @Cacheable(value = "beds")
-    public ResponseEntity<?> findAllBeds(){
-        return ResponseEntity.ok(bedService.findAllBeds());
+    public ResponseEntity<StreamingResponseBody> findAllBeds(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+        ListStreamingService.ListStream beds = bedService.streamAllBeds(accept);
+        return ResponseEntity.ok().contentType(beds.contentType()).body(beds.body());
+    }
+
+    @GetMapping("/get/batch")
+    public ResponseEntity<?> findBedsByIds(@RequestParam List<Integer> ids){
+        return ResponseEntity.ok(bedService.findBedsByIds(ids));
     }
 
     @PostMapping("/add")
@@ -56,6 +66,32 @@ public class BedController {
         return ResponseEntity.ok(new ApiResponse("Bed assigned successfully"));
     }
 
+    @PostMapping("/hold/{bedId}")
+    @CacheEvict(value = "beds", allEntries = true)
+    public ResponseEntity<?> holdBed(@PathVariable Integer bedId, @RequestBody(required = false) Map<String, Integer> payload){
+        Integer minutes = payload != null ? payload.get("minutes") : null;
+        return ResponseEntity.ok(bedHoldService.hold(bedId, minutes));
+    }
+
+    @PostMapping("/hold/{bedId}/confirm")
+    @CacheEvict(value = {"beds", "pilgrims", "pilgrimSearch"}, allEntries = true)
+    public ResponseEntity<?> confirmHold(@PathVariable Integer bedId, @RequestBody Map<String, Integer> payload){
+        Integer pilgrimId = payload.get("pilgrimId");
+        if (pilgrimId == null) {
+            return ResponseEntity.badRequest().body(new ApiResponse("pilgrimId is required"));
+        }
+
+        bedHoldService.confirm(bedId, pilgrimId);
+        return ResponseEntity.ok(new ApiResponse("Bed assigned successfully"));
+    }
+
+    @DeleteMapping("/hold/{bedId}")
+    @CacheEvict(value = "beds", allEntries = true)
+    public ResponseEntity<?> releaseHold(@PathVariable Integer bedId){
+        bedHoldService.release(bedId);
+        return ResponseEntity.ok(new ApiResponse("Bed hold released"));
+    }
+
     @PutMapping("/vacate/{bedId}")
     @CacheEvict(value = {"beds", "pilgrims", "pilgrimSearch"}, allEntries = true)
     public ResponseEntity<?> vacateBed(@PathVariable Integer bedId){
@@ -2,10 +2,14 @@ package com.example.wafd.Controller;
 
 import com.example.wafd.Api.ApiResponse;
 import com.example.wafd.Service.BookingService;
+import com.example.wafd.Service.ListStreamingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequiredArgsConstructor
@@ -15,23 +19,29 @@ public class BookingController {
     private final BookingService bookingService;
 
     @GetMapping("/get/all")
-    public ResponseEntity<?> findAllBookings(){
-        return ResponseEntity.ok(bookingService.findAllBookings());
+    public ResponseEntity<StreamingResponseBody> findAllBookings(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+        ListStreamingService.ListStream bookings = bookingService.streamAllBookings(accept);
+        return ResponseEntity.ok().contentType(bookings.contentType()).body(bookings.body());
     }
 
     @PostMapping("/add/{userEmail}")
+    @CacheEvict(value = "beds", allEntries = true)
     public ResponseEntity<?> addBooking(@PathVariable String userEmail){
-        bookingService.addBooking(userEmail);
+        if (!bookingService.addBooking(userEmail)) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED.value()).body(new ApiResponse("All Tents are full, pilgrim added to the waitlist"));
+        }
         return ResponseEntity.status(HttpStatus.CREATED.value()).body(new ApiResponse("Booking added successfully"));
     }
     
     @PutMapping("/update-bed/{bedId}/{userEmail}")
+    @CacheEvict(value = "beds", allEntries = true)
     public ResponseEntity<?> updateBookedBed(@PathVariable Integer bedId, @PathVariable String userEmail){
         bookingService.updateBookedBed(bedId, userEmail);
         return ResponseEntity.ok(new ApiResponse("Bed booking updated successfully"));
     }
     
     @DeleteMapping("/delete/{id}")
+    @CacheEvict(value = "beds", allEntries = true)
     public ResponseEntity<?> deleteBooking(@PathVariable Integer id){
         bookingService.deleteBooking(id);
         return ResponseEntity.ok(new ApiResponse("Booking deleted successfully"));
@@ -0,0 +1,28 @@
+package com.example.wafd.Controller;
+
+import com.example.wafd.DTO.ScanDTOIn;
+import com.example.wafd.Service.CheckInService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/checkin")
+public class CheckInController {
+
+    private final CheckInService checkInService;
+
+    @PostMapping("/scan")
+    public ResponseEntity<?> scan(@RequestBody @Valid ScanDTOIn scanDTOIn){
+        return ResponseEntity.ok(checkInService.scan(scanDTOIn));
+    }
+
+    @PostMapping("/scan/batch")
+    public ResponseEntity<?> scanBatch(@RequestBody List<ScanDTOIn> scans){
+        return ResponseEntity.ok(checkInService.scanBatch(scans));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.wafd.Controller;
+
+import com.example.wafd.Service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/dashboard")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    @GetMapping("/get")
+    public ResponseEntity<?> getDashboard(@RequestParam(required = false) String sections){
+        DashboardService.Dashboard dashboard = dashboardService.getDashboard(sections);
+        return ResponseEntity.ok()
+                .header("Server-Timing", dashboard.serverTiming())
+                .body(dashboard.body());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.wafd.Controller;
+
+import com.example.wafd.Api.ApiResponse;
+import com.example.wafd.Service.JobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/job")
+public class JobController {
+
+    private final JobService jobService;
+
+    @PostMapping("/add/{type}")
+    public ResponseEntity<?> submitJob(@PathVariable String type, @RequestBody(required = false) Map<String, Object> params){
+        return ResponseEntity.status(HttpStatus.ACCEPTED.value()).body(jobService.submit(type, params));
+    }
+
+    @GetMapping("/get/all")
+    public ResponseEntity<?> findRecentJobs(@RequestParam(defaultValue = "50") int size){
+        return ResponseEntity.ok(jobService.findRecentJobs(size));
+    }
+
+    @GetMapping("/get/{id}")
+    public ResponseEntity<?> findJob(@PathVariable Integer id){
+        return ResponseEntity.ok(jobService.findJob(id));
+    }
+
+    @PostMapping("/cancel/{id}")
+    public ResponseEntity<?> cancelJob(@PathVariable Integer id){
+        jobService.cancel(id);
+        return ResponseEntity.ok(new ApiResponse("Job cancellation requested"));
+    }
+
+    @PostMapping("/restart/{id}")
+    public ResponseEntity<?> restartJob(@PathVariable Integer id){
+        jobService.restart(id);
+        return ResponseEntity.ok(new ApiResponse("Job restarted"));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.wafd.Controller;
+
+import com.example.wafd.Service.OccupancySnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/occupancy")
+public class OccupancyController {
+
+    private final OccupancySnapshotService occupancySnapshotService;
+
+    @GetMapping("/{scope}/{id}")
+    public ResponseEntity<?> getOccupancySeries(
+            @PathVariable String scope,
+            @PathVariable Integer id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String resolution){
+        return ResponseEntity.ok(occupancySnapshotService.getSeries(scope, id, from, to, resolution));
+    }
+}
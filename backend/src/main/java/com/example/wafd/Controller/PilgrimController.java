@@ -2,6 +2,7 @@ package com.example.wafd.Controller;
 
 import com.example.wafd.Api.ApiResponse;
 import com.example.wafd.DTO.PilgrimDTOIn;
+import com.example.wafd.DTO.PilgrimFields;
 import com.example.wafd.Service.PilgrimService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -10,10 +11,14 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/pilgrim")
@@ -22,17 +27,22 @@ public class PilgrimController {
     private final PilgrimService pilgrimService;
 
     @GetMapping("/get/all")
-    @Cacheable(value = "pilgrimSearch", key = "'page_' + #page + '_size_' + #size + '_sort_' + #sortBy")
+    @Cacheable(value = "pilgrimSearch", key = "'page_' + #page + '_size_' + #size + '_sort_' + #sortBy + '_' + #sortDirection + '_fields_' + #fields")
     public ResponseEntity<?> findAllPilgrims(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "DESC") String sortDirection){
+            @RequestParam(defaultValue = "DESC") String sortDirection,
+            @RequestParam(required = false) String fields){
 
+        PilgrimFields.requireSortable(sortBy);
         Sort.Direction direction = sortDirection.equalsIgnoreCase("ASC")
             ? Sort.Direction.ASC
             : Sort.Direction.DESC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+        if (fields != null && !fields.isBlank()) {
+            return ResponseEntity.ok(pilgrimService.getAllPilgrims(pageable, fields));
+        }
         return ResponseEntity.ok(pilgrimService.getAllPilgrims(pageable));
     }
 
@@ -56,9 +66,16 @@ public class PilgrimController {
         return ResponseEntity.ok(new ApiResponse("Pilgrim deleted successfully"));
     }
 
+    @GetMapping("/get/batch")
+    public ResponseEntity<?> getPilgrimsByIds(@RequestParam List<Integer> ids){
+        return ResponseEntity.ok(pilgrimService.getPilgrimsByIds(ids));
+    }
+
     @GetMapping("/get/{id}")
-    @Cacheable(value = "pilgrims", key = "#id")
-    public ResponseEntity<?> getPilgrimById(@PathVariable Integer id){
+    public ResponseEntity<?> getPilgrimById(@PathVariable Integer id, @RequestParam(required = false) String fields){
+        if (fields != null && !fields.isBlank()) {
+            return ResponseEntity.ok(pilgrimService.getPilgrimById(id, fields));
+        }
         return ResponseEntity.ok(pilgrimService.getPilgrimById(id));
     }
 
@@ -70,7 +87,11 @@ public class PilgrimController {
     }
 
     @GetMapping("/stats")
-    public ResponseEntity<?> getPilgrimStatistics(){
-        return ResponseEntity.ok(pilgrimService.getStatistics());
+    public ResponseEntity<?> getPilgrimStatistics(
+            @RequestParam(required = false) Integer agencyId,
+            @RequestParam(required = false) Integer tentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to){
+        return ResponseEntity.ok(pilgrimService.getStatistics(agencyId, tentId, from, to));
     }
 }
@@ -0,0 +1,28 @@
+package com.example.wafd.Controller;
+
+import com.example.wafd.Service.ReconciliationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/reconciliation")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    @GetMapping("/get/status")
+    public ResponseEntity<?> getStatus(){
+        return ResponseEntity.ok(reconciliationService.status());
+    }
+
+    @PutMapping("/update")
+    public ResponseEntity<?> updateSettings(@RequestParam(required = false) Boolean enabled,
+                                            @RequestParam(required = false) Integer chunkSize,
+                                            @RequestParam(required = false) Long pauseMs,
+                                            @RequestParam(required = false) Integer maxDutyPercent){
+        reconciliationService.configure(enabled, chunkSize, pauseMs, maxDutyPercent);
+        return ResponseEntity.ok(reconciliationService.status());
+    }
+}
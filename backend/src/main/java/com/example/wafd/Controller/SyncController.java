@@ -0,0 +1,21 @@
+package com.example.wafd.Controller;
+
+import com.example.wafd.Service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/sync")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(
+            @RequestParam(required = false) String watermark,
+            @RequestParam(defaultValue = "500") int limit){
+        return ResponseEntity.ok(syncService.getChanges(watermark, limit));
+    }
+}
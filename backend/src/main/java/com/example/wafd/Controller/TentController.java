@@ -2,11 +2,16 @@ package com.example.wafd.Controller;
 
 import com.example.wafd.Api.ApiResponse;
 import com.example.wafd.DTO.TentDTOIn;
+import com.example.wafd.Service.ListStreamingService;
 import com.example.wafd.Service.TentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
@@ -16,8 +21,19 @@ public class TentController {
     private final TentService tentService;
 
     @GetMapping("/get/all")
-    public ResponseEntity<?> findAllTents(){
-        return ResponseEntity.ok(tentService.findAllTents());
+    public ResponseEntity<StreamingResponseBody> findAllTents(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
+        ListStreamingService.ListStream tents = tentService.streamAllTents(accept);
+        return ResponseEntity.ok().contentType(tents.contentType()).body(tents.body());
+    }
+
+    @GetMapping("/get/summary")
+    public ResponseEntity<?> findTentSummaries(){
+        return ResponseEntity.ok(tentService.findTentSummaries());
+    }
+
+    @GetMapping("/get/batch")
+    public ResponseEntity<?> findTentsByIds(@RequestParam List<Integer> ids){
+        return ResponseEntity.ok(tentService.findTentsByIds(ids));
     }
 
     @GetMapping("/get/{id}")
@@ -6,6 +6,7 @@ import com.example.wafd.DTO.ChangePasswordDTOIn;
 import com.example.wafd.DTO.CreateUserDTOIn;
 import com.example.wafd.DTO.UpdateUserDTOIn;
 import com.example.wafd.Model.User;
+import com.example.wafd.Service.AuditService;
 import com.example.wafd.Service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +17,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/user")
@@ -23,6 +26,7 @@ public class UserController {
 
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
+    private final AuditService auditService;
 
     @GetMapping("/get/all")
     @PreAuthorize("hasRole('ADMIN')")
@@ -51,6 +55,7 @@ public class UserController {
         user.setRole(createUserDTOIn.getRole());
 
         userService.addUser(user);
+        auditService.record(AuditService.CREATE, AuditService.USER, user.getId(), null, null, AuditService.stateOf(user));
         return ResponseEntity.status(HttpStatus.CREATED.value()).body(new ApiResponse("User added successfully"));
     }
 
@@ -61,6 +66,7 @@ public class UserController {
         if (user == null){
             throw new ApiException("User not found");
         }
+        Map<String, Object> before = AuditService.stateOf(user);
 
         user.setName(updateUserDTOIn.getName());
         user.setEmail(updateUserDTOIn.getEmail());
@@ -72,13 +78,16 @@ public class UserController {
         }
 
         userService.updateUser(user);
+        auditService.record(AuditService.UPDATE, AuditService.USER, id, null, before, AuditService.stateOf(user));
         return ResponseEntity.ok(new ApiResponse("User updated successfully"));
     }
 
     @DeleteMapping("/delete/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> deleteUser(@PathVariable Integer id){
+        User user = userService.findUserById(id);
         userService.deleteUser(id);
+        auditService.record(AuditService.DELETE, AuditService.USER, id, null, AuditService.stateOf(user), null);
         return ResponseEntity.ok(new ApiResponse("User deleted successfully"));
     }
 
@@ -99,8 +108,10 @@ public class UserController {
             throw new ApiException("Current password is incorrect");
         }
 
+        Map<String, Object> before = AuditService.stateOf(user);
         user.setPassword(passwordEncoder.encode(changePasswordDTOIn.getNewPassword()));
         userService.updateUser(user);
+        auditService.record(AuditService.UPDATE, AuditService.USER, id, null, before, AuditService.stateOf(user));
 
         return ResponseEntity.ok(new ApiResponse("Password changed successfully"));
     }
@@ -0,0 +1,26 @@
+package com.example.wafd.Controller;
+
+import com.example.wafd.Api.ApiResponse;
+import com.example.wafd.Service.WaitlistService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/waitlist")
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    @GetMapping("/get/all")
+    public ResponseEntity<?> findWaitlist(@RequestParam(required = false) Integer agencyId){
+        return ResponseEntity.ok(waitlistService.findWaitlist(agencyId));
+    }
+
+    @DeleteMapping("/delete/{pilgrimId}")
+    public ResponseEntity<?> removeFromWaitlist(@PathVariable Integer pilgrimId){
+        waitlistService.remove(pilgrimId);
+        return ResponseEntity.ok(new ApiResponse("Pilgrim removed from the waitlist"));
+    }
+}
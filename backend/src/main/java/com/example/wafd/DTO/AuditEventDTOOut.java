@@ -0,0 +1,23 @@
+package com.example.wafd.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuditEventDTOOut {
+    private Long id;
+    private LocalDateTime occurredAt;
+    private Integer actorId;
+    private String actorEmail;
+    private String action;
+    private String entityType;
+    private Integer entityId;
+    private Integer agencyId;
+    private Map<String, Object> changes; // field -> [before, after]
+}
@@ -0,0 +1,21 @@
+package com.example.wafd.DTO;
+
+import com.example.wafd.Model.BedHold;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BedHoldDTOOut {
+    private Integer bedId;
+    private Integer heldBy;
+    private LocalDateTime expiresAt;
+
+    public static BedHoldDTOOut fromEntity(BedHold hold) {
+        return new BedHoldDTOOut(hold.getBedId(), hold.getHeldBy(), hold.getExpiresAt());
+    }
+}
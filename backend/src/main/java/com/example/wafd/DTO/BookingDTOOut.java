@@ -0,0 +1,31 @@
+package com.example.wafd.DTO;
+
+import com.example.wafd.Model.Booking;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingDTOOut {
+    private Integer id;
+    private String status;
+    private Integer pilgrimId;
+    private Integer bedId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static BookingDTOOut fromEntity(Booking booking) {
+        return new BookingDTOOut(
+                booking.getId(),
+                booking.getStatus(),
+                booking.getPilgrim() != null ? booking.getPilgrim().getId() : null,
+                booking.getBed() != null ? booking.getBed().getId() : null,
+                booking.getCreated_at(),
+                booking.getUpdated_at()
+        );
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.wafd.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// Sections left out of ?sections= are omitted from the body
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardDTOOut {
+    private PilgrimStatsDTO pilgrims;
+    private List<TentDTOOut> tents; // without beds
+    private List<AgencyDTO> agencies;
+    private Map<String, Long> beds; // status -> beds
+    private Map<String, Long> bookings; // status -> bookings
+}
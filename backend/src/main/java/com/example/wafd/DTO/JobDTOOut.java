@@ -0,0 +1,36 @@
+package com.example.wafd.DTO;
+
+import com.example.wafd.Model.Job;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobDTOOut {
+    private Integer id;
+    private String type;
+    private String status;
+    private Integer processed;
+    private Integer total;
+    private Integer percent; // null while the total is unknown
+    private String message;
+    private Boolean cancelRequested;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public static JobDTOOut fromEntity(Job job) {
+        Integer percent = null;
+        if ("succeeded".equals(job.getStatus())) {
+            percent = 100;
+        } else if (job.getTotal() != null) {
+            percent = job.getTotal() == 0 ? 100 : (int) Math.min(100, job.getProcessed() * 100L / job.getTotal());
+        }
+        return new JobDTOOut(job.getId(), job.getType(), job.getStatus(), job.getProcessed(), job.getTotal(), percent,
+                job.getMessage(), job.getCancelRequested(), job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt());
+    }
+}
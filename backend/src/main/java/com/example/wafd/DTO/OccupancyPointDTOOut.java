@@ -0,0 +1,27 @@
+package com.example.wafd.DTO;
+
+import com.example.wafd.Model.OccupancySnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OccupancyPointDTOOut {
+    private LocalDateTime bucketStart;
+    private Integer occupied;
+    private Integer peakOccupied;
+    private Integer capacity;
+
+    public static OccupancyPointDTOOut fromEntity(OccupancySnapshot snapshot) {
+        return new OccupancyPointDTOOut(
+                snapshot.getBucketStart(),
+                snapshot.getOccupied(),
+                snapshot.getPeakOccupied(),
+                snapshot.getCapacity()
+        );
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.wafd.DTO;
+
+import com.example.wafd.Api.ApiException;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Sparse fieldsets for pilgrim responses: parses {@code fields=} and picks the
+ * requested properties out of a {@link PilgrimDTOOut}, in declaration order.
+ */
+public final class PilgrimFields {
+
+    private static final Map<String, Function<PilgrimDTOOut, Object>> GETTERS = new LinkedHashMap<>();
+
+    /**
+     * Properties the pilgrim list may be ordered by. Each one is backed by an
+     * index (see V3__hot_path_indexes.sql) so paging never falls back to a filesort.
+     */
+    public static final Set<String> SORTABLE = Set.of(
+            "id", "registrationNumber", "lastName", "status", "createdAt", "updatedAt");
+
+    static {
+        GETTERS.put("id", PilgrimDTOOut::getId);
+        GETTERS.put("registrationNumber", PilgrimDTOOut::getRegistrationNumber);
+        GETTERS.put("nationalId", PilgrimDTOOut::getNationalId);
+        GETTERS.put("passportNumber", PilgrimDTOOut::getPassportNumber);
+        GETTERS.put("firstName", PilgrimDTOOut::getFirstName);
+        GETTERS.put("lastName", PilgrimDTOOut::getLastName);
+        GETTERS.put("fullName", PilgrimDTOOut::getFullName);
+        GETTERS.put("age", PilgrimDTOOut::getAge);
+        GETTERS.put("gender", PilgrimDTOOut::getGender);
+        GETTERS.put("nationality", PilgrimDTOOut::getNationality);
+        GETTERS.put("phoneNumber", PilgrimDTOOut::getPhoneNumber);
+        GETTERS.put("status", PilgrimDTOOut::getStatus);
+        GETTERS.put("hasSpecialNeeds", PilgrimDTOOut::getHasSpecialNeeds);
+        GETTERS.put("specialNeedsType", PilgrimDTOOut::getSpecialNeedsType);
+        GETTERS.put("specialNeedsNotes", PilgrimDTOOut::getSpecialNeedsNotes);
+        GETTERS.put("notes", PilgrimDTOOut::getNotes);
+        GETTERS.put("createdAt", PilgrimDTOOut::getCreatedAt);
+        GETTERS.put("updatedAt", PilgrimDTOOut::getUpdatedAt);
+        GETTERS.put("groupId", PilgrimDTOOut::getGroupId);
+        GETTERS.put("groupName", PilgrimDTOOut::getGroupName);
+        GETTERS.put("assignedBed", PilgrimDTOOut::getAssignedBed);
+        GETTERS.put("assignedHall", PilgrimDTOOut::getAssignedHall);
+    }
+
+    private PilgrimFields() {
+    }
+
+    /**
+     * Parses a comma separated field list. The id is always included so rows
+     * stay addressable; unknown names are rejected rather than ignored.
+     */
+    public static Set<String> parse(String fields) {
+        Set<String> requested = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!GETTERS.containsKey(name)) {
+                throw new ApiException("Unknown field: " + name);
+            }
+            requested.add(name);
+        }
+        requested.add("id");
+
+        // Keep declaration order so responses are stable regardless of how the list was written
+        Set<String> ordered = new LinkedHashSet<>();
+        for (String name : GETTERS.keySet()) {
+            if (requested.contains(name)) {
+                ordered.add(name);
+            }
+        }
+        return ordered;
+    }
+
+    public static void requireSortable(String property) {
+        if (!SORTABLE.contains(property)) {
+            throw new ApiException("sortBy must be one of " + String.join(", ", new TreeSet<>(SORTABLE)));
+        }
+    }
+
+    public static Map<String, Object> pick(PilgrimDTOOut dto, Set<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            row.put(field, GETTERS.get(field).apply(dto));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.wafd.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReconciliationStatusDTOOut {
+    private Boolean enabled;
+    private Integer chunkSize;
+    private Long pauseMs;
+    private Integer maxDutyPercent;
+    private Integer cursor; // last bed id checked in the current pass
+    private LocalDateTime passStartedAt;
+    private LocalDateTime lastPassFinishedAt;
+    // Totals since startup
+    private Long bedsScanned;
+    private Map<String, Long> mismatches;
+    private Map<String, Long> repairs;
+}
@@ -0,0 +1,22 @@
+package com.example.wafd.DTO;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScanDTOIn {
+    @NotEmpty(message = "Code is required")
+    private String code; // registration number or badge (national id) code
+
+    @Pattern(regexp = "^(check_in|check_out)$", message = "Action must be check_in or check_out")
+    private String action; // defaults to check_in
+
+    private LocalDateTime scannedAt; // set by kiosks replaying offline scans
+}
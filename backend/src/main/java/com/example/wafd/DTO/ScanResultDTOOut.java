@@ -0,0 +1,18 @@
+package com.example.wafd.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScanResultDTOOut {
+    private String code;
+    private String result; // checked_in | already_checked_in | checked_out | already_checked_out | no_bed | not_found | forbidden
+    private Integer pilgrimId;
+    private String pilgrimName;
+    private String pilgrimStatus;
+    private Integer bedId;
+    private String bedStatus;
+}
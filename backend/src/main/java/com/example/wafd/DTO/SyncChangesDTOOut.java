@@ -0,0 +1,29 @@
+package com.example.wafd.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncChangesDTOOut {
+    private String watermark; // opaque, send back as ?watermark= on the next call
+    private boolean hasMore;
+    private EntityChanges<PilgrimDTOOut> pilgrims;
+    private EntityChanges<BedDTOOut> beds;
+    private EntityChanges<BookingDTOOut> bookings;
+    private EntityChanges<TentDTOOut> tents;
+    private EntityChanges<AgencyDTO> agencies;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class EntityChanges<T> {
+        private List<T> upserted = new ArrayList<>();
+        private List<Integer> deleted = new ArrayList<>();
+    }
+}
@@ -21,6 +21,8 @@ public class TentDTOOut {
     private Integer currentOccupancy;
     private Integer availableBeds;
     private Integer specialNeedsOccupancy;
+    private Integer reservedBeds;
+    private Integer maintenanceBeds;
     private List<BedDTOOut> beds;
     private String numberingFormat;
     private BedNumberingConfig numberingConfig;
@@ -30,6 +32,14 @@ public class TentDTOOut {
     private String description;
 
     public static TentDTOOut fromEntity(Tent tent) {
+        return fromEntity(tent, true);
+    }
+
+    /**
+     * Occupancy comes from the tent's bed counters; the beds themselves are
+     * only read when {@code withBeds} is set.
+     */
+    public static TentDTOOut fromEntity(Tent tent, boolean withBeds) {
         TentDTOOut dto = new TentDTOOut();
         dto.setId(String.valueOf(tent.getId()));
 
@@ -41,29 +51,21 @@ public class TentDTOOut {
 
         dto.setCapacity(tent.getCapacity());
 
-        // Convert beds to DTOs and calculate occupancy
-        List<BedDTOOut> bedDTOs = new ArrayList<>();
-        int occupied = 0;
-        int specialNeeds = 0;
-
-        if (tent.getBeds() != null) {
-            for (var bed : tent.getBeds()) {
-                BedDTOOut bedDTO = BedDTOOut.fromEntity(bed);
-                bedDTOs.add(bedDTO);
-                String status = bedDTO.getStatus();
-                if ("occupied".equals(status)) {
-                    occupied++;
-                    if (bedDTO.getIsSpecialNeeds()) {
-                        specialNeeds++;
-                    }
+        if (withBeds) {
+            List<BedDTOOut> bedDTOs = new ArrayList<>();
+            if (tent.getBeds() != null) {
+                for (var bed : tent.getBeds()) {
+                    bedDTOs.add(BedDTOOut.fromEntity(bed));
                 }
             }
+            dto.setBeds(bedDTOs);
         }
 
-        dto.setBeds(bedDTOs);
-        dto.setCurrentOccupancy(occupied);
-        dto.setAvailableBeds(tent.getCapacity() - occupied);
-        dto.setSpecialNeedsOccupancy(specialNeeds);
+        dto.setCurrentOccupancy(tent.getOccupiedBeds());
+        dto.setAvailableBeds(tent.getCapacity() - tent.getOccupiedBeds());
+        dto.setSpecialNeedsOccupancy(tent.getSpecialNeedsBeds());
+        dto.setReservedBeds(tent.getReservedBeds());
+        dto.setMaintenanceBeds(tent.getMaintenanceBeds());
 
         // Set numbering format
         dto.setNumberingFormat("standard");
@@ -0,0 +1,25 @@
+package com.example.wafd.DTO;
+
+import com.example.wafd.Model.WaitlistEntry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WaitlistEntryDTOOut {
+    private Integer pilgrimId;
+    private Integer agencyId;
+    private String gender;
+    private Boolean specialNeeds;
+    private Integer age;
+    private LocalDateTime queuedAt;
+
+    public static WaitlistEntryDTOOut fromEntity(WaitlistEntry entry) {
+        return new WaitlistEntryDTOOut(entry.getPilgrimId(), entry.getAgencyId(), entry.getGender(),
+                entry.getSpecialNeeds(), entry.getAge(), entry.getQueuedAt());
+    }
+}
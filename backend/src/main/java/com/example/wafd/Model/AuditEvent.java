@@ -0,0 +1,55 @@
+package com.example.wafd.Model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * One write to a pilgrim, bed, booking, tent, agency or user. Rows are
+ * appended in batches by {@link com.example.wafd.Service.AuditService} and
+ * never updated; {@code changes} holds the changed fields as
+ * {@code {"field": [before, after]}}.
+ */
+@Getter
+@NoArgsConstructor
+@Immutable
+@Entity
+@Table(name = "audit_event", indexes = {
+        @Index(name = "IDX_audit_entity", columnList = "entity_type, entity_id, id"),
+        @Index(name = "IDX_audit_actor", columnList = "actor_id, id"),
+        @Index(name = "IDX_audit_agency", columnList = "agency_id, id"),
+        @Index(name = "IDX_audit_occurred", columnList = "occurred_at")
+})
+public class AuditEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "actor_id", columnDefinition = "int")
+    private Integer actorId; // null for scheduled jobs
+
+    @Column(name = "actor_email", columnDefinition = "varchar(100)")
+    private String actorEmail;
+
+    @Column(columnDefinition = "varchar(20) not null")
+    private String action; // create | update | delete
+
+    @Column(name = "entity_type", columnDefinition = "varchar(20) not null")
+    private String entityType; // pilgrim | bed | booking | tent | agency | user
+
+    @Column(name = "entity_id", columnDefinition = "int")
+    private Integer entityId;
+
+    @Column(name = "agency_id", columnDefinition = "int")
+    private Integer agencyId;
+
+    @Column(columnDefinition = "text")
+    private String changes;
+}
@@ -15,6 +15,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "IDX_bed_updated", columnList = "updated_at, id"),
+        @Index(name = "IDX_bed_tent_status", columnList = "tent_id, status")
+})
 public class Bed {
 
     @Id
@@ -0,0 +1,40 @@
+package com.example.wafd.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A time-limited reservation of one bed by an operator. While the row exists
+ * the bed is {@code Reserved}; it is removed when the hold is confirmed,
+ * released or expires.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "bed_hold", indexes = {
+        @Index(name = "IDX_bed_hold_expires", columnList = "expires_at")
+})
+public class BedHold {
+
+    @Id
+    @Column(name = "bed_id", columnDefinition = "int")
+    private Integer bedId;
+
+    @Column(name = "held_by", columnDefinition = "int not null")
+    private Integer heldBy;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -15,6 +15,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "IDX_booking_updated", columnList = "updated_at, id"),
+        @Index(name = "IDX_booking_status", columnList = "status, pilgrim_id")
+})
 public class Booking {
 
     @Id
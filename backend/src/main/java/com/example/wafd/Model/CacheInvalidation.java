@@ -0,0 +1,37 @@
+package com.example.wafd.Model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * One cache eviction on one instance, appended by
+ * {@link com.example.wafd.Service.CacheInvalidationService} so the other
+ * instances can evict the same cache. Rows are never updated and are purged
+ * after a retention period.
+ */
+@Getter
+@NoArgsConstructor
+@Immutable
+@Entity
+@Table(name = "cache_invalidation", indexes = {
+        @Index(name = "IDX_cache_invalidation_created", columnList = "created_at")
+})
+public class CacheInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cache_name", columnDefinition = "varchar(64) not null")
+    private String cacheName;
+
+    @Column(name = "origin", columnDefinition = "varchar(32) not null")
+    private String origin;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
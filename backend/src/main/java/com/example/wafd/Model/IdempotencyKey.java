@@ -0,0 +1,49 @@
+package com.example.wafd.Model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One user's {@code Idempotency-Key}, claimed by the request that runs first
+ * and holding its response once it finishes. Written and read through JDBC by
+ * {@link com.example.wafd.Util.IdempotencyStore}; the unique key is what makes
+ * a retry on another instance find the first attempt.
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "idempotency_key",
+        uniqueConstraints = @UniqueConstraint(name = "UK_idempotency_key_user_key",
+                columnNames = {"username", "idempotency_key"}),
+        indexes = @Index(name = "IDX_idempotency_key_created", columnList = "created_at"))
+public class IdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "username", columnDefinition = "varchar(255) not null")
+    private String username;
+
+    @Column(name = "idempotency_key", columnDefinition = "varchar(255) not null")
+    private String idempotencyKey;
+
+    // SHA-256 of the request, so a key reused for another request is rejected
+    @Column(name = "fingerprint", columnDefinition = "binary(32) not null")
+    private byte[] fingerprint;
+
+    @Column(name = "status", columnDefinition = "int")
+    private Integer status; // null while the first attempt runs
+
+    @Column(name = "content_type", columnDefinition = "varchar(255)")
+    private String contentType;
+
+    @Column(name = "body", columnDefinition = "mediumblob")
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
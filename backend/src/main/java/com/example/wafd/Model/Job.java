@@ -0,0 +1,75 @@
+package com.example.wafd.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A long-running operation run in batches by
+ * {@link com.example.wafd.Service.JobService}. {@code checkpoint} is written
+ * in the same transaction as each batch, so a job picked up again after a
+ * restart continues after its last committed batch.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "job", indexes = {
+        @Index(name = "IDX_job_status", columnList = "status, id")
+})
+public class Job {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "type", columnDefinition = "varchar(50) not null")
+    private String type;
+
+    @Column(name = "status", columnDefinition = "varchar(20) not null")
+    private String status; // queued | running | succeeded | failed | cancelled
+
+    @Column(name = "params", columnDefinition = "text")
+    private String params; // JSON
+
+    @Column(name = "checkpoint", columnDefinition = "varchar(255)")
+    private String checkpoint;
+
+    @Column(name = "processed", nullable = false)
+    private Integer processed;
+
+    @Column(name = "total", columnDefinition = "int")
+    private Integer total;
+
+    @Column(name = "message", columnDefinition = "varchar(500)")
+    private String message;
+
+    @Column(name = "cancel_requested", nullable = false)
+    private Boolean cancelRequested;
+
+    // Instance running the job, so a job taken over after a stall cannot be advanced twice
+    @Column(name = "owner", columnDefinition = "varchar(32)")
+    private String owner;
+
+    @Column(name = "created_by", columnDefinition = "int")
+    private Integer createdBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
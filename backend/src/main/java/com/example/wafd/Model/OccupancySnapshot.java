@@ -0,0 +1,46 @@
+package com.example.wafd.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "occupancy_snapshot",
+        uniqueConstraints = @UniqueConstraint(name = "UK_occupancy_series_bucket",
+                columnNames = {"scope", "scope_id", "resolution", "bucket_start"}),
+        indexes = @Index(name = "IDX_occupancy_resolution_bucket", columnList = "resolution, bucket_start"))
+public class OccupancySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "scope", columnDefinition = "varchar(10) not null")
+    private String scope; // tent | agency
+
+    @Column(name = "scope_id", columnDefinition = "int not null")
+    private Integer scopeId;
+
+    @Column(name = "resolution", columnDefinition = "varchar(10) not null")
+    private String resolution; // minute | hour | day
+
+    @Column(name = "bucket_start", columnDefinition = "datetime not null")
+    private LocalDateTime bucketStart;
+
+    @Column(name = "occupied", columnDefinition = "int not null")
+    private Integer occupied;
+
+    @Column(name = "peak_occupied", columnDefinition = "int not null")
+    private Integer peakOccupied;
+
+    @Column(name = "capacity", columnDefinition = "int not null")
+    private Integer capacity;
+}
@@ -16,6 +16,17 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "IDX_pilgrim_updated", columnList = "updated_at, id"),
+        @Index(name = "IDX_pilgrim_agency_updated", columnList = "agency_id, updated_at, id"),
+        @Index(name = "IDX_pilgrim_agency_status", columnList = "agency_id, status"),
+        @Index(name = "IDX_pilgrim_status", columnList = "status"),
+        @Index(name = "IDX_pilgrim_gender", columnList = "gender"),
+        @Index(name = "IDX_pilgrim_nationality", columnList = "nationality"),
+        @Index(name = "IDX_pilgrim_created", columnList = "created_at"),
+        @Index(name = "IDX_pilgrim_agency_created", columnList = "agency_id, created_at"),
+        @Index(name = "IDX_pilgrim_last_name", columnList = "last_name, first_name")
+})
 public class Pilgrim {
 
     @Id
@@ -0,0 +1,50 @@
+package com.example.wafd.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A refresh token issued to a login session, keyed by the token's jti. Rotation
+ * revokes the presented token and records its successor.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "IDX_refresh_token_user", columnList = "user_id, expires_at"),
+        @Index(name = "IDX_refresh_token_session", columnList = "session_id"),
+        @Index(name = "IDX_refresh_token_expires", columnList = "expires_at")
+})
+public class RefreshToken {
+
+    @Id
+    @Column(columnDefinition = "varchar(36)")
+    private String id;
+
+    @Column(name = "user_id", columnDefinition = "int not null")
+    private Integer userId;
+
+    @Column(name = "session_id", columnDefinition = "varchar(36) not null")
+    private String sessionId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+
+    @Column(name = "replaced_by", columnDefinition = "varchar(36)")
+    private String replacedBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,38 @@
+package com.example.wafd.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A logged-out session. Access tokens carry their session id, so one row
+ * rejects all of them; it is kept until the last of those tokens has expired.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "revoked_session", indexes = {
+        @Index(name = "IDX_revoked_session_revoked", columnList = "revoked_at"),
+        @Index(name = "IDX_revoked_session_expires", columnList = "expires_at")
+})
+public class RevokedSession {
+
+    @Id
+    @Column(name = "session_id", columnDefinition = "varchar(36)")
+    private String sessionId;
+
+    @Column(name = "user_id", columnDefinition = "int not null")
+    private Integer userId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,30 @@
+package com.example.wafd.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The last bucket (minute, hour, day) a scheduled task ran for. Every
+ * instance schedules the task, and the one that moves {@code lastBucket}
+ * forward runs it for that bucket.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "scheduled_run")
+public class ScheduledRun {
+
+    @Id
+    @Column(name = "name", columnDefinition = "varchar(64)")
+    private String name;
+
+    @Column(name = "last_bucket", nullable = false)
+    private LocalDateTime lastBucket;
+}
@@ -0,0 +1,43 @@
+package com.example.wafd.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "sync_tombstone", indexes = {
+        @Index(name = "IDX_tombstone_deleted", columnList = "deleted_at, id"),
+        @Index(name = "IDX_tombstone_agency_deleted", columnList = "agency_id, deleted_at, id")
+})
+public class SyncTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entity_type", columnDefinition = "varchar(20) not null")
+    private String entityType; // pilgrims | beds | bookings | tents | agencies
+
+    @Column(name = "entity_id", columnDefinition = "int not null")
+    private Integer entityId;
+
+    @Column(name = "agency_id", columnDefinition = "int")
+    private Integer agencyId; // null when the record was visible to every group
+
+    // Only for the supervisors of agencyId, the record is not gone for everyone else
+    @Column(name = "agency_only", nullable = false)
+    private Boolean agencyOnly;
+
+    @CreationTimestamp
+    @Column(name = "deleted_at", updatable = false)
+    private LocalDateTime deletedAt;
+}
@@ -18,6 +18,9 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "IDX_tent_updated", columnList = "updated_at, id")
+})
 public class Tent {
 
     @Id
@@ -53,6 +56,20 @@ public class Tent {
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "tent")
     private Set<Bed> beds;
 
+    // Bed counters, moved only by TentCounterService's relative updates so a
+    // save of this entity can never write back a stale count
+    @Column(name = "occupied_beds", nullable = false, updatable = false)
+    private Integer occupiedBeds = 0;
+
+    @Column(name = "reserved_beds", nullable = false, updatable = false)
+    private Integer reservedBeds = 0;
+
+    @Column(name = "maintenance_beds", nullable = false, updatable = false)
+    private Integer maintenanceBeds = 0;
+
+    @Column(name = "special_needs_beds", nullable = false, updatable = false)
+    private Integer specialNeedsBeds = 0;
+
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime created_at;
@@ -0,0 +1,47 @@
+package com.example.wafd.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pilgrim waiting for a bed in their agency's tents. The priority fields are
+ * copied from the pilgrim when queued so the priority index alone can answer
+ * "who is next" for an agency and gender.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "waitlist_entry", indexes = {
+        @Index(name = "IDX_waitlist_priority", columnList = "agency_id, gender, special_needs desc, age desc, queued_at, id")
+})
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "pilgrim_id", columnDefinition = "int not null unique")
+    private Integer pilgrimId;
+
+    @Column(name = "agency_id", columnDefinition = "int not null")
+    private Integer agencyId;
+
+    @Column(name = "gender", columnDefinition = "varchar(10) not null")
+    private String gender; // male | female
+
+    @Column(name = "special_needs", nullable = false)
+    private Boolean specialNeeds;
+
+    @Column(name = "age", columnDefinition = "int not null")
+    private Integer age;
+
+    @Column(name = "queued_at", nullable = false)
+    private LocalDateTime queuedAt;
+}
@@ -1,10 +1,31 @@
 package com.example.wafd.Repository;
 
 import com.example.wafd.Model.Agency;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface AgencyRepository extends JpaRepository<Agency, Integer> {
+    // Served from the second-level cache; Hibernate drops the result when the agency table is written
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Agency findAgencyById(Integer id);
+
+    // agencyId, max pilgrims
+    @Query("SELECT a.id, a.max_pilgrim FROM Agency a")
+    List<Object[]> findCapacities();
+
+    // Delta sync: keyset over (updated_at, id)
+    @Query("SELECT a FROM Agency a " +
+           "WHERE a.updated_at > :ts OR (a.updated_at = :ts AND a.id > :id) " +
+           "ORDER BY a.updated_at, a.id")
+    List<Agency> findChangedSince(@Param("ts") LocalDateTime ts, @Param("id") Integer id, Pageable pageable);
 }
@@ -0,0 +1,34 @@
+package com.example.wafd.Repository;
+
+import com.example.wafd.Model.BedHold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BedHoldRepository extends JpaRepository<BedHold, Integer> {
+
+    // Serializes confirm, release and expiry of the same hold
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM BedHold h WHERE h.bedId = :bedId")
+    BedHold findForUpdate(@Param("bedId") Integer bedId);
+
+    @Query("SELECT h.bedId FROM BedHold h WHERE h.bedId IN :bedIds AND h.expiresAt <= :now")
+    List<Integer> findExpiredBedIds(@Param("bedIds") Collection<Integer> bedIds, @Param("now") LocalDateTime now);
+
+    @Query("SELECT h.bedId FROM BedHold h WHERE h.expiresAt <= :now ORDER BY h.expiresAt")
+    List<Integer> findExpiredBedIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM BedHold h WHERE h.bedId IN :bedIds")
+    int deleteByBedIds(@Param("bedIds") Collection<Integer> bedIds);
+}
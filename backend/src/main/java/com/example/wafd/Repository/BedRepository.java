@@ -1,15 +1,107 @@
 package com.example.wafd.Repository;
 
 import com.example.wafd.Model.Bed;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface BedRepository extends JpaRepository<Bed, Integer> {
     Bed findBedById(Integer id);
 
     @Query("SELECT b FROM Bed b LEFT JOIN FETCH b.tent WHERE b.id = :id")
     Bed findBedByIdWithTent(@Param("id") Integer id);
+
+    // Conditional status flips so two operators can never hold the same bed
+    @Modifying
+    @Query("UPDATE Bed b SET b.status = 'Reserved', b.updated_at = :now WHERE b.id = :id AND b.status = 'Available'")
+    int reserveIfAvailable(@Param("id") Integer id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Bed b SET b.status = 'Available', b.updated_at = :now WHERE b.id IN :ids AND b.status = 'Reserved'")
+    int releaseReserved(@Param("ids") Collection<Integer> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Bed b SET b.status = :to, b.updated_at = :now WHERE b.id IN :ids AND b.status = :from")
+    int updateStatus(@Param("ids") Collection<Integer> ids, @Param("from") String from, @Param("to") String to, @Param("now") LocalDateTime now);
+
+    // Reconciliation: bedId, bed status, bookingId, booking status; keyset over id
+    @Query("SELECT b.id, b.status, bk.id, bk.status FROM Bed b LEFT JOIN b.booking bk " +
+           "WHERE b.id > :afterId ORDER BY b.id")
+    List<Object[]> findBookingStates(@Param("afterId") Integer afterId, Pageable pageable);
+
+    // Streamed listing: keyset over id
+    @Query("SELECT b FROM Bed b " +
+           "LEFT JOIN FETCH b.tent " +
+           "LEFT JOIN FETCH b.booking bk " +
+           "LEFT JOIN FETCH bk.pilgrim p " +
+           "LEFT JOIN FETCH p.agency " +
+           "WHERE b.id > :afterId ORDER BY b.id")
+    List<Bed> findPageAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.id, b.status, bk.id, bk.status FROM Bed b LEFT JOIN b.booking bk WHERE b.id IN :ids")
+    List<Object[]> lockBookingStates(@Param("ids") Collection<Integer> ids);
+
+    // tentId, bed status, whether the bed's pilgrim has special needs; taken before a bulk status change
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.tent.id, b.status, p.hasSpecialNeeds FROM Bed b " +
+           "LEFT JOIN b.booking bk LEFT JOIN bk.pilgrim p WHERE b.id IN :ids")
+    List<Object[]> lockCounterStates(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT b.id FROM Bed b WHERE b.tent.id = :tentId ORDER BY b.id")
+    List<Integer> findIdsByTentId(@Param("tentId") Integer tentId);
+
+    @Query("SELECT b FROM Bed b WHERE b.tent.id = :tentId AND b.status = 'Available' ORDER BY b.id")
+    List<Bed> findAvailableInTent(@Param("tentId") Integer tentId, Pageable pageable);
+
+    // tentId, total beds, occupied beds
+    @Query("SELECT b.tent.id, COUNT(b), SUM(CASE WHEN b.status IN ('Booked', 'Checked_in') THEN 1 ELSE 0 END) " +
+           "FROM Bed b WHERE b.tent IS NOT NULL GROUP BY b.tent.id")
+    List<Object[]> countOccupancyByTent();
+
+    // status, beds; with an agencyId, only tents holding pilgrims of that agency
+    @Query("SELECT b.status, COUNT(b) FROM Bed b WHERE :agencyId IS NULL OR EXISTS (SELECT 1 FROM Bed bd " +
+           "  LEFT JOIN bd.booking bd_bk " +
+           "  WHERE bd.tent = b.tent AND bd_bk.pilgrim.agency.id = :agencyId) " +
+           "GROUP BY b.status")
+    List<Object[]> countGroupedByStatus(@Param("agencyId") Integer agencyId);
+
+    // Batch read; with an agencyId, only beds in tents holding pilgrims of that agency
+    @Query("SELECT b FROM Bed b " +
+           "LEFT JOIN FETCH b.tent t " +
+           "LEFT JOIN FETCH b.booking bk " +
+           "LEFT JOIN FETCH bk.pilgrim " +
+           "WHERE b.id IN :ids AND (:agencyId IS NULL OR EXISTS (SELECT 1 FROM Bed bd " +
+           "  LEFT JOIN bd.booking bd_bk " +
+           "  WHERE bd.tent = b.tent AND bd_bk.pilgrim.agency.id = :agencyId))")
+    List<Bed> findByIdsWithDetails(@Param("ids") Collection<Integer> ids, @Param("agencyId") Integer agencyId);
+
+    // Delta sync: keyset over (updated_at, id)
+    @Query("SELECT b FROM Bed b " +
+           "LEFT JOIN FETCH b.tent t " +
+           "LEFT JOIN FETCH b.booking bk " +
+           "LEFT JOIN FETCH bk.pilgrim " +
+           "WHERE b.updated_at > :ts OR (b.updated_at = :ts AND b.id > :id) " +
+           "ORDER BY b.updated_at, b.id")
+    List<Bed> findChangedSince(@Param("ts") LocalDateTime ts, @Param("id") Integer id, Pageable pageable);
+
+    @Query("SELECT b FROM Bed b " +
+           "LEFT JOIN FETCH b.tent t " +
+           "LEFT JOIN FETCH b.booking bk " +
+           "LEFT JOIN FETCH bk.pilgrim " +
+           "WHERE (b.updated_at > :ts OR (b.updated_at = :ts AND b.id > :id)) " +
+           "AND EXISTS (SELECT 1 FROM Bed bd LEFT JOIN bd.booking bd_bk " +
+           "  WHERE bd.tent = b.tent AND bd_bk.pilgrim.agency.id = :agencyId) " +
+           "ORDER BY b.updated_at, b.id")
+    List<Bed> findChangedSinceForAgency(@Param("agencyId") Integer agencyId, @Param("ts") LocalDateTime ts, @Param("id") Integer id, Pageable pageable);
 }
@@ -1,10 +1,58 @@
 package com.example.wafd.Repository;
 
 import com.example.wafd.Model.Booking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Integer> {
     Booking findBookingById(Integer id);
+
+    // Frees UK_booking_bed for bookings that were cancelled but left on their bed
+    @Modifying
+    @Query("UPDATE Booking bk SET bk.bed = NULL, bk.updated_at = :now WHERE bk.id IN :ids AND bk.status <> 'Booked'")
+    int detachInactive(@Param("ids") Collection<Integer> ids, @Param("now") LocalDateTime now);
+
+    // agencyId, active bookings
+    @Query("SELECT p.agency.id, COUNT(bk) FROM Booking bk JOIN bk.pilgrim p " +
+           "WHERE bk.status = 'Booked' AND p.agency IS NOT NULL GROUP BY p.agency.id")
+    List<Object[]> countActiveBookingsByAgency();
+
+    // status, bookings; a null agencyId counts all agencies
+    @Query("SELECT bk.status, COUNT(bk) FROM Booking bk LEFT JOIN bk.pilgrim p " +
+           "WHERE :agencyId IS NULL OR p.agency.id = :agencyId GROUP BY bk.status")
+    List<Object[]> countGroupedByStatus(@Param("agencyId") Integer agencyId);
+
+    // Streamed listing: keyset over id
+    @Query("SELECT bk FROM Booking bk " +
+           "LEFT JOIN FETCH bk.pilgrim p " +
+           "LEFT JOIN FETCH p.agency " +
+           "LEFT JOIN FETCH bk.bed bd " +
+           "LEFT JOIN FETCH bd.tent " +
+           "WHERE bk.id > :afterId ORDER BY bk.id")
+    List<Booking> findPageAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    // Delta sync: keyset over (updated_at, id)
+    @Query("SELECT bk FROM Booking bk " +
+           "LEFT JOIN FETCH bk.pilgrim p " +
+           "LEFT JOIN FETCH bk.bed " +
+           "WHERE bk.updated_at > :ts OR (bk.updated_at = :ts AND bk.id > :id) " +
+           "ORDER BY bk.updated_at, bk.id")
+    List<Booking> findChangedSince(@Param("ts") LocalDateTime ts, @Param("id") Integer id, Pageable pageable);
+
+    @Query("SELECT bk FROM Booking bk " +
+           "LEFT JOIN FETCH bk.pilgrim p " +
+           "LEFT JOIN FETCH bk.bed " +
+           "WHERE p.agency.id = :agencyId " +
+           "AND (bk.updated_at > :ts OR (bk.updated_at = :ts AND bk.id > :id)) " +
+           "ORDER BY bk.updated_at, bk.id")
+    List<Booking> findChangedSinceForAgency(@Param("agencyId") Integer agencyId, @Param("ts") LocalDateTime ts, @Param("id") Integer id, Pageable pageable);
 }
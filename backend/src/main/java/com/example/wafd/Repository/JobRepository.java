@@ -0,0 +1,72 @@
+package com.example.wafd.Repository;
+
+import com.example.wafd.Model.Job;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface JobRepository extends JpaRepository<Job, Integer> {
+
+    Job findJobById(Integer id);
+
+    List<Job> findAllByOrderByIdDesc(Pageable pageable);
+
+    @Query("SELECT j.id FROM Job j WHERE j.status = 'queued' ORDER BY j.id")
+    List<Integer> findQueuedIds(Pageable pageable);
+
+    // Only one instance wins a queued job
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.status = 'running', j.owner = :owner, j.startedAt = COALESCE(j.startedAt, :now), " +
+            "j.heartbeatAt = :now WHERE j.id = :id AND j.status = 'queued'")
+    int claim(@Param("id") Integer id, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    // Runs in the batch's transaction; 0 rows means the job was taken over and the batch must roll back
+    @Modifying
+    @Query("UPDATE Job j SET j.checkpoint = :checkpoint, j.processed = j.processed + :processed, j.heartbeatAt = :now " +
+            "WHERE j.id = :id AND j.status = 'running' AND j.owner = :owner")
+    int saveProgress(@Param("id") Integer id, @Param("owner") String owner, @Param("checkpoint") String checkpoint,
+                     @Param("processed") int processed, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.status = :status, j.message = :message, j.owner = NULL, j.finishedAt = :now " +
+            "WHERE j.id = :id AND j.status = 'running' AND j.owner = :owner")
+    int finish(@Param("id") Integer id, @Param("owner") String owner, @Param("status") String status,
+               @Param("message") String message, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.status = 'queued', j.owner = NULL WHERE j.id = :id AND j.status = 'running' AND j.owner = :owner")
+    int requeue(@Param("id") Integer id, @Param("owner") String owner);
+
+    // Jobs whose instance stopped sending heartbeats, e.g. after a crash
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.status = 'queued', j.owner = NULL WHERE j.status = 'running' AND j.heartbeatAt < :before")
+    int requeueStale(@Param("before") LocalDateTime before);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.status = 'cancelled', j.finishedAt = :now WHERE j.id = :id AND j.status = 'queued'")
+    int cancelQueued(@Param("id") Integer id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.cancelRequested = true WHERE j.id = :id AND j.status = 'running'")
+    int requestCancel(@Param("id") Integer id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.status = 'queued', j.cancelRequested = false, j.message = NULL, j.finishedAt = NULL " +
+            "WHERE j.id = :id AND j.status IN ('failed', 'cancelled')")
+    int restart(@Param("id") Integer id);
+}
@@ -0,0 +1,48 @@
+package com.example.wafd.Repository;
+
+import com.example.wafd.Model.OccupancySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OccupancySnapshotRepository extends JpaRepository<OccupancySnapshot, Long> {
+
+    // Served straight from the (scope, scope_id, resolution, bucket_start) unique index
+    @Query("SELECT s FROM OccupancySnapshot s " +
+           "WHERE s.scope = :scope AND s.scopeId = :scopeId AND s.resolution = :resolution " +
+           "AND s.bucketStart >= :from AND s.bucketStart < :to " +
+           "ORDER BY s.bucketStart")
+    List<OccupancySnapshot> findSeries(@Param("scope") String scope,
+                                       @Param("scopeId") Integer scopeId,
+                                       @Param("resolution") String resolution,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+
+    @Query("SELECT s.scope, s.scopeId, AVG(s.occupied), MAX(s.peakOccupied), MAX(s.capacity) " +
+           "FROM OccupancySnapshot s " +
+           "WHERE s.resolution = :resolution AND s.bucketStart >= :from AND s.bucketStart < :to " +
+           "GROUP BY s.scope, s.scopeId")
+    List<Object[]> aggregate(@Param("resolution") String resolution,
+                             @Param("from") LocalDateTime from,
+                             @Param("to") LocalDateTime to);
+
+    @Query("SELECT MIN(s.bucketStart) FROM OccupancySnapshot s WHERE s.resolution = :resolution")
+    LocalDateTime findEarliestBucket(@Param("resolution") String resolution);
+
+    @Query("SELECT MAX(s.bucketStart) FROM OccupancySnapshot s WHERE s.resolution = :resolution")
+    LocalDateTime findLatestBucket(@Param("resolution") String resolution);
+
+    @Modifying
+    @Query("DELETE FROM OccupancySnapshot s WHERE s.resolution = :resolution AND s.bucketStart = :bucketStart")
+    int deleteBucket(@Param("resolution") String resolution, @Param("bucketStart") LocalDateTime bucketStart);
+
+    @Modifying
+    @Query("DELETE FROM OccupancySnapshot s WHERE s.resolution = :resolution AND s.bucketStart < :before")
+    int deleteOlderThan(@Param("resolution") String resolution, @Param("before") LocalDateTime before);
+}
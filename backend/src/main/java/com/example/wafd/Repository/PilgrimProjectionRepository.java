@@ -0,0 +1,20 @@
+package com.example.wafd.Repository;
+
+import com.example.wafd.Model.Pilgrim;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Column-level projections for the pilgrim list and detail views. Only the
+ * columns and joins needed for the requested {@code PilgrimDTOOut} fields are
+ * selected; the returned pilgrims are detached and only partially populated.
+ */
+public interface PilgrimProjectionRepository {
+
+    Page<Pilgrim> findProjected(Set<String> fields, Integer agencyId, Pageable pageable);
+
+    Optional<Pilgrim> findProjectedById(Set<String> fields, Integer id);
+}
@@ -0,0 +1,204 @@
+package com.example.wafd.Repository;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.DTO.PilgrimFields;
+import com.example.wafd.Model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+public class PilgrimProjectionRepositoryImpl implements PilgrimProjectionRepository {
+
+    private static final String JOIN_AGENCY = "LEFT JOIN p.agency a ";
+    private static final String JOIN_BED = "LEFT JOIN p.booking b LEFT JOIN b.bed bed ";
+    private static final String JOIN_TENT = "LEFT JOIN bed.tent t ";
+
+    private record Column(String expression, String join, BiConsumer<Row, Object> setter) { }
+
+    private static final Map<String, Column> COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, List<String>> FIELD_COLUMNS = new HashMap<>();
+
+    // Every field a projection can select; which of them can be sorted on is PilgrimFields.SORTABLE
+    static {
+        column("id", "p.id", null, (r, v) -> r.pilgrim.setId((Integer) v));
+        column("registrationNumber", "p.registrationNumber", null, (r, v) -> r.pilgrim.setRegistrationNumber((String) v));
+        column("nationalId", "p.nationalId", null, (r, v) -> r.pilgrim.setNationalId((String) v));
+        column("passportNumber", "p.passportNumber", null, (r, v) -> r.pilgrim.setPassportNumber((String) v));
+        column("firstName", "p.firstName", null, (r, v) -> r.pilgrim.setFirstName((String) v));
+        column("lastName", "p.lastName", null, (r, v) -> r.pilgrim.setLastName((String) v));
+        column("age", "p.age", null, (r, v) -> r.pilgrim.setAge((Integer) v));
+        column("gender", "p.gender", null, (r, v) -> r.pilgrim.setGender((String) v));
+        column("nationality", "p.nationality", null, (r, v) -> r.pilgrim.setNationality((String) v));
+        column("phoneNumber", "p.phoneNumber", null, (r, v) -> r.pilgrim.setPhoneNumber((String) v));
+        column("status", "p.status", null, (r, v) -> r.pilgrim.setStatus((String) v));
+        column("hasSpecialNeeds", "p.hasSpecialNeeds", null, (r, v) -> r.pilgrim.setHasSpecialNeeds((Boolean) v));
+        column("specialNeedsType", "p.specialNeedsType", null, (r, v) -> r.pilgrim.setSpecialNeedsType((String) v));
+        column("specialNeedsNotes", "p.specialNeedsNotes", null, (r, v) -> r.pilgrim.setSpecialNeedsNotes((String) v));
+        column("notes", "p.notes", null, (r, v) -> r.pilgrim.setNotes((String) v));
+        column("createdAt", "p.createdAt", null, (r, v) -> r.pilgrim.setCreatedAt((LocalDateTime) v));
+        column("updatedAt", "p.updatedAt", null, (r, v) -> r.pilgrim.setUpdatedAt((LocalDateTime) v));
+        // The agency id is read from the foreign key, so groupId alone needs no join
+        column("agencyId", "p.agency.id", null, (r, v) -> r.agency().setId((Integer) v));
+        column("agencyName", "a.name", JOIN_AGENCY, (r, v) -> r.agency().setName((String) v));
+        column("bookingStatus", "b.status", JOIN_BED, (r, v) -> r.booking().setStatus((String) v));
+        column("bedId", "bed.id", JOIN_BED, (r, v) -> r.bed().setId((Integer) v));
+        column("tentId", "t.id", JOIN_TENT, (r, v) -> r.tent().setId((Integer) v));
+        column("tentName", "t.name", JOIN_TENT, (r, v) -> r.tent().setName((String) v));
+        column("tentCode", "t.code", JOIN_TENT, (r, v) -> r.tent().setCode((String) v));
+
+        for (String field : COLUMNS.keySet()) {
+            FIELD_COLUMNS.put(field, List.of(field));
+        }
+        FIELD_COLUMNS.put("fullName", List.of("firstName", "lastName"));
+        FIELD_COLUMNS.put("groupId", List.of("agencyId"));
+        FIELD_COLUMNS.put("groupName", List.of("agencyId", "agencyName"));
+        FIELD_COLUMNS.put("assignedBed", List.of("bookingStatus", "bedId"));
+        FIELD_COLUMNS.put("assignedHall", List.of("bookingStatus", "bedId", "tentId", "tentName", "tentCode"));
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Pilgrim> findProjected(Set<String> fields, Integer agencyId, Pageable pageable) {
+        List<Column> columns = columnsFor(fields);
+        String where = agencyId != null ? "WHERE p.agency.id = :agencyId " : "";
+
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                select(columns) + "FROM Pilgrim p " + joins(columns) + where + orderBy(pageable.getSort()), Tuple.class);
+        TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(p) FROM Pilgrim p " + where, Long.class);
+        if (agencyId != null) {
+            query.setParameter("agencyId", agencyId);
+            count.setParameter("agencyId", agencyId);
+        }
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Pilgrim> content = query.getResultList().stream()
+                .map(tuple -> toPilgrim(tuple, columns))
+                .toList();
+        long total = pageable.isPaged() ? count.getSingleResult() : content.size();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public Optional<Pilgrim> findProjectedById(Set<String> fields, Integer id) {
+        List<Column> columns = columnsFor(fields);
+        return entityManager.createQuery(select(columns) + "FROM Pilgrim p " + joins(columns) + "WHERE p.id = :id", Tuple.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst()
+                .map(tuple -> toPilgrim(tuple, columns));
+    }
+
+    private static List<Column> columnsFor(Set<String> fields) {
+        Set<String> names = new LinkedHashSet<>();
+        names.add("id");
+        for (String field : fields) {
+            List<String> mapped = FIELD_COLUMNS.get(field);
+            if (mapped == null) {
+                throw new ApiException("Unknown field: " + field);
+            }
+            names.addAll(mapped);
+        }
+        return names.stream().map(COLUMNS::get).toList();
+    }
+
+    private static String select(List<Column> columns) {
+        StringJoiner select = new StringJoiner(", ", "SELECT ", " ");
+        columns.forEach(column -> select.add(column.expression()));
+        return select.toString();
+    }
+
+    private static String joins(List<Column> columns) {
+        Set<String> joins = new LinkedHashSet<>();
+        for (Column column : columns) {
+            if (JOIN_TENT.equals(column.join())) {
+                joins.add(JOIN_BED);
+            }
+            if (column.join() != null) {
+                joins.add(column.join());
+            }
+        }
+        return String.join("", joins);
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "ORDER BY p.id DESC";
+        }
+        StringJoiner orderBy = new StringJoiner(", ", "ORDER BY ", "");
+        boolean byId = false;
+        for (Sort.Order order : sort) {
+            PilgrimFields.requireSortable(order.getProperty());
+            orderBy.add("p." + order.getProperty() + (order.isAscending() ? " ASC" : " DESC"));
+            byId |= "id".equals(order.getProperty());
+        }
+        // Ties on a non-unique key (status, lastName) would otherwise repeat or skip rows across pages
+        if (!byId) {
+            orderBy.add("p.id");
+        }
+        return orderBy.toString();
+    }
+
+    private static Pilgrim toPilgrim(Tuple tuple, List<Column> columns) {
+        Row row = new Row();
+        for (int i = 0; i < columns.size(); i++) {
+            Object value = tuple.get(i);
+            if (value != null) {
+                columns.get(i).setter().accept(row, value);
+            }
+        }
+        return row.pilgrim;
+    }
+
+    private static void column(String name, String expression, String join, BiConsumer<Row, Object> setter) {
+        COLUMNS.put(name, new Column(expression, join, setter));
+    }
+
+    /** Assembles a detached pilgrim graph, creating associations only when a value arrives for them. */
+    private static final class Row {
+        private final Pilgrim pilgrim = new Pilgrim();
+
+        Agency agency() {
+            if (pilgrim.getAgency() == null) {
+                pilgrim.setAgency(new Agency());
+            }
+            return pilgrim.getAgency();
+        }
+
+        Booking booking() {
+            if (pilgrim.getBooking() == null) {
+                Booking booking = new Booking();
+                booking.setPilgrim(pilgrim);
+                pilgrim.setBooking(booking);
+            }
+            return pilgrim.getBooking();
+        }
+
+        Bed bed() {
+            if (booking().getBed() == null) {
+                booking().setBed(new Bed());
+            }
+            return booking().getBed();
+        }
+
+        Tent tent() {
+            if (bed().getTent() == null) {
+                bed().setTent(new Tent());
+            }
+            return bed().getTent();
+        }
+    }
+}
@@ -8,11 +8,14 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PilgrimRepository extends JpaRepository<Pilgrim, Integer> {
+public interface PilgrimRepository extends JpaRepository<Pilgrim, Integer>, PilgrimProjectionRepository,
+        PilgrimStatisticsRepository {
     Pilgrim findPilgrimById(Integer id);
 
     Optional<Pilgrim> findByNationalId(String nationalId);
@@ -32,9 +35,17 @@ public interface PilgrimRepository extends JpaRepository<Pilgrim, Integer> {
     @Query("SELECT p.nationality, COUNT(p) FROM Pilgrim p GROUP BY p.nationality")
     List<Object[]> countByNationality();
 
-    @Query(value = "SELECT CASE\n            WHEN p.age < 30 THEN '18-29'\n            WHEN p.age < 50 THEN '30-49'\n            WHEN p.age < 70 THEN '50-69'\n            ELSE '70+'\n        END AS age_group, COUNT(*)\n        FROM pilgrim p\n        GROUP BY age_group", nativeQuery = true)
+    @Query("SELECT " + AGE_GROUP + ", COUNT(p) FROM Pilgrim p WHERE p.age > 0 GROUP BY " + AGE_GROUP)
     List<Object[]> countByAgeGroup();
 
+    @Query("SELECT p.id FROM Pilgrim p LEFT JOIN p.booking b " +
+           "WHERE p.agency.id = :agencyId AND p.id > :afterId AND (b IS NULL OR b.status <> 'Booked') ORDER BY p.id")
+    List<Integer> findUnbookedIdsByAgencyId(@Param("agencyId") Integer agencyId, @Param("afterId") Integer afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Pilgrim p LEFT JOIN p.booking b " +
+           "WHERE p.agency.id = :agencyId AND (b IS NULL OR b.status <> 'Booked')")
+    long countUnbookedByAgencyId(@Param("agencyId") Integer agencyId);
+
     // Optimized query with JOIN FETCH to avoid N+1 problem
     @Query("SELECT DISTINCT p FROM Pilgrim p " +
            "LEFT JOIN FETCH p.agency a " +
@@ -58,6 +69,15 @@ public interface PilgrimRepository extends JpaRepository<Pilgrim, Integer> {
            "WHERE p.id = :id")
     Optional<Pilgrim> findByIdWithDetails(@Param("id") Integer id);
 
+    // Batch read: same graph as findByIdWithDetails, plus the tent
+    @Query("SELECT p FROM Pilgrim p " +
+           "LEFT JOIN FETCH p.agency a " +
+           "LEFT JOIN FETCH p.booking b " +
+           "LEFT JOIN FETCH b.bed bed " +
+           "LEFT JOIN FETCH bed.tent " +
+           "WHERE p.id IN :ids")
+    List<Pilgrim> findByIdsWithDetails(@Param("ids") Collection<Integer> ids);
+
     // Optimized single pilgrim fetch by ID (non-Optional version)
     @Query("SELECT p FROM Pilgrim p " +
            "LEFT JOIN FETCH p.agency a " +
@@ -72,6 +92,15 @@ public interface PilgrimRepository extends JpaRepository<Pilgrim, Integer> {
            "WHERE p.agency.id = :agencyId")
     List<Pilgrim> findByAgencyId(@Param("agencyId") Integer agencyId);
 
+    // Streamed listing of one agency: keyset over id
+    @Query("SELECT p FROM Pilgrim p " +
+           "LEFT JOIN FETCH p.agency " +
+           "LEFT JOIN FETCH p.booking b " +
+           "LEFT JOIN FETCH b.bed bed " +
+           "LEFT JOIN FETCH bed.tent " +
+           "WHERE p.agency.id = :agencyId AND p.id > :afterId ORDER BY p.id")
+    List<Pilgrim> findByAgencyIdAfter(@Param("agencyId") Integer agencyId, @Param("afterId") Integer afterId, Pageable pageable);
+
     // Find pilgrims by agency with pagination
     @Query(value = "SELECT DISTINCT p FROM Pilgrim p " +
                    "LEFT JOIN FETCH p.agency a " +
@@ -82,4 +111,42 @@ public interface PilgrimRepository extends JpaRepository<Pilgrim, Integer> {
     Page<Pilgrim> findByAgencyIdWithDetails(@Param("agencyId") Integer agencyId, Pageable pageable);
 
     long countByAgencyId(Integer agencyId);
+
+    // agencyId, pilgrims
+    @Query("SELECT p.agency.id, COUNT(p) FROM Pilgrim p WHERE p.agency IS NOT NULL GROUP BY p.agency.id")
+    List<Object[]> countGroupedByAgency();
+
+    // Scan lookup: resolves registration numbers together with the booked bed
+    @Query("SELECT p FROM Pilgrim p " +
+           "LEFT JOIN FETCH p.booking b " +
+           "LEFT JOIN FETCH b.bed bed " +
+           "WHERE p.registrationNumber IN :codes")
+    List<Pilgrim> findAllByRegistrationNumberForScan(@Param("codes") Collection<String> codes);
+
+    // Scan lookup by badge code; kept apart from the one above since an OR of the two columns scans the table
+    @Query("SELECT p FROM Pilgrim p " +
+           "LEFT JOIN FETCH p.booking b " +
+           "LEFT JOIN FETCH b.bed bed " +
+           "WHERE p.nationalId IN :codes")
+    List<Pilgrim> findAllByNationalIdForScan(@Param("codes") Collection<String> codes);
+
+    // Delta sync: keyset over (updated_at, id)
+    @Query("SELECT p FROM Pilgrim p " +
+           "LEFT JOIN FETCH p.agency a " +
+           "LEFT JOIN FETCH p.booking b " +
+           "LEFT JOIN FETCH b.bed bed " +
+           "LEFT JOIN FETCH bed.tent " +
+           "WHERE p.updatedAt > :ts OR (p.updatedAt = :ts AND p.id > :id) " +
+           "ORDER BY p.updatedAt, p.id")
+    List<Pilgrim> findChangedSince(@Param("ts") LocalDateTime ts, @Param("id") Integer id, Pageable pageable);
+
+    @Query("SELECT p FROM Pilgrim p " +
+           "LEFT JOIN FETCH p.agency a " +
+           "LEFT JOIN FETCH p.booking b " +
+           "LEFT JOIN FETCH b.bed bed " +
+           "LEFT JOIN FETCH bed.tent " +
+           "WHERE p.agency.id = :agencyId " +
+           "AND (p.updatedAt > :ts OR (p.updatedAt = :ts AND p.id > :id)) " +
+           "ORDER BY p.updatedAt, p.id")
+    List<Pilgrim> findChangedSinceForAgency(@Param("agencyId") Integer agencyId, @Param("ts") LocalDateTime ts, @Param("id") Integer id, Pageable pageable);
 }
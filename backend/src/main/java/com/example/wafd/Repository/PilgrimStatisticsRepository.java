@@ -0,0 +1,27 @@
+package com.example.wafd.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Pilgrim statistics aggregated in the database. One grouped query returns a
+ * count per combination of every dimension {@code PilgrimStatsDTO} reports,
+ * which the caller folds into the per-dimension totals; MySQL has no
+ * {@code GROUPING SETS}, and the combinations stay in the low thousands
+ * whatever the number of pilgrims.
+ */
+public interface PilgrimStatisticsRepository {
+
+    /** Age buckets of the statistics; pilgrims without a positive age fall in none. */
+    String AGE_GROUP = "CASE WHEN p.age >= 60 THEN '60+' WHEN p.age >= 50 THEN '50-59' WHEN p.age >= 40 THEN '40-49' " +
+            "WHEN p.age >= 30 THEN '30-39' WHEN p.age >= 18 THEN '18-29' WHEN p.age >= 1 THEN '0-17' END";
+
+    /**
+     * Counts the pilgrims matching the filters, each of which may be null,
+     * grouped by status, gender, special needs, special-needs type (null
+     * without special needs), nationality and {@link #AGE_GROUP}, in that
+     * order, followed by the count. {@code tentId} selects the pilgrims booked
+     * into that tent; {@code from} and {@code to} bound the registration time.
+     */
+    List<Object[]> countByDimensions(Integer agencyId, Integer tentId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,52 @@
+package com.example.wafd.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.StringJoiner;
+
+public class PilgrimStatisticsRepositoryImpl implements PilgrimStatisticsRepository {
+
+    private static final String DIMENSIONS = "p.status, p.gender, p.hasSpecialNeeds, " +
+            "CASE WHEN p.hasSpecialNeeds = true THEN p.specialNeedsType END, p.nationality, " + AGE_GROUP;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Object[]> countByDimensions(Integer agencyId, Integer tentId, LocalDateTime from, LocalDateTime to) {
+        StringJoiner where = new StringJoiner(" AND ", "WHERE ", " ").setEmptyValue("");
+        if (agencyId != null) {
+            where.add("p.agency.id = :agencyId");
+        }
+        if (tentId != null) {
+            where.add("b.status = 'Booked' AND bed.tent.id = :tentId");
+        }
+        if (from != null) {
+            where.add("p.createdAt >= :from");
+        }
+        if (to != null) {
+            where.add("p.createdAt < :to");
+        }
+        String join = tentId != null ? "JOIN p.booking b JOIN b.bed bed " : "";
+
+        TypedQuery<Object[]> query = entityManager.createQuery("SELECT " + DIMENSIONS + ", COUNT(p) FROM Pilgrim p " +
+                join + where + "GROUP BY " + DIMENSIONS, Object[].class);
+        if (agencyId != null) {
+            query.setParameter("agencyId", agencyId);
+        }
+        if (tentId != null) {
+            query.setParameter("tentId", tentId);
+        }
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        return query.getResultList();
+    }
+}
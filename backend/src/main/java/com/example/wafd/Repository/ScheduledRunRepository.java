@@ -0,0 +1,20 @@
+package com.example.wafd.Repository;
+
+import com.example.wafd.Model.ScheduledRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ScheduledRunRepository extends JpaRepository<ScheduledRun, String> {
+
+    // Runs in the task's transaction: the row lock holds other instances until it commits, after
+    // which they match no row; if the task rolls back, the bucket is free again
+    @Modifying
+    @Query("UPDATE ScheduledRun r SET r.lastBucket = :bucket WHERE r.name = :name AND r.lastBucket < :bucket")
+    int claim(@Param("name") String name, @Param("bucket") LocalDateTime bucket);
+}
@@ -0,0 +1,26 @@
+package com.example.wafd.Repository;
+
+import com.example.wafd.Model.SyncTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    @Query("SELECT t FROM SyncTombstone t " +
+           "WHERE t.agencyOnly = false AND (t.deletedAt > :ts OR (t.deletedAt = :ts AND t.id > :id)) " +
+           "ORDER BY t.deletedAt, t.id")
+    List<SyncTombstone> findChangedSince(@Param("ts") LocalDateTime ts, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT t FROM SyncTombstone t " +
+           "WHERE t.agencyId = :agencyId " +
+           "AND (t.deletedAt > :ts OR (t.deletedAt = :ts AND t.id > :id)) " +
+           "ORDER BY t.deletedAt, t.id")
+    List<SyncTombstone> findChangedSinceForAgency(@Param("agencyId") Integer agencyId, @Param("ts") LocalDateTime ts, @Param("id") Long id, Pageable pageable);
+}
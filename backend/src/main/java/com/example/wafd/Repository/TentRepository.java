@@ -1,12 +1,16 @@
 package com.example.wafd.Repository;
 
 import com.example.wafd.Model.Tent;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface TentRepository extends JpaRepository<Tent, Integer> {
     @Query("SELECT DISTINCT t FROM Tent t " +
@@ -28,14 +32,85 @@ public interface TentRepository extends JpaRepository<Tent, Integer> {
            "LEFT JOIN FETCH p.agency")
     java.util.List<Tent> findAll();
 
+    // Batch read; with an agencyId, only tents holding pilgrims of that agency
     @Query("SELECT DISTINCT t FROM Tent t " +
            "LEFT JOIN FETCH t.beds b " +
            "LEFT JOIN FETCH b.tent bt " +
            "LEFT JOIN FETCH b.booking bk " +
            "LEFT JOIN FETCH bk.pilgrim p " +
            "LEFT JOIN FETCH p.agency " +
+           "WHERE t.id IN :ids AND (:agencyId IS NULL OR EXISTS (SELECT 1 FROM Bed bd " +
+           "  LEFT JOIN bd.booking bd_bk " +
+           "  WHERE bd.tent = t AND bd_bk.pilgrim.agency.id = :agencyId))")
+    java.util.List<Tent> findByIdsWithDetails(@Param("ids") java.util.Collection<Integer> ids, @Param("agencyId") Integer agencyId);
+
+    // Streamed listing: keyset over id, beds are then read with findByIdsWithDetails
+    @Query("SELECT t.id FROM Tent t " +
+           "WHERE t.id > :afterId AND (:agencyId IS NULL OR EXISTS (SELECT 1 FROM Bed bd " +
+           "  LEFT JOIN bd.booking bd_bk " +
+           "  WHERE bd.tent = t AND bd_bk.pilgrim.agency.id = :agencyId)) " +
+           "ORDER BY t.id")
+    java.util.List<Integer> findIdsAfter(@Param("afterId") Integer afterId, @Param("agencyId") Integer agencyId, Pageable pageable);
+
+    java.util.List<Tent> findAllByOrderByIdAsc();
+
+    @Query("SELECT t FROM Tent t " +
            "WHERE EXISTS (SELECT 1 FROM Bed bd " +
            "  LEFT JOIN bd.booking bd_bk " +
+           "  WHERE bd.tent = t AND bd_bk.pilgrim.agency.id = :agencyId) " +
+           "ORDER BY t.id")
+    java.util.List<Tent> findSummariesWithPilgrimsFromAgency(@Param("agencyId") Integer agencyId);
+
+    @Query("SELECT COUNT(t) > 0 FROM Tent t " +
+           "WHERE t.id = :id AND EXISTS (SELECT 1 FROM Bed bd " +
+           "  LEFT JOIN bd.booking bd_bk " +
            "  WHERE bd.tent = t AND bd_bk.pilgrim.agency.id = :agencyId)")
-    java.util.List<Tent> findTentsWithPilgrimsFromAgency(@Param("agencyId") Integer agencyId);
+    boolean hasPilgrimsFromAgency(@Param("id") Integer id, @Param("agencyId") Integer agencyId);
+
+    // The agencies whose supervisors currently see the tent
+    @Query("SELECT DISTINCT bk.pilgrim.agency.id FROM Booking bk " +
+           "WHERE bk.bed.tent.id = :id AND bk.pilgrim.agency IS NOT NULL")
+    java.util.List<Integer> findAgencyIdsWithPilgrims(@Param("id") Integer id);
+
+    // Delta sync: keyset over (updated_at, id)
+    @Query("SELECT t FROM Tent t " +
+           "WHERE t.updated_at > :ts OR (t.updated_at = :ts AND t.id > :id) " +
+           "ORDER BY t.updated_at, t.id")
+    java.util.List<Tent> findChangedSince(@Param("ts") LocalDateTime ts, @Param("id") Integer id, Pageable pageable);
+
+    @Query("SELECT t FROM Tent t " +
+           "WHERE (t.updated_at > :ts OR (t.updated_at = :ts AND t.id > :id)) " +
+           "AND EXISTS (SELECT 1 FROM Bed bd LEFT JOIN bd.booking bd_bk " +
+           "  WHERE bd.tent = t AND bd_bk.pilgrim.agency.id = :agencyId) " +
+           "ORDER BY t.updated_at, t.id")
+    java.util.List<Tent> findChangedSinceForAgency(@Param("agencyId") Integer agencyId, @Param("ts") LocalDateTime ts, @Param("id") Integer id, Pageable pageable);
+
+    // Relative, so concurrent changes in the same tent add up instead of overwriting each other.
+    // Counter-only changes leave updated_at alone: clients derive occupancy from the beds they sync
+    @Modifying
+    @Query("UPDATE Tent t SET t.occupiedBeds = t.occupiedBeds + :occupied, " +
+           "t.reservedBeds = t.reservedBeds + :reserved, " +
+           "t.maintenanceBeds = t.maintenanceBeds + :maintenance, " +
+           "t.specialNeedsBeds = t.specialNeedsBeds + :specialNeeds " +
+           "WHERE t.id = :id")
+    int adjustCounters(@Param("id") Integer id, @Param("occupied") int occupied, @Param("reserved") int reserved,
+                       @Param("maintenance") int maintenance, @Param("specialNeeds") int specialNeeds);
+
+    @Modifying
+    @Query("UPDATE Tent t SET " +
+           "t.occupiedBeds = (SELECT COUNT(b) FROM Bed b WHERE b.tent = t AND b.status IN ('Booked', 'Checked_in')), " +
+           "t.reservedBeds = (SELECT COUNT(b) FROM Bed b WHERE b.tent = t AND b.status = 'Reserved'), " +
+           "t.maintenanceBeds = (SELECT COUNT(b) FROM Bed b WHERE b.tent = t AND b.status = 'Maintenance'), " +
+           "t.specialNeedsBeds = (SELECT COUNT(b) FROM Bed b JOIN b.booking bk JOIN bk.pilgrim p " +
+           "  WHERE b.tent = t AND b.status IN ('Booked', 'Checked_in') AND p.hasSpecialNeeds = true) " +
+           "WHERE t.id = :id")
+    int recountCounters(@Param("id") Integer id);
+
+    @Query("SELECT t.id FROM Tent t WHERE " +
+           "t.occupiedBeds <> (SELECT COUNT(b) FROM Bed b WHERE b.tent = t AND b.status IN ('Booked', 'Checked_in')) " +
+           "OR t.reservedBeds <> (SELECT COUNT(b) FROM Bed b WHERE b.tent = t AND b.status = 'Reserved') " +
+           "OR t.maintenanceBeds <> (SELECT COUNT(b) FROM Bed b WHERE b.tent = t AND b.status = 'Maintenance') " +
+           "OR t.specialNeedsBeds <> (SELECT COUNT(b) FROM Bed b JOIN b.booking bk JOIN bk.pilgrim p " +
+           "  WHERE b.tent = t AND b.status IN ('Booked', 'Checked_in') AND p.hasSpecialNeeds = true)")
+    java.util.List<Integer> findIdsWithCounterDrift();
 }
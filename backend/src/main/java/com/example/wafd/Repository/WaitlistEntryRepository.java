@@ -0,0 +1,35 @@
+package com.example.wafd.Repository;
+
+import com.example.wafd.Model.WaitlistEntry;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Integer> {
+
+    // Reads the head of IDX_waitlist_priority; locked so two freed beds never pick the same waiter
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.agencyId = :agencyId AND w.gender = :gender " +
+            "ORDER BY w.specialNeeds DESC, w.age DESC, w.queuedAt, w.id")
+    List<WaitlistEntry> findNext(@Param("agencyId") Integer agencyId, @Param("gender") String gender, Pageable pageable);
+
+    @Query("SELECT w FROM WaitlistEntry w WHERE (:agencyId IS NULL OR w.agencyId = :agencyId) " +
+            "ORDER BY w.agencyId, w.gender, w.specialNeeds DESC, w.age DESC, w.queuedAt, w.id")
+    List<WaitlistEntry> findInPriorityOrder(@Param("agencyId") Integer agencyId);
+
+    WaitlistEntry findByPilgrimId(Integer pilgrimId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry w WHERE w.pilgrimId = :pilgrimId")
+    int deleteByPilgrimId(@Param("pilgrimId") Integer pilgrimId);
+}
@@ -0,0 +1,105 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.Repository.AgencyRepository;
+import com.example.wafd.Repository.PilgrimRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Books a bed for every pilgrim of an agency who has none, in pilgrim id
+ * order, or puts them on the waitlist when the agency's tents are full. The
+ * checkpoint is the last pilgrim id handled.
+ *
+ * <p>Each pilgrim is booked in a transaction of its own. A booking that fails
+ * (the pilgrim was booked by an operator in the meantime) would otherwise mark
+ * the batch transaction rollback-only and take every other booking of the
+ * batch down with it. A pilgrim booked before the batch commits is no longer
+ * unbooked, so a rerun of the batch skips them.</p>
+ */
+@Service
+public class AgencyAllocationJob implements JobHandler {
+
+    public static final String TYPE = "agency-allocation";
+
+    private final PilgrimRepository pilgrimRepository;
+    private final AgencyRepository agencyRepository;
+    private final BookingService bookingService;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate perPilgrim;
+    private final int batchSize;
+
+    public AgencyAllocationJob(PilgrimRepository pilgrimRepository,
+                               AgencyRepository agencyRepository,
+                               BookingService bookingService,
+                               CacheManager cacheManager,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${job.agency-allocation.batch-size:100}") int batchSize) {
+        this.pilgrimRepository = pilgrimRepository;
+        this.agencyRepository = agencyRepository;
+        this.bookingService = bookingService;
+        this.cacheManager = cacheManager;
+        this.perPilgrim = new TransactionTemplate(transactionManager);
+        this.perPilgrim.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public Integer prepare(Map<String, Object> params) {
+        Integer agencyId = agencyId(params);
+        if (agencyRepository.findAgencyById(agencyId) == null) {
+            throw new ApiException("Agency not found");
+        }
+        return (int) pilgrimRepository.countUnbookedByAgencyId(agencyId);
+    }
+
+    @Override
+    public Batch runBatch(Map<String, Object> params, String checkpoint) {
+        int afterId = checkpoint != null ? Integer.parseInt(checkpoint) : 0;
+        List<Integer> pilgrimIds = pilgrimRepository.findUnbookedIdsByAgencyId(agencyId(params), afterId,
+                PageRequest.of(0, batchSize));
+        for (Integer pilgrimId : pilgrimIds) {
+            try {
+                perPilgrim.executeWithoutResult(status -> bookingService.addBooking(String.valueOf(pilgrimId)));
+            } catch (ApiException e) {
+                // Left for an operator, like the same call made by hand
+            }
+        }
+        if (!pilgrimIds.isEmpty()) {
+            evict("beds", "pilgrims", "pilgrimSearch");
+        }
+        String next = pilgrimIds.isEmpty() ? checkpoint : String.valueOf(pilgrimIds.get(pilgrimIds.size() - 1));
+        return new Batch(next, pilgrimIds.size(), pilgrimIds.size() < batchSize);
+    }
+
+    // Jobs bypass the controllers' @CacheEvict
+    private void evict(String... cacheNames) {
+        for (String name : cacheNames) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static Integer agencyId(Map<String, Object> params) {
+        if (!(params.get("agencyId") instanceof Number agencyId)) {
+            throw new ApiException("agencyId is required");
+        }
+        return agencyId.intValue();
+    }
+}
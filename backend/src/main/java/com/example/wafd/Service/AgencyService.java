@@ -10,8 +10,10 @@ import com.example.wafd.Repository.PilgrimRepository;
 import com.example.wafd.Repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +24,10 @@ public class AgencyService {
     private final PilgrimRepository pilgrimRepository;
     private final UserRepository userRepository;
     private final org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
+    private final SyncService syncService;
+    private final CollectionVersionService collectionVersionService;
+    private final AuditService auditService;
+    private final ListStreamingService listStreamingService;
 
     public List<AgencyDTO> findAllAgencies(){
         return agencyRepository.findAll().stream()
@@ -51,6 +57,9 @@ public class AgencyService {
         Agency agency = new Agency();
         applyAgencyDetails(agency, dto, true);
         Agency saved = agencyRepository.save(agency);
+        collectionVersionService.bump(CollectionVersionService.AGENCIES, saved.getId());
+        auditService.record(AuditService.CREATE, AuditService.AGENCY, saved.getId(), saved.getId(),
+                null, AuditService.stateOf(saved));
         AgencyDTO response = AgencyDTO.fromEntity(saved);
         if (saved.getId() != null) {
             response.setPilgrimsCount((int) pilgrimRepository.countByAgencyId(saved.getId()));
@@ -63,8 +72,12 @@ public class AgencyService {
         if (agencyToUpdate == null){
             throw new ApiException("Group not found");
         }
+        Map<String, Object> before = AuditService.stateOf(agencyToUpdate);
         applyAgencyDetails(agencyToUpdate, dto, false);
         Agency saved = agencyRepository.save(agencyToUpdate);
+        collectionVersionService.bump(CollectionVersionService.AGENCIES, saved.getId());
+        auditService.record(AuditService.UPDATE, AuditService.AGENCY, saved.getId(), saved.getId(),
+                before, AuditService.stateOf(saved));
         AgencyDTO response = AgencyDTO.fromEntity(saved);
         if (saved.getId() != null) {
             response.setPilgrimsCount((int) pilgrimRepository.countByAgencyId(saved.getId()));
@@ -72,24 +85,37 @@ public class AgencyService {
         return response;
     }
 
+    @Transactional
     public void deleteAgency(Integer id){
         Agency agencyToDelete = agencyRepository.findAgencyById(id);
         if (agencyToDelete == null){
             throw new ApiException("Group not found");
         }
         User manager = agencyToDelete.getManager();
+        syncService.recordAgencyDeletion(agencyToDelete);
         agencyRepository.delete(agencyToDelete);
         if (manager != null) {
             userRepository.delete(manager);
         }
+        // Pilgrims, their bookings and the agency's tents go with it
+        collectionVersionService.bump(CollectionVersionService.AGENCIES, id);
+        collectionVersionService.bump(CollectionVersionService.PILGRIMS, id);
+        collectionVersionService.bump(CollectionVersionService.BOOKINGS, id);
+        collectionVersionService.bump(CollectionVersionService.TENTS);
+        collectionVersionService.bump(CollectionVersionService.BEDS);
+        auditService.record(AuditService.DELETE, AuditService.AGENCY, id, id,
+                AuditService.stateOf(agencyToDelete), null);
     }
 
-    public List<Pilgrim> findPilgrimsByAgencyId(Integer agencyId){
+    // Checked before streaming starts, so an unknown group is still a 400
+    public ListStreamingService.ListStream streamPilgrimsByAgencyId(Integer agencyId, String accept){
         Agency agency = agencyRepository.findAgencyById(agencyId);
         if (agency == null){
             throw new ApiException("Group not found");
         }
-        return pilgrimRepository.findByAgencyId(agencyId);
+        return listStreamingService.stream(accept,
+                (afterId, pageable) -> pilgrimRepository.findByAgencyIdAfter(agencyId, afterId, pageable),
+                Pilgrim::getId, pilgrim -> pilgrim);
     }
 
     private void applyAgencyDetails(Agency agency, AgencyDTO dto, boolean isCreate) {
@@ -0,0 +1,352 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.DTO.AuditEventDTOOut;
+import com.example.wafd.Model.*;
+import com.example.wafd.Repository.AuditEventRepository;
+import com.example.wafd.Util.MpscRingBuffer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.criteria.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail for writes. Services pass the state of an entity before and
+ * after a change; the event is put on a lock-free ring buffer and the request
+ * moves on. A single background writer drains the buffer, computes the field
+ * diff and appends the events to {@code audit_event} in JDBC batches.
+ *
+ * <p>Inside a transaction the event is only queued after commit, so rolled
+ * back writes leave no trace. If the writer falls a whole buffer behind,
+ * events are dropped and counted under {@code audit.events.dropped} rather
+ * than slowing requests down.</p>
+ */
+@Slf4j
+@Service
+public class AuditService {
+
+    public static final String CREATE = "create";
+    public static final String UPDATE = "update";
+    public static final String DELETE = "delete";
+
+    public static final String PILGRIM = "pilgrim";
+    public static final String BED = "bed";
+    public static final String BOOKING = "booking";
+    public static final String TENT = "tent";
+    public static final String AGENCY = "agency";
+    public static final String USER = "user";
+    public static final String WAITLIST = "waitlist";
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final String INSERT = "INSERT INTO audit_event "
+            + "(occurred_at, actor_id, actor_email, action, entity_type, entity_id, agency_id, changes) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    // Secrets, and a pilgrim's identity documents, phone and notes (agency notes share the name): the trail
+    // records that they changed, not to what
+    private static final Set<String> MASKED = Set.of("password", "managerPassword",
+            "nationalId", "passportNumber", "phoneNumber", "specialNeedsNotes", "notes");
+    private static final TypeReference<Map<String, Object>> CHANGES = new TypeReference<>() { };
+
+    private record Event(LocalDateTime occurredAt, Integer actorId, String actorEmail, String action,
+                         String entityType, Integer entityId, Integer agencyId,
+                         Map<String, Object> before, Map<String, Object> after) { }
+
+    private final AuditEventRepository auditEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MpscRingBuffer<Event> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failed;
+
+    public AuditService(AuditEventRepository auditEventRepository,
+                        JdbcTemplate jdbcTemplate,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry,
+                        @Value("${audit.buffer-capacity:65536}") int bufferCapacity,
+                        @Value("${audit.batch-size:500}") int batchSize,
+                        @Value("${audit.flush-interval-ms:250}") long flushIntervalMs) {
+        this.auditEventRepository = auditEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.buffer = new MpscRingBuffer<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.dropped = meterRegistry.counter("audit.events.dropped");
+        this.written = meterRegistry.counter("audit.events.written");
+        this.failed = meterRegistry.counter("audit.events.failed");
+        Gauge.builder("audit.buffer.size", buffer, MpscRingBuffer::size).register(meterRegistry);
+
+        this.writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues one audit event. {@code before} is null for creations and
+     * {@code after} for deletions; an update that changed nothing is skipped.
+     */
+    public void record(String action, String entityType, Integer entityId, Integer agencyId,
+                       Map<String, Object> before, Map<String, Object> after) {
+        User actor = currentUser();
+        Event event = new Event(LocalDateTime.now(),
+                actor != null ? actor.getId() : null,
+                actor != null ? actor.getEmail() : null,
+                action, entityType, entityId, agencyId, before, after);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    public Page<AuditEventDTOOut> search(String entityType, Integer entityId, Integer actorId, Integer agencyId,
+                                         LocalDateTime from, LocalDateTime to, int page, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ApiException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (entityId != null && entityType == null) {
+            throw new ApiException("entityId requires entityType");
+        }
+
+        // Only the filters that were given, so each query can use one of the (column, id) indexes
+        Specification<AuditEvent> filter = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (entityType != null) {
+                predicates.add(cb.equal(root.get("entityType"), entityType));
+            }
+            if (entityId != null) {
+                predicates.add(cb.equal(root.get("entityId"), entityId));
+            }
+            if (actorId != null) {
+                predicates.add(cb.equal(root.get("actorId"), actorId));
+            }
+            if (agencyId != null) {
+                predicates.add(cb.equal(root.get("agencyId"), agencyId));
+            }
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("occurredAt"), from));
+            }
+            if (to != null) {
+                predicates.add(cb.lessThan(root.get("occurredAt"), to));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+        return auditEventRepository.findAll(filter, PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id")))
+                .map(this::toDTO);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public static Map<String, Object> stateOf(Pilgrim pilgrim) {
+        return state("registrationNumber", pilgrim.getRegistrationNumber(),
+                "nationalId", pilgrim.getNationalId(),
+                "passportNumber", pilgrim.getPassportNumber(),
+                "firstName", pilgrim.getFirstName(),
+                "lastName", pilgrim.getLastName(),
+                "age", pilgrim.getAge(),
+                "gender", pilgrim.getGender(),
+                "nationality", pilgrim.getNationality(),
+                "phoneNumber", pilgrim.getPhoneNumber(),
+                "status", pilgrim.getStatus(),
+                "hasSpecialNeeds", pilgrim.getHasSpecialNeeds(),
+                "specialNeedsType", pilgrim.getSpecialNeedsType(),
+                "specialNeedsNotes", pilgrim.getSpecialNeedsNotes(),
+                "notes", pilgrim.getNotes(),
+                "agencyId", pilgrim.getAgency() != null ? pilgrim.getAgency().getId() : null);
+    }
+
+    public static Map<String, Object> stateOf(Bed bed) {
+        return state("status", bed.getStatus(),
+                "tentId", bed.getTent() != null ? bed.getTent().getId() : null);
+    }
+
+    public static Map<String, Object> stateOf(Booking booking) {
+        return state("status", booking.getStatus(),
+                "pilgrimId", booking.getPilgrim() != null ? booking.getPilgrim().getId() : null,
+                "bedId", booking.getBed() != null ? booking.getBed().getId() : null);
+    }
+
+    public static Map<String, Object> stateOf(Tent tent) {
+        return state("name", tent.getName(),
+                "code", tent.getCode(),
+                "type", tent.getType(),
+                "location", tent.getLocation(),
+                "capacity", tent.getCapacity(),
+                "agencyId", tent.getAgency() != null ? tent.getAgency().getId() : null);
+    }
+
+    public static Map<String, Object> stateOf(Agency agency) {
+        User manager = agency.getManager();
+        return state("name", agency.getName(),
+                "licenseNumber", agency.getLicense_number(),
+                "country", agency.getCountry(),
+                "status", agency.getStatus(),
+                "maxPilgrim", agency.getMax_pilgrim(),
+                "notes", agency.getNotes(),
+                "managerId", manager != null ? manager.getId() : null,
+                "managerName", manager != null ? manager.getName() : null,
+                "managerEmail", manager != null ? manager.getEmail() : null,
+                "managerPhone", manager != null ? manager.getPhone() : null,
+                "managerPassword", manager != null ? manager.getPassword() : null);
+    }
+
+    public static Map<String, Object> stateOf(User user) {
+        // The hash is only compared, never stored in the trail (see MASKED)
+        return state("name", user.getName(),
+                "email", user.getEmail(),
+                "phone", user.getPhone(),
+                "role", user.getRole(),
+                "password", user.getPassword(),
+                "managedAgencyId", user.getManagedAgency() != null ? user.getManagedAgency().getId() : null);
+    }
+
+    private static Map<String, Object> state(Object... keysAndValues) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            state.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return state;
+    }
+
+    private void enqueue(Event event) {
+        if (!buffer.offer(event)) {
+            dropped.increment();
+            return;
+        }
+        // Wake the writer early only when a full batch is waiting
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void writeLoop() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (running) {
+            buffer.drain(batch::add, batchSize);
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            flush(batch);
+        }
+        // Shutting down: write whatever is still queued
+        while (buffer.drain(batch::add, batchSize) > 0) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<Event> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        try {
+            for (Event event : batch) {
+                Map<String, List<Object>> changes = diff(event.before(), event.after());
+                if (UPDATE.equals(event.action()) && changes.isEmpty()) {
+                    continue;
+                }
+                rows.add(new Object[]{
+                        Timestamp.valueOf(event.occurredAt()), event.actorId(), event.actorEmail(), event.action(),
+                        event.entityType(), event.entityId(), event.agencyId(), toJson(changes)});
+            }
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT, rows, new int[]{
+                        Types.TIMESTAMP, Types.INTEGER, Types.VARCHAR, Types.VARCHAR,
+                        Types.VARCHAR, Types.INTEGER, Types.INTEGER, Types.VARCHAR});
+                written.increment(rows.size());
+            }
+        } catch (RuntimeException e) {
+            // Keep the writer alive; the batch is lost but counted
+            failed.increment(batch.size());
+            log.error("Could not write {} audit events", batch.size(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    static Map<String, List<Object>> diff(Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object> empty = Map.of();
+        Map<String, Object> previous = before != null ? before : empty;
+        Map<String, Object> current = after != null ? after : empty;
+        Set<String> fields = new LinkedHashSet<>(previous.keySet());
+        fields.addAll(current.keySet());
+
+        Map<String, List<Object>> changes = new LinkedHashMap<>();
+        for (String field : fields) {
+            Object oldValue = previous.get(field);
+            Object newValue = current.get(field);
+            if (Objects.equals(oldValue, newValue)) {
+                continue;
+            }
+            if (MASKED.contains(field)) {
+                changes.put(field, Arrays.asList(oldValue != null ? "***" : null, newValue != null ? "***" : null));
+            } else {
+                changes.put(field, Arrays.asList(oldValue, newValue));
+            }
+        }
+        return changes;
+    }
+
+    private String toJson(Map<String, List<Object>> changes) {
+        try {
+            return objectMapper.writeValueAsString(changes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Audit changes are not serializable", e);
+        }
+    }
+
+    private AuditEventDTOOut toDTO(AuditEvent event) {
+        Map<String, Object> changes;
+        try {
+            changes = event.getChanges() != null ? objectMapper.readValue(event.getChanges(), CHANGES) : Map.of();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt audit event " + event.getId(), e);
+        }
+        return new AuditEventDTOOut(event.getId(), event.getOccurredAt(), event.getActorId(), event.getActorEmail(),
+                event.getAction(), event.getEntityType(), event.getEntityId(), event.getAgencyId(), changes);
+    }
+
+    private static User currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof User user ? user : null;
+    }
+}
@@ -6,6 +6,8 @@ import com.example.wafd.DTO.LoginDTOIn;
 import com.example.wafd.DTO.RefreshTokenDTOIn;
 import com.example.wafd.Model.User;
 import com.example.wafd.Repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -20,22 +22,25 @@ public class AuthenticationService {
     private final UserRepository userRepository;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final LoginAdmissionService loginAdmissionService;
+    private final TokenRegistryService tokenRegistryService;
 
-    public AuthenticationResponse authenticate(LoginDTOIn loginDTOIn) {
-        authenticationManager.authenticate(
+    public AuthenticationResponse authenticate(LoginDTOIn loginDTOIn, String clientIp) {
+        loginAdmissionService.checkRateLimits(loginDTOIn.getEmail(), clientIp);
+        // BCrypt runs on the bounded hashing pool, not on the request thread
+        loginAdmissionService.verify(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         loginDTOIn.getEmail(),
                         loginDTOIn.getPassword()
                 )
-        );
+        ));
 
         User user = userRepository.findUserByEmail(loginDTOIn.getEmail());
         if (user == null) {
             throw new ApiException("User not found");
         }
 
-        String accessToken = jwtService.generateToken(user);
-        String refreshToken = jwtService.generateRefreshToken(user);
+        TokenRegistryService.IssuedTokens tokens = tokenRegistryService.issue(user);
 
         Integer agencyId = null;
         if (user.getManagedAgency() != null) {
@@ -43,8 +48,8 @@ public class AuthenticationService {
         }
 
         return new AuthenticationResponse(
-                accessToken,
-                refreshToken,
+                tokens.accessToken(),
+                tokens.refreshToken(),
                 "Bearer",
                 3600000L,
                 user.getId(),
@@ -57,17 +62,14 @@ public class AuthenticationService {
     }
 
     public AuthenticationResponse refreshToken(RefreshTokenDTOIn refreshTokenDTOIn) {
-        String userEmail = jwtService.extractUsername(refreshTokenDTOIn.getRefreshToken());
-        User user = userRepository.findUserByEmail(userEmail);
+        Claims claims = parse(refreshTokenDTOIn.getRefreshToken(), "Invalid refresh token");
+        User user = userRepository.findUserByEmail(claims.getSubject());
         if (user == null) {
             throw new ApiException("User not found");
         }
 
-        if (!jwtService.isTokenValid(refreshTokenDTOIn.getRefreshToken(), user)) {
-            throw new ApiException("Invalid refresh token");
-        }
-
-        String accessToken = jwtService.generateToken(user);
+        // Single use: the presented refresh token is retired and a new one returned
+        TokenRegistryService.IssuedTokens tokens = tokenRegistryService.rotate(claims, user);
 
         Integer agencyId = null;
         if (user.getManagedAgency() != null) {
@@ -75,8 +77,8 @@ public class AuthenticationService {
         }
 
         return new AuthenticationResponse(
-                accessToken,
-                refreshTokenDTOIn.getRefreshToken(),
+                tokens.accessToken(),
+                tokens.refreshToken(),
                 "Bearer",
                 3600000L,
                 user.getId(),
@@ -89,8 +91,34 @@ public class AuthenticationService {
     }
 
     public void logout(String token) {
-        // Add token to blacklist (implement token blacklist with Redis or DB)
-        // For now, just invalidate on frontend
+        Claims claims;
+        try {
+            // A stale access token is still good enough to end its own session
+            claims = jwtService.extractClaimsAllowExpired(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return;
+        }
+        String sessionId = claims.get(JwtService.SESSION_ID, String.class);
+        if (sessionId != null) {
+            tokenRegistryService.revokeSession(sessionId, claims.get("userId", Integer.class));
+        }
+    }
+
+    public void logoutAllSessions(String token) {
+        Claims claims = parse(token, "Invalid token");
+        String sessionId = claims.get(JwtService.SESSION_ID, String.class);
+        if (JwtService.isRefreshToken(claims) || (sessionId != null && tokenRegistryService.isRevoked(sessionId))) {
+            throw new ApiException("Invalid token");
+        }
+        tokenRegistryService.revokeAllSessions(claims.get("userId", Integer.class));
+    }
+
+    private Claims parse(String token, String message) {
+        try {
+            return jwtService.extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new ApiException(message);
+        }
     }
 
     public User getCurrentUser() {
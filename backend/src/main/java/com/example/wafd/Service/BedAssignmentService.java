@@ -7,8 +7,14 @@ import com.example.wafd.Model.Pilgrim;
 import com.example.wafd.Repository.BedRepository;
 import com.example.wafd.Repository.BookingRepository;
 import com.example.wafd.Repository.PilgrimRepository;
+import com.example.wafd.Repository.WaitlistEntryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -17,24 +23,43 @@ public class BedAssignmentService {
     private final BedRepository bedRepository;
     private final PilgrimRepository pilgrimRepository;
     private final BookingRepository bookingRepository;
+    private final CollectionVersionService collectionVersionService;
+    private final AuditService auditService;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TentCounterService tentCounterService;
+    private final SyncService syncService;
 
+    @Transactional
     public Bed assignBed(Integer pilgrimId, Integer bedId) {
-        Pilgrim pilgrim = pilgrimRepository.findPilgrimByIdWithDetails(pilgrimId);
-        if (pilgrim == null) {
-            throw new ApiException("Pilgrim not found");
-        }
-        
+        return assign(pilgrimId, bedId, "Available");
+    }
+
+    /**
+     * Books a bed the caller has reserved through {@link BedHoldService}.
+     */
+    @Transactional
+    public Bed assignHeldBed(Integer pilgrimId, Integer bedId) {
+        return assign(pilgrimId, bedId, "Reserved");
+    }
+
+    /**
+     * The checks {@link #assignBed} makes before booking. Callers that must
+     * not fail inside their own transaction run them first: an exception
+     * thrown out of {@code assignBed} marks the joined transaction
+     * rollback-only even when it is caught.
+     */
+    public static void requireAssignable(Pilgrim pilgrim, Bed bed, String requiredStatus) {
         // Check if pilgrim already has an active booking
         if (pilgrim.getBooking() != null && "Booked".equals(pilgrim.getBooking().getStatus())) {
             throw new ApiException("Pilgrim already has an active booking");
         }
         
-        Bed bed = bedRepository.findBedByIdWithTent(bedId);
         if (bed == null) {
             throw new ApiException("Bed not found");
         }
 
-        if (!bed.getStatus().equals("Available")) {
+        if (!bed.getStatus().equals(requiredStatus)) {
             throw new ApiException("Bed is not available");
         }
         
@@ -52,12 +77,23 @@ public class BedAssignmentService {
                 throw new ApiException("Cannot assign " + normalizedPilgrimGender + " pilgrim to " + normalizedTentType + " tent");
             }
         }
+    }
+
+    private Bed assign(Integer pilgrimId, Integer bedId, String requiredStatus) {
+        Pilgrim pilgrim = pilgrimRepository.findPilgrimByIdWithDetails(pilgrimId);
+        if (pilgrim == null) {
+            throw new ApiException("Pilgrim not found");
+        }
+        Bed bed = bedRepository.findBedByIdWithTent(bedId);
+        requireAssignable(pilgrim, bed, requiredStatus);
 
         Booking booking = pilgrim.getBooking();
+        Map<String, Object> bookingBefore = booking != null ? AuditService.stateOf(booking) : null;
         if (booking == null) {
             booking = new Booking();
             booking.setPilgrim(pilgrim);
         }
+        Map<String, Object> bedBefore = AuditService.stateOf(bed);
 
         booking.setBed(bed);
         booking.setStatus("Booked");
@@ -65,23 +101,55 @@ public class BedAssignmentService {
 
         bed.setStatus("Booked");
         bedRepository.save(bed);
+        tentCounterService.statusChanged(bed, requiredStatus, "Booked", pilgrim);
+        waitlistEntryRepository.deleteByPilgrimId(pilgrim.getId());
+        collectionVersionService.bump(CollectionVersionService.BOOKINGS,
+                pilgrim.getAgency() != null ? pilgrim.getAgency().getId() : null);
+        collectionVersionService.bump(CollectionVersionService.BEDS);
+
+        Integer agencyId = pilgrim.getAgency() != null ? pilgrim.getAgency().getId() : null;
+        auditService.record(bookingBefore == null ? AuditService.CREATE : AuditService.UPDATE, AuditService.BOOKING,
+                booking.getId(), agencyId, bookingBefore, AuditService.stateOf(booking));
+        auditService.record(AuditService.UPDATE, AuditService.BED, bed.getId(), agencyId,
+                bedBefore, AuditService.stateOf(bed));
 
         return bed;
     }
 
+    @Transactional
     public Bed vacateBed(Integer bedId) {
         Bed bed = bedRepository.findBedById(bedId);
         if (bed == null) {
             throw new ApiException("Bed not found");
         }
 
+        Map<String, Object> bedBefore = AuditService.stateOf(bed);
+        Integer agencyId = null;
+        String previousStatus = bed.getStatus();
         Booking booking = bed.getBooking();
+        Pilgrim previousPilgrim = booking != null ? booking.getPilgrim() : null;
         if (booking != null) {
+            Map<String, Object> bookingBefore = AuditService.stateOf(booking);
             booking.setStatus("Cancelled");
+            // Release UK_booking_bed so the bed can be booked for someone else
+            booking.setBed(null);
             bookingRepository.save(booking);
+            bed.setBooking(null);
+            Pilgrim pilgrim = booking.getPilgrim();
+            agencyId = pilgrim != null && pilgrim.getAgency() != null ? pilgrim.getAgency().getId() : null;
+            collectionVersionService.bump(CollectionVersionService.BOOKINGS, agencyId);
+            auditService.record(AuditService.UPDATE, AuditService.BOOKING, booking.getId(), agencyId,
+                    bookingBefore, AuditService.stateOf(booking));
         }
 
         bed.setStatus("Available");
-        return bedRepository.save(bed);
+        Bed saved = bedRepository.save(bed);
+        tentCounterService.statusChanged(saved, previousStatus, "Available", previousPilgrim);
+        collectionVersionService.bump(CollectionVersionService.BEDS);
+        auditService.record(AuditService.UPDATE, AuditService.BED, bed.getId(), agencyId,
+                bedBefore, AuditService.stateOf(saved));
+        syncService.recordScopeExit(saved.getTent(), agencyId);
+        eventPublisher.publishEvent(new BedsFreedEvent(List.of(saved.getId())));
+        return saved;
     }
 }
\ No newline at end of file
@@ -0,0 +1,286 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.DTO.BedHoldDTOOut;
+import com.example.wafd.Model.BedHold;
+import com.example.wafd.Model.User;
+import com.example.wafd.Repository.BedHoldRepository;
+import com.example.wafd.Repository.BedRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short reservations of beds while an operator finishes an assignment.
+ *
+ * <p>A hold flips the bed from {@code Available} to {@code Reserved} with a
+ * conditional update, so only one operator can win a bed, and stores the
+ * deadline in {@code bed_hold}. Deadlines are also kept in a {@link DelayQueue};
+ * a single expiry thread wakes when the earliest one passes, drains every hold
+ * that is due and releases them in one batch. On startup the queue is rebuilt
+ * from {@code bed_hold}, and a periodic sweep releases holds that another
+ * instance queued but never expired.</p>
+ */
+@Slf4j
+@Service
+public class BedHoldService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private record Expiry(Integer bedId, long deadlineMillis) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineMillis, ((Expiry) other).deadlineMillis);
+        }
+    }
+
+    private final BedHoldRepository bedHoldRepository;
+    private final BedRepository bedRepository;
+    private final TentCounterService tentCounterService;
+    private final BedAssignmentService bedAssignmentService;
+    private final AuthenticationService authenticationService;
+    private final CollectionVersionService collectionVersionService;
+    private final AuditService auditService;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultMinutes;
+    private final int maxMinutes;
+
+    private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+    private final Thread expiryThread;
+
+    public BedHoldService(BedHoldRepository bedHoldRepository,
+                          BedRepository bedRepository,
+                          TentCounterService tentCounterService,
+                          BedAssignmentService bedAssignmentService,
+                          AuthenticationService authenticationService,
+                          CollectionVersionService collectionVersionService,
+                          AuditService auditService,
+                          CacheManager cacheManager,
+                          ApplicationEventPublisher eventPublisher,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${bed.hold.default-minutes:10}") int defaultMinutes,
+                          @Value("${bed.hold.max-minutes:60}") int maxMinutes) {
+        this.bedHoldRepository = bedHoldRepository;
+        this.bedRepository = bedRepository;
+        this.tentCounterService = tentCounterService;
+        this.bedAssignmentService = bedAssignmentService;
+        this.authenticationService = authenticationService;
+        this.collectionVersionService = collectionVersionService;
+        this.auditService = auditService;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultMinutes = defaultMinutes;
+        this.maxMinutes = maxMinutes;
+
+        this.expiryThread = new Thread(this::expireLoop, "bed-hold-expiry");
+        expiryThread.setDaemon(true);
+        expiryThread.start();
+    }
+
+    /**
+     * Reserves an available bed for the current user. Holding a bed you
+     * already hold extends the hold.
+     */
+    @Transactional
+    public BedHoldDTOOut hold(Integer bedId, Integer minutes) {
+        int holdMinutes = minutes != null ? minutes : defaultMinutes;
+        if (holdMinutes < 1 || holdMinutes > maxMinutes) {
+            throw new ApiException("minutes must be between 1 and " + maxMinutes);
+        }
+        User currentUser = authenticationService.getCurrentUser();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(holdMinutes);
+
+        BedHold hold = bedHoldRepository.findForUpdate(bedId);
+        boolean live = hold != null && hold.getExpiresAt().isAfter(now);
+        if (live && !hold.getHeldBy().equals(currentUser.getId())) {
+            throw new ApiException("Bed is held by another user");
+        }
+        if (live) {
+            hold.setExpiresAt(expiresAt);
+        } else {
+            if (hold != null) {
+                // Lapsed, but the expiry thread has not reached it yet
+                tentCounterService.statusChanging(List.of(bedId), "Reserved", "Available");
+                bedRepository.releaseReserved(List.of(bedId), now);
+            }
+            tentCounterService.statusChanging(List.of(bedId), "Available", "Reserved");
+            if (bedRepository.reserveIfAvailable(bedId, now) == 0) {
+                if (bedRepository.findBedById(bedId) == null) {
+                    throw new ApiException("Bed not found");
+                }
+                throw new ApiException("Bed is not available");
+            }
+            if (hold != null) {
+                hold.setHeldBy(currentUser.getId());
+                hold.setExpiresAt(expiresAt);
+            } else {
+                hold = bedHoldRepository.save(new BedHold(bedId, currentUser.getId(), expiresAt, null));
+            }
+            collectionVersionService.bump(CollectionVersionService.BEDS);
+            evictBeds();
+            auditService.record(AuditService.UPDATE, AuditService.BED, bedId, null,
+                    Map.of("status", "Available"), Map.of("status", "Reserved"));
+        }
+
+        schedule(bedId, expiresAt);
+        return BedHoldDTOOut.fromEntity(hold);
+    }
+
+    /**
+     * Turns the current user's hold into a booking for {@code pilgrimId}.
+     */
+    @Transactional
+    public void confirm(Integer bedId, Integer pilgrimId) {
+        BedHold hold = requireOwnHold(bedId);
+        bedAssignmentService.assignHeldBed(pilgrimId, bedId);
+        bedHoldRepository.delete(hold);
+    }
+
+    @Transactional
+    public void release(Integer bedId) {
+        requireOwnHold(bedId);
+        releaseHolds(List.of(bedId), LocalDateTime.now());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildQueue() {
+        List<BedHold> holds = bedHoldRepository.findAll();
+        for (BedHold hold : holds) {
+            expiries.add(new Expiry(hold.getBedId(), toMillis(hold.getExpiresAt())));
+        }
+        log.info("Restored {} bed holds", holds.size());
+    }
+
+    // Backstop for holds queued on another instance that went away
+    @Scheduled(fixedDelayString = "${bed.hold.sweep-ms:60000}", initialDelayString = "${bed.hold.sweep-ms:60000}")
+    public void sweepExpired() {
+        List<Integer> due = bedHoldRepository.findExpiredBedIds(LocalDateTime.now(), PageRequest.of(0, BATCH_SIZE));
+        if (!due.isEmpty()) {
+            expire(due);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        expiryThread.interrupt();
+        expiryThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void expireLoop() {
+        List<Expiry> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(expiries.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            expiries.drainTo(batch, BATCH_SIZE - 1);
+            try {
+                expire(batch.stream().map(Expiry::bedId).distinct().toList());
+            } catch (RuntimeException e) {
+                // Left in bed_hold, so the next sweep retries them
+                log.error("Could not release {} expired bed holds", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Releases the holds among {@code bedIds} whose deadline has passed. Holds
+     * that were extended, confirmed or released since they were queued are
+     * left alone.
+     */
+    private void expire(Collection<Integer> bedIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Integer> due = bedHoldRepository.findExpiredBedIds(bedIds, now);
+            if (!due.isEmpty()) {
+                releaseHolds(due, now);
+                log.debug("Released {} expired bed holds", due.size());
+            }
+        });
+    }
+
+    private void releaseHolds(List<Integer> bedIds, LocalDateTime now) {
+        bedHoldRepository.deleteByBedIds(bedIds);
+        tentCounterService.statusChanging(bedIds, "Reserved", "Available");
+        bedRepository.releaseReserved(bedIds, now);
+        collectionVersionService.bump(CollectionVersionService.BEDS);
+        evictBeds();
+        for (Integer bedId : bedIds) {
+            auditService.record(AuditService.UPDATE, AuditService.BED, bedId, null,
+                    Map.of("status", "Reserved"), Map.of("status", "Available"));
+        }
+        eventPublisher.publishEvent(new BedsFreedEvent(bedIds));
+    }
+
+    private BedHold requireOwnHold(Integer bedId) {
+        User currentUser = authenticationService.getCurrentUser();
+        BedHold hold = bedHoldRepository.findForUpdate(bedId);
+        if (hold == null || !hold.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new ApiException("No active hold on this bed");
+        }
+        if (!hold.getHeldBy().equals(currentUser.getId()) && !"Admin".equals(currentUser.getRole())) {
+            throw new ApiException("Bed is held by another user");
+        }
+        return hold;
+    }
+
+    private void schedule(Integer bedId, LocalDateTime expiresAt) {
+        Expiry expiry = new Expiry(bedId, toMillis(expiresAt));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    expiries.add(expiry);
+                }
+            });
+        } else {
+            expiries.add(expiry);
+        }
+    }
+
+    // Background releases bypass the controllers' @CacheEvict
+    private void evictBeds() {
+        Cache beds = cacheManager.getCache("beds");
+        if (beds != null) {
+            beds.clear();
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,12 +1,20 @@
 package com.example.wafd.Service;
 
 import com.example.wafd.Api.ApiException;
+import com.example.wafd.DTO.BedDTOOut;
 import com.example.wafd.Model.Bed;
+import com.example.wafd.Model.Pilgrim;
 import com.example.wafd.Repository.BedRepository;
+import com.example.wafd.Util.BatchIds;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -14,24 +22,65 @@ public class BedService {
 
     private final BedRepository bedRepository;
     private final AuthenticationService authenticationService;
+    private final SyncService syncService;
+    private final CollectionVersionService collectionVersionService;
+    private final TentCounterService tentCounterService;
+    private final ListStreamingService listStreamingService;
+
+    @Value("${batch.get.max-ids:100}")
+    private int maxBatchIds;
     
-    public List<Bed> findAllBeds(){
-        return bedRepository.findAll();
+    public ListStreamingService.ListStream streamAllBeds(String accept){
+        return listStreamingService.stream(accept, bedRepository::findPageAfter, Bed::getId, bed -> bed);
+    }
+
+    /**
+     * Beds by id in one query, in the order asked; supervisors only get beds in
+     * tents holding pilgrims of their agency, other ids are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<BedDTOOut> findBedsByIds(List<Integer> ids){
+        Set<Integer> requested = BatchIds.of(ids, maxBatchIds);
+        var currentUser = authenticationService.getCurrentUser();
+        Integer agencyId = "Supervisor".equals(currentUser.getRole()) && currentUser.getManagedAgency() != null
+                ? currentUser.getManagedAgency().getId()
+                : null;
+        if (requested.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, BedDTOOut> found = new HashMap<>();
+        for (Bed bed : bedRepository.findByIdsWithDetails(requested, agencyId)) {
+            found.put(bed.getId(), BedDTOOut.fromEntity(bed));
+        }
+        return BatchIds.inOrder(requested, found);
     }
     
     public void addBed(Bed bed){
         bed.setStatus("Available");
         bedRepository.save(bed);
+        collectionVersionService.bump(CollectionVersionService.BEDS);
     }
     
+    @Transactional
     public void deleteBed(Integer id){
         Bed bedToDelete = bedRepository.findBedById(id);
         if (bedToDelete == null){
             throw new ApiException("Bed not found");
         }
+        syncService.recordBedDeletion(bedToDelete);
+        tentCounterService.statusChanged(bedToDelete, bedToDelete.getStatus(), null);
         bedRepository.delete(bedToDelete);
+        collectionVersionService.bump(CollectionVersionService.BEDS);
+        if (bedToDelete.getBooking() != null) {
+            collectionVersionService.bump(CollectionVersionService.BOOKINGS);
+            Pilgrim pilgrim = bedToDelete.getBooking().getPilgrim();
+            syncService.recordScopeExit(bedToDelete.getTent(),
+                    pilgrim != null && pilgrim.getAgency() != null ? pilgrim.getAgency().getId() : null);
+        }
     }
 
+    @Transactional
     public void updateBedStatus(Integer id, String status){
         var currentUser = authenticationService.getCurrentUser();
 
@@ -44,7 +93,9 @@ public class BedService {
         if (bed == null){
             throw new ApiException("Bed not found");
         }
+        tentCounterService.statusChanged(bed, bed.getStatus(), status);
         bed.setStatus(status);
         bedRepository.save(bed);
+        collectionVersionService.bump(CollectionVersionService.BEDS);
     }
 }
\ No newline at end of file
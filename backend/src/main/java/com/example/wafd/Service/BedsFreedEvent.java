@@ -0,0 +1,10 @@
+package com.example.wafd.Service;
+
+import java.util.List;
+
+/**
+ * Published when beds become {@code Available}, so {@link WaitlistService} can
+ * place waiting pilgrims on them once the freeing transaction commits.
+ */
+public record BedsFreedEvent(List<Integer> bedIds) {
+}
@@ -4,9 +4,13 @@ import com.example.wafd.Api.ApiException;
 import com.example.wafd.Model.*;
 import com.example.wafd.Repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -17,12 +21,26 @@ public class BookingService {
     private final PilgrimRepository pilgrimRepository;
     private final AgencyRepository agencyRepository;
     private final BedRepository bedRepository;
+    private final SyncService syncService;
+    private final CollectionVersionService collectionVersionService;
+    private final AuditService auditService;
+    private final WaitlistService waitlistService;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TentCounterService tentCounterService;
+    private final ListStreamingService listStreamingService;
 
-    public List<Booking> findAllBookings(){
-        return bookingRepository.findAll();
+    public ListStreamingService.ListStream streamAllBookings(String accept){
+        return listStreamingService.stream(accept, bookingRepository::findPageAfter, Booking::getId, booking -> booking);
     }
 
-    public void addBooking(String pilgrimIdentifier){
+    /**
+     * Books the first free bed in the pilgrim's agency. When every matching
+     * tent is full the pilgrim is put on the waitlist instead and false is
+     * returned.
+     */
+    @Transactional
+    public boolean addBooking(String pilgrimIdentifier){
         Pilgrim pilgrim = resolvePilgrim(pilgrimIdentifier);
         if (pilgrim == null){
             throw new ApiException("Pilgrim not found");
@@ -45,7 +63,8 @@ public class BookingService {
         String pilgrimGender = pilgrim.getGender() != null ? pilgrim.getGender().toLowerCase() : "male";
         
         for (Tent tent : agency.getTents()){
-            if (tent.getCapacity() == 0){
+            // Full tents are skipped on their counters, without reading their beds
+            if (tent.getCapacity() - tent.getOccupiedBeds() - tent.getReservedBeds() - tent.getMaintenanceBeds() <= 0){
                 continue;
             }
             
@@ -55,19 +74,25 @@ public class BookingService {
                 continue;
             }
             
-            for (Bed bed : tent.getBeds()){
-                if (bed.getStatus().equals("Booked")){
-                    continue;
-                }
+            for (Bed bed : bedRepository.findAvailableInTent(tent.getId(), PageRequest.of(0, 1))){
+                Map<String, Object> bedBefore = AuditService.stateOf(bed);
                 bed.setStatus("Booked");
+                bedRepository.save(bed);
+                tentCounterService.statusChanged(bed, "Available", "Booked", pilgrim);
                 Booking booking = new Booking(null,"Booked",pilgrim,bed,null,null);
                 bookingRepository.save(booking);
-                return;
+                collectionVersionService.bump(CollectionVersionService.BOOKINGS, agency.getId());
+                collectionVersionService.bump(CollectionVersionService.BEDS);
+                recordBooked(booking, bed, bedBefore, agency.getId());
+                waitlistEntryRepository.deleteByPilgrimId(pilgrim.getId());
+                return true;
             }
         }
-        throw new ApiException("All Tents are full");
+        waitlistService.enqueue(pilgrim);
+        return false;
     }
 
+    @Transactional
     public void updateBookedBed(Integer bed_id, String pilgrimIdentifier){
         Pilgrim pilgrim = resolvePilgrim(pilgrimIdentifier);
         if (pilgrim == null){
@@ -105,18 +130,64 @@ public class BookingService {
             }
         }
         
+        Map<String, Object> bedBefore = AuditService.stateOf(bed);
         bed.setStatus("Booked");
+        bedRepository.save(bed);
+        tentCounterService.statusChanged(bed, "Available", "Booked", pilgrim);
         Booking booking = new Booking(null,"Booked",pilgrim,bed,null,null);
         bookingRepository.save(booking);
         pilgrimRepository.save(pilgrim);
+        collectionVersionService.bump(CollectionVersionService.BOOKINGS, pilgrim.getAgency().getId());
+        collectionVersionService.bump(CollectionVersionService.BEDS);
+        recordBooked(booking, bed, bedBefore, pilgrim.getAgency().getId());
+        waitlistEntryRepository.deleteByPilgrimId(pilgrim.getId());
     }
 
+    @Transactional
     public void deleteBooking(Integer id){
         Booking booking = bookingRepository.findBookingById(id);
         if (booking == null){
             throw new ApiException("Booking not found");
         }
+        Map<String, Object> bookingBefore = AuditService.stateOf(booking);
+        Pilgrim pilgrim = booking.getPilgrim();
+        Integer agencyId = pilgrim != null && pilgrim.getAgency() != null ? pilgrim.getAgency().getId() : null;
+
+        // Free the bed along with the booking, otherwise it stays Booked with nobody in it
+        Bed bed = booking.getBed();
+        if (bed != null) {
+            bed.setBooking(null);
+            if ("Booked".equals(bed.getStatus())) {
+                Map<String, Object> bedBefore = AuditService.stateOf(bed);
+                bed.setStatus("Available");
+                bedRepository.save(bed);
+                tentCounterService.statusChanged(bed, "Booked", "Available", pilgrim);
+                collectionVersionService.bump(CollectionVersionService.BEDS);
+                auditService.record(AuditService.UPDATE, AuditService.BED, bed.getId(), agencyId,
+                        bedBefore, AuditService.stateOf(bed));
+                eventPublisher.publishEvent(new BedsFreedEvent(List.of(bed.getId())));
+            }
+        }
+
+        // Both sides cascade to the booking and would otherwise keep it from being deleted
+        if (pilgrim != null) {
+            pilgrim.setBooking(null);
+        }
+        syncService.recordBookingDeletion(booking);
         bookingRepository.delete(booking);
+        collectionVersionService.bump(CollectionVersionService.BOOKINGS, agencyId);
+        if (bed != null) {
+            syncService.recordScopeExit(bed.getTent(), agencyId);
+        }
+        auditService.record(AuditService.DELETE, AuditService.BOOKING, booking.getId(), agencyId,
+                bookingBefore, null);
+    }
+
+    private void recordBooked(Booking booking, Bed bed, Map<String, Object> bedBefore, Integer agencyId) {
+        auditService.record(AuditService.CREATE, AuditService.BOOKING, booking.getId(), agencyId,
+                null, AuditService.stateOf(booking));
+        auditService.record(AuditService.UPDATE, AuditService.BED, bed.getId(), agencyId,
+                bedBefore, AuditService.stateOf(bed));
     }
 
     private Pilgrim resolvePilgrim(String identifier) {
@@ -0,0 +1,350 @@
+package com.example.wafd.Service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the per-instance caches coherent across instances through the shared
+ * database, without a message broker.
+ *
+ * <p>Every local eviction appends a row to {@code cache_invalidation}; inside
+ * a transaction the row commits with the write that caused it. Each instance
+ * tails the table from a daemon thread every {@code poll-ms} and applies the
+ * rows from other instances, so a remote write is visible within one poll
+ * interval. A row names a Spring cache to clear, or starts with a prefix that
+ * a {@link #subscribe subscriber} registered (collection versions, Hibernate
+ * second-level cache regions).</p>
+ *
+ * <p>The log is divided into epochs by {@code epoch:} rows, which the purge
+ * appends before the current epoch's row could be purged. A starting instance
+ * reads the log from the latest epoch row, and a subscriber that counts rows
+ * (the collection versions) gets them from the log only, the writer's own
+ * included, so every instance counts the same rows since the epoch began and
+ * the counts agree across instances.</p>
+ *
+ * <p>Each poll reads every row past the highest id seen so far, a batch at a
+ * time, so a burst is applied in one poll. Auto-increment ids are assigned at
+ * insert, not at commit, so a lower id can show up after a higher one: the
+ * ids skipped over are looked up again by id on each poll until they appear
+ * or {@code gap-timeout-ms} has passed (a rolled-back insert leaves a gap for
+ * good).</p>
+ */
+@Slf4j
+@Service
+public class CacheInvalidationService {
+
+    /** Applies remote rows whose name starts with the prefix it subscribed with. */
+    public interface Subscriber {
+
+        /** Applies one row; {@code key} is the row's name without the prefix. */
+        void apply(String key);
+
+        /** Called when rows may have been missed, after the log could not be read. */
+        void applyAll();
+
+        /**
+         * Called when the log enters a new epoch, before the rows after it
+         * are applied. {@code epoch} is the same on every instance.
+         */
+        default void epochStarted(String epoch) { }
+
+        /**
+         * Whether to get every row, in order and the writer's own included,
+         * instead of each remote name once per poll.
+         */
+        default boolean countsRows() {
+            return false;
+        }
+    }
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String INSERT =
+            "INSERT INTO cache_invalidation (cache_name, origin, created_at) VALUES (?, ?, ?)";
+    private static final String TAIL =
+            "SELECT id, cache_name, origin FROM cache_invalidation WHERE id > ? ORDER BY id LIMIT " + BATCH_SIZE;
+    private static final String BY_ID =
+            "SELECT id, cache_name, origin FROM cache_invalidation WHERE id IN (%s)";
+    private static final String EPOCH = "epoch:";
+    private static final String LATEST_EPOCH =
+            "SELECT id, cache_name, origin FROM cache_invalidation WHERE cache_name LIKE 'epoch:%' ORDER BY id DESC LIMIT 1";
+
+    private record Row(long id, String cacheName, String origin) { }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long pollMs;
+    private final long gapTimeoutMs;
+    private final int retentionMinutes;
+
+    // Identifies this process's rows, which were already applied locally
+    private final String origin = Long.toHexString(new SecureRandom().nextLong());
+
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final ThreadLocal<Set<String>> batched = new ThreadLocal<>();
+    private volatile CacheManager localCaches;
+    private volatile Thread tailer;
+
+    // Tailer thread state
+    private long highest = -1; // highest id read; -1 until the first poll
+    private final Map<Long, Long> missingSince = new TreeMap<>(); // ids below highest not seen yet
+    private boolean failing;
+
+    public CacheInvalidationService(JdbcTemplate jdbcTemplate,
+                                    @Value("${cache.invalidation.poll-ms:250}") long pollMs,
+                                    @Value("${cache.invalidation.gap-timeout-ms:5000}") long gapTimeoutMs,
+                                    @Value("${cache.invalidation.retention-minutes:60}") int retentionMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pollMs = pollMs;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.retentionMinutes = retentionMinutes;
+    }
+
+    /**
+     * Sets the caches that remote invalidations are applied to. Evictions
+     * made on them directly are not published again.
+     */
+    public void register(CacheManager localCaches) {
+        this.localCaches = localCaches;
+    }
+
+    /**
+     * Hands remote rows named {@code prefix + key} to {@code subscriber}
+     * instead of clearing a Spring cache. Prefixes end with a colon, which
+     * cache names never contain.
+     */
+    public void subscribe(String prefix, Subscriber subscriber) {
+        subscribers.put(prefix, subscriber);
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Tells the other instances to clear {@code cacheName}, or to apply a
+     * subscriber's row. A failed append is logged rather than failing the
+     * write that caused it, and returns false.
+     */
+    public boolean publish(String cacheName) {
+        Set<String> names = batched.get();
+        if (names != null) {
+            names.add(cacheName);
+            return true;
+        }
+        try {
+            jdbcTemplate.update(INSERT, cacheName, origin, LocalDateTime.now());
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Could not publish invalidation of cache {}: {}", cacheName, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Runs {@code evictions} and publishes each name they published once at
+     * the end, so evicting many keys of a cache appends one row instead of
+     * one per key (the other instances clear the whole cache either way).
+     */
+    public void batch(Runnable evictions) {
+        if (batched.get() != null) {
+            evictions.run();
+            return;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        batched.set(names);
+        try {
+            evictions.run();
+        } finally {
+            batched.remove();
+            names.forEach(this::publish);
+        }
+    }
+
+    // Not started during context refresh, so the AOT training run never touches the database
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (tailer == null) {
+            tailer = new Thread(this::tailLoop, "cache-invalidation-tailer");
+            tailer.setDaemon(true);
+            tailer.start();
+        }
+    }
+
+    /**
+     * Deletes rows older than {@code retention-minutes}. Starts a new epoch
+     * first when the current one is older than half of that, so the latest
+     * epoch row and the rows after it are never purged.
+     */
+    @Scheduled(fixedDelayString = "${cache.invalidation.purge-ms:3600000}", initialDelayString = "${cache.invalidation.purge-ms:3600000}")
+    public void purge() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer recentEpochs = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cache_invalidation WHERE created_at >= ? AND cache_name LIKE 'epoch:%'",
+                Integer.class, now.minusMinutes(retentionMinutes / 2));
+        if (recentEpochs == null || recentEpochs == 0) {
+            jdbcTemplate.update(INSERT, EPOCH + Long.toHexString(new SecureRandom().nextLong()), origin, now);
+        }
+        int purged = jdbcTemplate.update("DELETE FROM cache_invalidation WHERE created_at < ?",
+                now.minusMinutes(retentionMinutes));
+        log.debug("Purged {} cache invalidations", purged);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        Thread thread = tailer;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void tailLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            poll();
+            try {
+                Thread.sleep(pollMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads the log up to the rows committed so far, for a writer whose
+     * subscribers must see its own row before it returns. Returns false when
+     * the log could not be read.
+     */
+    public boolean catchUp() {
+        poll();
+        return !failing;
+    }
+
+    /** Applies the rows appended since the last poll. */
+    synchronized void poll() {
+        try {
+            if (highest < 0) {
+                // Replayed from the latest epoch on; clearing the still empty local caches again is harmless
+                List<Row> epoch = jdbcTemplate.query(LATEST_EPOCH, this::row);
+                highest = epoch.isEmpty() ? 0 : epoch.get(0).id();
+                startEpoch(epoch.isEmpty() ? EPOCH + "0" : epoch.get(0).cacheName());
+            }
+            if (failing) {
+                // Rows appended while we could not read may already be purged
+                clearAll();
+                failing = false;
+            }
+            List<Row> rows;
+            do {
+                rows = jdbcTemplate.query(TAIL, this::row, highest);
+                apply(rows);
+            } while (rows.size() == BATCH_SIZE);
+            recheckGaps();
+        } catch (DataAccessException e) {
+            failing = true;
+            log.warn("Could not read the cache invalidation log: {}", e.getMessage());
+        }
+    }
+
+    private Row row(ResultSet rs, int rowNum) throws SQLException {
+        return new Row(rs.getLong(1), rs.getString(2), rs.getString(3));
+    }
+
+    private void recheckGaps() {
+        if (missingSince.isEmpty()) {
+            return;
+        }
+        List<Long> ids = missingSince.keySet().stream().limit(BATCH_SIZE).toList();
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        apply(jdbcTemplate.query(BY_ID.formatted(placeholders), this::row, ids.toArray()));
+        long now = System.currentTimeMillis();
+        missingSince.values().removeIf(since -> now - since >= gapTimeoutMs);
+    }
+
+    private void apply(List<Row> rows) {
+        long now = System.currentTimeMillis();
+        Set<String> names = new LinkedHashSet<>();
+        for (Row row : rows) {
+            if (row.id() > highest) {
+                // A jump wider than a batch is not a race between inserts
+                for (long id = highest + 1; id < row.id() && row.id() - highest <= BATCH_SIZE; id++) {
+                    missingSince.put(id, now);
+                }
+                highest = row.id();
+            } else {
+                missingSince.remove(row.id());
+            }
+            // Epochs and counted rows apply in order on every instance, the writer's own included
+            Map.Entry<String, Subscriber> subscriber = subscriberFor(row.cacheName());
+            if (row.cacheName().startsWith(EPOCH)) {
+                startEpoch(row.cacheName());
+            } else if (subscriber != null && subscriber.getValue().countsRows()) {
+                subscriber.getValue().apply(row.cacheName().substring(subscriber.getKey().length()));
+            } else if (!origin.equals(row.origin())) {
+                names.add(row.cacheName());
+            }
+        }
+        for (String name : names) {
+            applyRemote(name);
+        }
+    }
+
+    private void applyRemote(String name) {
+        Map.Entry<String, Subscriber> subscriber = subscriberFor(name);
+        if (subscriber != null) {
+            subscriber.getValue().apply(name.substring(subscriber.getKey().length()));
+            return;
+        }
+        Cache cache = localCaches != null ? localCaches.getCache(name) : null;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private Map.Entry<String, Subscriber> subscriberFor(String name) {
+        for (Map.Entry<String, Subscriber> subscriber : subscribers.entrySet()) {
+            if (name.startsWith(subscriber.getKey())) {
+                return subscriber;
+            }
+        }
+        return null;
+    }
+
+    private void startEpoch(String row) {
+        String epoch = row.substring(EPOCH.length());
+        subscribers.values().forEach(subscriber -> subscriber.epochStarted(epoch));
+    }
+
+    private void clearAll() {
+        CacheManager caches = localCaches;
+        if (caches != null) {
+            for (String name : caches.getCacheNames()) {
+                Cache cache = caches.getCache(name);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+        }
+        subscribers.values().forEach(Subscriber::applyAll);
+    }
+}
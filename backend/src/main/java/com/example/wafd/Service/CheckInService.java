@@ -0,0 +1,258 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.DTO.ScanDTOIn;
+import com.example.wafd.DTO.ScanResultDTOOut;
+import com.example.wafd.Model.Bed;
+import com.example.wafd.Model.Booking;
+import com.example.wafd.Model.Pilgrim;
+import com.example.wafd.Model.User;
+import com.example.wafd.Repository.BedRepository;
+import com.example.wafd.Repository.PilgrimRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+public class CheckInService {
+
+    private static final String CHECK_IN = "check_in";
+    private static final String CHECK_OUT = "check_out";
+
+    private final PilgrimRepository pilgrimRepository;
+    private final BedRepository bedRepository;
+    private final AuthenticationService authenticationService;
+    private final CollectionVersionService collectionVersionService;
+    private final TentCounterService tentCounterService;
+    private final CacheManager cacheManager;
+    private final CacheInvalidationService cacheInvalidationService;
+
+    @Value("${checkin.batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Transactional
+    public ScanResultDTOOut scan(ScanDTOIn scan) {
+        return scanBatch(List.of(scan)).get(0);
+    }
+
+    /**
+     * Applies scans in the order they happened at the kiosk. All codes are
+     * resolved with one query and every touched row is written in the same
+     * transaction, so a batch replayed after an outage costs one round trip.
+     * Cached pilgrims are evicted once per batch, after commit, and only for
+     * scans that changed a pilgrim's status.
+     *
+     * <p>Beds are read without a lock, so their status changes are applied
+     * at the end with conditional updates from the status read. A kiosk that
+     * lost a race on the same bed updates nothing and moves no counters.</p>
+     */
+    @Transactional
+    public List<ScanResultDTOOut> scanBatch(List<ScanDTOIn> scans) {
+        if (scans == null || scans.isEmpty()) {
+            throw new ApiException("At least one scan is required");
+        }
+        if (scans.size() > maxBatchSize) {
+            throw new ApiException("A batch can contain at most " + maxBatchSize + " scans");
+        }
+
+        User currentUser = authenticationService.getCurrentUser();
+        Integer scopedAgencyId = "Supervisor".equals(currentUser.getRole()) && currentUser.getManagedAgency() != null
+                ? currentUser.getManagedAgency().getId()
+                : null;
+
+        Set<String> codes = new HashSet<>();
+        for (ScanDTOIn scan : scans) {
+            if (scan.getCode() == null || scan.getCode().isBlank()) {
+                throw new ApiException("Code is required");
+            }
+            if (scan.getAction() != null && !CHECK_IN.equals(scan.getAction()) && !CHECK_OUT.equals(scan.getAction())) {
+                throw new ApiException("Action must be check_in or check_out");
+            }
+            codes.add(scan.getCode().trim());
+        }
+
+        // Registration numbers win over badge codes if both ever collide
+        Map<String, Pilgrim> pilgrimsByCode = new HashMap<>();
+        for (Pilgrim pilgrim : pilgrimRepository.findAllByNationalIdForScan(codes)) {
+            pilgrimsByCode.put(pilgrim.getNationalId(), pilgrim);
+        }
+        for (Pilgrim pilgrim : pilgrimRepository.findAllByRegistrationNumberForScan(codes)) {
+            pilgrimsByCode.put(pilgrim.getRegistrationNumber(), pilgrim);
+        }
+
+        // Offline kiosks may upload out of order; replay by scan time, keeping input order for results
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < scans.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(i -> Objects.requireNonNullElse(scans.get(i).getScannedAt(), LocalDateTime.MAX)));
+
+        ScanResultDTOOut[] results = new ScanResultDTOOut[scans.size()];
+        Set<Pilgrim> changedPilgrims = new LinkedHashSet<>();
+        Map<Integer, BedMove> bedMoves = new LinkedHashMap<>();
+
+        for (int i : order) {
+            ScanDTOIn scan = scans.get(i);
+            String code = scan.getCode().trim();
+            Pilgrim pilgrim = pilgrimsByCode.get(code);
+
+            if (pilgrim == null) {
+                results[i] = new ScanResultDTOOut(code, "not_found", null, null, null, null, null);
+                continue;
+            }
+            if (scopedAgencyId != null && (pilgrim.getAgency() == null || !scopedAgencyId.equals(pilgrim.getAgency().getId()))) {
+                results[i] = new ScanResultDTOOut(code, "forbidden", null, null, null, null, null);
+                continue;
+            }
+
+            String action = scan.getAction() != null ? scan.getAction() : CHECK_IN;
+            results[i] = CHECK_OUT.equals(action)
+                    ? checkOut(code, pilgrim, changedPilgrims, bedMoves)
+                    : checkIn(code, pilgrim, changedPilgrims, bedMoves);
+        }
+
+        if (!changedPilgrims.isEmpty()) {
+            pilgrimRepository.saveAll(changedPilgrims);
+            collectionVersionService.bump(CollectionVersionService.PILGRIMS, changedPilgrims.stream()
+                    .map(p -> p.getAgency() != null ? p.getAgency().getId() : null)
+                    .distinct()
+                    .toArray(Integer[]::new));
+            evictAfterCommit(changedPilgrims.stream().map(Pilgrim::getId).toList());
+        }
+        moveBeds(bedMoves.values());
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Moves each bed from the status it was read with to its last status in
+     * the batch. The counters count only the beds still in the status read,
+     * under their lock, and the update skips the others.
+     */
+    private void moveBeds(Collection<BedMove> moves) {
+        Map<List<String>, List<Integer>> byTransition = new LinkedHashMap<>();
+        for (BedMove move : moves) {
+            if (!move.to.equals(move.from)) {
+                byTransition.computeIfAbsent(List.of(move.from, move.to), key -> new ArrayList<>()).add(move.bedId);
+            }
+        }
+        if (byTransition.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        byTransition.forEach((transition, bedIds) -> {
+            tentCounterService.statusChanging(bedIds, transition.get(0), transition.get(1));
+            bedRepository.updateStatus(bedIds, transition.get(0), transition.get(1), now);
+        });
+        collectionVersionService.bump(CollectionVersionService.BEDS);
+    }
+
+    // Bed lists are not cached (their reads are versioned by ETag), and a pilgrim does not show its bed's status
+    private void evictAfterCommit(List<Integer> pilgrimIds) {
+        Runnable evict = () -> cacheInvalidationService.batch(() -> {
+            Cache pilgrims = cacheManager.getCache("pilgrims");
+            if (pilgrims != null) {
+                pilgrimIds.forEach(pilgrims::evict);
+                pilgrims.evict(SimpleKey.EMPTY); // getAllPilgrims()
+            }
+            Cache search = cacheManager.getCache("pilgrimSearch");
+            if (search != null) {
+                search.clear();
+            }
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    private ScanResultDTOOut checkIn(String code, Pilgrim pilgrim, Set<Pilgrim> changedPilgrims, Map<Integer, BedMove> bedMoves) {
+        BedMove bed = move(activeBed(pilgrim), bedMoves);
+        boolean alreadyIn = "arrived".equals(pilgrim.getStatus())
+                && (bed == null || "Checked_in".equals(bed.to));
+
+        if (!"arrived".equals(pilgrim.getStatus())) {
+            pilgrim.setStatus("arrived");
+            changedPilgrims.add(pilgrim);
+        }
+        if (bed != null) {
+            bed.to = "Checked_in";
+        }
+
+        String result = bed == null ? "no_bed" : (alreadyIn ? "already_checked_in" : "checked_in");
+        return toResult(code, result, pilgrim, bed);
+    }
+
+    private ScanResultDTOOut checkOut(String code, Pilgrim pilgrim, Set<Pilgrim> changedPilgrims, Map<Integer, BedMove> bedMoves) {
+        BedMove bed = move(activeBed(pilgrim), bedMoves);
+        boolean alreadyOut = "departed".equals(pilgrim.getStatus())
+                && (bed == null || "Checked_out".equals(bed.to));
+
+        if (!"departed".equals(pilgrim.getStatus())) {
+            pilgrim.setStatus("departed");
+            changedPilgrims.add(pilgrim);
+        }
+        if (bed != null) {
+            bed.to = "Checked_out";
+        }
+
+        String result = bed == null ? "no_bed" : (alreadyOut ? "already_checked_out" : "checked_out");
+        return toResult(code, result, pilgrim, bed);
+    }
+
+    // The managed Bed is left untouched: flushing it would overwrite the conditional update
+    private static BedMove move(Bed bed, Map<Integer, BedMove> bedMoves) {
+        return bed == null ? null : bedMoves.computeIfAbsent(bed.getId(), id -> new BedMove(id, bed.getStatus()));
+    }
+
+    private Bed activeBed(Pilgrim pilgrim) {
+        Booking booking = pilgrim.getBooking();
+        if (booking == null || !"Booked".equals(booking.getStatus())) {
+            return null;
+        }
+        return booking.getBed();
+    }
+
+    private ScanResultDTOOut toResult(String code, String result, Pilgrim pilgrim, BedMove bed) {
+        String firstName = pilgrim.getFirstName() != null ? pilgrim.getFirstName() : "";
+        String lastName = pilgrim.getLastName() != null ? pilgrim.getLastName() : "";
+        return new ScanResultDTOOut(
+                code,
+                result,
+                pilgrim.getId(),
+                String.format("%s %s", firstName, lastName).trim(),
+                pilgrim.getStatus(),
+                bed != null ? bed.bedId : null,
+                bed != null ? bed.to : null
+        );
+    }
+
+    /** A bed's status as read, and the status the scans so far move it to. */
+    private static final class BedMove {
+        private final Integer bedId;
+        private final String from;
+        private String to;
+
+        BedMove(Integer bedId, String from) {
+            this.bedId = bedId;
+            this.from = from;
+            this.to = from;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.wafd.Service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory version counters per collection, and per collection and agency,
+ * used to build ETags for the polled list endpoints without touching the
+ * database. Services call {@link #bump} on every write; inside a transaction
+ * the bump is deferred until after commit, so a client can never pair a new
+ * version with data read before the write became visible.
+ *
+ * <p>Each bump is appended to the invalidation log with the write, and the
+ * counters only move when the log is read: the writer reads it right after
+ * commit, the other instances within one poll. Every instance counts the same
+ * rows since the log's current epoch began, so the epoch and versions, and the
+ * ETags built from them, are equal across instances and a client may switch
+ * between them. An instance that may have missed rows moves to an epoch of
+ * its own until the log's next one, so its counts never match another's.</p>
+ */
+@Service
+public class CollectionVersionService implements CacheInvalidationService.Subscriber {
+
+    public static final String PILGRIMS = "pilgrims";
+    public static final String BEDS = "beds";
+    public static final String BOOKINGS = "bookings";
+    public static final String TENTS = "tents";
+    public static final String AGENCIES = "agencies";
+
+    private static final String PREFIX = "version:";
+    // Width of cache_invalidation.cache_name; longer agency lists are published unscoped
+    private static final int MAX_ROW_NAME = 64;
+
+    private record Counters(String epoch, Map<String, AtomicLong> counts) { }
+
+    // A private epoch until the log's is read
+    private volatile Counters counters = privateEpoch();
+    private final CacheInvalidationService invalidations;
+
+    public CollectionVersionService(CacheInvalidationService invalidations) {
+        this.invalidations = invalidations;
+        invalidations.subscribe(PREFIX, this);
+    }
+
+    public String getEpoch() {
+        return counters.epoch();
+    }
+
+    /**
+     * Records a write to {@code collection}. When the owning agency is not
+     * known every agency-scoped view of the collection is invalidated.
+     */
+    public void bump(String collection, Integer... agencyIds) {
+        boolean published = publish(collection, agencyIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readBump(published);
+                }
+            });
+        } else {
+            readBump(published);
+        }
+    }
+
+    public long version(String collection) {
+        return get(collection);
+    }
+
+    /**
+     * Version of the rows of {@code collection} visible to one agency: its own
+     * writes plus writes whose agency was not known.
+     */
+    public long version(String collection, Integer agencyId) {
+        return get(collection + ":" + agencyId) + get(collection + ":*");
+    }
+
+    /** Applies a bump read from the log: {@code collection} or {@code collection:id,id}. */
+    @Override
+    public void apply(String key) {
+        int colon = key.indexOf(':');
+        if (colon < 0) {
+            increment(key);
+            return;
+        }
+        String[] ids = key.substring(colon + 1).split(",");
+        Integer[] agencyIds = new Integer[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            agencyIds[i] = Integer.valueOf(ids[i]);
+        }
+        increment(key.substring(0, colon), agencyIds);
+    }
+
+    /** Bumps were possibly missed, so every ETag changes and the counts stop matching other instances. */
+    @Override
+    public void applyAll() {
+        counters = privateEpoch();
+    }
+
+    @Override
+    public void epochStarted(String epoch) {
+        counters = new Counters(epoch, new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public boolean countsRows() {
+        return true;
+    }
+
+    // The versions must move before the write returns, even if the log cannot be read
+    private void readBump(boolean published) {
+        if (!published || !invalidations.catchUp()) {
+            applyAll();
+        }
+    }
+
+    private static Counters privateEpoch() {
+        return new Counters(Long.toHexString(new SecureRandom().nextLong()), new ConcurrentHashMap<>());
+    }
+
+    private boolean publish(String collection, Integer... agencyIds) {
+        StringJoiner scoped = new StringJoiner(",", PREFIX + collection + ":", "").setEmptyValue(PREFIX + collection);
+        for (Integer agencyId : agencyIds) {
+            if (agencyId != null) {
+                scoped.add(agencyId.toString());
+            }
+        }
+        String name = scoped.toString();
+        return invalidations.publish(name.length() <= MAX_ROW_NAME ? name : PREFIX + collection);
+    }
+
+    private void increment(String collection, Integer... agencyIds) {
+        counter(collection).incrementAndGet();
+        boolean scoped = false;
+        for (Integer agencyId : agencyIds) {
+            if (agencyId != null) {
+                counter(collection + ":" + agencyId).incrementAndGet();
+                scoped = true;
+            }
+        }
+        if (!scoped) {
+            counter(collection + ":*").incrementAndGet();
+        }
+    }
+
+    private AtomicLong counter(String key) {
+        return counters.counts().computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private long get(String key) {
+        AtomicLong counter = counters.counts().get(key);
+        return counter != null ? counter.get() : 0L;
+    }
+}
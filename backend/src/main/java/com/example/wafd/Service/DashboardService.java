@@ -0,0 +1,280 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.DTO.AgencyDTO;
+import com.example.wafd.DTO.DashboardDTOOut;
+import com.example.wafd.DTO.PilgrimStatsDTO;
+import com.example.wafd.DTO.TentDTOOut;
+import com.example.wafd.Model.Agency;
+import com.example.wafd.Model.Tent;
+import com.example.wafd.Model.User;
+import com.example.wafd.Repository.AgencyRepository;
+import com.example.wafd.Repository.BedRepository;
+import com.example.wafd.Repository.BookingRepository;
+import com.example.wafd.Repository.PilgrimRepository;
+import com.example.wafd.Repository.TentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Everything the dashboard shows, in one response. The caller is resolved
+ * once; the sections are then read in parallel on a small bounded pool, each
+ * in its own read-only transaction (so on the read replica when there is one).
+ * When the pool is busy a section runs on the request thread instead.
+ *
+ * <p>Each section is cached per scope (all agencies, or one supervisor's
+ * agency) under the versions of the collections it reads, so a write shows up
+ * on the next request. An entry is also dropped when its
+ * {@code dashboard.cache-ttl-ms} window ends, which bounds staleness should
+ * the invalidation log fall behind. {@link
+ * com.example.wafd.Config.ConditionalGetInterceptor} puts the same window in
+ * the dashboard's ETag.</p>
+ */
+@Service
+public class DashboardService {
+
+    public static final String PILGRIMS = "pilgrims";
+    public static final String TENTS = "tents";
+    public static final String AGENCIES = "agencies";
+    public static final String BEDS = "beds";
+    public static final String BOOKINGS = "bookings";
+
+    /** A dashboard body plus its {@code Server-Timing} header value. */
+    public record Dashboard(DashboardDTOOut body, String serverTiming) { }
+
+    private record Section(List<String> collections, List<String> agencyScoped,
+                           Function<Integer, Object> loader, BiConsumer<DashboardDTOOut, Object> setter) { }
+
+    private record CachedSection(String versions, long loadedAt, Object value) { }
+
+    private record Loaded(Object value, long nanos) { }
+
+    private final Map<String, Section> sections = new LinkedHashMap<>();
+    private final Map<String, CachedSection> cache = new ConcurrentHashMap<>();
+
+    private final PilgrimRepository pilgrimRepository;
+    private final TentRepository tentRepository;
+    private final AgencyRepository agencyRepository;
+    private final BedRepository bedRepository;
+    private final BookingRepository bookingRepository;
+    private final AuthenticationService authenticationService;
+    private final CollectionVersionService collectionVersionService;
+    private final TransactionTemplate readOnly;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final long timeoutMs;
+    private final long cacheTtlMs;
+
+    public DashboardService(PilgrimRepository pilgrimRepository,
+                            TentRepository tentRepository,
+                            AgencyRepository agencyRepository,
+                            BedRepository bedRepository,
+                            BookingRepository bookingRepository,
+                            AuthenticationService authenticationService,
+                            CollectionVersionService collectionVersionService,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${dashboard.threads:4}") int threads,
+                            @Value("${dashboard.queue-capacity:32}") int queueCapacity,
+                            @Value("${dashboard.timeout-ms:10000}") long timeoutMs,
+                            @Value("${dashboard.cache-ttl-ms:30000}") long cacheTtlMs) {
+        this.pilgrimRepository = pilgrimRepository;
+        this.tentRepository = tentRepository;
+        this.agencyRepository = agencyRepository;
+        this.bedRepository = bedRepository;
+        this.bookingRepository = bookingRepository;
+        this.authenticationService = authenticationService;
+        this.collectionVersionService = collectionVersionService;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.timeoutMs = timeoutMs;
+        this.cacheTtlMs = cacheTtlMs;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        // The caller's security context travels with each section, so the read replica
+        // routing still sends a user who just wrote to the primary
+        this.executor = new DelegatingSecurityContextExecutorService(
+                ExecutorServiceMetrics.monitor(meterRegistry, pool, "dashboard"));
+
+        String pilgrims = CollectionVersionService.PILGRIMS;
+        String bookings = CollectionVersionService.BOOKINGS;
+        section(PILGRIMS, List.of(pilgrims), List.of(pilgrims),
+                agencyId -> PilgrimService.foldStatistics(pilgrimRepository.countByDimensions(agencyId, null, null, null)),
+                (dto, value) -> dto.setPilgrims((PilgrimStatsDTO) value));
+        section(TENTS, List.of(CollectionVersionService.TENTS, CollectionVersionService.BEDS, pilgrims), List.of(),
+                this::loadTents, (dto, value) -> dto.setTents(cast(value)));
+        section(AGENCIES, List.of(CollectionVersionService.AGENCIES, pilgrims), List.of(),
+                this::loadAgencies, (dto, value) -> dto.setAgencies(cast(value)));
+        section(BEDS, List.of(CollectionVersionService.BEDS, CollectionVersionService.TENTS, bookings), List.of(),
+                agencyId -> countsByStatus(bedRepository.countGroupedByStatus(agencyId)),
+                (dto, value) -> dto.setBeds(cast(value)));
+        section(BOOKINGS, List.of(bookings), List.of(bookings),
+                agencyId -> countsByStatus(bookingRepository.countGroupedByStatus(agencyId)),
+                (dto, value) -> dto.setBookings(cast(value)));
+    }
+
+    /**
+     * Loads the requested sections (comma separated, all when blank) for the
+     * current user; supervisors see their own agency only.
+     */
+    public Dashboard getDashboard(String requested) {
+        long start = System.nanoTime();
+        List<String> names = sectionNames(requested);
+        User currentUser = authenticationService.getCurrentUser();
+        Integer agencyId = "Supervisor".equals(currentUser.getRole()) && currentUser.getManagedAgency() != null
+                ? currentUser.getManagedAgency().getId()
+                : null;
+
+        DashboardDTOOut body = new DashboardDTOOut();
+        StringJoiner timing = new StringJoiner(", ");
+        Map<String, Future<Loaded>> pending = new LinkedHashMap<>();
+        Map<String, String> versions = new HashMap<>();
+        for (String name : names) {
+            Section section = sections.get(name);
+            String key = name + ":" + (agencyId != null ? agencyId : "all");
+            // Read before loading, so a write racing the load is picked up by the next request
+            String version = versions(section, agencyId);
+            CachedSection cached = cache.get(key);
+            if (cached != null && cached.versions().equals(version)
+                    && System.currentTimeMillis() / cacheTtlMs == cached.loadedAt() / cacheTtlMs) {
+                section.setter().accept(body, cached.value());
+                timing.add(name + ";desc=\"hit\";dur=0");
+                continue;
+            }
+            versions.put(name, version);
+            pending.put(name, executor.submit(() -> {
+                long loadStart = System.nanoTime();
+                Object value = readOnly.execute(status -> section.loader().apply(agencyId));
+                return new Loaded(value, System.nanoTime() - loadStart);
+            }));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            for (Map.Entry<String, Future<Loaded>> entry : pending.entrySet()) {
+                String name = entry.getKey();
+                Loaded loaded = await(entry.getValue(), deadline);
+                cache.put(name + ":" + (agencyId != null ? agencyId : "all"),
+                        new CachedSection(versions.get(name), System.currentTimeMillis(), loaded.value()));
+                sections.get(name).setter().accept(body, loaded.value());
+                timing.add(name + ";dur=" + millis(loaded.nanos()));
+            }
+        } finally {
+            pending.values().forEach(future -> future.cancel(true));
+        }
+        timing.add("total;dur=" + millis(System.nanoTime() - start));
+        return new Dashboard(body, timing.toString());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private List<TentDTOOut> loadTents(Integer agencyId) {
+        List<Tent> tents = agencyId != null
+                ? tentRepository.findSummariesWithPilgrimsFromAgency(agencyId)
+                : tentRepository.findAllByOrderByIdAsc();
+        return tents.stream().map(tent -> TentDTOOut.fromEntity(tent, false)).toList();
+    }
+
+    private List<AgencyDTO> loadAgencies(Integer agencyId) {
+        List<Agency> agencies = agencyId != null
+                ? agencyRepository.findById(agencyId).stream().toList()
+                : agencyRepository.findAll();
+        Map<Integer, Long> pilgrimCounts = new HashMap<>();
+        for (Object[] row : pilgrimRepository.countGroupedByAgency()) {
+            pilgrimCounts.put((Integer) row[0], ((Number) row[1]).longValue());
+        }
+        return agencies.stream().map(agency -> {
+            AgencyDTO dto = AgencyDTO.fromEntity(agency);
+            dto.setPilgrimsCount(pilgrimCounts.getOrDefault(agency.getId(), 0L).intValue());
+            return dto;
+        }).toList();
+    }
+
+    private List<String> sectionNames(String requested) {
+        if (requested == null || requested.isBlank()) {
+            return List.copyOf(sections.keySet());
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : requested.split(",")) {
+            String trimmed = name.trim();
+            if (!sections.containsKey(trimmed)) {
+                throw new ApiException("Unknown dashboard section: " + trimmed);
+            }
+            names.add(trimmed);
+        }
+        return List.copyOf(names);
+    }
+
+    private String versions(Section section, Integer agencyId) {
+        StringJoiner versions = new StringJoiner("-", collectionVersionService.getEpoch() + "-", "");
+        for (String collection : section.collections()) {
+            versions.add(Long.toHexString(agencyId != null && section.agencyScoped().contains(collection)
+                    ? collectionVersionService.version(collection, agencyId)
+                    : collectionVersionService.version(collection)));
+        }
+        return versions.toString();
+    }
+
+    private static Loaded await(Future<Loaded> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Dashboard sections did not finish in time", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading the dashboard", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Map<String, Long> countsByStatus(List<Object[]> rows) {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Object[] row : rows) {
+            if (row[0] != null) {
+                counts.put((String) row[0], ((Number) row[1]).longValue());
+            }
+        }
+        return counts;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e6);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+
+    private void section(String name, List<String> collections, List<String> agencyScoped,
+                         Function<Integer, Object> loader, BiConsumer<DashboardDTOOut, Object> setter) {
+        sections.put(name, new Section(collections, agencyScoped, loader, setter));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.wafd.Service;
+
+import java.util.Map;
+
+/**
+ * One kind of background job. Implementations are Spring beans and are
+ * picked up by {@link JobService} by {@link #type()}.
+ *
+ * <p>{@link #runBatch} is called repeatedly inside a transaction that also
+ * stores the returned checkpoint, so it must only write through that
+ * transaction, or through transactions of its own whose work a rerun of the
+ * batch skips, and must be able to continue from any checkpoint it returned
+ * before.</p>
+ */
+public interface JobHandler {
+
+    record Batch(String checkpoint, int processed, boolean done) { }
+
+    String type();
+
+    /**
+     * Checks {@code params} when the job is submitted, throwing
+     * {@link com.example.wafd.Api.ApiException} when they are invalid, and
+     * returns the number of items to process, or null when unknown.
+     */
+    Integer prepare(Map<String, Object> params);
+
+    /**
+     * Processes the next batch after {@code checkpoint}, which is null for
+     * the first batch.
+     */
+    Batch runBatch(Map<String, Object> params, String checkpoint);
+}
@@ -0,0 +1,278 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.DTO.JobDTOOut;
+import com.example.wafd.Model.Job;
+import com.example.wafd.Repository.JobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs long operations in the background on a bounded pool of worker
+ * threads, with the job state in the {@code job} table.
+ *
+ * <p>A worker claims a queued job with a conditional update, then calls its
+ * {@link JobHandler} one batch at a time. Each batch commits together with the
+ * new checkpoint and progress, so a job that is interrupted (shutdown, crash,
+ * cancellation) and started again resumes after its last committed batch.
+ * Running jobs send a heartbeat with every batch; a periodic sweep requeues
+ * jobs whose heartbeat stopped and dispatches queued jobs that did not fit in
+ * the worker queue.</p>
+ */
+@Slf4j
+@Service
+public class JobService {
+
+    public static final String QUEUED = "queued";
+    public static final String RUNNING = "running";
+    public static final String SUCCEEDED = "succeeded";
+    public static final String FAILED = "failed";
+    public static final String CANCELLED = "cancelled";
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_MESSAGE_LENGTH = 500;
+    private static final TypeReference<Map<String, Object>> PARAMS = new TypeReference<>() { };
+
+    private final JobRepository jobRepository;
+    private final Map<String, JobHandler> handlers;
+    private final AuthenticationService authenticationService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final long staleMs;
+    private final ThreadPoolExecutor workers;
+    private final Set<Integer> dispatched = ConcurrentHashMap.newKeySet();
+
+    // Identifies this process as the owner of the jobs it runs
+    private final String owner = Long.toHexString(new SecureRandom().nextLong());
+
+    public JobService(JobRepository jobRepository,
+                      List<JobHandler> handlers,
+                      AuthenticationService authenticationService,
+                      ObjectMapper objectMapper,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${job.workers:2}") int workerCount,
+                      @Value("${job.queue-capacity:100}") int queueCapacity,
+                      @Value("${job.stale-ms:60000}") long staleMs) {
+        this.jobRepository = jobRepository;
+        this.handlers = handlers.stream().collect(Collectors.toMap(JobHandler::type, Function.identity()));
+        this.authenticationService = authenticationService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.staleMs = staleMs;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "job-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queues a job of {@code type}. It starts once a worker is free.
+     */
+    public JobDTOOut submit(String type, Map<String, Object> params) {
+        JobHandler handler = handlers.get(type);
+        if (handler == null) {
+            throw new ApiException("Unknown job type: " + type);
+        }
+        Map<String, Object> jobParams = params != null ? params : Map.of();
+        Integer total = handler.prepare(jobParams);
+
+        Job job = new Job();
+        job.setType(type);
+        job.setStatus(QUEUED);
+        job.setParams(writeParams(jobParams));
+        job.setProcessed(0);
+        job.setTotal(total);
+        job.setCancelRequested(false);
+        job.setCreatedBy(authenticationService.getCurrentUser().getId());
+        jobRepository.save(job);
+        dispatchAfterCommit(job.getId());
+        return JobDTOOut.fromEntity(job);
+    }
+
+    public JobDTOOut findJob(Integer id) {
+        return JobDTOOut.fromEntity(requireJob(id));
+    }
+
+    public List<JobDTOOut> findRecentJobs(int size) {
+        return jobRepository.findAllByOrderByIdDesc(PageRequest.of(0, Math.min(Math.max(size, 1), MAX_PAGE_SIZE))).stream()
+                .map(JobDTOOut::fromEntity)
+                .toList();
+    }
+
+    /**
+     * Cancels a queued job at once; a running job stops after its current
+     * batch.
+     */
+    public void cancel(Integer id) {
+        requireJob(id);
+        if (jobRepository.cancelQueued(id, LocalDateTime.now()) == 0 && jobRepository.requestCancel(id) == 0) {
+            throw new ApiException("Only queued or running jobs can be cancelled");
+        }
+    }
+
+    /**
+     * Queues a failed or cancelled job again; it continues from its last
+     * checkpoint.
+     */
+    public void restart(Integer id) {
+        requireJob(id);
+        if (jobRepository.restart(id) == 0) {
+            throw new ApiException("Only failed or cancelled jobs can be restarted");
+        }
+        dispatch(id);
+    }
+
+    // Not run during context refresh, so the AOT training run never touches the database
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeJobs() {
+        sweep();
+    }
+
+    @Scheduled(fixedDelayString = "${job.sweep-ms:15000}", initialDelayString = "${job.sweep-ms:15000}")
+    public void sweep() {
+        int requeued = jobRepository.requeueStale(LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(staleMs)));
+        if (requeued > 0) {
+            log.info("Requeued {} jobs that stopped sending heartbeats", requeued);
+        }
+        int free = workers.getQueue().remainingCapacity();
+        if (free > 0) {
+            jobRepository.findQueuedIds(PageRequest.of(0, free)).forEach(this::dispatch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Running jobs requeue themselves after their current batch
+        workers.shutdownNow();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    void run(Integer jobId) {
+        try {
+            if (jobRepository.claim(jobId, owner, LocalDateTime.now()) == 0) {
+                return; // finished, cancelled or taken by another instance
+            }
+            Job job = jobRepository.findJobById(jobId);
+            JobHandler handler = handlers.get(job.getType());
+            if (handler == null) {
+                jobRepository.finish(jobId, owner, FAILED, "Unknown job type: " + job.getType(), LocalDateTime.now());
+                return;
+            }
+            Map<String, Object> params = readParams(job.getParams());
+            String checkpoint = job.getCheckpoint();
+            log.info("Running job {} ({}) from checkpoint {}", jobId, job.getType(), checkpoint);
+
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    jobRepository.requeue(jobId, owner);
+                    return;
+                }
+                if (Boolean.TRUE.equals(jobRepository.findJobById(jobId).getCancelRequested())) {
+                    jobRepository.finish(jobId, owner, CANCELLED, null, LocalDateTime.now());
+                    return;
+                }
+                String from = checkpoint;
+                JobHandler.Batch batch = transactionTemplate.execute(status -> {
+                    JobHandler.Batch result = handler.runBatch(params, from);
+                    if (jobRepository.saveProgress(jobId, owner, result.checkpoint(), result.processed(), LocalDateTime.now()) == 0) {
+                        status.setRollbackOnly();
+                        return null;
+                    }
+                    return result;
+                });
+                if (batch == null) {
+                    log.warn("Job {} was taken over by another instance", jobId);
+                    return;
+                }
+                checkpoint = batch.checkpoint();
+                if (batch.done()) {
+                    jobRepository.finish(jobId, owner, SUCCEEDED, null, LocalDateTime.now());
+                    log.info("Job {} succeeded", jobId);
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Job {} failed", jobId, e);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            jobRepository.finish(jobId, owner, FAILED,
+                    message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message,
+                    LocalDateTime.now());
+        } finally {
+            dispatched.remove(jobId);
+        }
+    }
+
+    private void dispatch(Integer jobId) {
+        if (!dispatched.add(jobId)) {
+            return;
+        }
+        try {
+            workers.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            // Stays queued in the table; the next sweep dispatches it
+            dispatched.remove(jobId);
+        }
+    }
+
+    private void dispatchAfterCommit(Integer jobId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(jobId);
+                }
+            });
+        } else {
+            dispatch(jobId);
+        }
+    }
+
+    private Job requireJob(Integer id) {
+        Job job = jobRepository.findJobById(id);
+        if (job == null) {
+            throw new ApiException("Job not found");
+        }
+        return job;
+    }
+
+    private String writeParams(Map<String, Object> params) {
+        try {
+            return objectMapper.writeValueAsString(params);
+        } catch (JsonProcessingException e) {
+            throw new ApiException("Invalid job parameters");
+        }
+    }
+
+    private Map<String, Object> readParams(String params) {
+        try {
+            return params != null ? objectMapper.readValue(params, PARAMS) : Map.of();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable job parameters", e);
+        }
+    }
+}
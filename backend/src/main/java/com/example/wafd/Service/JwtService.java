@@ -2,6 +2,7 @@ package com.example.wafd.Service;
 
 import com.example.wafd.Model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -26,26 +27,51 @@ public class JwtService {
     @Value("${jwt.refresh.expiration}")
     private long refreshExpiration;
 
+    private volatile Key signInKey;
+
+    public static final String SESSION_ID = "sid";
+    public static final String TOKEN_TYPE = "typ";
+    public static final String REFRESH = "refresh";
+
     public String extractUsername(String token) {
         Claims claims = extractAllClaims(token);
         return claims.getSubject();
     }
 
-    public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+    public String generateToken(UserDetails userDetails, String sessionId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(SESSION_ID, sessionId);
+        return generateToken(claims, userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        return buildToken(extraClaims, userDetails, null, jwtExpiration);
+    }
+
+    /**
+     * Refresh tokens carry their own id (jti), registered server-side so they
+     * can be rotated and revoked, and are marked so they cannot be used as
+     * access tokens.
+     */
+    public String generateRefreshToken(UserDetails userDetails, String sessionId, String tokenId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(SESSION_ID, sessionId);
+        claims.put(TOKEN_TYPE, REFRESH);
+        return buildToken(claims, userDetails, tokenId, refreshExpiration);
+    }
+
+    public long getAccessTokenExpiration() {
+        return jwtExpiration;
     }
 
-    public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+    public long getRefreshTokenExpiration() {
+        return refreshExpiration;
     }
 
     private String buildToken(
             Map<String, Object> extraClaims,
             UserDetails userDetails,
+            String tokenId,
             long expiration
     ) {
         User user = (User) userDetails;
@@ -56,6 +82,7 @@ public class JwtService {
                 .builder()
                 .claims(extraClaims)
                 .subject(userDetails.getUsername())
+                .id(tokenId)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
                 .signWith(getSignInKey())
@@ -76,7 +103,8 @@ public class JwtService {
         return claims.getExpiration();
     }
 
-    private Claims extractAllClaims(String token) {
+    /** Verifies the signature and expiry and returns the claims. */
+    public Claims extractAllClaims(String token) {
         return Jwts
                 .parser()
                 .verifyWith((javax.crypto.SecretKey) getSignInKey())
@@ -85,8 +113,28 @@ public class JwtService {
                 .getPayload();
     }
 
+    /**
+     * Claims of a correctly signed token even if it has expired, for logout
+     * with a stale access token.
+     */
+    public Claims extractClaimsAllowExpired(String token) {
+        try {
+            return extractAllClaims(token);
+        } catch (ExpiredJwtException e) {
+            return e.getClaims();
+        }
+    }
+
+    public static boolean isRefreshToken(Claims claims) {
+        return REFRESH.equals(claims.get(TOKEN_TYPE, String.class));
+    }
+
+    // Every authenticated request verifies a signature, so the key is decoded once
     private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        if (signInKey == null) {
+            byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+            signInKey = Keys.hmacShaKeyFor(keyBytes);
+        }
+        return signInKey;
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.example.wafd.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Writes an unbounded list endpoint as one array, a page at a time. Rows are
+ * read in id order, {@code streaming.page-size} per short read-only
+ * transaction, and each page is written and flushed before the next is read,
+ * so memory stays at one page and a slow client slows the reads down instead
+ * of piling rows up. With open-in-view off, each page's transaction has its
+ * own persistence context and returns its connection at commit, so none is
+ * held while the client is being written to.
+ *
+ * <p>The body is encoded as JSON, CBOR or Smile following {@code Accept}, the
+ * same as a regular response.</p>
+ */
+@Service
+public class ListStreamingService {
+
+    /** A streamed body and the media type it is written in. */
+    public record ListStream(MediaType contentType, StreamingResponseBody body) { }
+
+    private record Chunk(List<?> views, Integer lastId, boolean more) { }
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+    private final TransactionTemplate readOnly;
+    private final int pageSize;
+
+    public ListStreamingService(ObjectMapper objectMapper,
+                                MappingJackson2CborHttpMessageConverter cborConverter,
+                                MappingJackson2SmileHttpMessageConverter smileConverter,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${streaming.page-size:500}") int pageSize) {
+        this.jsonMapper = objectMapper;
+        this.cborMapper = cborConverter.getObjectMapper();
+        this.smileMapper = smileConverter.getObjectMapper();
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Streams every row {@code page} returns. It is called with the id of the
+     * last row written (0 at first) and must return the next rows in id
+     * order; {@code view} turns a row into what is written, inside the page's
+     * transaction.
+     */
+    public <T> ListStream stream(String accept, BiFunction<Integer, Pageable, List<T>> page,
+                                 Function<T, Integer> idOf, Function<T, ?> view) {
+        MediaType contentType = negotiate(accept);
+        ObjectMapper mapper = contentType.equals(MediaType.APPLICATION_CBOR) ? cborMapper
+                : contentType.equals(SMILE) ? smileMapper
+                : jsonMapper;
+        Pageable pageable = PageRequest.of(0, pageSize);
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                int afterId = 0;
+                while (true) {
+                    int after = afterId;
+                    Chunk rows = readOnly.execute(status -> {
+                        List<T> entities = page.apply(after, pageable);
+                        List<?> views = entities.stream().map(view).toList();
+                        Integer lastId = entities.isEmpty() ? null : idOf.apply(entities.get(entities.size() - 1));
+                        return new Chunk(views, lastId, entities.size() == pageSize);
+                    });
+                    for (Object row : rows.views()) {
+                        generator.writeObject(row);
+                    }
+                    generator.flush();
+                    if (!rows.more()) {
+                        break;
+                    }
+                    afterId = rows.lastId();
+                }
+                generator.writeEndArray();
+            }
+        };
+        return new ListStream(contentType, body);
+    }
+
+    private static MediaType negotiate(String accept) {
+        if (accept != null && !accept.isBlank()) {
+            // First acceptable type wins; wildcards get JSON
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                if (mediaType.getQualityValue() == 0) {
+                    continue;
+                }
+                if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                    return MediaType.APPLICATION_JSON;
+                }
+                if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                    return MediaType.APPLICATION_CBOR;
+                }
+                if (mediaType.isCompatibleWith(SMILE)) {
+                    return SMILE;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
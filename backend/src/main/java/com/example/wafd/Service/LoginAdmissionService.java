@@ -0,0 +1,150 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.RateLimitException;
+import com.example.wafd.Util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for logins. Password verification (BCrypt) runs on a
+ * small bounded pool instead of the request thread, so a login storm can use
+ * at most {@code login.hash.threads} cores and the rest of the API keeps its
+ * CPU. When the pool and its queue are full, logins are rejected right away
+ * with a 429. Per-account and per-IP token buckets stop password guessing and
+ * runaway clients before any hashing is done.
+ */
+@Service
+public class LoginAdmissionService {
+
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final ThreadPoolExecutor hashPool;
+    private final ExecutorService hashExecutor;
+    private final long waitTimeoutMs;
+
+    private final int accountCapacity;
+    private final int accountRefillPerMinute;
+    private final int ipCapacity;
+    private final int ipRefillPerMinute;
+    private final Map<String, TokenBucket> accountBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+
+    private final Counter rejectedBusy;
+    private final Counter rejectedAccount;
+    private final Counter rejectedIp;
+
+    public LoginAdmissionService(MeterRegistry meterRegistry,
+                                 @Value("${login.hash.threads:0}") int threads,
+                                 @Value("${login.hash.queue-capacity:64}") int queueCapacity,
+                                 @Value("${login.hash.wait-timeout-ms:5000}") long waitTimeoutMs,
+                                 @Value("${login.rate-limit.account.capacity:10}") int accountCapacity,
+                                 @Value("${login.rate-limit.account.refill-per-minute:5}") int accountRefillPerMinute,
+                                 @Value("${login.rate-limit.ip.capacity:300}") int ipCapacity,
+                                 @Value("${login.rate-limit.ip.refill-per-minute:120}") int ipRefillPerMinute) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hashPool = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // Queue depth, active threads and task timings under executor.* with name=login.hash
+        this.hashExecutor = ExecutorServiceMetrics.monitor(meterRegistry, hashPool, "login.hash");
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.accountCapacity = accountCapacity;
+        this.accountRefillPerMinute = accountRefillPerMinute;
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPerMinute = ipRefillPerMinute;
+        this.rejectedBusy = rejectedCounter(meterRegistry, "busy");
+        this.rejectedAccount = rejectedCounter(meterRegistry, "account");
+        this.rejectedIp = rejectedCounter(meterRegistry, "ip");
+    }
+
+    /**
+     * Takes one token from the client's IP bucket and one from the account's,
+     * or throws before any password is hashed.
+     */
+    public void checkRateLimits(String email, String clientIp) {
+        if (clientIp != null) {
+            TokenBucket ipBucket = bucket(ipBuckets, clientIp, ipCapacity, ipRefillPerMinute);
+            if (!ipBucket.tryConsume()) {
+                rejectedIp.increment();
+                throw new RateLimitException("Too many login attempts from this address, try again later",
+                        ipBucket.secondsUntilAvailable());
+            }
+        }
+        if (email != null) {
+            String account = email.trim().toLowerCase(Locale.ROOT);
+            TokenBucket accountBucket = bucket(accountBuckets, account, accountCapacity, accountRefillPerMinute);
+            if (!accountBucket.tryConsume()) {
+                rejectedAccount.increment();
+                throw new RateLimitException("Too many login attempts for this account, try again later",
+                        accountBucket.secondsUntilAvailable());
+            }
+        }
+    }
+
+    /**
+     * Runs the credential check on the hashing pool and waits for it. The
+     * verification's own exceptions (bad credentials and so on) are rethrown
+     * unchanged.
+     */
+    public <T> T verify(Supplier<T> verification) {
+        Future<T> future;
+        try {
+            future = hashExecutor.submit(verification::get);
+        } catch (RejectedExecutionException e) {
+            rejectedBusy.increment();
+            throw new RateLimitException("Login service is busy, try again shortly", 1);
+        }
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedBusy.increment();
+            throw new RateLimitException("Login service is busy, try again shortly", 1);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying credentials", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    private TokenBucket bucket(Map<String, TokenBucket> buckets, String key, int capacity, int refillPerMinute) {
+        if (buckets.size() > SWEEP_THRESHOLD) {
+            // Full buckets carry no state, dropping them keeps memory bounded by active clients
+            buckets.values().removeIf(TokenBucket::isFull);
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerMinute));
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("auth.login.rejected")
+                .description("Logins turned away before verification")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.DTO.OccupancyPointDTOOut;
+import com.example.wafd.Model.OccupancySnapshot;
+import com.example.wafd.Model.ScheduledRun;
+import com.example.wafd.Repository.AgencyRepository;
+import com.example.wafd.Repository.BedRepository;
+import com.example.wafd.Repository.BookingRepository;
+import com.example.wafd.Repository.OccupancySnapshotRepository;
+import com.example.wafd.Repository.ScheduledRunRepository;
+import com.example.wafd.Repository.TentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Records per-tent and per-agency occupancy into {@code occupancy_snapshot}.
+ * Raw samples are written at minute resolution and rolled up into hour and
+ * day buckets; each level is pruned after its retention window so the table
+ * stays small while still covering a whole season at day resolution.
+ *
+ * <p>Every instance schedules the three tasks; each task first claims its
+ * bucket in {@code scheduled_run}, so one instance records each minute and
+ * rolls up each hour and day, and the others skip it.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class OccupancySnapshotService {
+
+    public static final String SCOPE_TENT = "tent";
+    public static final String SCOPE_AGENCY = "agency";
+
+    public static final String MINUTE = "minute";
+    public static final String HOUR = "hour";
+    public static final String DAY = "day";
+
+    private final OccupancySnapshotRepository occupancySnapshotRepository;
+    private final BedRepository bedRepository;
+    private final BookingRepository bookingRepository;
+    private final AgencyRepository agencyRepository;
+    private final TentRepository tentRepository;
+    private final ScheduledRunRepository scheduledRunRepository;
+    private final AuthenticationService authenticationService;
+
+    @Value("${occupancy.retention.minute-hours:48}")
+    private long minuteRetentionHours;
+
+    @Value("${occupancy.retention.hour-days:90}")
+    private long hourRetentionDays;
+
+    @Scheduled(fixedRateString = "${occupancy.snapshot.interval-ms:60000}",
+               initialDelayString = "${occupancy.snapshot.interval-ms:60000}")
+    @Transactional
+    public void recordSnapshot() {
+        LocalDateTime bucket = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        if (!claim("occupancy-snapshot", bucket)) {
+            return;
+        }
+        // Replaces a sample left by an earlier run in the same minute (a restart with the clock set back)
+        occupancySnapshotRepository.deleteBucket(MINUTE, bucket);
+
+        List<OccupancySnapshot> samples = new ArrayList<>();
+        for (Object[] row : bedRepository.countOccupancyByTent()) {
+            int capacity = ((Number) row[1]).intValue();
+            int occupied = row[2] != null ? ((Number) row[2]).intValue() : 0;
+            samples.add(new OccupancySnapshot(null, SCOPE_TENT, (Integer) row[0], MINUTE, bucket, occupied, occupied, capacity));
+        }
+
+        Map<Integer, Integer> bookedByAgency = new HashMap<>();
+        for (Object[] row : bookingRepository.countActiveBookingsByAgency()) {
+            bookedByAgency.put((Integer) row[0], ((Number) row[1]).intValue());
+        }
+        for (Object[] row : agencyRepository.findCapacities()) {
+            Integer agencyId = (Integer) row[0];
+            int capacity = row[1] != null ? ((Number) row[1]).intValue() : 0;
+            int occupied = bookedByAgency.getOrDefault(agencyId, 0);
+            samples.add(new OccupancySnapshot(null, SCOPE_AGENCY, agencyId, MINUTE, bucket, occupied, occupied, capacity));
+        }
+
+        occupancySnapshotRepository.saveAll(samples);
+    }
+
+    @Scheduled(cron = "${occupancy.rollup.hour-cron:0 1 * * * *}")
+    @Transactional
+    public void rollupHours() {
+        if (!claim("occupancy-hour-rollup", LocalDateTime.now().truncatedTo(ChronoUnit.HOURS))) {
+            return;
+        }
+        rollup(MINUTE, HOUR, ChronoUnit.HOURS);
+        occupancySnapshotRepository.deleteOlderThan(MINUTE, LocalDateTime.now().minusHours(minuteRetentionHours));
+    }
+
+    @Scheduled(cron = "${occupancy.rollup.day-cron:0 5 0 * * *}")
+    @Transactional
+    public void rollupDays() {
+        if (!claim("occupancy-day-rollup", LocalDateTime.now().truncatedTo(ChronoUnit.DAYS))) {
+            return;
+        }
+        rollup(HOUR, DAY, ChronoUnit.DAYS);
+        occupancySnapshotRepository.deleteOlderThan(HOUR, LocalDateTime.now().minusDays(hourRetentionDays));
+    }
+
+    /**
+     * True when this instance is the first to run {@code task} for
+     * {@code bucket}. The claim commits or rolls back with the task's work.
+     */
+    private boolean claim(String task, LocalDateTime bucket) {
+        if (scheduledRunRepository.claim(task, bucket) > 0) {
+            return true;
+        }
+        if (scheduledRunRepository.existsById(task)) {
+            return false;
+        }
+        // First run ever; a concurrent first run fails on the primary key and rolls back
+        scheduledRunRepository.saveAndFlush(new ScheduledRun(task, bucket));
+        return true;
+    }
+
+    /**
+     * Folds every complete bucket of {@code target} that has source samples but
+     * no rollup yet, so a missed run (restart, deploy) is caught up next time.
+     */
+    private void rollup(String source, String target, ChronoUnit unit) {
+        LocalDateTime currentBucket = LocalDateTime.now().truncatedTo(unit);
+
+        LocalDateTime latestRolled = occupancySnapshotRepository.findLatestBucket(target);
+        LocalDateTime start = latestRolled != null
+                ? latestRolled.plus(1, unit)
+                : occupancySnapshotRepository.findEarliestBucket(source);
+        if (start == null) {
+            return;
+        }
+        start = start.truncatedTo(unit);
+
+        for (LocalDateTime bucket = start; bucket.isBefore(currentBucket); bucket = bucket.plus(1, unit)) {
+            LocalDateTime end = bucket.plus(1, unit);
+            List<OccupancySnapshot> rolled = new ArrayList<>();
+            for (Object[] row : occupancySnapshotRepository.aggregate(source, bucket, end)) {
+                rolled.add(new OccupancySnapshot(
+                        null,
+                        (String) row[0],
+                        (Integer) row[1],
+                        target,
+                        bucket,
+                        (int) Math.round(((Number) row[2]).doubleValue()),
+                        ((Number) row[3]).intValue(),
+                        ((Number) row[4]).intValue()
+                ));
+            }
+            occupancySnapshotRepository.deleteBucket(target, bucket);
+            occupancySnapshotRepository.saveAll(rolled);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<OccupancyPointDTOOut> getSeries(String scope, Integer scopeId, LocalDateTime from, LocalDateTime to, String resolution) {
+        if (!SCOPE_TENT.equals(scope) && !SCOPE_AGENCY.equals(scope)) {
+            throw new ApiException("Scope must be tent or agency");
+        }
+        if (to == null) {
+            to = LocalDateTime.now();
+        }
+        if (from == null) {
+            from = to.minusDays(1);
+        }
+        if (!from.isBefore(to)) {
+            throw new ApiException("from must be before to");
+        }
+        checkAccess(scope, scopeId);
+
+        String level = resolution != null ? resolution.toLowerCase() : pickResolution(from, to);
+        if (!MINUTE.equals(level) && !HOUR.equals(level) && !DAY.equals(level)) {
+            throw new ApiException("Resolution must be minute, hour or day");
+        }
+
+        return occupancySnapshotRepository.findSeries(scope, scopeId, level, from, to).stream()
+                .map(OccupancyPointDTOOut::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Chooses the coarsest level that still gives a chart a few hundred points,
+     * so wide ranges never touch the minute rows.
+     */
+    static String pickResolution(LocalDateTime from, LocalDateTime to) {
+        Duration range = Duration.between(from, to);
+        if (range.compareTo(Duration.ofHours(6)) <= 0) {
+            return MINUTE;
+        }
+        if (range.compareTo(Duration.ofDays(14)) <= 0) {
+            return HOUR;
+        }
+        return DAY;
+    }
+
+    private void checkAccess(String scope, Integer scopeId) {
+        var currentUser = authenticationService.getCurrentUser();
+        if (!"Supervisor".equals(currentUser.getRole()) || currentUser.getManagedAgency() == null) {
+            return;
+        }
+        Integer agencyId = currentUser.getManagedAgency().getId();
+        if (SCOPE_AGENCY.equals(scope) && agencyId.equals(scopeId)) {
+            return;
+        }
+        // Same scope as the tent listings: tents holding pilgrims of the agency
+        if (SCOPE_TENT.equals(scope) && tentRepository.hasPilgrimsFromAgency(scopeId, agencyId)) {
+            return;
+        }
+        throw new ApiException("Access denied: occupancy history is limited to your group");
+    }
+}
@@ -3,23 +3,33 @@ package com.example.wafd.Service;
 import com.example.wafd.Api.ApiException;
 import com.example.wafd.DTO.PilgrimDTOIn;
 import com.example.wafd.DTO.PilgrimDTOOut;
+import com.example.wafd.DTO.PilgrimFields;
 import com.example.wafd.DTO.PilgrimStatsDTO;
 import com.example.wafd.Model.Agency;
+import com.example.wafd.Model.Booking;
 import com.example.wafd.Model.Pilgrim;
+import com.example.wafd.Model.Tent;
 import com.example.wafd.Repository.AgencyRepository;
 import com.example.wafd.Repository.PilgrimRepository;
+import com.example.wafd.Util.BatchIds;
 import com.example.wafd.Util.RegistrationNumberGenerator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +40,14 @@ public class PilgrimService {
     private final AgencyRepository agencyRepository;
     private final RegistrationNumberGenerator registrationNumberGenerator;
     private final AuthenticationService authenticationService;
+    private final SyncService syncService;
+    private final CollectionVersionService collectionVersionService;
+    private final AuditService auditService;
+    private final TentCounterService tentCounterService;
+    private final CacheManager cacheManager;
+
+    @Value("${batch.get.max-ids:100}")
+    private int maxBatchIds;
 
     @Cacheable("pilgrims")
     public List<PilgrimDTOOut> getAllPilgrims() {
@@ -61,6 +79,22 @@ public class PilgrimService {
                 .map(PilgrimDTOOut::fromEntity);
     }
 
+    /**
+     * Sparse variant of the paged list: only the columns and joins behind the
+     * requested fields are read, and each row carries just those fields.
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getAllPilgrims(Pageable pageable, String fields) {
+        Set<String> requested = PilgrimFields.parse(fields);
+        var currentUser = authenticationService.getCurrentUser();
+        Integer agencyId = "Supervisor".equals(currentUser.getRole()) && currentUser.getManagedAgency() != null
+                ? currentUser.getManagedAgency().getId()
+                : null;
+
+        return pilgrimRepository.findProjected(requested, agencyId, pageable)
+                .map(pilgrim -> PilgrimFields.pick(PilgrimDTOOut.fromEntity(pilgrim), requested));
+    }
+
     @CacheEvict(value = "pilgrims", allEntries = true)
     public PilgrimDTOOut addPilgrim(PilgrimDTOIn pilgrimDTOIn) {
         String registrationNumber = registrationNumberGenerator.generate();
@@ -91,9 +125,13 @@ public class PilgrimService {
         }
 
         Pilgrim savedPilgrim = pilgrimRepository.save(pilgrim);
+        collectionVersionService.bump(CollectionVersionService.PILGRIMS, agencyIdOf(savedPilgrim));
+        auditService.record(AuditService.CREATE, AuditService.PILGRIM, savedPilgrim.getId(), agencyIdOf(savedPilgrim),
+                null, AuditService.stateOf(savedPilgrim));
         return PilgrimDTOOut.fromEntity(savedPilgrim);
     }
 
+    @Transactional
     public void addPilgrimToGroup(Integer pilgrimId, Integer groupId) {
         Pilgrim pilgrim = pilgrimRepository.findPilgrimById(pilgrimId);
         if (pilgrim == null) {
@@ -109,11 +147,18 @@ public class PilgrimService {
             throw new ApiException("Group is full");
         }
 
+        Integer previousAgencyId = agencyIdOf(pilgrim);
+        Map<String, Object> before = AuditService.stateOf(pilgrim);
         pilgrim.setAgency(agency);
         pilgrimRepository.save(pilgrim);
+        collectionVersionService.bump(CollectionVersionService.PILGRIMS, previousAgencyId, agency.getId());
+        auditService.record(AuditService.UPDATE, AuditService.PILGRIM, pilgrim.getId(), agency.getId(),
+                before, AuditService.stateOf(pilgrim));
+        syncService.recordScopeExit(tentOf(pilgrim), previousAgencyId);
     }
 
     @CacheEvict(value = "pilgrims", allEntries = true)
+    @Transactional
     public void updatePilgrim(Integer id, PilgrimDTOIn pilgrimDTOIn) {
         var currentUser = authenticationService.getCurrentUser();
         if ("Supervisor".equals(currentUser.getRole())) {
@@ -124,6 +169,8 @@ public class PilgrimService {
         if (pilgrim == null) {
             throw new ApiException("Pilgrim not found");
         }
+        Integer previousAgencyId = agencyIdOf(pilgrim);
+        Map<String, Object> before = AuditService.stateOf(pilgrim);
 
         if (pilgrimDTOIn.getFirstName() != null) {
             pilgrim.setFirstName(pilgrimDTOIn.getFirstName());
@@ -150,7 +197,12 @@ public class PilgrimService {
             pilgrim.setPhoneNumber(pilgrimDTOIn.getPhoneNumber());
         }
         if (pilgrimDTOIn.getHasSpecialNeeds() != null) {
+            boolean changed = !pilgrimDTOIn.getHasSpecialNeeds().equals(Boolean.TRUE.equals(pilgrim.getHasSpecialNeeds()));
             pilgrim.setHasSpecialNeeds(pilgrimDTOIn.getHasSpecialNeeds());
+            Booking booking = pilgrim.getBooking();
+            if (changed && booking != null && "Booked".equals(booking.getStatus()) && booking.getBed() != null) {
+                tentCounterService.specialNeedsChanged(booking.getBed(), pilgrimDTOIn.getHasSpecialNeeds());
+            }
         }
         if (pilgrimDTOIn.getSpecialNeedsType() != null) {
             pilgrim.setSpecialNeedsType(pilgrimDTOIn.getSpecialNeedsType());
@@ -170,9 +222,13 @@ public class PilgrimService {
         }
 
         pilgrimRepository.save(pilgrim);
+        collectionVersionService.bump(CollectionVersionService.PILGRIMS, previousAgencyId, agencyIdOf(pilgrim));
+        auditService.record(AuditService.UPDATE, AuditService.PILGRIM, pilgrim.getId(), agencyIdOf(pilgrim),
+                before, AuditService.stateOf(pilgrim));
     }
 
     @CacheEvict(value = "pilgrims", allEntries = true)
+    @Transactional
     public void deletePilgrim(Integer id) {
         var currentUser = authenticationService.getCurrentUser();
         if ("Supervisor".equals(currentUser.getRole())) {
@@ -183,7 +239,15 @@ public class PilgrimService {
         if (pilgrim == null) {
             throw new ApiException("Pilgrim not found");
         }
+        syncService.recordPilgrimDeletion(pilgrim);
         pilgrimRepository.delete(pilgrim);
+        collectionVersionService.bump(CollectionVersionService.PILGRIMS, agencyIdOf(pilgrim));
+        if (pilgrim.getBooking() != null) {
+            collectionVersionService.bump(CollectionVersionService.BOOKINGS, agencyIdOf(pilgrim));
+            syncService.recordScopeExit(tentOf(pilgrim), agencyIdOf(pilgrim));
+        }
+        auditService.record(AuditService.DELETE, AuditService.PILGRIM, pilgrim.getId(), agencyIdOf(pilgrim),
+                AuditService.stateOf(pilgrim), null);
     }
 
     @Cacheable(value = "pilgrims", key = "#id")
@@ -195,6 +259,60 @@ public class PilgrimService {
         return PilgrimDTOOut.fromEntity(pilgrim);
     }
 
+    /**
+     * Pilgrims by id, in the order asked, leaving out ids that do not exist or
+     * belong to another agency than a supervisor's. Pilgrims already in the
+     * {@code pilgrims} cache come from there; the misses are read with one
+     * query and cached under the same keys as {@link #getPilgrimById(Integer)}.
+     */
+    @Transactional(readOnly = true)
+    public List<PilgrimDTOOut> getPilgrimsByIds(List<Integer> ids) {
+        Set<Integer> requested = BatchIds.of(ids, maxBatchIds);
+        var currentUser = authenticationService.getCurrentUser();
+        Integer agencyId = "Supervisor".equals(currentUser.getRole()) && currentUser.getManagedAgency() != null
+                ? currentUser.getManagedAgency().getId()
+                : null;
+
+        if (requested.isEmpty()) {
+            return List.of();
+        }
+
+        Cache cache = cacheManager.getCache("pilgrims");
+        Map<Integer, PilgrimDTOOut> found = new HashMap<>();
+        List<Integer> misses = new ArrayList<>();
+        for (Integer id : requested) {
+            Cache.ValueWrapper cached = cache != null ? cache.get(id) : null;
+            if (cached != null && cached.get() instanceof PilgrimDTOOut dto) {
+                found.put(id, dto);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (Pilgrim pilgrim : pilgrimRepository.findByIdsWithDetails(misses)) {
+                PilgrimDTOOut dto = PilgrimDTOOut.fromEntity(pilgrim);
+                found.put(pilgrim.getId(), dto);
+                if (cache != null) {
+                    cache.put(pilgrim.getId(), dto);
+                }
+            }
+        }
+        if (agencyId != null) {
+            found.values().removeIf(dto -> !agencyId.equals(dto.getGroupId()));
+        }
+        return BatchIds.inOrder(requested, found);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPilgrimById(Integer id, String fields) {
+        Set<String> requested = PilgrimFields.parse(fields);
+        Pilgrim pilgrim = pilgrimRepository.findProjectedById(requested, id).orElse(null);
+        if (pilgrim == null) {
+            throw new ApiException("Pilgrim not found");
+        }
+        return PilgrimFields.pick(PilgrimDTOOut.fromEntity(pilgrim), requested);
+    }
+
     private String normalizeGender(String gender) {
         if (gender == null) {
             return "male";
@@ -239,20 +357,37 @@ public class PilgrimService {
         return agency;
     }
 
-    public PilgrimStatsDTO getStatistics() {
-        var currentUser = authenticationService.getCurrentUser();
-        List<Pilgrim> pilgrims;
+    private static Integer agencyIdOf(Pilgrim pilgrim) {
+        return pilgrim.getAgency() != null ? pilgrim.getAgency().getId() : null;
+    }
+
+    private static Tent tentOf(Pilgrim pilgrim) {
+        Booking booking = pilgrim.getBooking();
+        return booking != null && booking.getBed() != null ? booking.getBed().getTent() : null;
+    }
 
-        // Get pilgrims based on user role
+    /**
+     * Statistics of the pilgrims matching the filters, all optional; a
+     * supervisor only ever sees their own agency. {@code from} and {@code to}
+     * bound the registration time, {@code to} exclusive.
+     */
+    public PilgrimStatsDTO getStatistics(Integer agencyId, Integer tentId, LocalDateTime from, LocalDateTime to) {
+        var currentUser = authenticationService.getCurrentUser();
         if ("Supervisor".equals(currentUser.getRole()) && currentUser.getManagedAgency() != null) {
-            Integer agencyId = currentUser.getManagedAgency().getId();
-            pilgrims = pilgrimRepository.findByAgencyId(agencyId);
-        } else {
-            pilgrims = pilgrimRepository.findAllWithDetails();
+            agencyId = currentUser.getManagedAgency().getId();
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ApiException("from must be before to");
         }
+        return foldStatistics(pilgrimRepository.countByDimensions(agencyId, tentId, from, to));
+    }
 
-        // Initialize counters
-        long total = pilgrims.size();
+    /**
+     * Folds the rows of {@link PilgrimRepository#countByDimensions} into the
+     * per-dimension totals.
+     */
+    static PilgrimStatsDTO foldStatistics(List<Object[]> rows) {
+        long total = 0;
         long arrived = 0;
         long expected = 0;
         long departed = 0;
@@ -265,51 +400,38 @@ public class PilgrimService {
         Map<String, Long> byAgeGroup = new HashMap<>();
         Map<String, Long> bySpecialNeeds = new HashMap<>();
 
-        // Calculate statistics
-        for (Pilgrim pilgrim : pilgrims) {
-            // Count by status
-            String status = pilgrim.getStatus();
-            if ("arrived".equalsIgnoreCase(status)) arrived++;
-            else if ("expected".equalsIgnoreCase(status)) expected++;
-            else if ("departed".equalsIgnoreCase(status)) departed++;
-            else if ("no_show".equalsIgnoreCase(status)) noShow++;
-
-            // Count special needs
-            if (Boolean.TRUE.equals(pilgrim.getHasSpecialNeeds())) {
-                specialNeeds++;
-                // Count by special needs type
-                String specialNeedsType = pilgrim.getSpecialNeedsType();
+        for (Object[] row : rows) {
+            String status = (String) row[0];
+            String gender = (String) row[1];
+            String specialNeedsType = (String) row[3];
+            String nationality = (String) row[4];
+            String ageGroup = (String) row[5];
+            long count = ((Number) row[6]).longValue();
+
+            total += count;
+            if ("arrived".equalsIgnoreCase(status)) arrived += count;
+            else if ("expected".equalsIgnoreCase(status)) expected += count;
+            else if ("departed".equalsIgnoreCase(status)) departed += count;
+            else if ("no_show".equalsIgnoreCase(status)) noShow += count;
+
+            if (Boolean.TRUE.equals(row[2])) {
+                specialNeeds += count;
                 if (specialNeedsType != null && !specialNeedsType.isBlank()) {
-                    bySpecialNeeds.put(specialNeedsType, bySpecialNeeds.getOrDefault(specialNeedsType, 0L) + 1);
+                    bySpecialNeeds.merge(specialNeedsType, count, Long::sum);
                 }
             }
 
-            // Count by gender
-            String gender = pilgrim.getGender();
             if ("male".equalsIgnoreCase(gender)) {
-                maleCount++;
+                maleCount += count;
             } else if ("female".equalsIgnoreCase(gender)) {
-                femaleCount++;
+                femaleCount += count;
             }
 
-            // Count by nationality
-            String nationality = pilgrim.getNationality();
             if (nationality != null && !nationality.isBlank()) {
-                byNationality.put(nationality, byNationality.getOrDefault(nationality, 0L) + 1);
+                byNationality.merge(nationality, count, Long::sum);
             }
-
-            // Count by age group
-            Integer age = pilgrim.getAge();
-            if (age != null && age > 0) {
-                String ageGroup;
-                if (age < 18) ageGroup = "0-17";
-                else if (age < 30) ageGroup = "18-29";
-                else if (age < 40) ageGroup = "30-39";
-                else if (age < 50) ageGroup = "40-49";
-                else if (age < 60) ageGroup = "50-59";
-                else ageGroup = "60+";
-
-                byAgeGroup.put(ageGroup, byAgeGroup.getOrDefault(ageGroup, 0L) + 1);
+            if (ageGroup != null) {
+                byAgeGroup.merge(ageGroup, count, Long::sum);
             }
         }
 
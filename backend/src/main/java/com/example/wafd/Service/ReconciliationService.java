@@ -0,0 +1,358 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.DTO.ReconciliationStatusDTOOut;
+import com.example.wafd.Repository.BedRepository;
+import com.example.wafd.Repository.BookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds and repairs drift between {@code bed.status} and the booking on the
+ * bed, which are written separately.
+ *
+ * <p>A daemon thread walks the beds in id order, {@code chunk-size} at a
+ * time, one short transaction per chunk. Beds that look wrong are re-read
+ * under a row lock and repaired with conditional bulk updates, so a booking
+ * made in between is never undone. Between chunks the thread sleeps at least
+ * {@code pause-ms}, and long enough that reconciliation takes no more than
+ * {@code max-duty-percent} of the time; after a full pass it waits
+ * {@code interval-ms}. The throttling settings can be changed at runtime.</p>
+ *
+ * <p>At the end of each pass the tent bed counters kept by
+ * {@link TentCounterService} are compared with the beds, and tents whose
+ * counters drifted are recounted.</p>
+ */
+@Slf4j
+@Service
+public class ReconciliationService {
+
+    // Bed is Booked but has no active booking
+    public static final String ORPHANED_BED = "orphaned_bed";
+    // Bed is Available but has an active booking
+    public static final String UNMARKED_BED = "unmarked_bed";
+    // A cancelled booking still holds the bed, so it cannot be booked again
+    public static final String STALE_LINK = "stale_link";
+    // A tent's bed counters no longer match its beds
+    public static final String TENT_COUNTERS = "tent_counters";
+
+    private static final List<String> TYPES = List.of(ORPHANED_BED, UNMARKED_BED, STALE_LINK, TENT_COUNTERS);
+    private static final int MAX_CHUNK_SIZE = 5000;
+
+    private record Chunk(int scanned, Integer lastId) { }
+
+    private final BedRepository bedRepository;
+    private final BookingRepository bookingRepository;
+    private final TentCounterService tentCounterService;
+    private final CollectionVersionService collectionVersionService;
+    private final AuditService auditService;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final long intervalMs;
+
+    private volatile boolean enabled;
+    private volatile int chunkSize;
+    private volatile long pauseMs;
+    private volatile int maxDutyPercent;
+
+    private final Counter scanned;
+    private final Map<String, Counter> mismatches = new HashMap<>();
+    private final Map<String, Counter> repairs = new HashMap<>();
+    private final Timer chunkTimer;
+
+    private final Object wakeup = new Object();
+    private volatile Thread worker;
+
+    // Worker thread state, read by status()
+    private volatile int cursor; // last bed id checked in the current pass
+    private volatile LocalDateTime passStartedAt;
+    private volatile LocalDateTime lastPassFinishedAt;
+
+    public ReconciliationService(BedRepository bedRepository,
+                                 BookingRepository bookingRepository,
+                                 TentCounterService tentCounterService,
+                                 CollectionVersionService collectionVersionService,
+                                 AuditService auditService,
+                                 CacheManager cacheManager,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${reconciler.enabled:true}") boolean enabled,
+                                 @Value("${reconciler.chunk-size:500}") int chunkSize,
+                                 @Value("${reconciler.pause-ms:100}") long pauseMs,
+                                 @Value("${reconciler.max-duty-percent:10}") int maxDutyPercent,
+                                 @Value("${reconciler.interval-ms:300000}") long intervalMs) {
+        this.bedRepository = bedRepository;
+        this.bookingRepository = bookingRepository;
+        this.tentCounterService = tentCounterService;
+        this.collectionVersionService = collectionVersionService;
+        this.auditService = auditService;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.intervalMs = intervalMs;
+        configure(enabled, chunkSize, pauseMs, maxDutyPercent);
+
+        this.scanned = meterRegistry.counter("reconciler.beds.scanned");
+        for (String type : TYPES) {
+            mismatches.put(type, meterRegistry.counter("reconciler.mismatches", "type", type));
+            repairs.put(type, meterRegistry.counter("reconciler.repairs", "type", type));
+        }
+        this.chunkTimer = meterRegistry.timer("reconciler.chunk");
+        Gauge.builder("reconciler.cursor", this, service -> service.cursor).register(meterRegistry);
+    }
+
+    /**
+     * Changes the throttling settings; null leaves a setting as it is. Takes
+     * effect from the next chunk.
+     */
+    public void configure(Boolean enabled, Integer chunkSize, Long pauseMs, Integer maxDutyPercent) {
+        if (chunkSize != null && (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE)) {
+            throw new ApiException("chunkSize must be between 1 and " + MAX_CHUNK_SIZE);
+        }
+        if (pauseMs != null && pauseMs < 0) {
+            throw new ApiException("pauseMs must not be negative");
+        }
+        if (maxDutyPercent != null && (maxDutyPercent < 1 || maxDutyPercent > 100)) {
+            throw new ApiException("maxDutyPercent must be between 1 and 100");
+        }
+        if (chunkSize != null) {
+            this.chunkSize = chunkSize;
+        }
+        if (pauseMs != null) {
+            this.pauseMs = pauseMs;
+        }
+        if (maxDutyPercent != null) {
+            this.maxDutyPercent = maxDutyPercent;
+        }
+        if (enabled != null) {
+            this.enabled = enabled;
+        }
+        synchronized (wakeup) {
+            wakeup.notifyAll();
+        }
+    }
+
+    public ReconciliationStatusDTOOut status() {
+        Map<String, Long> found = new LinkedHashMap<>();
+        Map<String, Long> repaired = new LinkedHashMap<>();
+        for (String type : TYPES) {
+            found.put(type, (long) mismatches.get(type).count());
+            repaired.put(type, (long) repairs.get(type).count());
+        }
+        return new ReconciliationStatusDTOOut(enabled, chunkSize, pauseMs, maxDutyPercent, cursor,
+                passStartedAt, lastPassFinishedAt, (long) scanned.count(), found, repaired);
+    }
+
+    // Not started during context refresh, so the AOT training run never touches the database
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (worker == null) {
+            worker = new Thread(this::reconcileLoop, "bed-reconciler");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void reconcileLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long waitMs;
+            if (!enabled) {
+                waitMs = intervalMs;
+            } else {
+                long started = System.nanoTime();
+                boolean passDone;
+                try {
+                    passDone = reconcileNextChunk();
+                } catch (RuntimeException e) {
+                    // The chunk is retried from the same cursor
+                    log.error("Bed reconciliation failed after bed {}", cursor, e);
+                    passDone = false;
+                }
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                waitMs = passDone ? intervalMs : pauseAfter(elapsedMs);
+            }
+            try {
+                synchronized (wakeup) {
+                    wakeup.wait(Math.max(1, waitMs));
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Checks the next chunk of beds and repairs what is wrong. Returns true
+     * when it finished a pass over all beds.
+     */
+    boolean reconcileNextChunk() {
+        if (cursor == 0) {
+            passStartedAt = LocalDateTime.now();
+        }
+        int afterId = cursor;
+        int size = chunkSize;
+        Chunk chunk = chunkTimer.record(() -> transactionTemplate.execute(status -> reconcileAfter(afterId, size)));
+        if (chunk.lastId() == null || chunk.scanned() < size) {
+            recountTents();
+            cursor = 0;
+            lastPassFinishedAt = LocalDateTime.now();
+            log.debug("Bed reconciliation pass finished");
+            return true;
+        }
+        cursor = chunk.lastId();
+        return false;
+    }
+
+    private Chunk reconcileAfter(int afterId, int size) {
+        List<Object[]> rows = bedRepository.findBookingStates(afterId, PageRequest.of(0, size));
+        scanned.increment(rows.size());
+        List<Integer> suspects = new ArrayList<>();
+        for (Object[] row : rows) {
+            List<String> found = mismatchesOf(row);
+            if (!found.isEmpty()) {
+                suspects.add((Integer) row[0]);
+                found.forEach(type -> mismatches.get(type).increment());
+            }
+        }
+        if (!suspects.isEmpty()) {
+            repair(bedRepository.lockBookingStates(suspects));
+        }
+        return new Chunk(rows.size(), rows.isEmpty() ? null : (Integer) rows.get(rows.size() - 1)[0]);
+    }
+
+    /**
+     * Repairs the rows, which were re-read under lock, that are still wrong.
+     */
+    private void repair(List<Object[]> locked) {
+        Map<String, List<Object[]>> byType = new HashMap<>();
+        for (Object[] row : locked) {
+            for (String type : mismatchesOf(row)) {
+                byType.computeIfAbsent(type, key -> new ArrayList<>()).add(row);
+            }
+        }
+        if (byType.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        // Detach first: an orphaned bed may be orphaned by the stale booking on it
+        List<Object[]> staleLinks = byType.getOrDefault(STALE_LINK, List.of());
+        if (!staleLinks.isEmpty()) {
+            bookingRepository.detachInactive(ids(staleLinks, 2), now);
+            for (Object[] row : staleLinks) {
+                auditService.record(AuditService.UPDATE, AuditService.BOOKING, (Integer) row[2], null,
+                        Map.of("bedId", row[0]), Collections.singletonMap("bedId", null));
+            }
+            collectionVersionService.bump(CollectionVersionService.BOOKINGS);
+            repairs.get(STALE_LINK).increment(staleLinks.size());
+        }
+
+        List<Integer> orphaned = ids(byType.getOrDefault(ORPHANED_BED, List.of()), 0);
+        if (!orphaned.isEmpty()) {
+            tentCounterService.statusChanging(orphaned, "Booked", "Available");
+            bedRepository.updateStatus(orphaned, "Booked", "Available", now);
+            recordBeds(orphaned, "Booked", "Available");
+            repairs.get(ORPHANED_BED).increment(orphaned.size());
+            eventPublisher.publishEvent(new BedsFreedEvent(orphaned));
+        }
+
+        List<Integer> unmarked = ids(byType.getOrDefault(UNMARKED_BED, List.of()), 0);
+        if (!unmarked.isEmpty()) {
+            tentCounterService.statusChanging(unmarked, "Available", "Booked");
+            bedRepository.updateStatus(unmarked, "Available", "Booked", now);
+            recordBeds(unmarked, "Available", "Booked");
+            repairs.get(UNMARKED_BED).increment(unmarked.size());
+        }
+
+        if (!orphaned.isEmpty() || !unmarked.isEmpty()) {
+            collectionVersionService.bump(CollectionVersionService.BEDS);
+            evictBeds();
+        }
+        log.info("Reconciled beds: {} stale links, {} orphaned, {} unmarked",
+                staleLinks.size(), orphaned.size(), unmarked.size());
+    }
+
+    // Once per pass, after the beds themselves are right
+    private void recountTents() {
+        List<Integer> drifted = transactionTemplate.execute(status -> tentCounterService.recountDrifted());
+        if (drifted != null && !drifted.isEmpty()) {
+            mismatches.get(TENT_COUNTERS).increment(drifted.size());
+            repairs.get(TENT_COUNTERS).increment(drifted.size());
+            collectionVersionService.bump(CollectionVersionService.TENTS);
+            log.info("Recounted bed counters of tents {}", drifted);
+        }
+    }
+
+    /**
+     * What is wrong with a (bedId, bed status, bookingId, booking status) row.
+     * Reserved, checked-in and checked-out beds are left to their own flows.
+     */
+    static List<String> mismatchesOf(Object[] row) {
+        String bedStatus = (String) row[1];
+        Integer bookingId = (Integer) row[2];
+        boolean activeBooking = "Booked".equals(row[3]);
+        List<String> found = new ArrayList<>(2);
+        if (bookingId != null && !activeBooking) {
+            found.add(STALE_LINK);
+        }
+        if ("Booked".equals(bedStatus) && !activeBooking) {
+            found.add(ORPHANED_BED);
+        } else if ("Available".equals(bedStatus) && activeBooking) {
+            found.add(UNMARKED_BED);
+        }
+        return found;
+    }
+
+    private long pauseAfter(long elapsedMs) {
+        int duty = maxDutyPercent;
+        return Math.max(pauseMs, elapsedMs * (100 - duty) / duty);
+    }
+
+    private void recordBeds(List<Integer> bedIds, String from, String to) {
+        for (Integer bedId : bedIds) {
+            auditService.record(AuditService.UPDATE, AuditService.BED, bedId, null,
+                    Map.of("status", from), Map.of("status", to));
+        }
+    }
+
+    private static List<Integer> ids(List<Object[]> rows, int column) {
+        return rows.stream().map(row -> (Integer) row[column]).toList();
+    }
+
+    // Background repairs bypass the controllers' @CacheEvict
+    private void evictBeds() {
+        Cache beds = cacheManager.getCache("beds");
+        if (beds != null) {
+            beds.clear();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.DTO.*;
+import com.example.wafd.Model.*;
+import com.example.wafd.Repository.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * "Changes since" feed for the mobile app and the web client.
+ * <p>
+ * The watermark is an opaque cursor holding one {@code (updated_at, id)}
+ * position per entity type, so paging through a burst of rows that share a
+ * timestamp never skips any of them. Deletes are reported from
+ * {@code sync_tombstone}, written by the services' delete paths. Supervisors
+ * only get the tombstones recorded for their agency, which include tents and
+ * beds that left their scope without being deleted.
+ */
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+
+    public static final String PILGRIMS = "pilgrims";
+    public static final String BEDS = "beds";
+    public static final String BOOKINGS = "bookings";
+    public static final String TENTS = "tents";
+    public static final String AGENCIES = "agencies";
+    private static final String TOMBSTONES = "tombstones";
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final PilgrimRepository pilgrimRepository;
+    private final BedRepository bedRepository;
+    private final BookingRepository bookingRepository;
+    private final TentRepository tentRepository;
+    private final AgencyRepository agencyRepository;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+    private final AuthenticationService authenticationService;
+
+    @Value("${sync.max-page-size:2000}")
+    private int maxPageSize;
+
+    // Rows committed by transactions still in flight can carry an updated_at slightly in the past
+    @Value("${sync.commit-lag-ms:2000}")
+    private long commitLagMs;
+
+    @Transactional(readOnly = true)
+    public SyncChangesDTOOut getChanges(String watermark, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new ApiException("Limit must be between 1 and " + maxPageSize);
+        }
+        var currentUser = authenticationService.getCurrentUser();
+        Integer agencyId = "Supervisor".equals(currentUser.getRole()) && currentUser.getManagedAgency() != null
+                ? currentUser.getManagedAgency().getId()
+                : null;
+
+        Map<String, Cursor> cursors = decode(watermark);
+        LocalDateTime safePoint = LocalDateTime.now().minusNanos(commitLagMs * 1_000_000);
+        Pageable page = PageRequest.of(0, limit + 1);
+
+        SyncChangesDTOOut out = new SyncChangesDTOOut();
+        out.setPilgrims(new SyncChangesDTOOut.EntityChanges<>());
+        out.setBeds(new SyncChangesDTOOut.EntityChanges<>());
+        out.setBookings(new SyncChangesDTOOut.EntityChanges<>());
+        out.setTents(new SyncChangesDTOOut.EntityChanges<>());
+        out.setAgencies(new SyncChangesDTOOut.EntityChanges<>());
+        Map<String, Cursor> next = new LinkedHashMap<>();
+        boolean hasMore = false;
+
+        Cursor c = cursors.get(PILGRIMS);
+        List<Pilgrim> pilgrims = agencyId != null
+                ? pilgrimRepository.findChangedSinceForAgency(agencyId, c.ts, c.intId(), page)
+                : pilgrimRepository.findChangedSince(c.ts, c.intId(), page);
+        hasMore |= collect(pilgrims, limit, Pilgrim::getUpdatedAt, p -> p.getId().longValue(),
+                PilgrimDTOOut::fromEntity, out.getPilgrims().getUpserted(), c, safePoint, PILGRIMS, next);
+
+        c = cursors.get(BEDS);
+        List<Bed> beds = agencyId != null
+                ? bedRepository.findChangedSinceForAgency(agencyId, c.ts, c.intId(), page)
+                : bedRepository.findChangedSince(c.ts, c.intId(), page);
+        hasMore |= collect(beds, limit, Bed::getUpdated_at, b -> b.getId().longValue(),
+                BedDTOOut::fromEntity, out.getBeds().getUpserted(), c, safePoint, BEDS, next);
+
+        c = cursors.get(BOOKINGS);
+        List<Booking> bookings = agencyId != null
+                ? bookingRepository.findChangedSinceForAgency(agencyId, c.ts, c.intId(), page)
+                : bookingRepository.findChangedSince(c.ts, c.intId(), page);
+        hasMore |= collect(bookings, limit, Booking::getUpdated_at, b -> b.getId().longValue(),
+                BookingDTOOut::fromEntity, out.getBookings().getUpserted(), c, safePoint, BOOKINGS, next);
+
+        c = cursors.get(TENTS);
+        List<Tent> tents = agencyId != null
+                ? tentRepository.findChangedSinceForAgency(agencyId, c.ts, c.intId(), page)
+                : tentRepository.findChangedSince(c.ts, c.intId(), page);
+        hasMore |= collect(tents, limit, Tent::getUpdated_at, t -> t.getId().longValue(),
+                // Beds travel in their own change list
+                tent -> TentDTOOut.fromEntity(tent, false), out.getTents().getUpserted(), c, safePoint, TENTS, next);
+
+        c = cursors.get(AGENCIES);
+        List<Agency> agencies;
+        if (agencyId != null) {
+            Agency own = agencyRepository.findAgencyById(agencyId);
+            agencies = own != null && c.isBefore(own.getUpdated_at(), own.getId()) ? List.of(own) : List.of();
+        } else {
+            agencies = agencyRepository.findChangedSince(c.ts, c.intId(), page);
+        }
+        hasMore |= collect(agencies, limit, Agency::getUpdated_at, a -> a.getId().longValue(),
+                AgencyDTO::fromEntity, out.getAgencies().getUpserted(), c, safePoint, AGENCIES, next);
+
+        c = cursors.get(TOMBSTONES);
+        List<SyncTombstone> tombstones = agencyId != null
+                ? syncTombstoneRepository.findChangedSinceForAgency(agencyId, c.ts, c.id, page)
+                : syncTombstoneRepository.findChangedSince(c.ts, c.id, page);
+        List<SyncTombstone> deleted = new ArrayList<>();
+        hasMore |= collect(tombstones, limit, SyncTombstone::getDeletedAt, SyncTombstone::getId,
+                Function.identity(), deleted, c, safePoint, TOMBSTONES, next);
+        for (SyncTombstone tombstone : deleted) {
+            switch (tombstone.getEntityType()) {
+                case PILGRIMS -> out.getPilgrims().getDeleted().add(tombstone.getEntityId());
+                case BEDS -> out.getBeds().getDeleted().add(tombstone.getEntityId());
+                case BOOKINGS -> out.getBookings().getDeleted().add(tombstone.getEntityId());
+                case TENTS -> out.getTents().getDeleted().add(tombstone.getEntityId());
+                case AGENCIES -> out.getAgencies().getDeleted().add(tombstone.getEntityId());
+                default -> { }
+            }
+        }
+
+        out.setHasMore(hasMore);
+        out.setWatermark(encode(next));
+        return out;
+    }
+
+    /**
+     * Copies at most {@code limit} rows into {@code target} and records where the
+     * next call should resume. A page that was not truncated resumes from the
+     * commit-lag safe point instead, so late committers are picked up again.
+     */
+    private <E, D> boolean collect(List<E> rows, int limit,
+                                   Function<E, LocalDateTime> ts, Function<E, Long> id,
+                                   Function<E, D> mapper, List<D> target,
+                                   Cursor from, LocalDateTime safePoint, String type, Map<String, Cursor> next) {
+        boolean truncated = rows.size() > limit;
+        List<E> page = truncated ? rows.subList(0, limit) : rows;
+        for (E row : page) {
+            target.add(mapper.apply(row));
+        }
+
+        Cursor resume = from;
+        if (!page.isEmpty()) {
+            E last = page.get(page.size() - 1);
+            resume = new Cursor(ts.apply(last), id.apply(last));
+        }
+        if (!truncated && resume.ts.isAfter(safePoint)) {
+            resume = from.ts.isAfter(safePoint) ? from : new Cursor(safePoint, 0L);
+        }
+        next.put(type, resume);
+        return truncated;
+    }
+
+    public void recordDeletion(String entityType, Integer entityId, Integer agencyId) {
+        syncTombstoneRepository.save(new SyncTombstone(null, entityType, entityId, agencyId, false, null));
+    }
+
+    public void recordPilgrimDeletion(Pilgrim pilgrim) {
+        Integer agencyId = pilgrim.getAgency() != null ? pilgrim.getAgency().getId() : null;
+        recordDeletion(PILGRIMS, pilgrim.getId(), agencyId);
+        if (pilgrim.getBooking() != null) {
+            recordDeletion(BOOKINGS, pilgrim.getBooking().getId(), agencyId);
+        }
+    }
+
+    public void recordBookingDeletion(Booking booking) {
+        Pilgrim pilgrim = booking.getPilgrim();
+        recordDeletion(BOOKINGS, booking.getId(),
+                pilgrim != null && pilgrim.getAgency() != null ? pilgrim.getAgency().getId() : null);
+    }
+
+    public void recordBedDeletion(Bed bed) {
+        recordScopedDeletion(BEDS, bed.getId(), agenciesSeeing(bed.getTent()));
+        if (bed.getBooking() != null) {
+            recordBookingDeletion(bed.getBooking());
+        }
+    }
+
+    public void recordTentDeletion(Tent tent) {
+        List<Integer> agencyIds = agenciesSeeing(tent);
+        recordScopedDeletion(TENTS, tent.getId(), agencyIds);
+        if (tent.getBeds() != null) {
+            for (Bed bed : tent.getBeds()) {
+                recordScopedDeletion(BEDS, bed.getId(), agencyIds);
+                if (bed.getBooking() != null) {
+                    recordBookingDeletion(bed.getBooking());
+                }
+            }
+        }
+    }
+
+    /**
+     * Called once a booking of {@code agencyId} has left {@code tent} (vacated,
+     * cancelled, deleted). When it was the agency's last pilgrim there, the
+     * tent and its beds drop out of the agency's feed, so its supervisors are
+     * told to remove them.
+     */
+    public void recordScopeExit(Tent tent, Integer agencyId) {
+        if (tent == null || agencyId == null || tentRepository.hasPilgrimsFromAgency(tent.getId(), agencyId)) {
+            return;
+        }
+        recordAgencyOnlyDeletion(TENTS, tent.getId(), agencyId);
+        for (Integer bedId : bedRepository.findIdsByTentId(tent.getId())) {
+            recordAgencyOnlyDeletion(BEDS, bedId, agencyId);
+        }
+    }
+
+    // Tents and beds are visible to every agency with pilgrims in the tent: one copy for each of them
+    private void recordScopedDeletion(String entityType, Integer entityId, List<Integer> agencyIds) {
+        recordDeletion(entityType, entityId, null);
+        for (Integer agencyId : agencyIds) {
+            recordAgencyOnlyDeletion(entityType, entityId, agencyId);
+        }
+    }
+
+    private void recordAgencyOnlyDeletion(String entityType, Integer entityId, Integer agencyId) {
+        syncTombstoneRepository.save(new SyncTombstone(null, entityType, entityId, agencyId, true, null));
+    }
+
+    private List<Integer> agenciesSeeing(Tent tent) {
+        return tent != null ? tentRepository.findAgencyIdsWithPilgrims(tent.getId()) : List.of();
+    }
+
+    public void recordAgencyDeletion(Agency agency) {
+        recordDeletion(AGENCIES, agency.getId(), agency.getId());
+        if (agency.getPilgrims() != null) {
+            agency.getPilgrims().forEach(this::recordPilgrimDeletion);
+        }
+        if (agency.getTents() != null) {
+            agency.getTents().forEach(this::recordTentDeletion);
+        }
+    }
+
+    private static Map<String, Cursor> decode(String watermark) {
+        Map<String, Cursor> cursors = new HashMap<>();
+        for (String type : List.of(PILGRIMS, BEDS, BOOKINGS, TENTS, AGENCIES, TOMBSTONES)) {
+            cursors.put(type, new Cursor(EPOCH, 0L));
+        }
+        if (watermark == null || watermark.isBlank()) {
+            return cursors;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.UTF_8);
+            for (String part : raw.split(";")) {
+                String[] kv = part.split("=", 2);
+                String[] pos = kv[1].split("#", 2);
+                if (cursors.containsKey(kv[0])) {
+                    cursors.put(kv[0], new Cursor(LocalDateTime.parse(pos[0]), Long.parseLong(pos[1])));
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new ApiException("Invalid watermark");
+        }
+        return cursors;
+    }
+
+    private static String encode(Map<String, Cursor> cursors) {
+        StringJoiner joiner = new StringJoiner(";");
+        cursors.forEach((type, cursor) -> joiner.add(type + "=" + cursor.ts + "#" + cursor.id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record Cursor(LocalDateTime ts, Long id) {
+        Integer intId() {
+            return id.intValue();
+        }
+
+        boolean isBefore(LocalDateTime rowTs, Integer rowId) {
+            return rowTs != null && (rowTs.isAfter(ts) || (rowTs.equals(ts) && rowId > id));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Model.Bed;
+import com.example.wafd.Model.Booking;
+import com.example.wafd.Model.Pilgrim;
+import com.example.wafd.Repository.BedRepository;
+import com.example.wafd.Repository.TentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the bed counters on {@code tent} in step with bed statuses, so tent
+ * lists and allocation can read occupancy without scanning {@code bed}.
+ *
+ * <p>Callers report each status change inside the transaction that makes it,
+ * and the counters move with a relative update ({@code occupied_beds + 1}), so
+ * concurrent changes in one tent never overwrite each other. A bed is occupied
+ * while Booked or Checked_in; special-needs beds are occupied beds whose
+ * pilgrim has special needs. Counters that drift anyway (a pilgrim deleted
+ * with their booking, a status changed in SQL) are recounted by
+ * {@link ReconciliationService}.</p>
+ *
+ * <p>The updates run in the caller's transaction and leave
+ * {@code tent.updated_at} alone, so a bed change does not resend its tent
+ * through delta sync. {@code Tent} is kept out of the second-level cache,
+ * which every bulk update would evict.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class TentCounterService {
+
+    private final TentRepository tentRepository;
+    private final BedRepository bedRepository;
+
+    /**
+     * Records that {@code bed} moved from {@code from} to {@code to}; a null
+     * status stands for a bed that does not exist (yet or any more).
+     */
+    public void statusChanged(Bed bed, String from, String to) {
+        Booking booking = bed.getBooking();
+        statusChanged(bed, from, to, booking != null ? booking.getPilgrim() : null);
+    }
+
+    /**
+     * Same, for a change that also puts {@code pilgrim} on the bed or takes
+     * them off it.
+     */
+    public void statusChanged(Bed bed, String from, String to, Pilgrim pilgrim) {
+        if (bed.getTent() == null) {
+            return;
+        }
+        int occupied = occupied(to) - occupied(from);
+        boolean specialNeeds = pilgrim != null && Boolean.TRUE.equals(pilgrim.getHasSpecialNeeds());
+        adjust(bed.getTent().getId(), occupied, is(to, "Reserved") - is(from, "Reserved"),
+                is(to, "Maintenance") - is(from, "Maintenance"), specialNeeds ? occupied : 0);
+    }
+
+    /**
+     * Records that the beds among {@code bedIds} that are {@code from} are
+     * about to move to {@code to} with a conditional bulk update. Locks those
+     * beds, so call it in the update's transaction, right before it.
+     */
+    public void statusChanging(Collection<Integer> bedIds, String from, String to) {
+        if (bedIds.isEmpty()) {
+            return;
+        }
+        Map<Integer, int[]> byTent = new HashMap<>(); // tentId -> beds, special-needs beds
+        for (Object[] row : bedRepository.lockCounterStates(bedIds)) {
+            if (from.equals(row[1])) {
+                int[] counts = byTent.computeIfAbsent((Integer) row[0], id -> new int[2]);
+                counts[0]++;
+                counts[1] += Boolean.TRUE.equals(row[2]) ? 1 : 0;
+            }
+        }
+        int occupied = occupied(to) - occupied(from);
+        int reserved = is(to, "Reserved") - is(from, "Reserved");
+        int maintenance = is(to, "Maintenance") - is(from, "Maintenance");
+        byTent.forEach((tentId, counts) -> adjust(tentId, occupied * counts[0], reserved * counts[0],
+                maintenance * counts[0], occupied * counts[1]));
+    }
+
+    /**
+     * Records a change of the special-needs flag of the pilgrim booked on
+     * {@code bed}.
+     */
+    public void specialNeedsChanged(Bed bed, boolean specialNeeds) {
+        if (bed.getTent() != null && occupied(bed.getStatus()) == 1) {
+            adjust(bed.getTent().getId(), 0, 0, 0, specialNeeds ? 1 : -1);
+        }
+    }
+
+    /**
+     * Recounts the tents whose counters no longer match their beds and
+     * returns their ids.
+     */
+    public List<Integer> recountDrifted() {
+        List<Integer> drifted = tentRepository.findIdsWithCounterDrift();
+        for (Integer tentId : drifted) {
+            tentRepository.recountCounters(tentId);
+        }
+        return drifted;
+    }
+
+    private void adjust(Integer tentId, int occupied, int reserved, int maintenance, int specialNeeds) {
+        if (tentId != null && (occupied != 0 || reserved != 0 || maintenance != 0 || specialNeeds != 0)) {
+            tentRepository.adjustCounters(tentId, occupied, reserved, maintenance, specialNeeds);
+        }
+    }
+
+    private static int occupied(String status) {
+        return "Booked".equals(status) || "Checked_in".equals(status) ? 1 : 0;
+    }
+
+    private static int is(String status, String expected) {
+        return expected.equals(status) ? 1 : 0;
+    }
+}
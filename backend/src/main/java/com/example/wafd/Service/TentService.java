@@ -6,10 +6,19 @@ import com.example.wafd.DTO.TentDTOOut;
 import com.example.wafd.Model.Bed;
 import com.example.wafd.Model.Tent;
 import com.example.wafd.Repository.TentRepository;
+import com.example.wafd.Util.BatchIds;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,20 +28,51 @@ public class TentService {
     private final TentRepository tentRepository;
     private final BedService bedService;
     private final AuthenticationService authenticationService;
+    private final SyncService syncService;
+    private final CollectionVersionService collectionVersionService;
+    private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ListStreamingService listStreamingService;
+
+    @Value("${batch.get.max-ids:100}")
+    private int maxBatchIds;
+
+    /**
+     * Every tent with its beds, streamed a page of tents at a time; supervisors
+     * get only tents holding pilgrims of their agency.
+     */
+    public ListStreamingService.ListStream streamAllTents(String accept){
+        var currentUser = authenticationService.getCurrentUser();
+        Integer agencyId = "Supervisor".equals(currentUser.getRole()) && currentUser.getManagedAgency() != null
+                ? currentUser.getManagedAgency().getId()
+                : null;
+
+        return listStreamingService.stream(accept, (afterId, pageable) -> {
+            List<Integer> ids = tentRepository.findIdsAfter(afterId, agencyId, pageable);
+            if (ids.isEmpty()) {
+                return List.<Tent>of();
+            }
+            List<Tent> tents = new ArrayList<>(tentRepository.findByIdsWithDetails(ids, null));
+            tents.sort(Comparator.comparing(Tent::getId));
+            return tents;
+        }, Tent::getId, TentDTOOut::fromEntity);
+    }
 
-    public List<TentDTOOut> findAllTents(){
+    /**
+     * Tents with their occupancy but without beds, read from {@code tent} alone.
+     */
+    public List<TentDTOOut> findTentSummaries(){
         var currentUser = authenticationService.getCurrentUser();
         List<Tent> tents;
 
         if ("Supervisor".equals(currentUser.getRole()) && currentUser.getManagedAgency() != null) {
-            Integer agencyId = currentUser.getManagedAgency().getId();
-            tents = tentRepository.findTentsWithPilgrimsFromAgency(agencyId);
+            tents = tentRepository.findSummariesWithPilgrimsFromAgency(currentUser.getManagedAgency().getId());
         } else {
-            tents = tentRepository.findAll();
+            tents = tentRepository.findAllByOrderByIdAsc();
         }
 
         return tents.stream()
-            .map(TentDTOOut::fromEntity)
+            .map(tent -> TentDTOOut.fromEntity(tent, false))
             .collect(Collectors.toList());
     }
 
@@ -60,6 +100,28 @@ public class TentService {
         return TentDTOOut.fromEntity(tent);
     }
 
+    /**
+     * Tents with their beds by id in one query, in the order asked; supervisors
+     * only get tents holding pilgrims of their agency, other ids are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<TentDTOOut> findTentsByIds(List<Integer> ids){
+        Set<Integer> requested = BatchIds.of(ids, maxBatchIds);
+        var currentUser = authenticationService.getCurrentUser();
+        Integer agencyId = "Supervisor".equals(currentUser.getRole()) && currentUser.getManagedAgency() != null
+                ? currentUser.getManagedAgency().getId()
+                : null;
+        if (requested.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, TentDTOOut> found = new HashMap<>();
+        for (Tent tent : tentRepository.findByIdsWithDetails(requested, agencyId)) {
+            found.put(tent.getId(), TentDTOOut.fromEntity(tent));
+        }
+        return BatchIds.inOrder(requested, found);
+    }
+
     public void addTent(TentDTOIn tentDTO){
         var currentUser = authenticationService.getCurrentUser();
         if ("Supervisor".equals(currentUser.getRole())) {
@@ -78,6 +140,9 @@ public class TentService {
         tent.setCapacity(tentDTO.getCapacity());
 
         tentRepository.save(tent);
+        collectionVersionService.bump(CollectionVersionService.TENTS);
+        auditService.record(AuditService.CREATE, AuditService.TENT, tent.getId(), agencyIdOf(tent),
+                null, AuditService.stateOf(tent));
 
         // Create beds based on capacity
         if (tentDTO.getCapacity() != null && tentDTO.getCapacity() > 0) {
@@ -104,6 +169,7 @@ public class TentService {
         // Store old capacity for bed adjustment
         Integer oldCapacity = tentToUpdate.getCapacity();
         Integer newCapacity = tentDTO.getCapacity();
+        Map<String, Object> before = AuditService.stateOf(tentToUpdate);
 
         tentToUpdate.setName(tentDTO.getName());
         tentToUpdate.setCode(tentDTO.getCode());
@@ -114,18 +180,24 @@ public class TentService {
         tentToUpdate.setCapacity(newCapacity);
 
         tentRepository.save(tentToUpdate);
+        collectionVersionService.bump(CollectionVersionService.TENTS);
+        auditService.record(AuditService.UPDATE, AuditService.TENT, tentToUpdate.getId(), agencyIdOf(tentToUpdate),
+                before, AuditService.stateOf(tentToUpdate));
 
         // Handle capacity changes
         if (newCapacity != null && oldCapacity != null && !newCapacity.equals(oldCapacity)) {
             if (newCapacity > oldCapacity) {
                 // Create additional beds
                 int bedsToCreate = newCapacity - oldCapacity;
+                List<Integer> newBedIds = new ArrayList<>();
                 for (int i = 0; i < bedsToCreate; i++) {
                     Bed bed = new Bed();
                     bed.setTent(tentToUpdate);
                     bed.setStatus("Available");
                     bedService.addBed(bed);
+                    newBedIds.add(bed.getId());
                 }
+                eventPublisher.publishEvent(new BedsFreedEvent(newBedIds));
             } else if (newCapacity < oldCapacity) {
                 // Delete excess beds (only Available ones)
                 int bedsToRemove = oldCapacity - newCapacity;
@@ -141,6 +213,7 @@ public class TentService {
         }
     }
     
+    @Transactional
     public void deleteTent(Integer id){
         var currentUser = authenticationService.getCurrentUser();
         if ("Supervisor".equals(currentUser.getRole())) {
@@ -151,6 +224,16 @@ public class TentService {
         if (tentToDelete == null){
             throw new ApiException("Tent not found");
         }
+        syncService.recordTentDeletion(tentToDelete);
         tentRepository.delete(tentToDelete);
+        collectionVersionService.bump(CollectionVersionService.TENTS);
+        collectionVersionService.bump(CollectionVersionService.BEDS);
+        collectionVersionService.bump(CollectionVersionService.BOOKINGS);
+        auditService.record(AuditService.DELETE, AuditService.TENT, tentToDelete.getId(), agencyIdOf(tentToDelete),
+                AuditService.stateOf(tentToDelete), null);
+    }
+
+    private static Integer agencyIdOf(Tent tent) {
+        return tent.getAgency() != null ? tent.getAgency().getId() : null;
     }
 }
\ No newline at end of file
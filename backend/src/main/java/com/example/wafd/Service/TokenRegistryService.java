@@ -0,0 +1,159 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.Model.RefreshToken;
+import com.example.wafd.Model.RevokedSession;
+import com.example.wafd.Model.User;
+import com.example.wafd.Repository.RefreshTokenRepository;
+import com.example.wafd.Repository.RevokedSessionRepository;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side registry of login sessions and their refresh tokens.
+ *
+ * <p>Every login starts a session (the {@code sid} claim on both tokens).
+ * Refresh tokens are stored by jti and rotated on use; a rotated token that is
+ * presented again means a copy leaked, and the whole session is revoked.
+ * Logging out revokes the session, and the revoked session ids are kept in
+ * memory so the per-request check is a hash lookup rather than a query. Other
+ * instances pick up revocations from the {@code revoked_session} table on the
+ * next reload.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRegistryService {
+
+    public record IssuedTokens(String accessToken, String refreshToken) { }
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RevokedSessionRepository revokedSessionRepository;
+    private final JwtService jwtService;
+
+    @Value("${auth.refresh.reuse-grace-ms:10000}")
+    private long reuseGraceMs;
+
+    // Session id -> when the last access token of that session expires (epoch ms)
+    private final Map<String, Long> revokedSessions = new ConcurrentHashMap<>();
+    private volatile LocalDateTime loadedUntil;
+
+    @Transactional
+    public IssuedTokens issue(User user) {
+        return issueInSession(user, UUID.randomUUID().toString()).tokens();
+    }
+
+    /**
+     * Exchanges a verified refresh token for a new pair in the same session and
+     * retires the presented one.
+     */
+    @Transactional(noRollbackFor = ApiException.class)
+    public IssuedTokens rotate(Claims claims, User user) {
+        String tokenId = claims.getId();
+        String sessionId = claims.get(JwtService.SESSION_ID, String.class);
+        if (tokenId == null || sessionId == null || !JwtService.isRefreshToken(claims) || isRevoked(sessionId)) {
+            throw new ApiException("Invalid refresh token");
+        }
+
+        RefreshToken current = refreshTokenRepository.findForRotation(tokenId);
+        if (current == null || !current.getUserId().equals(user.getId())) {
+            throw new ApiException("Invalid refresh token");
+        }
+        if (current.getRevokedAt() != null) {
+            // Two tabs refreshing at once both present the same token; only the loser lands here
+            if (current.getReplacedBy() != null
+                    && Duration.between(current.getRevokedAt(), LocalDateTime.now()).toMillis() < reuseGraceMs) {
+                throw new ApiException("Refresh token was already used, retry with the new one");
+            }
+            revokeSession(sessionId, user.getId());
+            throw new ApiException("Invalid refresh token");
+        }
+
+        Issued next = issueInSession(user, sessionId);
+        current.setRevokedAt(LocalDateTime.now());
+        current.setReplacedBy(next.tokenId());
+        return next.tokens();
+    }
+
+    @Transactional
+    public void revokeSession(String sessionId, Integer userId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(Duration.ofMillis(jwtService.getAccessTokenExpiration()));
+        refreshTokenRepository.revokeSession(sessionId, now);
+        revokedSessionRepository.save(new RevokedSession(sessionId, userId, now, expiresAt));
+        remember(sessionId, expiresAt);
+    }
+
+    @Transactional
+    public void revokeAllSessions(Integer userId) {
+        for (String sessionId : refreshTokenRepository.findLiveSessionIds(userId, LocalDateTime.now())) {
+            revokeSession(sessionId, userId);
+        }
+    }
+
+    public boolean isRevoked(String sessionId) {
+        if (loadedUntil == null) {
+            ensureLoaded();
+        }
+        return revokedSessions.containsKey(sessionId);
+    }
+
+    // Loaded on first use rather than at startup so the context can refresh without a database
+    private synchronized void ensureLoaded() {
+        if (loadedUntil == null) {
+            reloadRevocations();
+        }
+    }
+
+    /**
+     * Pulls revocations made by other instances and forgets sessions whose
+     * access tokens have all expired.
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.reload-ms:30000}",
+               initialDelayString = "${auth.revocation.reload-ms:30000}")
+    public synchronized void reloadRevocations() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = loadedUntil != null
+                ? loadedUntil.minusSeconds(5) // rows committed just before the last read
+                : now.minus(Duration.ofMillis(jwtService.getAccessTokenExpiration()));
+        for (RevokedSession session : revokedSessionRepository.findRevokedSince(since, now)) {
+            remember(session.getSessionId(), session.getExpiresAt());
+        }
+        long nowMillis = System.currentTimeMillis();
+        revokedSessions.values().removeIf(expiresAt -> expiresAt < nowMillis);
+        loadedUntil = now;
+    }
+
+    @Scheduled(cron = "${auth.token-purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.deleteExpired(now);
+        revokedSessionRepository.deleteExpired(now);
+    }
+
+    private record Issued(String tokenId, IssuedTokens tokens) { }
+
+    private Issued issueInSession(User user, String sessionId) {
+        String tokenId = UUID.randomUUID().toString();
+        LocalDateTime expiresAt = LocalDateTime.now().plus(Duration.ofMillis(jwtService.getRefreshTokenExpiration()));
+        refreshTokenRepository.save(new RefreshToken(tokenId, user.getId(), sessionId, expiresAt, null, null, null));
+        return new Issued(tokenId, new IssuedTokens(
+                jwtService.generateToken(user, sessionId),
+                jwtService.generateRefreshToken(user, sessionId, tokenId)));
+    }
+
+    private void remember(String sessionId, LocalDateTime expiresAt) {
+        revokedSessions.put(sessionId, expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+}
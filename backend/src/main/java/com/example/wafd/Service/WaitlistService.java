@@ -0,0 +1,199 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.DTO.WaitlistEntryDTOOut;
+import com.example.wafd.Model.Bed;
+import com.example.wafd.Model.Pilgrim;
+import com.example.wafd.Model.Tent;
+import com.example.wafd.Model.WaitlistEntry;
+import com.example.wafd.Repository.BedRepository;
+import com.example.wafd.Repository.PilgrimRepository;
+import com.example.wafd.Repository.WaitlistEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pilgrims who could not be given a bed, per agency and gender.
+ *
+ * <p>Waiters are served special needs first, then oldest first, then in the
+ * order they were queued. That order is the {@code IDX_waitlist_priority}
+ * index, so finding the next waiter for a freed bed is a single index seek
+ * rather than a scan of the queue. Placement runs after the transaction that
+ * freed the bed commits, one short transaction per bed.</p>
+ */
+@Slf4j
+@Service
+public class WaitlistService {
+
+    // Entries whose pilgrim was booked, moved or deleted since queuing
+    private static final int MAX_STALE_SKIPS = 20;
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final PilgrimRepository pilgrimRepository;
+    private final BedRepository bedRepository;
+    private final BedAssignmentService bedAssignmentService;
+    private final AuthenticationService authenticationService;
+    private final AuditService auditService;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public WaitlistService(WaitlistEntryRepository waitlistEntryRepository,
+                           PilgrimRepository pilgrimRepository,
+                           BedRepository bedRepository,
+                           BedAssignmentService bedAssignmentService,
+                           AuthenticationService authenticationService,
+                           AuditService auditService,
+                           CacheManager cacheManager,
+                           PlatformTransactionManager transactionManager) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.pilgrimRepository = pilgrimRepository;
+        this.bedRepository = bedRepository;
+        this.bedAssignmentService = bedAssignmentService;
+        this.authenticationService = authenticationService;
+        this.auditService = auditService;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Placement runs from afterCommit, where the freeing transaction can no longer be joined
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Queues a pilgrim of an agency. A pilgrim already on the waitlist keeps
+     * their place.
+     */
+    @Transactional
+    public WaitlistEntry enqueue(Pilgrim pilgrim) {
+        WaitlistEntry existing = waitlistEntryRepository.findByPilgrimId(pilgrim.getId());
+        if (existing != null) {
+            return existing;
+        }
+        Integer agencyId = pilgrim.getAgency().getId();
+        WaitlistEntry entry = waitlistEntryRepository.save(new WaitlistEntry(null, pilgrim.getId(), agencyId,
+                normalizeGender(pilgrim.getGender()), Boolean.TRUE.equals(pilgrim.getHasSpecialNeeds()),
+                pilgrim.getAge() != null ? pilgrim.getAge() : 0, LocalDateTime.now()));
+        auditService.record(AuditService.CREATE, AuditService.WAITLIST, pilgrim.getId(), agencyId,
+                null, stateOf(entry));
+        return entry;
+    }
+
+    public List<WaitlistEntryDTOOut> findWaitlist(Integer agencyId) {
+        var currentUser = authenticationService.getCurrentUser();
+        if ("Supervisor".equals(currentUser.getRole()) && currentUser.getManagedAgency() != null) {
+            agencyId = currentUser.getManagedAgency().getId();
+        }
+        return waitlistEntryRepository.findInPriorityOrder(agencyId).stream()
+                .map(WaitlistEntryDTOOut::fromEntity)
+                .toList();
+    }
+
+    @Transactional
+    public void remove(Integer pilgrimId) {
+        WaitlistEntry entry = waitlistEntryRepository.findByPilgrimId(pilgrimId);
+        if (entry == null) {
+            throw new ApiException("Pilgrim is not on the waitlist");
+        }
+        var currentUser = authenticationService.getCurrentUser();
+        if ("Supervisor".equals(currentUser.getRole()) && currentUser.getManagedAgency() != null
+                && !currentUser.getManagedAgency().getId().equals(entry.getAgencyId())) {
+            throw new ApiException("Access denied: This pilgrim is not in your group");
+        }
+        waitlistEntryRepository.delete(entry);
+        auditService.record(AuditService.DELETE, AuditService.WAITLIST, pilgrimId, entry.getAgencyId(),
+                stateOf(entry), null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBedsFreed(BedsFreedEvent event) {
+        int placed = 0;
+        for (Integer bedId : event.bedIds()) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> placeNext(bedId)))) {
+                    placed++;
+                }
+            } catch (RuntimeException e) {
+                // The bed stays Available and the waiter stays queued
+                log.warn("Could not place a waiting pilgrim on bed {}", bedId, e);
+            }
+        }
+        if (placed > 0) {
+            evict("beds", "pilgrims", "pilgrimSearch");
+            log.debug("Placed {} waiting pilgrims", placed);
+        }
+    }
+
+    /**
+     * Books {@code bedId} for the first waiter of the bed's agency and gender.
+     * Returns false when the bed is no longer free or nobody is waiting.
+     */
+    private boolean placeNext(Integer bedId) {
+        Bed bed = bedRepository.findBedByIdWithTent(bedId);
+        if (bed == null || !"Available".equals(bed.getStatus())) {
+            return false;
+        }
+        Tent tent = bed.getTent();
+        if (tent == null || tent.getAgency() == null) {
+            return false;
+        }
+        Integer agencyId = tent.getAgency().getId();
+        String gender = normalizeGender(tent.getType());
+
+        for (int skipped = 0; skipped < MAX_STALE_SKIPS; skipped++) {
+            List<WaitlistEntry> next = waitlistEntryRepository.findNext(agencyId, gender, PageRequest.of(0, 1));
+            if (next.isEmpty()) {
+                return false;
+            }
+            WaitlistEntry entry = next.get(0);
+            waitlistEntryRepository.delete(entry);
+            auditService.record(AuditService.DELETE, AuditService.WAITLIST, entry.getPilgrimId(), agencyId,
+                    stateOf(entry), null);
+
+            Pilgrim pilgrim = pilgrimRepository.findPilgrimById(entry.getPilgrimId());
+            if (pilgrim == null || pilgrim.getAgency() == null || !agencyId.equals(pilgrim.getAgency().getId())) {
+                continue;
+            }
+            // Checked here, not by catching assignBed's exception: that would already have marked
+            // this transaction rollback-only, undoing the dequeue and any placement after it
+            try {
+                BedAssignmentService.requireAssignable(pilgrim, bed, "Available");
+            } catch (ApiException e) {
+                // Booked elsewhere or gender changed since queuing
+                log.debug("Dropped waitlist entry for pilgrim {}: {}", pilgrim.getId(), e.getMessage());
+                continue;
+            }
+            bedAssignmentService.assignBed(pilgrim.getId(), bedId);
+            return true;
+        }
+        return false;
+    }
+
+    // Background placements bypass the controllers' @CacheEvict
+    private void evict(String... cacheNames) {
+        for (String name : cacheNames) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static Map<String, Object> stateOf(WaitlistEntry entry) {
+        return Map.of("pilgrimId", entry.getPilgrimId(), "agencyId", entry.getAgencyId(),
+                "gender", entry.getGender(), "specialNeeds", entry.getSpecialNeeds(), "age", entry.getAge());
+    }
+
+    private static String normalizeGender(String gender) {
+        return gender != null ? gender.toLowerCase() : "male";
+    }
+}
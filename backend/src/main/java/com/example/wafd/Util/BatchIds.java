@@ -0,0 +1,38 @@
+package com.example.wafd.Util;
+
+import com.example.wafd.Api.ApiException;
+
+import java.util.*;
+
+/**
+ * Ids of a batch read: nulls and duplicates dropped, request order kept, and
+ * at most a configured number of them.
+ */
+public final class BatchIds {
+
+    private BatchIds() {
+    }
+
+    public static Set<Integer> of(List<Integer> ids, int max) {
+        Set<Integer> unique = new LinkedHashSet<>();
+        if (ids != null) {
+            ids.stream().filter(Objects::nonNull).forEach(unique::add);
+        }
+        if (unique.size() > max) {
+            throw new ApiException("A batch can contain at most " + max + " ids");
+        }
+        return unique;
+    }
+
+    /** {@code found} in the order of {@code ids}, leaving out ids that were not found. */
+    public static <T> List<T> inOrder(Set<Integer> ids, Map<Integer, T> found) {
+        List<T> ordered = new ArrayList<>(found.size());
+        for (Integer id : ids) {
+            T value = found.get(id);
+            if (value != null) {
+                ordered.add(value);
+            }
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.wafd.Util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Responses of completed requests by user and idempotency key, kept in the
+ * {@code idempotency_key} table for a fixed time to live, so a retry finds
+ * the first attempt whichever instance it lands on.
+ *
+ * <p>A key is claimed by inserting its row before the request runs; the
+ * unique key on user and key lets exactly one instance win. A retry that
+ * arrives while the first attempt is still running finds the row without a
+ * status and polls it for the result. A claim whose owner stopped before
+ * finishing (a crashed instance) is taken over once {@code lease-ms} has
+ * passed.</p>
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    public record StoredResponse(int status, String contentType, byte[] body) { }
+
+    /**
+     * The row for a key, the fingerprint of the request that claimed it, and
+     * whether this caller claimed it and must run the request.
+     */
+    public record Claim(long id, byte[] fingerprint, boolean owned) {
+
+        public boolean matches(byte[] otherFingerprint) {
+            return Arrays.equals(fingerprint, otherFingerprint);
+        }
+    }
+
+    private record Row(long id, byte[] fingerprint, StoredResponse response, LocalDateTime createdAt) { }
+
+    private static final String INSERT = "INSERT INTO idempotency_key " +
+            "(username, idempotency_key, fingerprint, created_at) VALUES (?, ?, ?, ?)";
+    private static final String SELECT = "SELECT id, fingerprint, status, content_type, body, created_at " +
+            "FROM idempotency_key";
+    private static final long POLL_MS = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlMinutes;
+    private final long leaseMs;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            @Value("${idempotency.ttl-minutes:1440}") long ttlMinutes,
+                            @Value("${idempotency.lease-ms:300000}") long leaseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMinutes = ttlMinutes;
+        this.leaseMs = leaseMs;
+    }
+
+    /**
+     * Claims {@code key} for a new request, or returns the live row of an
+     * earlier request with the same key.
+     */
+    public Claim claim(String username, String key, byte[] fingerprint) {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                jdbcTemplate.update(INSERT, username, key, fingerprint, now);
+                Row row = find(username, key);
+                if (row != null) {
+                    return new Claim(row.id(), fingerprint, true);
+                }
+                continue;
+            } catch (DuplicateKeyException e) {
+                // Claimed before, here or on another instance
+            }
+            Row existing = find(username, key);
+            if (existing == null) {
+                continue;
+            }
+            if (existing.createdAt().isBefore(now.minusMinutes(ttlMinutes))) {
+                jdbcTemplate.update("DELETE FROM idempotency_key WHERE id = ? AND created_at = ?",
+                        existing.id(), existing.createdAt());
+                continue;
+            }
+            if (existing.response() == null && existing.createdAt().isBefore(now.minus(leaseMs, ChronoUnit.MILLIS))
+                    && Arrays.equals(existing.fingerprint(), fingerprint)
+                    && jdbcTemplate.update("UPDATE idempotency_key SET created_at = ? " +
+                            "WHERE id = ? AND created_at = ? AND status IS NULL", now, existing.id(), existing.createdAt()) == 1) {
+                log.warn("Took over idempotency key {} of {} after its first attempt stopped", key, username);
+                return new Claim(existing.id(), fingerprint, true);
+            }
+            return new Claim(existing.id(), existing.fingerprint(), false);
+        }
+    }
+
+    /**
+     * Stores the owner's response for replay. A null response releases the
+     * key, so the next attempt runs the request again.
+     */
+    public void complete(Claim claim, StoredResponse response) {
+        if (response == null) {
+            jdbcTemplate.update("DELETE FROM idempotency_key WHERE id = ? AND status IS NULL", claim.id());
+        } else {
+            jdbcTemplate.update("UPDATE idempotency_key SET status = ?, content_type = ?, body = ? WHERE id = ?",
+                    response.status(), response.contentType(), response.body(), claim.id());
+        }
+    }
+
+    /**
+     * Waits for the response of a claim owned by another request. Returns
+     * null when the owner gave up the key and the request should be tried
+     * again.
+     */
+    public StoredResponse await(Claim claim, long waitMs) throws TimeoutException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+        while (true) {
+            List<Row> rows = jdbcTemplate.query(SELECT + " WHERE id = ?", this::row, claim.id());
+            if (rows.isEmpty()) {
+                return null;
+            }
+            if (rows.get(0).response() != null) {
+                return rows.get(0).response();
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new TimeoutException();
+            }
+            Thread.sleep(POLL_MS);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-ms:3600000}", initialDelayString = "${idempotency.purge-ms:3600000}")
+    public void purge() {
+        int purged = jdbcTemplate.update("DELETE FROM idempotency_key WHERE created_at < ?",
+                LocalDateTime.now().minusMinutes(ttlMinutes));
+        log.debug("Purged {} idempotency keys", purged);
+    }
+
+    private Row find(String username, String key) {
+        List<Row> rows = jdbcTemplate.query(SELECT + " WHERE username = ? AND idempotency_key = ?",
+                this::row, username, key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private Row row(ResultSet rs, int rowNum) throws SQLException {
+        int status = rs.getInt(3);
+        StoredResponse response = rs.wasNull() ? null : new StoredResponse(status, rs.getString(4), rs.getBytes(5));
+        Timestamp createdAt = rs.getTimestamp(6);
+        return new Row(rs.getLong(1), rs.getBytes(2), response, createdAt.toLocalDateTime());
+    }
+}
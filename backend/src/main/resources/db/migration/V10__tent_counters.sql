@@ -0,0 +1,20 @@
+-- Per-tent bed counters, kept by TentCounterService in the transaction of each bed status change
+
+ALTER TABLE tent
+    ADD COLUMN occupied_beds      INT NOT NULL DEFAULT 0,
+    ADD COLUMN reserved_beds      INT NOT NULL DEFAULT 0,
+    ADD COLUMN maintenance_beds   INT NOT NULL DEFAULT 0,
+    ADD COLUMN special_needs_beds INT NOT NULL DEFAULT 0;
+
+UPDATE tent t SET
+    occupied_beds      = (SELECT COUNT(*) FROM bed b
+                          WHERE b.tent_id = t.id AND b.status IN ('Booked', 'Checked_in')),
+    reserved_beds      = (SELECT COUNT(*) FROM bed b
+                          WHERE b.tent_id = t.id AND b.status = 'Reserved'),
+    maintenance_beds   = (SELECT COUNT(*) FROM bed b
+                          WHERE b.tent_id = t.id AND b.status = 'Maintenance'),
+    special_needs_beds = (SELECT COUNT(*) FROM bed b
+                          JOIN booking bk ON bk.bed_id = b.id
+                          JOIN pilgrim p ON p.id = bk.pilgrim_id
+                          WHERE b.tent_id = t.id AND b.status IN ('Booked', 'Checked_in')
+                            AND p.has_special_needs = TRUE);
@@ -0,0 +1,8 @@
+-- Last bucket each cluster-wide scheduled task ran for, see OccupancySnapshotService.
+-- Rows are added by the first run of each task
+
+CREATE TABLE scheduled_run (
+    name        VARCHAR(64) NOT NULL,
+    last_bucket DATETIME(6) NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
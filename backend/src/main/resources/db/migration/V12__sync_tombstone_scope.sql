@@ -0,0 +1,5 @@
+-- Tombstones sent only to one agency's supervisors: a tent or bed that left their scope, or the
+-- per-agency copy of a tent or bed deletion. The unscoped feed skips them
+
+ALTER TABLE sync_tombstone
+    ADD COLUMN agency_only BIT NOT NULL DEFAULT 0;
@@ -0,0 +1,17 @@
+-- Idempotency-Key claims and the stored responses, shared by every instance, see IdempotencyStore.
+-- status is null while the first attempt runs
+
+CREATE TABLE idempotency_key (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    username        VARCHAR(255) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    fingerprint     BINARY(32)   NOT NULL,
+    status          INT,
+    content_type    VARCHAR(255),
+    body            MEDIUMBLOB,
+    created_at      DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UK_idempotency_key_user_key UNIQUE (username, idempotency_key)
+) ENGINE = InnoDB;
+
+CREATE INDEX IDX_idempotency_key_created ON idempotency_key (created_at);
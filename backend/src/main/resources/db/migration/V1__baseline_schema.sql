@@ -0,0 +1,98 @@
+-- Schema as previously created by hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version and skip this script.
+
+CREATE TABLE users (
+    id         INT          NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(55)  NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    phone      VARCHAR(255) NOT NULL,
+    role       VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT UK_users_email UNIQUE (email),
+    CONSTRAINT UK_users_phone UNIQUE (phone)
+) ENGINE = InnoDB;
+
+CREATE TABLE agency (
+    id             INT         NOT NULL AUTO_INCREMENT,
+    name           VARCHAR(55) NOT NULL,
+    license_number VARCHAR(50) NOT NULL,
+    country        VARCHAR(2)  NOT NULL,
+    status         VARCHAR(10) NOT NULL,
+    max_pilgrim    INT         NOT NULL,
+    notes          TEXT,
+    manager_id     INT,
+    created_at     DATETIME(6),
+    updated_at     DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT UK_agency_license_number UNIQUE (license_number),
+    CONSTRAINT UK_agency_manager UNIQUE (manager_id),
+    CONSTRAINT FK_agency_manager FOREIGN KEY (manager_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE tent (
+    id          INT          NOT NULL AUTO_INCREMENT,
+    location    VARCHAR(255) NOT NULL,
+    capacity    INT          NOT NULL,
+    name        VARCHAR(100),
+    code        VARCHAR(10),
+    type        VARCHAR(10),
+    description TEXT,
+    agency_id   INT,
+    created_at  DATETIME(6),
+    updated_at  DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT UK_tent_code UNIQUE (code),
+    CONSTRAINT FK_tent_agency FOREIGN KEY (agency_id) REFERENCES agency (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE bed (
+    id         INT         NOT NULL AUTO_INCREMENT,
+    status     VARCHAR(20) NOT NULL,
+    tent_id    INT,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT FK_bed_tent FOREIGN KEY (tent_id) REFERENCES tent (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE pilgrim (
+    id                  INT          NOT NULL AUTO_INCREMENT,
+    registration_number VARCHAR(50),
+    national_id         VARCHAR(50),
+    passport_number     VARCHAR(50),
+    first_name          VARCHAR(100) NOT NULL,
+    last_name           VARCHAR(100) NOT NULL,
+    gender              VARCHAR(10)  NOT NULL,
+    age                 INT          NOT NULL,
+    nationality         VARCHAR(255) NOT NULL,
+    phone_number        VARCHAR(50)  NOT NULL,
+    has_special_needs   BIT,
+    special_needs_type  VARCHAR(100),
+    special_needs_notes TEXT,
+    notes               TEXT,
+    status              VARCHAR(20)  NOT NULL,
+    agency_id           INT,
+    created_at          DATETIME(6),
+    updated_at          DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT UK_pilgrim_registration_number UNIQUE (registration_number),
+    CONSTRAINT UK_pilgrim_national_id UNIQUE (national_id),
+    CONSTRAINT FK_pilgrim_agency FOREIGN KEY (agency_id) REFERENCES agency (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE booking (
+    id         INT         NOT NULL AUTO_INCREMENT,
+    status     VARCHAR(10) NOT NULL,
+    pilgrim_id INT,
+    bed_id     INT,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT UK_booking_pilgrim UNIQUE (pilgrim_id),
+    CONSTRAINT UK_booking_bed UNIQUE (bed_id),
+    CONSTRAINT FK_booking_pilgrim FOREIGN KEY (pilgrim_id) REFERENCES pilgrim (id),
+    CONSTRAINT FK_booking_bed FOREIGN KEY (bed_id) REFERENCES bed (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,34 @@
+-- Occupancy time series and delta sync support
+
+CREATE TABLE occupancy_snapshot (
+    id            BIGINT      NOT NULL AUTO_INCREMENT,
+    scope         VARCHAR(10) NOT NULL,
+    scope_id      INT         NOT NULL,
+    resolution    VARCHAR(10) NOT NULL,
+    bucket_start  DATETIME    NOT NULL,
+    occupied      INT         NOT NULL,
+    peak_occupied INT         NOT NULL,
+    capacity      INT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UK_occupancy_series_bucket UNIQUE (scope, scope_id, resolution, bucket_start)
+) ENGINE = InnoDB;
+
+CREATE TABLE sync_tombstone (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id   INT         NOT NULL,
+    agency_id   INT,
+    deleted_at  DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX IDX_tombstone_deleted ON sync_tombstone (deleted_at, id);
+CREATE INDEX IDX_tombstone_agency_deleted ON sync_tombstone (agency_id, deleted_at, id);
+
+-- Keyset cursors for the changes feed
+CREATE INDEX IDX_pilgrim_updated ON pilgrim (updated_at, id);
+CREATE INDEX IDX_pilgrim_agency_updated ON pilgrim (agency_id, updated_at, id);
+CREATE INDEX IDX_bed_updated ON bed (updated_at, id);
+CREATE INDEX IDX_booking_updated ON booking (updated_at, id);
+CREATE INDEX IDX_tent_updated ON tent (updated_at, id);
+CREATE INDEX IDX_agency_updated ON agency (updated_at, id);
@@ -0,0 +1,22 @@
+-- Composite indexes for the filters, groupings and sorts the repositories issue
+
+-- Supervisor-scoped lists and statistics filter on agency, then status
+CREATE INDEX IDX_pilgrim_agency_status ON pilgrim (agency_id, status);
+-- Status and gender counts, status sort
+CREATE INDEX IDX_pilgrim_status ON pilgrim (status);
+CREATE INDEX IDX_pilgrim_gender ON pilgrim (gender);
+-- Nationality breakdown
+CREATE INDEX IDX_pilgrim_nationality ON pilgrim (nationality);
+-- Sortable list columns (see PilgrimFields.SORTABLE)
+CREATE INDEX IDX_pilgrim_created ON pilgrim (created_at);
+CREATE INDEX IDX_pilgrim_agency_created ON pilgrim (agency_id, created_at);
+CREATE INDEX IDX_pilgrim_last_name ON pilgrim (last_name, first_name);
+
+-- Occupancy per tent and free-bed lookups
+CREATE INDEX IDX_bed_tent_status ON bed (tent_id, status);
+
+-- Active bookings per agency
+CREATE INDEX IDX_booking_status ON booking (status, pilgrim_id);
+
+-- Rollups read one resolution over a bucket range
+CREATE INDEX IDX_occupancy_resolution_bucket ON occupancy_snapshot (resolution, bucket_start);
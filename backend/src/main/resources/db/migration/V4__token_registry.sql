@@ -0,0 +1,27 @@
+-- Server-side refresh tokens and logged-out sessions
+
+CREATE TABLE refresh_token (
+    id          VARCHAR(36) NOT NULL,
+    user_id     INT         NOT NULL,
+    session_id  VARCHAR(36) NOT NULL,
+    expires_at  DATETIME(6) NOT NULL,
+    revoked_at  DATETIME(6),
+    replaced_by VARCHAR(36),
+    created_at  DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX IDX_refresh_token_user ON refresh_token (user_id, expires_at);
+CREATE INDEX IDX_refresh_token_session ON refresh_token (session_id);
+CREATE INDEX IDX_refresh_token_expires ON refresh_token (expires_at);
+
+CREATE TABLE revoked_session (
+    session_id VARCHAR(36) NOT NULL,
+    user_id    INT         NOT NULL,
+    revoked_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (session_id)
+) ENGINE = InnoDB;
+
+CREATE INDEX IDX_revoked_session_revoked ON revoked_session (revoked_at);
+CREATE INDEX IDX_revoked_session_expires ON revoked_session (expires_at);
@@ -0,0 +1,19 @@
+-- Append-only audit trail, written in batches by AuditService
+
+CREATE TABLE audit_event (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    occurred_at DATETIME(6)  NOT NULL,
+    actor_id    INT,
+    actor_email VARCHAR(100),
+    action      VARCHAR(20)  NOT NULL,
+    entity_type VARCHAR(20)  NOT NULL,
+    entity_id   INT,
+    agency_id   INT,
+    changes     TEXT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX IDX_audit_entity ON audit_event (entity_type, entity_id, id);
+CREATE INDEX IDX_audit_actor ON audit_event (actor_id, id);
+CREATE INDEX IDX_audit_agency ON audit_event (agency_id, id);
+CREATE INDEX IDX_audit_occurred ON audit_event (occurred_at);
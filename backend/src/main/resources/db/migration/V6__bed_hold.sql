@@ -0,0 +1,11 @@
+-- Time-limited bed reservations, see BedHoldService
+
+CREATE TABLE bed_hold (
+    bed_id     INT         NOT NULL,
+    held_by    INT         NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6),
+    PRIMARY KEY (bed_id)
+) ENGINE = InnoDB;
+
+CREATE INDEX IDX_bed_hold_expires ON bed_hold (expires_at);
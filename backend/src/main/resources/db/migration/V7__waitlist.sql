@@ -0,0 +1,17 @@
+-- Pilgrims waiting for a bed, see WaitlistService
+
+CREATE TABLE waitlist_entry (
+    id            INT         NOT NULL AUTO_INCREMENT,
+    pilgrim_id    INT         NOT NULL,
+    agency_id     INT         NOT NULL,
+    gender        VARCHAR(10) NOT NULL,
+    special_needs BIT         NOT NULL,
+    age           INT         NOT NULL,
+    queued_at     DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UK_waitlist_pilgrim UNIQUE (pilgrim_id),
+    CONSTRAINT FK_waitlist_pilgrim FOREIGN KEY (pilgrim_id) REFERENCES pilgrim (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+-- Matches the ORDER BY of WaitlistEntryRepository.findNext, so the next waiter is one index seek
+CREATE INDEX IDX_waitlist_priority ON waitlist_entry (agency_id, gender, special_needs DESC, age DESC, queued_at, id);
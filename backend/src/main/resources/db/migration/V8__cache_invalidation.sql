@@ -0,0 +1,11 @@
+-- Append-only log of Spring cache evictions, tailed by every instance, see CacheInvalidationService
+
+CREATE TABLE cache_invalidation (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    cache_name VARCHAR(64) NOT NULL,
+    origin     VARCHAR(32) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX IDX_cache_invalidation_created ON cache_invalidation (created_at);
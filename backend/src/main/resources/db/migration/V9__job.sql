@@ -0,0 +1,22 @@
+-- Background jobs with checkpoints, see JobService
+
+CREATE TABLE job (
+    id               INT          NOT NULL AUTO_INCREMENT,
+    type             VARCHAR(50)  NOT NULL,
+    status           VARCHAR(20)  NOT NULL,
+    params           TEXT,
+    checkpoint       VARCHAR(255),
+    processed        INT          NOT NULL,
+    total            INT,
+    message          VARCHAR(500),
+    cancel_requested BIT          NOT NULL,
+    owner            VARCHAR(32),
+    created_by       INT,
+    created_at       DATETIME(6),
+    started_at       DATETIME(6),
+    heartbeat_at     DATETIME(6),
+    finished_at      DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX IDX_job_status ON job (status, id);
@@ -0,0 +1,159 @@
+package com.example.wafd.Config;
+
+import com.example.wafd.DTO.PilgrimDTOOut;
+import com.example.wafd.DTO.TentDTOOut;
+import com.example.wafd.Model.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares payload size and serialize-plus-compress time of the large list
+ * responses across JSON, CBOR and Smile. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("Binary Format Benchmark")
+class BinaryFormatBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    @Test
+    @DisplayName("Tent list with nested beds")
+    void benchmarkTentList() throws IOException {
+        run("tents (200 x 50 beds)", tents(200, 50));
+    }
+
+    @Test
+    @DisplayName("Paged pilgrim list")
+    void benchmarkPilgrimPage() throws IOException {
+        List<PilgrimDTOOut> content = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            content.add(PilgrimDTOOut.fromEntity(pilgrim(i, null)));
+        }
+        run("pilgrims (page of 1000)", new PageImpl<>(content, PageRequest.of(0, 1000), 250_000));
+    }
+
+    private void run(String label, Object payload) throws IOException {
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", mapper().build());
+        mappers.put("cbor", mapper().factory(new CBORFactory()).build());
+        mappers.put("smile", mapper().factory(new SmileFactory()).build());
+
+        System.out.printf("%n%s%n%-6s %10s %10s %12s %12s%n", label, "format", "bytes", "gzip bytes", "encode ms", "+gzip ms");
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            byte[] encoded = mapper.writeValueAsBytes(payload);
+            byte[] compressed = gzip(encoded);
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                gzip(mapper.writeValueAsBytes(payload));
+            }
+            long encodeNanos = 0;
+            long totalNanos = 0;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                long start = System.nanoTime();
+                byte[] bytes = mapper.writeValueAsBytes(payload);
+                long encodedAt = System.nanoTime();
+                gzip(bytes);
+                long end = System.nanoTime();
+                encodeNanos += encodedAt - start;
+                totalNanos += end - start;
+            }
+
+            System.out.printf("%-6s %10d %10d %12.2f %12.2f%n", entry.getKey(), encoded.length, compressed.length,
+                    encodeNanos / 1e6 / MEASURED_ROUNDS, totalNanos / 1e6 / MEASURED_ROUNDS);
+            assertThat(encoded).isNotEmpty();
+        }
+    }
+
+    // Same defaults Spring Boot applies to the HTTP converters
+    private static Jackson2ObjectMapperBuilder mapper() {
+        return new Jackson2ObjectMapperBuilder().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<TentDTOOut> tents(int tentCount, int bedsPerTent) {
+        List<TentDTOOut> tents = new ArrayList<>();
+        int pilgrimId = 1;
+        int bedId = 1;
+        for (int t = 1; t <= tentCount; t++) {
+            Tent tent = new Tent();
+            tent.setId(t);
+            tent.setName("Hall " + t);
+            tent.setCode("H" + t);
+            tent.setType(t % 2 == 0 ? "female" : "male");
+            tent.setCapacity(bedsPerTent);
+            tent.setCreated_at(LocalDateTime.of(2025, 5, 1, 9, 0));
+            tent.setUpdated_at(LocalDateTime.of(2025, 6, 1, 9, 0));
+            Set<Bed> beds = new LinkedHashSet<>();
+            for (int b = 0; b < bedsPerTent; b++) {
+                Bed bed = new Bed();
+                bed.setId(bedId++);
+                bed.setTent(tent);
+                bed.setCreated_at(LocalDateTime.of(2025, 5, 1, 9, 0));
+                if (b % 4 != 0) {
+                    bed.setStatus("Booked");
+                    Booking booking = new Booking();
+                    booking.setStatus("Booked");
+                    booking.setPilgrim(pilgrim(pilgrimId++, booking));
+                    booking.setBed(bed);
+                    bed.setBooking(booking);
+                } else {
+                    bed.setStatus("Available");
+                }
+                beds.add(bed);
+            }
+            tent.setBeds(beds);
+            tents.add(TentDTOOut.fromEntity(tent));
+        }
+        return tents;
+    }
+
+    private static Pilgrim pilgrim(int id, Booking booking) {
+        Pilgrim pilgrim = new Pilgrim();
+        pilgrim.setId(id);
+        pilgrim.setRegistrationNumber(String.format("H1446%06d", id));
+        pilgrim.setNationalId(String.valueOf(1_000_000_000L + id));
+        pilgrim.setPassportNumber("P" + id);
+        pilgrim.setFirstName("Pilgrim");
+        pilgrim.setLastName("Number " + id);
+        pilgrim.setAge(20 + id % 60);
+        pilgrim.setGender(id % 2 == 0 ? "female" : "male");
+        pilgrim.setNationality("SA");
+        pilgrim.setPhoneNumber("05" + (10_000_000 + id));
+        pilgrim.setStatus("expected");
+        pilgrim.setHasSpecialNeeds(id % 10 == 0);
+        pilgrim.setCreatedAt(LocalDateTime.of(2025, 5, 1, 9, 0));
+        pilgrim.setUpdatedAt(LocalDateTime.of(2025, 6, 1, 9, 0));
+        pilgrim.setBooking(booking);
+        return pilgrim;
+    }
+}
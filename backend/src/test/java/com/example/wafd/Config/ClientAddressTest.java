@@ -0,0 +1,92 @@
+package com.example.wafd.Config;
+
+import com.example.wafd.Controller.AuthController;
+import com.example.wafd.DTO.LoginDTOIn;
+import com.example.wafd.Service.AuthenticationService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@ActiveProfiles("test")
+@DisplayName("Client Address Unit Tests")
+class ClientAddressTest {
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class})
+    @Import(AuthController.class)
+    static class Web {
+        @Bean
+        AuthenticationService authenticationService() {
+            return mock(AuthenticationService.class);
+        }
+    }
+
+    @Test
+    @DisplayName("Should key logins on the X-Forwarded-For client when the request comes through a trusted proxy")
+    void shouldUseForwardedAddressFromTrustedProxy() throws Exception {
+        try (ConfigurableApplicationContext context = start()) {
+            login(context, "203.0.113.7");
+
+            verify(context.getBean(AuthenticationService.class)).authenticate(any(LoginDTOIn.class), eq("203.0.113.7"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should ignore X-Forwarded-For sent by an address that is not a trusted proxy")
+    void shouldIgnoreForwardedAddressFromUntrustedPeer() throws Exception {
+        try (ConfigurableApplicationContext context = start("server.tomcat.remoteip.internal-proxies=10\\.0\\.0\\.1")) {
+            login(context, "203.0.113.7");
+
+            verify(context.getBean(AuthenticationService.class)).authenticate(any(LoginDTOIn.class), eq("127.0.0.1"));
+        }
+    }
+
+    // Picks up the forwarded-header settings of application.properties, on a real Tomcat
+    private static ConfigurableApplicationContext start(String... overrides) {
+        List<String> args = new ArrayList<>(List.of("--server.port=0", "--server.address=127.0.0.1"));
+        for (String override : overrides) {
+            args.add("--" + override);
+        }
+        return new SpringApplicationBuilder(Web.class).web(WebApplicationType.SERVLET).run(args.toArray(String[]::new));
+    }
+
+    private static void login(ConfigurableApplicationContext context, String forwardedFor) throws Exception {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/v1/auth/login"))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", forwardedFor)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"a@b.com\",\"password\":\"secret\"}"))
+                .build();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(200);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.wafd.Config;
+
+import com.example.wafd.Service.CollectionVersionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ActiveProfiles("test")
+@DisplayName("ConditionalGetInterceptor Unit Tests")
+class ConditionalGetInterceptorTest {
+
+    private final CollectionVersionService collectionVersionService = mock(CollectionVersionService.class);
+    private final ConditionalGetInterceptor interceptor = new ConditionalGetInterceptor(collectionVersionService, 1);
+
+    @Test
+    @DisplayName("Should move the dashboard's ETag when its TTL window ends, and only the dashboard's")
+    void shouldBucketDashboardEtagByTtl() throws InterruptedException {
+        when(collectionVersionService.getEpoch()).thenReturn("e");
+        MockHttpServletRequest dashboard = new MockHttpServletRequest("GET", "/api/v1/dashboard/get");
+        MockHttpServletRequest tents = new MockHttpServletRequest("GET", "/api/v1/tent/get/all");
+
+        String dashboardTag = interceptor.etag(dashboard);
+        String tentsTag = interceptor.etag(tents);
+        Thread.sleep(5);
+
+        assertThat(interceptor.etag(dashboard)).isNotEqualTo(dashboardTag);
+        assertThat(interceptor.etag(tents)).isEqualTo(tentsTag);
+        assertThat(interceptor.etag(new MockHttpServletRequest("GET", "/api/v1/pilgrim/get/all"))).isNull();
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.wafd.Config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import com.example.wafd.Util.IdempotencyStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@DisplayName("IdempotencyFilter Unit Tests")
+class IdempotencyFilterTest {
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:idempotency-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+    private final IdempotencyFilter filter = instance(300_000);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE idempotency_key (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "username VARCHAR(255) NOT NULL, idempotency_key VARCHAR(255) NOT NULL, fingerprint BINARY(32) NOT NULL, " +
+                "status INT, content_type VARCHAR(255), body MEDIUMBLOB, created_at TIMESTAMP(6) NOT NULL, " +
+                "CONSTRAINT UK_idempotency_key_user_key UNIQUE (username, idempotency_key))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should run the request once and replay the stored response to retries")
+    void shouldReplayRetries() throws Exception {
+        FilterChain chain = created("{\"message\":\"Bed assigned successfully\"}");
+
+        MockHttpServletResponse first = perform("/api/v1/bed/assign", "key-1", "{\"bedId\":1}", chain);
+        MockHttpServletResponse retry = perform("/api/v1/bed/assign", "key-1", "{\"bedId\":1}", chain);
+
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for a different request")
+    void shouldRejectReusedKey() throws Exception {
+        FilterChain chain = created("{}");
+
+        perform("/api/v1/bed/assign", "key-1", "{\"bedId\":1}", chain);
+        MockHttpServletResponse other = perform("/api/v1/bed/assign", "key-1", "{\"bedId\":2}", chain);
+
+        assertThat(other.getStatus()).isEqualTo(422);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should run again after a server error and keep keys apart per user")
+    void shouldNotStoreServerErrors() throws Exception {
+        FilterChain failing = (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(503);
+        };
+        perform("/api/v1/booking/add/7", "key-1", "", failing);
+        perform("/api/v1/booking/add/7", "key-1", "", failing);
+        assertThat(executions).hasValue(2);
+
+        FilterChain chain = created("{}");
+        perform("/api/v1/booking/add/7", "key-2", "", chain);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("supervisor@wafd.com", null, List.of()));
+        perform("/api/v1/booking/add/7", "key-2", "", chain);
+        assertThat(executions).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("Should make a concurrent retry wait for the first attempt")
+    void shouldWaitForInFlightRequest() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            executions.incrementAndGet();
+            running.countDown();
+            try {
+                finish.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ((HttpServletResponse) response).setStatus(201);
+            response.getWriter().write("{\"message\":\"Booking added successfully\"}");
+        };
+
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> performUnchecked(slow));
+        running.await(5, TimeUnit.SECONDS);
+        CompletableFuture<MockHttpServletResponse> retry = CompletableFuture.supplyAsync(() -> performUnchecked(slow));
+        Thread.sleep(100);
+        finish.countDown();
+
+        assertThat(retry.get(5, TimeUnit.SECONDS).getContentAsString())
+                .isEqualTo(first.get(5, TimeUnit.SECONDS).getContentAsString());
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should replay to a retry that lands on another instance")
+    void shouldReplayAcrossInstances() throws Exception {
+        FilterChain chain = created("{\"message\":\"Bed assigned successfully\"}");
+
+        MockHttpServletResponse first = perform(filter, "/api/v1/bed/assign", "key-1", "{\"bedId\":1}", chain);
+        MockHttpServletResponse retry = perform(instance(300_000), "/api/v1/bed/assign", "key-1", "{\"bedId\":1}", chain);
+
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    @DisplayName("Should run a key again once its first attempt has been unfinished for the lease")
+    void shouldTakeOverAbandonedKey() throws Exception {
+        perform("/api/v1/booking/add/7", "key-1", "", created("{}"));
+        // As if the instance running it had stopped
+        jdbcTemplate.update("UPDATE idempotency_key SET status = NULL, content_type = NULL, body = NULL");
+
+        MockHttpServletResponse waiting = perform(instance(300_000), "/api/v1/booking/add/7", "key-1", "", created("{}"));
+        assertThat(waiting.getStatus()).isEqualTo(409);
+
+        MockHttpServletResponse retry = perform(instance(0), "/api/v1/booking/add/7", "key-1", "", created("{}"));
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(executions).hasValue(2);
+    }
+
+    private IdempotencyFilter instance(long leaseMs) {
+        return new IdempotencyFilter(new ObjectMapper(), new IdempotencyStore(jdbcTemplate, 60, leaseMs),
+                List.of("/api/v1/bed/assign", "/api/v1/booking/add/*"), 1000, 65536);
+    }
+
+    private FilterChain created(String body) {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            request.getInputStream().readAllBytes();
+            ((HttpServletResponse) response).setStatus(201);
+            response.setContentType("application/json");
+            response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse performUnchecked(FilterChain chain) {
+        try {
+            return perform("/api/v1/booking/add/7", "key-1", "", chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MockHttpServletResponse perform(String uri, String key, String body, FilterChain chain) throws Exception {
+        return perform(filter, uri, key, body, chain);
+    }
+
+    private MockHttpServletResponse perform(IdempotencyFilter filter, String uri, String key, String body,
+                                            FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
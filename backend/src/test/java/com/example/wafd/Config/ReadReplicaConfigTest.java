@@ -0,0 +1,69 @@
+package com.example.wafd.Config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@DisplayName("ReadReplicaConfig Unit Tests")
+class ReadReplicaConfigTest {
+
+    private final String primaryUrl = database("primary");
+    private final String replicaUrl = database("replica");
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+                    DataSourceTransactionManagerAutoConfiguration.class))
+            .withUserConfiguration(ReadReplicaConfig.class)
+            .withPropertyValues("spring.datasource.url=" + primaryUrl, "spring.datasource.username=sa",
+                    "replica.lag-guard-ms=0");
+
+    @Test
+    @DisplayName("Should send read-only transactions to a separate replica database and writes to the primary")
+    void shouldRouteBetweenTwoDatabases() {
+        runner.withPropertyValues("replica.datasource.url=" + replicaUrl).run(context -> {
+            assertThat(context).hasBean("replicaDataSource");
+            assertThat(marker(context, true)).isEqualTo("replica");
+            assertThat(marker(context, false)).isEqualTo("primary");
+        });
+    }
+
+    @Test
+    @DisplayName("Should route everything to the primary when no replica URL is set at runtime")
+    void shouldFallBackToPrimaryWithoutReplica() {
+        runner.withPropertyValues("replica.datasource.url=").run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(marker(context, true)).isEqualTo("primary");
+            assertThat(marker(context, false)).isEqualTo("primary");
+        });
+    }
+
+    private static String marker(ApplicationContext context, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transaction.setReadOnly(readOnly);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM marker", String.class));
+    }
+
+    private static String database(String name) {
+        String url = "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE marker (name VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO marker (name) VALUES (?)", name);
+        return url;
+    }
+}
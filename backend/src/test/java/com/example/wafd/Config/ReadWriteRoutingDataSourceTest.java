@@ -0,0 +1,80 @@
+package com.example.wafd.Config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static com.example.wafd.Config.ReadWriteRoutingDataSource.PRIMARY;
+import static com.example.wafd.Config.ReadWriteRoutingDataSource.REPLICA;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@DisplayName("ReadWriteRoutingDataSource Unit Tests")
+class ReadWriteRoutingDataSourceTest {
+
+    private final ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(new Object(), new Object(), 60_000);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("Should route read-only transactions to the replica and the rest to the primary")
+    void shouldRouteByReadOnlyFlag() {
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(PRIMARY);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(REPLICA);
+    }
+
+    @Test
+    @DisplayName("Should keep a user's reads on the primary after their write commits")
+    void shouldReadYourWritesAfterCommit() {
+        authenticate("supervisor@wafd.sa");
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(PRIMARY);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Not committed yet, the replica is still fine
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(REPLICA);
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(PRIMARY);
+
+        authenticate("admin@wafd.sa");
+        assertThat(routing.determineCurrentLookupKey()).isEqualTo(REPLICA);
+    }
+
+    @Test
+    @DisplayName("Should always use the replica for reads when the lag guard is off")
+    void shouldSkipGuardWhenDisabled() {
+        ReadWriteRoutingDataSource unguarded = new ReadWriteRoutingDataSource(new Object(), new Object(), 0);
+        authenticate("supervisor@wafd.sa");
+        TransactionSynchronizationManager.initSynchronization();
+        unguarded.determineCurrentLookupKey();
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(unguarded.determineCurrentLookupKey()).isEqualTo(REPLICA);
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.wafd.Config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ActiveProfiles("test")
+@DisplayName("ResponseCacheFilter Unit Tests")
+class ResponseCacheFilterTest {
+
+    private static final String BODY = "[" + "{\"id\":1,\"status\":\"Available\"},".repeat(100) + "{}]";
+    private static final String PATH = "/api/v1/tent/get/summary";
+
+    private final ConditionalGetInterceptor interceptor = mock(ConditionalGetInterceptor.class);
+    private final ResponseCacheFilter filter = filter(60_000);
+    private final AtomicInteger executions = new AtomicInteger();
+    private final AtomicReference<String> etag = new AtomicReference<>("\"v1\"");
+
+    @BeforeEach
+    void setUp() {
+        when(interceptor.etag(any(HttpServletRequest.class))).thenAnswer(invocation -> etag.get());
+    }
+
+    @Test
+    @DisplayName("Should serve repeats from the stored bytes, gzipped when accepted, until the ETag changes")
+    void shouldServeStoredBytesUntilEtagChanges() throws Exception {
+        FilterChain chain = json(BODY);
+
+        MockHttpServletResponse first = perform(null, chain);
+        MockHttpServletResponse plain = perform(null, chain);
+        MockHttpServletResponse gzipped = perform("br, gzip;q=0.8", chain);
+
+        assertThat(executions).hasValue(1);
+        assertThat(first.getContentAsString()).isEqualTo(BODY);
+        assertThat(plain.getContentAsString()).isEqualTo(BODY);
+        assertThat(plain.getHeader("Server-Timing")).contains("hit");
+        assertThat(plain.getHeader("ETag")).isEqualTo("\"v1\"");
+        assertThat(plain.getHeader("Content-Encoding")).isNull();
+        assertThat(gzipped.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(gzipped.getHeaders("Vary")).contains("Accept-Encoding");
+        assertThat(gunzip(gzipped.getContentAsByteArray())).isEqualTo(BODY);
+
+        etag.set("\"v2\"");
+        perform(null, chain);
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should not store errors, oversized bodies or async responses")
+    void shouldNotStoreUncacheableResponses() throws Exception {
+        FilterChain failing = (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(500);
+            response.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+        };
+        perform(null, failing);
+        perform(null, failing);
+        assertThat(executions).hasValue(2);
+
+        FilterChain large = json("x".repeat(70000));
+        perform(null, large);
+        MockHttpServletResponse passedThrough = perform(null, large);
+        assertThat(executions).hasValue(4);
+        assertThat(passedThrough.getContentAsByteArray()).hasSize(70000);
+
+        FilterChain async = (request, response) -> {
+            executions.incrementAndGet();
+            ((MockHttpServletRequest) request).setAsyncSupported(true);
+            request.startAsync();
+            response.setContentType("application/json");
+            response.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+        };
+        perform(null, async);
+        MockHttpServletResponse again = perform(null, async);
+        assertThat(executions).hasValue(6);
+        assertThat(again.getContentAsString()).isEqualTo("{}");
+    }
+
+    @Test
+    @DisplayName("Should serve a stored body no longer than the TTL")
+    void shouldExpireEntries() throws Exception {
+        ResponseCacheFilter shortLived = filter(1);
+        FilterChain chain = json(BODY);
+        shortLived.doFilter(new MockHttpServletRequest("GET", PATH), new MockHttpServletResponse(), chain);
+        Thread.sleep(5);
+        shortLived.doFilter(new MockHttpServletRequest("GET", PATH), new MockHttpServletResponse(), chain);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should leave unlisted paths, unversioned endpoints and conditional requests to the chain")
+    void shouldPassThroughUnversionedAndConditionalRequests() throws Exception {
+        FilterChain chain = json(BODY);
+        perform(null, chain);
+
+        // Versioned but streamed, so not listed
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/bed/get/all"), new MockHttpServletResponse(), chain);
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/bed/get/all"), new MockHttpServletResponse(), chain);
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", PATH);
+        conditional.addHeader("If-None-Match", "\"v1\"");
+        filter.doFilter(conditional, new MockHttpServletResponse(), chain);
+
+        etag.set(null);
+        perform(null, chain);
+        perform(null, chain);
+
+        assertThat(executions).hasValue(6);
+    }
+
+    private ResponseCacheFilter filter(long ttlMs) {
+        return new ResponseCacheFilter(interceptor, true, List.of(PATH), DataSize.ofMegabytes(1), 65536, ttlMs,
+                true, DataSize.ofBytes(1024), List.of("application/json"));
+    }
+
+    private FilterChain json(String body) {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            response.setContentType("application/json");
+            response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse perform(String acceptEncoding, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATH);
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static String gunzip(byte[] bytes) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.wafd.Repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Times the grouped statistics query against the entity scan it replaced, on
+ * the in-memory H2 database, growing the pilgrim table to one million rows.
+ * The entity scan stops at 100k rows, where it already takes seconds. Run with
+ * {@code mvn test -Pbenchmark}; absolute numbers on MySQL differ, the scaling
+ * does not.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "jwt.secret.key=dGVzdC1zZWNyZXQta2V5LWZvci11bml0LXRlc3RzLW1pbmltdW0tMjU2LWJpdHM=",
+        "spring.jpa.show-sql=false",
+        // H2 would otherwise hand back the previous result of an identical query
+        "spring.datasource.url=jdbc:h2:mem:statsbench;MODE=MySQL;OPTIMIZE_REUSE_RESULTS=FALSE"
+})
+@ActiveProfiles("test")
+@DisplayName("Pilgrim Statistics Benchmark")
+class PilgrimStatisticsBenchmarkTest {
+
+    private static final int[] SIZES = {10_000, 100_000, 1_000_000};
+    private static final int ENTITY_SCAN_LIMIT = 100_000;
+    private static final int INSERT_CHUNK = 50_000;
+    private static final int AGENCIES = 20;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PilgrimRepository pilgrimRepository;
+
+    @Test
+    @DisplayName("Statistics at 10k, 100k and 1M pilgrims")
+    void benchmarkStatistics() {
+        for (int agency = 1; agency <= AGENCIES; agency++) {
+            jdbcTemplate.update("INSERT INTO agency (id, name, license_number, country, status, max_pilgrim) " +
+                    "VALUES (?, ?, ?, 'SA', 'Registered', 1000000)", agency, "Agency " + agency, "BENCH-" + agency);
+        }
+
+        System.out.printf("%n%-10s %8s %12s %12s %12s %12s%n", "pilgrims", "groups", "all ms", "agency ms",
+                "range ms", "entities ms");
+        int inserted = 0;
+        for (int size : SIZES) {
+            while (inserted < size) {
+                int upTo = Math.min(inserted + INSERT_CHUNK, size);
+                insertPilgrims(inserted + 1, upTo);
+                inserted = upTo;
+            }
+
+            List<Object[]> rows = pilgrimRepository.countByDimensions(null, null, null, null);
+            long counted = rows.stream().mapToLong(row -> ((Number) row[6]).longValue()).sum();
+            assertThat(counted).isEqualTo(size);
+
+            double all = time(() -> pilgrimRepository.countByDimensions(null, null, null, null));
+            double agency = time(() -> pilgrimRepository.countByDimensions(7, null, null, null));
+            double range = time(() -> pilgrimRepository.countByDimensions(null, null, START.plusDays(30), START.plusDays(60)));
+            String entities = size <= ENTITY_SCAN_LIMIT
+                    ? String.format("%12.1f", time(() -> pilgrimRepository.findAllWithDetails()))
+                    : String.format("%12s", "-");
+            System.out.printf("%-10d %8d %12.1f %12.1f %12.1f %s%n", size, rows.size(), all, agency, range, entities);
+        }
+    }
+
+    // H2 cannot type parameters inside SYSTEM_RANGE, so the values are inlined.
+    // Spreads the pilgrims over every bucket and 365 days of registrations
+    private void insertPilgrims(int fromId, int toId) {
+        jdbcTemplate.update("INSERT INTO pilgrim (id, registration_number, national_id, first_name, last_name, gender, age, " +
+                "nationality, phone_number, has_special_needs, special_needs_type, status, agency_id, created_at, updated_at) " +
+                "SELECT x, 'BENCH' || x, 'NID' || x, 'First', 'Last', " +
+                "CASE MOD(x, 2) WHEN 0 THEN 'male' ELSE 'female' END, MOD(x, 90) + 1, " +
+                "'Country ' || MOD(x, 40), '0500000000', MOD(x, 10) = 0, " +
+                "CASE MOD(x, 10) WHEN 0 THEN 'Type ' || MOD(x, 6) END, " +
+                "CASE MOD(x, 4) WHEN 0 THEN 'expected' WHEN 1 THEN 'arrived' WHEN 2 THEN 'departed' ELSE 'no_show' END, " +
+                "MOD(x, " + AGENCIES + ") + 1, DATEADD('MINUTE', MOD(x, 525600), TIMESTAMP '" + START + ":00'), " +
+                "TIMESTAMP '" + START + ":00' FROM SYSTEM_RANGE(" + fromId + ", " + toId + ")");
+    }
+
+    private static double time(Supplier<?> query) {
+        query.get();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+    }
+}
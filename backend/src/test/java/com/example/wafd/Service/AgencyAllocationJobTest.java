@@ -0,0 +1,68 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.Repository.AgencyRepository;
+import com.example.wafd.Repository.PilgrimRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@DisplayName("AgencyAllocationJob Unit Tests")
+class AgencyAllocationJobTest {
+
+    private final PilgrimRepository pilgrimRepository = mock(PilgrimRepository.class);
+    private final BookingService bookingService = mock(BookingService.class);
+
+    @Test
+    @DisplayName("Should keep the other bookings of a batch when one pilgrim cannot be booked")
+    void shouldCommitBatchWhenOnePilgrimFails() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:allocation-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE booking (pilgrim_id VARCHAR(16))");
+        PlatformTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        // Stands in for the @Transactional proxy, which joins whatever transaction is open
+        TransactionTemplate joining = new TransactionTemplate(transactionManager);
+        doAnswer(invocation -> {
+            String pilgrimId = invocation.getArgument(0);
+            return joining.execute(status -> {
+                if (pilgrimId.equals("2")) {
+                    throw new ApiException("Pilgrim already has a booking");
+                }
+                jdbcTemplate.update("INSERT INTO booking (pilgrim_id) VALUES (?)", pilgrimId);
+                return true;
+            });
+        }).when(bookingService).addBooking(anyString());
+        when(pilgrimRepository.findUnbookedIdsByAgencyId(eq(5), eq(0), any(Pageable.class))).thenReturn(List.of(1, 2, 3));
+
+        AgencyAllocationJob job = new AgencyAllocationJob(pilgrimRepository, mock(AgencyRepository.class),
+                bookingService, new ConcurrentMapCacheManager(), transactionManager, 10);
+
+        // Same as JobService.run: the batch and its checkpoint commit together
+        JobHandler.Batch batch = new TransactionTemplate(transactionManager)
+                .execute(status -> job.runBatch(Map.of("agencyId", 5), null));
+
+        assertThat(batch.checkpoint()).isEqualTo("3");
+        assertThat(batch.done()).isTrue();
+        assertThat(jdbcTemplate.queryForList("SELECT pilgrim_id FROM booking ORDER BY pilgrim_id", String.class))
+                .containsExactly("1", "3");
+        verify(bookingService, times(3)).addBooking(anyString());
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Model.Pilgrim;
+import com.example.wafd.Model.User;
+import com.example.wafd.Repository.AuditEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@DisplayName("AuditService Unit Tests")
+class AuditServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<Object[]> rows = new CopyOnWriteArrayList<>();
+    private AuditService auditService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        SecurityContextHolder.clearContext();
+        if (auditService != null) {
+            auditService.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should write the changed fields and the acting user, masking passwords")
+    void shouldWriteDiffWithActor() throws Exception {
+        start(1024, 100);
+        User admin = new User();
+        admin.setId(1);
+        admin.setEmail("admin@wafd.com");
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(admin, null, List.of()));
+
+        Pilgrim pilgrim = new Pilgrim();
+        pilgrim.setId(42);
+        pilgrim.setFirstName("Ahmed");
+        pilgrim.setStatus("expected");
+        Map<String, Object> before = AuditService.stateOf(pilgrim);
+        pilgrim.setStatus("arrived");
+        auditService.record(AuditService.UPDATE, AuditService.PILGRIM, 42, 3, before, AuditService.stateOf(pilgrim));
+
+        User user = new User();
+        user.setPassword("$2a$10$old");
+        Map<String, Object> userBefore = AuditService.stateOf(user);
+        user.setPassword("$2a$10$new");
+        auditService.record(AuditService.UPDATE, AuditService.USER, 5, null, userBefore, AuditService.stateOf(user));
+
+        awaitRows(2);
+        Object[] row = rows.get(0);
+        assertThat(row[1]).isEqualTo(1);
+        assertThat(row[2]).isEqualTo("admin@wafd.com");
+        assertThat(row[3]).isEqualTo("update");
+        assertThat(row[4]).isEqualTo("pilgrim");
+        assertThat(row[5]).isEqualTo(42);
+        assertThat(row[6]).isEqualTo(3);
+        assertThat(row[7]).isEqualTo("{\"status\":[\"expected\",\"arrived\"]}");
+        assertThat(rows.get(1)[7]).isEqualTo("{\"password\":[\"***\",\"***\"]}");
+    }
+
+    @Test
+    @DisplayName("Should mask a pilgrim's identity documents, phone and notes")
+    void shouldMaskPilgrimPersonalData() {
+        Pilgrim pilgrim = new Pilgrim();
+        pilgrim.setNationalId("1234567890");
+        pilgrim.setPassportNumber("A1234567");
+        pilgrim.setPhoneNumber("0500000000");
+        pilgrim.setNotes("Diabetic");
+        Map<String, Object> before = AuditService.stateOf(pilgrim);
+        pilgrim.setNationalId("1234567891");
+        pilgrim.setPassportNumber(null);
+        pilgrim.setPhoneNumber("0511111111");
+        pilgrim.setSpecialNeedsNotes("Wheelchair");
+        pilgrim.setNotes(null);
+        pilgrim.setFirstName("Ahmed");
+
+        assertThat(AuditService.diff(before, AuditService.stateOf(pilgrim))).containsExactly(
+                Map.entry("nationalId", List.of("***", "***")),
+                Map.entry("passportNumber", Arrays.asList("***", null)),
+                Map.entry("firstName", Arrays.asList(null, "Ahmed")),
+                Map.entry("phoneNumber", List.of("***", "***")),
+                Map.entry("specialNeedsNotes", Arrays.asList(null, "***")),
+                Map.entry("notes", Arrays.asList("***", null)));
+    }
+
+    @Test
+    @DisplayName("Should skip updates that changed nothing")
+    void shouldSkipEmptyUpdates() throws Exception {
+        start(1024, 100);
+        Pilgrim pilgrim = new Pilgrim();
+        pilgrim.setStatus("expected");
+
+        auditService.record(AuditService.UPDATE, AuditService.PILGRIM, 1, null,
+                AuditService.stateOf(pilgrim), AuditService.stateOf(pilgrim));
+        auditService.record(AuditService.DELETE, AuditService.PILGRIM, 1, null, AuditService.stateOf(pilgrim), null);
+
+        awaitRows(1);
+        assertThat(rows.get(0)[3]).isEqualTo("delete");
+        assertThat(rows.get(0)[7]).isEqualTo("{\"status\":[\"expected\",null]}");
+    }
+
+    @Test
+    @DisplayName("Should deliver every event from concurrent writers exactly once, in batches")
+    void shouldDeliverConcurrentEvents() throws Exception {
+        start(1 << 16, 500);
+        int writers = 8;
+        int perWriter = 2_000;
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[writers];
+        for (int w = 0; w < writers; w++) {
+            int base = w * perWriter;
+            futures[w] = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    auditService.record(AuditService.CREATE, AuditService.BED, base + i, null, null, Map.of("status", "Available"));
+                }
+            });
+        }
+        CompletableFuture.allOf(futures).get(30, TimeUnit.SECONDS);
+
+        awaitRows(writers * perWriter);
+        Set<Object> ids = new HashSet<>();
+        rows.forEach(row -> ids.add(row[5]));
+        assertThat(ids).hasSize(writers * perWriter);
+        assertThat(meterRegistry.counter("audit.events.dropped").count()).isZero();
+        verify(jdbcTemplate, atMost(writers * perWriter / 10)).batchUpdate(anyString(), anyList(), any(int[].class));
+    }
+
+    @Test
+    @DisplayName("Should drop and count events when the buffer is full instead of blocking")
+    void shouldDropWhenFull() {
+        start(4, 100);
+        // The writer is parked between flushes, long enough to overflow a 4-slot buffer
+        for (int i = 0; i < 20; i++) {
+            auditService.record(AuditService.CREATE, AuditService.BED, i, null, null, Map.of("status", "Available"));
+        }
+        assertThat(meterRegistry.counter("audit.events.dropped").count()).isPositive();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void start(int capacity, int batchSize) {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class))).thenAnswer(invocation -> {
+            List<Object[]> batch = invocation.getArgument(1);
+            rows.addAll(batch);
+            return new int[batch.size()];
+        });
+        auditService = new AuditService(mock(AuditEventRepository.class), jdbcTemplate, new ObjectMapper(),
+                meterRegistry, capacity, batchSize, 1000);
+    }
+
+    private void awaitRows(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (rows.size() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(rows).hasSize(expected);
+    }
+}
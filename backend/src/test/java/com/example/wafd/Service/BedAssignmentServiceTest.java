@@ -7,6 +7,7 @@ import com.example.wafd.Model.Pilgrim;
 import com.example.wafd.Repository.BedRepository;
 import com.example.wafd.Repository.BookingRepository;
 import com.example.wafd.Repository.PilgrimRepository;
+import com.example.wafd.Repository.WaitlistEntryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -15,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.context.ActiveProfiles;
 
 import static org.assertj.core.api.Assertions.*;
@@ -35,6 +37,24 @@ class BedAssignmentServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private CollectionVersionService collectionVersionService;
+
+    @Mock
+    private AuditService auditService;
+
+    @Mock
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TentCounterService tentCounterService;
+
+    @Mock
+    private SyncService syncService;
+
     @InjectMocks
     private BedAssignmentService bedAssignmentService;
 
@@ -0,0 +1,144 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.DTO.BedHoldDTOOut;
+import com.example.wafd.Model.BedHold;
+import com.example.wafd.Model.User;
+import com.example.wafd.Repository.BedHoldRepository;
+import com.example.wafd.Repository.BedRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@DisplayName("BedHoldService Unit Tests")
+class BedHoldServiceTest {
+
+    private final BedHoldRepository bedHoldRepository = mock(BedHoldRepository.class);
+    private final BedRepository bedRepository = mock(BedRepository.class);
+    private final BedAssignmentService bedAssignmentService = mock(BedAssignmentService.class);
+    private final AuthenticationService authenticationService = mock(AuthenticationService.class);
+    private BedHoldService bedHoldService;
+
+    private User operator;
+
+    @BeforeEach
+    void setUp() {
+        operator = new User();
+        operator.setId(3);
+        operator.setRole("Supervisor");
+        when(authenticationService.getCurrentUser()).thenReturn(operator);
+        when(bedHoldRepository.save(any(BedHold.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        bedHoldService = new BedHoldService(bedHoldRepository, bedRepository, mock(TentCounterService.class), bedAssignmentService,
+                authenticationService, mock(CollectionVersionService.class), mock(AuditService.class),
+                new ConcurrentMapCacheManager("beds"), mock(ApplicationEventPublisher.class),
+                mock(PlatformTransactionManager.class), 10, 60);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        bedHoldService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should reserve an available bed for the requested minutes")
+    void shouldHoldAvailableBed() {
+        when(bedRepository.reserveIfAvailable(eq(7), any())).thenReturn(1);
+
+        BedHoldDTOOut hold = bedHoldService.hold(7, 5);
+
+        assertThat(hold.getBedId()).isEqualTo(7);
+        assertThat(hold.getHeldBy()).isEqualTo(3);
+        assertThat(hold.getExpiresAt()).isBetween(LocalDateTime.now().plusMinutes(4), LocalDateTime.now().plusMinutes(5));
+        verify(bedHoldRepository).save(any(BedHold.class));
+    }
+
+    @Test
+    @DisplayName("Should refuse a bed another operator is holding")
+    void shouldRejectBedHeldByOthers() {
+        when(bedHoldRepository.findForUpdate(7)).thenReturn(new BedHold(7, 99, LocalDateTime.now().plusMinutes(5), null));
+
+        assertThatThrownBy(() -> bedHoldService.hold(7, 5))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("Bed is held by another user");
+        assertThatThrownBy(() -> bedHoldService.confirm(7, 1))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("Bed is held by another user");
+        verify(bedRepository, never()).reserveIfAvailable(any(), any());
+        verify(bedAssignmentService, never()).assignHeldBed(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should refuse a bed that is not available")
+    void shouldRejectUnavailableBed() {
+        when(bedRepository.reserveIfAvailable(eq(7), any())).thenReturn(0);
+        when(bedRepository.findBedById(7)).thenReturn(new com.example.wafd.Model.Bed());
+
+        assertThatThrownBy(() -> bedHoldService.hold(7, 5))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("Bed is not available");
+        verify(bedHoldRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should release holds that expired while the application was down")
+    void shouldReleaseRestoredHolds() {
+        LocalDateTime past = LocalDateTime.now().minusMinutes(1);
+        when(bedHoldRepository.findAll()).thenReturn(List.of(
+                new BedHold(5, 3, past, null),
+                new BedHold(6, 3, past, null),
+                new BedHold(8, 3, LocalDateTime.now().plusHours(1), null)));
+        when(bedHoldRepository.findExpiredBedIds(anyCollection(), any())).thenAnswer(invocation -> {
+            Collection<Integer> queued = invocation.getArgument(0);
+            return queued.stream().filter(id -> id != 8).toList();
+        });
+        Set<Integer> released = ConcurrentHashMap.newKeySet();
+        when(bedRepository.releaseReserved(anyCollection(), any())).thenAnswer(invocation -> {
+            released.addAll(invocation.getArgument(0));
+            return 1;
+        });
+
+        bedHoldService.rebuildQueue();
+
+        verify(bedRepository, timeout(5000).atLeastOnce()).releaseReserved(anyCollection(), any());
+        await(() -> released.size() == 2);
+        assertThat(released).containsExactlyInAnyOrder(5, 6);
+    }
+
+    @Test
+    @DisplayName("Should convert the operator's own hold into a booking")
+    void shouldConfirmOwnHold() {
+        BedHold hold = new BedHold(7, 3, LocalDateTime.now().plusMinutes(5), null);
+        when(bedHoldRepository.findForUpdate(7)).thenReturn(hold);
+
+        bedHoldService.confirm(7, 11);
+
+        verify(bedAssignmentService).assignHeldBed(11, 7);
+        verify(bedHoldRepository).delete(hold);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Config.ClusterCacheManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@DisplayName("CacheInvalidationService Unit Tests")
+class CacheInvalidationServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<Object[]> log = new ArrayList<>();
+    private final ConcurrentMapCacheManager local = new ConcurrentMapCacheManager("beds", "pilgrims");
+    private CacheInvalidationService service;
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        service = new CacheInvalidationService(jdbcTemplate, 250, 60_000, 60);
+        cacheManager = new ClusterCacheManager(local, service);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            RowMapper<?> mapper = invocation.getArgument(1);
+            List<Object> args = Arrays.asList((Object[]) invocation.getRawArguments()[2]);
+            List<Object> rows = new ArrayList<>();
+            for (Object[] row : log) {
+                boolean wanted = sql.contains(" IN (") ? args.contains(row[0]) : (long) row[0] > (long) args.get(0);
+                if (wanted && rows.size() < 1000) {
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.getLong(1)).thenReturn((long) row[0]);
+                    when(rs.getString(2)).thenReturn((String) row[1]);
+                    when(rs.getString(3)).thenReturn((String) row[2]);
+                    rows.add(mapper.mapRow(rs, rows.size()));
+                }
+            }
+            return rows;
+        });
+        service.poll(); // finds no epoch, so reads the log from the start
+    }
+
+    @Test
+    @DisplayName("Should publish evictions made through the cache manager")
+    void shouldPublishLocalEvictions() {
+        cacheManager.getCache("beds").clear();
+        cacheManager.getCache("pilgrims").evict(42);
+
+        verify(jdbcTemplate).update(anyString(), eq("beds"), eq(service.getOrigin()), any());
+        verify(jdbcTemplate).update(anyString(), eq("pilgrims"), eq(service.getOrigin()), any());
+    }
+
+    @Test
+    @DisplayName("Should publish each cache once for a batch of evictions")
+    void shouldPublishBatchOnce() {
+        local.getCache("pilgrims").put(1, "stale");
+        local.getCache("pilgrims").put(2, "fresh");
+
+        service.batch(() -> {
+            cacheManager.getCache("pilgrims").evict(1);
+            cacheManager.getCache("pilgrims").evict(3);
+            cacheManager.getCache("beds").clear();
+        });
+
+        assertThat(local.getCache("pilgrims").get(1)).isNull();
+        assertThat(local.getCache("pilgrims").get(2)).isNotNull();
+        verify(jdbcTemplate, times(1)).update(anyString(), eq("pilgrims"), eq(service.getOrigin()), any());
+        verify(jdbcTemplate, times(1)).update(anyString(), eq("beds"), eq(service.getOrigin()), any());
+    }
+
+    @Test
+    @DisplayName("Should clear caches named by other instances and skip its own rows")
+    void shouldApplyRemoteEvictions() {
+        local.getCache("beds").put("all", "stale");
+        local.getCache("pilgrims").put(1, "fresh");
+        log.add(new Object[]{1L, "beds", "other-node"});
+        log.add(new Object[]{2L, "pilgrims", service.getOrigin()});
+
+        service.poll();
+
+        assertThat(local.getCache("beds").get("all")).isNull();
+        assertThat(local.getCache("pilgrims").get(1)).isNotNull();
+        verify(jdbcTemplate, never()).update(anyString(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should apply rows past an uncommitted id at once and pick the missing id up by itself")
+    void shouldLookUpGapsById() {
+        Cache beds = local.getCache("beds");
+        Cache pilgrims = local.getCache("pilgrims");
+        log.add(new Object[]{1L, "pilgrims", "other-node"});
+        log.add(new Object[]{3L, "beds", "other-node"});
+        beds.put("all", "stale");
+
+        service.poll();
+        assertThat(beds.get("all")).isNull();
+
+        // Row 3 is not read again while waiting for row 2
+        beds.put("all", "fresh");
+        service.poll();
+        assertThat(beds.get("all")).isNotNull();
+
+        pilgrims.put(1, "stale");
+        log.add(1, new Object[]{2L, "pilgrims", "other-node"});
+        service.poll();
+        assertThat(pilgrims.get(1)).isNull();
+        assertThat(beds.get("all")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should read a burst of rows in one poll")
+    void shouldDrainBurstInOnePoll() {
+        for (long id = 1; id <= 2500; id++) {
+            log.add(new Object[]{id, "beds", "other-node"});
+        }
+        log.add(new Object[]{2501L, "pilgrims", "other-node"});
+        local.getCache("pilgrims").put(1, "stale");
+
+        service.poll();
+
+        assertThat(local.getCache("pilgrims").get(1)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should hand prefixed rows to their subscriber, and everything after a failed read")
+    void shouldDispatchToSubscribers() {
+        CacheInvalidationService.Subscriber subscriber = mock(CacheInvalidationService.Subscriber.class);
+        service.subscribe("test:", subscriber);
+        log.add(new Object[]{1L, "test:key", "other-node"});
+
+        service.poll();
+        verify(subscriber).apply("key");
+
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenThrow(new QueryTimeoutException("down"))
+                .thenReturn(List.of());
+        service.poll();
+        service.poll();
+        verify(subscriber).applyAll();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.DTO.ScanDTOIn;
+import com.example.wafd.DTO.ScanResultDTOOut;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Times single kiosk scans through {@link CheckInService} on the in-memory H2
+ * database: the code lookup, the transaction writing the pilgrim and bed, the
+ * collection version bump and the after-commit cache eviction with its
+ * invalidation row. Runs one kiosk in a loop, then several at once, and
+ * prints p50/p99 and throughput. Run with {@code mvn test -Pbenchmark};
+ * MySQL adds its round trips, the share spent outside the database does not
+ * change.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "jwt.secret.key=dGVzdC1zZWNyZXQta2V5LWZvci11bml0LXRlc3RzLW1pbmltdW0tMjU2LWJpdHM=",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.example.wafd=INFO",
+        "spring.datasource.url=jdbc:h2:mem:scanbench;MODE=MySQL"
+})
+@ActiveProfiles("test")
+@DisplayName("Check-in Scan Benchmark")
+class CheckInScanBenchmarkTest {
+
+    private static final int PILGRIMS = 5_000;
+    private static final int BEDS_PER_TENT = 250;
+    private static final int WARMUP_SCANS = 2_000;
+    private static final int MEASURED_SCANS = 5_000;
+    private static final int KIOSKS = 8;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CheckInService checkInService;
+
+    @Test
+    @DisplayName("Scan latency for one kiosk and for several at once")
+    void benchmarkScans() throws Exception {
+        insertBookedPilgrims();
+
+        runAs(() -> scan(WARMUP_SCANS));
+        long[] sequential = runAs(() -> scan(MEASURED_SCANS));
+
+        ExecutorService kiosks = Executors.newFixedThreadPool(KIOSKS);
+        List<Future<long[]>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < KIOSKS; i++) {
+            futures.add(kiosks.submit(() -> runAs(() -> scan(MEASURED_SCANS / KIOSKS))));
+        }
+        List<long[]> perKiosk = new ArrayList<>();
+        for (Future<long[]> future : futures) {
+            perKiosk.add(future.get());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        kiosks.shutdown();
+        long[] concurrent = perKiosk.stream().flatMapToLong(Arrays::stream).toArray();
+
+        System.out.printf("%n%-12s %8s %10s %10s %10s %12s%n", "kiosks", "scans", "p50 ms", "p99 ms", "max ms", "scans/s");
+        print(1, sequential, sequential.length / (Arrays.stream(sequential).sum() / 1e9));
+        print(KIOSKS, concurrent, concurrent.length / seconds);
+    }
+
+    private long[] scan(int scans) {
+        long[] nanos = new long[scans];
+        for (int i = 0; i < scans; i++) {
+            int pilgrim = ThreadLocalRandom.current().nextInt(1, PILGRIMS + 1);
+            String action = ThreadLocalRandom.current().nextBoolean() ? "check_in" : "check_out";
+            long start = System.nanoTime();
+            ScanResultDTOOut result = checkInService.scan(new ScanDTOIn("SCAN" + pilgrim, action, null));
+            nanos[i] = System.nanoTime() - start;
+            assertThat(result.getPilgrimId()).isEqualTo(pilgrim);
+        }
+        return nanos;
+    }
+
+    private static long[] runAs(java.util.function.Supplier<long[]> scans) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin@wafd.com", null, List.of()));
+        try {
+            return scans.get();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static void print(int kiosks, long[] nanos, double perSecond) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-12d %8d %10.2f %10.2f %10.2f %12.0f%n", kiosks, sorted.length,
+                sorted[sorted.length / 2] / 1e6, sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1e6,
+                sorted[sorted.length - 1] / 1e6, perSecond);
+    }
+
+    // H2 cannot type parameters inside SYSTEM_RANGE, so the values are inlined
+    private void insertBookedPilgrims() {
+        int tents = PILGRIMS / BEDS_PER_TENT;
+        jdbcTemplate.update("INSERT INTO agency (id, name, license_number, country, status, max_pilgrim) " +
+                "VALUES (900, 'Bench', 'BENCH-SCAN', 'SA', 'Registered', 1000000)");
+        jdbcTemplate.update("INSERT INTO tent (id, location, capacity, code, type, agency_id, occupied_beds, " +
+                "reserved_beds, maintenance_beds, special_needs_beds) " +
+                "SELECT x, 'Mina', " + BEDS_PER_TENT + ", 'S' || x, 'male', 900, " + BEDS_PER_TENT + ", 0, 0, 0 " +
+                "FROM SYSTEM_RANGE(1, " + tents + ")");
+        jdbcTemplate.update("INSERT INTO bed (id, status, tent_id) " +
+                "SELECT x, 'Booked', (x - 1) / " + BEDS_PER_TENT + " + 1 FROM SYSTEM_RANGE(1, " + PILGRIMS + ")");
+        jdbcTemplate.update("INSERT INTO pilgrim (id, registration_number, national_id, first_name, last_name, gender, " +
+                "age, nationality, phone_number, has_special_needs, status, agency_id) " +
+                "SELECT x, 'SCAN' || x, 'SNID' || x, 'First', 'Last', 'male', 40, 'Country', '0500000000', FALSE, " +
+                "'expected', 900 " +
+                "FROM SYSTEM_RANGE(1, " + PILGRIMS + ")");
+        jdbcTemplate.update("INSERT INTO booking (id, status, pilgrim_id, bed_id) " +
+                "SELECT x, 'Booked', x, x FROM SYSTEM_RANGE(1, " + PILGRIMS + ")");
+    }
+}
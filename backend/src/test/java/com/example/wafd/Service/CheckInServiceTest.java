@@ -0,0 +1,260 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.Config.ClusterCacheManager;
+import com.example.wafd.DTO.ScanDTOIn;
+import com.example.wafd.DTO.ScanResultDTOOut;
+import com.example.wafd.Model.Agency;
+import com.example.wafd.Model.Bed;
+import com.example.wafd.Model.Booking;
+import com.example.wafd.Model.Pilgrim;
+import com.example.wafd.Model.User;
+import com.example.wafd.Repository.BedRepository;
+import com.example.wafd.Repository.PilgrimRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+@DisplayName("CheckInService Unit Tests")
+class CheckInServiceTest {
+
+    @Mock
+    private PilgrimRepository pilgrimRepository;
+
+    @Mock
+    private BedRepository bedRepository;
+
+    @Mock
+    private AuthenticationService authenticationService;
+
+    @Mock
+    private CollectionVersionService collectionVersionService;
+
+    @Mock
+    private TentCounterService tentCounterService;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private CacheInvalidationService cacheInvalidationService;
+
+    @InjectMocks
+    private CheckInService checkInService;
+
+    private User adminUser;
+    private Pilgrim bookedPilgrim;
+    private Bed bookedBed;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(checkInService, "maxBatchSize", 500);
+
+        adminUser = new User();
+        adminUser.setId(1);
+        adminUser.setRole("Admin");
+        lenient().when(authenticationService.getCurrentUser()).thenReturn(adminUser);
+
+        Agency agency = new Agency();
+        agency.setId(1);
+
+        bookedBed = new Bed();
+        bookedBed.setId(10);
+        bookedBed.setStatus("Booked");
+
+        bookedPilgrim = new Pilgrim();
+        bookedPilgrim.setId(1);
+        bookedPilgrim.setFirstName("Ahmed");
+        bookedPilgrim.setLastName("Ali");
+        bookedPilgrim.setRegistrationNumber("H1446000001");
+        bookedPilgrim.setNationalId("1234567890");
+        bookedPilgrim.setStatus("expected");
+        bookedPilgrim.setAgency(agency);
+
+        Booking booking = new Booking();
+        booking.setStatus("Booked");
+        booking.setPilgrim(bookedPilgrim);
+        booking.setBed(bookedBed);
+        bookedPilgrim.setBooking(booking);
+    }
+
+    @Nested
+    @DisplayName("Checking In")
+    class CheckInTests {
+
+        @Test
+        @DisplayName("Should mark pilgrim arrived and bed checked in")
+        void shouldCheckInByRegistrationNumber() {
+            when(pilgrimRepository.findAllByRegistrationNumberForScan(anyCollection())).thenReturn(List.of(bookedPilgrim));
+
+            ScanResultDTOOut result = checkInService.scan(new ScanDTOIn("H1446000001", null, null));
+
+            assertThat(result.getResult()).isEqualTo("checked_in");
+            assertThat(result.getBedStatus()).isEqualTo("Checked_in");
+            assertThat(bookedPilgrim.getStatus()).isEqualTo("arrived");
+            verify(tentCounterService).statusChanging(List.of(10), "Booked", "Checked_in");
+            verify(bedRepository).updateStatus(eq(List.of(10)), eq("Booked"), eq("Checked_in"), any());
+        }
+
+        @Test
+        @DisplayName("Should resolve pilgrim by badge code")
+        void shouldCheckInByBadgeCode() {
+            when(pilgrimRepository.findAllByNationalIdForScan(anyCollection())).thenReturn(List.of(bookedPilgrim));
+
+            ScanResultDTOOut result = checkInService.scan(new ScanDTOIn("1234567890", "check_in", null));
+
+            assertThat(result.getResult()).isEqualTo("checked_in");
+            assertThat(result.getBedId()).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("Should be idempotent for repeated scans")
+        void shouldReportAlreadyCheckedIn() {
+            bookedPilgrim.setStatus("arrived");
+            bookedBed.setStatus("Checked_in");
+            when(pilgrimRepository.findAllByRegistrationNumberForScan(anyCollection())).thenReturn(List.of(bookedPilgrim));
+
+            ScanResultDTOOut result = checkInService.scan(new ScanDTOIn("H1446000001", null, null));
+
+            assertThat(result.getResult()).isEqualTo("already_checked_in");
+            verify(pilgrimRepository, never()).saveAll(any());
+            verify(bedRepository, never()).updateStatus(any(), any(), any(), any());
+            verifyNoInteractions(tentCounterService);
+        }
+
+        @Test
+        @DisplayName("Should report unknown codes without failing the batch")
+        void shouldReportNotFound() {
+            when(pilgrimRepository.findAllByRegistrationNumberForScan(anyCollection())).thenReturn(List.of(bookedPilgrim));
+
+            List<ScanResultDTOOut> results = checkInService.scanBatch(List.of(
+                    new ScanDTOIn("UNKNOWN", null, null),
+                    new ScanDTOIn("H1446000001", null, null)
+            ));
+
+            assertThat(results).extracting(ScanResultDTOOut::getResult)
+                    .containsExactly("not_found", "checked_in");
+        }
+
+        @Test
+        @DisplayName("Should hide pilgrims from other groups for supervisors")
+        void shouldRejectOtherAgencyForSupervisor() {
+            Agency otherAgency = new Agency();
+            otherAgency.setId(2);
+            User supervisor = new User();
+            supervisor.setRole("Supervisor");
+            supervisor.setManagedAgency(otherAgency);
+            when(authenticationService.getCurrentUser()).thenReturn(supervisor);
+            when(pilgrimRepository.findAllByRegistrationNumberForScan(anyCollection())).thenReturn(List.of(bookedPilgrim));
+
+            ScanResultDTOOut result = checkInService.scan(new ScanDTOIn("H1446000001", null, null));
+
+            assertThat(result.getResult()).isEqualTo("forbidden");
+            assertThat(bookedPilgrim.getStatus()).isEqualTo("expected");
+        }
+    }
+
+    @Nested
+    @DisplayName("Offline Batches")
+    class BatchTests {
+
+        @Test
+        @DisplayName("Should replay scans in scan-time order")
+        void shouldReplayInScanOrder() {
+            when(pilgrimRepository.findAllByRegistrationNumberForScan(anyCollection())).thenReturn(List.of(bookedPilgrim));
+            LocalDateTime arrival = LocalDateTime.of(2025, 6, 1, 8, 0);
+
+            List<ScanResultDTOOut> results = checkInService.scanBatch(List.of(
+                    new ScanDTOIn("H1446000001", "check_out", arrival.plusDays(5)),
+                    new ScanDTOIn("H1446000001", "check_in", arrival)
+            ));
+
+            assertThat(results).extracting(ScanResultDTOOut::getResult)
+                    .containsExactly("checked_out", "checked_in");
+            assertThat(bookedPilgrim.getStatus()).isEqualTo("departed");
+            assertThat(results.get(0).getBedStatus()).isEqualTo("Checked_out");
+            // One move from the status read to the last one, however many scans passed through
+            verify(tentCounterService).statusChanging(List.of(10), "Booked", "Checked_out");
+            verify(bedRepository).updateStatus(eq(List.of(10)), eq("Booked"), eq("Checked_out"), any());
+            assertThat(bookedBed.getStatus()).isEqualTo("Booked");
+        }
+
+        @Test
+        @DisplayName("Should evict the changed pilgrims once per batch and leave the rest cached")
+        void shouldEvictChangedPilgrimsOnce() {
+            Pilgrim arrived = new Pilgrim();
+            arrived.setId(2);
+            arrived.setRegistrationNumber("H1446000002");
+            arrived.setStatus("arrived");
+            when(pilgrimRepository.findAllByRegistrationNumberForScan(anyCollection())).thenReturn(List.of(bookedPilgrim, arrived));
+            JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+            CacheInvalidationService invalidations = new CacheInvalidationService(jdbcTemplate, 250, 5000, 60);
+            ConcurrentMapCacheManager local = new ConcurrentMapCacheManager("pilgrims", "pilgrimSearch");
+            ReflectionTestUtils.setField(checkInService, "cacheManager", new ClusterCacheManager(local, invalidations));
+            ReflectionTestUtils.setField(checkInService, "cacheInvalidationService", invalidations);
+            local.getCache("pilgrims").put(1, "pilgrim 1");
+            local.getCache("pilgrims").put(2, "pilgrim 2");
+            local.getCache("pilgrims").put(SimpleKey.EMPTY, "all pilgrims");
+            local.getCache("pilgrimSearch").put("page_0", "first page");
+
+            checkInService.scanBatch(List.of(
+                    new ScanDTOIn("H1446000001", null, null),
+                    new ScanDTOIn("H1446000002", null, null),
+                    new ScanDTOIn("H1446000001", null, null)
+            ));
+
+            assertThat(local.getCache("pilgrims").get(1)).isNull();
+            assertThat(local.getCache("pilgrims").get(SimpleKey.EMPTY)).isNull();
+            assertThat(local.getCache("pilgrims").get(2)).isNotNull();
+            assertThat(local.getCache("pilgrimSearch").get("page_0")).isNull();
+            verify(jdbcTemplate, times(1)).update(anyString(), eq("pilgrims"), anyString(), any());
+            verify(jdbcTemplate, times(1)).update(anyString(), eq("pilgrimSearch"), anyString(), any());
+            verify(jdbcTemplate, times(2)).update(anyString(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should leave the caches alone when no scan changed anything")
+        void shouldNotEvictForRepeatedScans() {
+            bookedPilgrim.setStatus("arrived");
+            bookedBed.setStatus("Checked_in");
+            when(pilgrimRepository.findAllByRegistrationNumberForScan(anyCollection())).thenReturn(List.of(bookedPilgrim));
+
+            checkInService.scan(new ScanDTOIn("H1446000001", null, null));
+
+            verifyNoInteractions(cacheManager, cacheInvalidationService);
+        }
+
+        @Test
+        @DisplayName("Should reject batches above the configured size")
+        void shouldRejectOversizedBatch() {
+            ReflectionTestUtils.setField(checkInService, "maxBatchSize", 1);
+
+            assertThatThrownBy(() -> checkInService.scanBatch(List.of(
+                    new ScanDTOIn("A", null, null),
+                    new ScanDTOIn("B", null, null)
+            )))
+                    .isInstanceOf(ApiException.class)
+                    .hasMessageContaining("at most 1");
+        }
+    }
+}
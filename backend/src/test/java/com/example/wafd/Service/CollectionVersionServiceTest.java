@@ -0,0 +1,131 @@
+package com.example.wafd.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DisplayName("CollectionVersionService Unit Tests")
+class CollectionVersionServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private CollectionVersionService collectionVersionService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:versions-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE cache_invalidation (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "cache_name VARCHAR(64) NOT NULL, origin VARCHAR(32) NOT NULL, created_at TIMESTAMP(6) NOT NULL)");
+        collectionVersionService = new CollectionVersionService(log());
+    }
+
+    private CacheInvalidationService log() {
+        return new CacheInvalidationService(jdbcTemplate, 250, 5000, 60);
+    }
+
+    @Test
+    @DisplayName("Should only move the versions of the agencies that were written")
+    void shouldScopeVersionsByAgency() {
+        collectionVersionService.bump(CollectionVersionService.PILGRIMS, 1);
+
+        assertThat(collectionVersionService.version(CollectionVersionService.PILGRIMS)).isEqualTo(1);
+        assertThat(collectionVersionService.version(CollectionVersionService.PILGRIMS, 1)).isEqualTo(1);
+        assertThat(collectionVersionService.version(CollectionVersionService.PILGRIMS, 2)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should invalidate every agency when the owner is unknown")
+    void shouldInvalidateAllAgenciesForUnscopedWrites() {
+        collectionVersionService.bump(CollectionVersionService.PILGRIMS);
+
+        assertThat(collectionVersionService.version(CollectionVersionService.PILGRIMS, 1)).isEqualTo(1);
+        assertThat(collectionVersionService.version(CollectionVersionService.PILGRIMS, 2)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should defer bumps inside a transaction until commit")
+    void shouldDeferBumpUntilCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            collectionVersionService.bump(CollectionVersionService.TENTS);
+            assertThat(collectionVersionService.version(CollectionVersionService.TENTS)).isZero();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(collectionVersionService.version(CollectionVersionService.TENTS)).isEqualTo(1);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should move the versions of another instance once it reads the log")
+    void shouldPropagateBumpsToOtherInstances() {
+        CacheInvalidationService logB = log();
+        CollectionVersionService instanceB = new CollectionVersionService(logB);
+        logB.poll();
+
+        collectionVersionService.bump(CollectionVersionService.PILGRIMS, 1);
+        collectionVersionService.bump(CollectionVersionService.BEDS);
+        assertThat(instanceB.version(CollectionVersionService.PILGRIMS)).isZero();
+
+        logB.poll();
+        assertThat(instanceB.version(CollectionVersionService.PILGRIMS)).isEqualTo(1);
+        assertThat(instanceB.version(CollectionVersionService.PILGRIMS, 1)).isEqualTo(1);
+        assertThat(instanceB.version(CollectionVersionService.PILGRIMS, 2)).isZero();
+        assertThat(instanceB.version(CollectionVersionService.BEDS, 2)).isEqualTo(1);
+
+        // Its own rows are not applied twice
+        instanceB.bump(CollectionVersionService.BEDS, 2);
+        logB.poll();
+        assertThat(instanceB.version(CollectionVersionService.BEDS)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should give instances started at different times the same epoch and versions")
+    void shouldAgreeAcrossInstances() {
+        collectionVersionService.bump(CollectionVersionService.PILGRIMS, 1);
+        collectionVersionService.bump(CollectionVersionService.TENTS);
+
+        CacheInvalidationService logB = log();
+        CollectionVersionService instanceB = new CollectionVersionService(logB);
+        logB.poll();
+        assertThat(instanceB.getEpoch()).isEqualTo(collectionVersionService.getEpoch());
+        assertThat(instanceB.version(CollectionVersionService.PILGRIMS, 1)).isEqualTo(1);
+        assertThat(instanceB.version(CollectionVersionService.TENTS)).isEqualTo(1);
+
+        // A new epoch restarts the counts, and a later instance starts from it
+        CacheInvalidationService logA = log();
+        logA.purge();
+        instanceB.bump(CollectionVersionService.TENTS);
+        CacheInvalidationService logC = log();
+        CollectionVersionService instanceC = new CollectionVersionService(logC);
+        logC.poll();
+        assertThat(instanceC.getEpoch()).isEqualTo(instanceB.getEpoch()).isNotEqualTo("0");
+        assertThat(instanceC.version(CollectionVersionService.TENTS)).isEqualTo(1);
+        assertThat(instanceC.version(CollectionVersionService.PILGRIMS)).isZero();
+        assertThat(instanceB.version(CollectionVersionService.TENTS)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should move to an epoch of its own when rows may have been missed")
+    void shouldLeaveSharedEpochAfterMissedRows() {
+        collectionVersionService.bump(CollectionVersionService.PILGRIMS);
+        String shared = collectionVersionService.getEpoch();
+
+        collectionVersionService.applyAll();
+
+        assertThat(collectionVersionService.getEpoch()).isNotEqualTo(shared);
+        assertThat(collectionVersionService.version(CollectionVersionService.PILGRIMS)).isZero();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.Model.Agency;
+import com.example.wafd.Model.User;
+import com.example.wafd.Repository.AgencyRepository;
+import com.example.wafd.Repository.BedRepository;
+import com.example.wafd.Repository.BookingRepository;
+import com.example.wafd.Repository.PilgrimRepository;
+import com.example.wafd.Repository.TentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@DisplayName("DashboardService Unit Tests")
+class DashboardServiceTest {
+
+    private final PilgrimRepository pilgrimRepository = mock(PilgrimRepository.class);
+    private final BedRepository bedRepository = mock(BedRepository.class);
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final AuthenticationService authenticationService = mock(AuthenticationService.class);
+    private final CollectionVersionService collectionVersionService = mock(CollectionVersionService.class);
+    private DashboardService dashboardService;
+
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        admin = new User();
+        admin.setRole("Admin");
+        when(authenticationService.getCurrentUser()).thenReturn(admin);
+        when(collectionVersionService.getEpoch()).thenReturn("e");
+
+        dashboardService = new DashboardService(pilgrimRepository, mock(TentRepository.class), mock(AgencyRepository.class),
+                bedRepository, bookingRepository, authenticationService, collectionVersionService,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 2, 8, 5000, 60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should load only the requested sections, scoped to the supervisor's agency")
+    void shouldLoadRequestedSectionsForSupervisor() {
+        Agency agency = new Agency();
+        agency.setId(3);
+        User supervisor = new User();
+        supervisor.setRole("Supervisor");
+        supervisor.setManagedAgency(agency);
+        when(authenticationService.getCurrentUser()).thenReturn(supervisor);
+        when(bedRepository.countGroupedByStatus(3)).thenReturn(List.of(
+                new Object[]{"Available", 4L}, new Object[]{"Booked", 6L}));
+        when(bookingRepository.countGroupedByStatus(3)).thenReturn(List.<Object[]>of(new Object[]{"Booked", 6L}));
+
+        DashboardService.Dashboard dashboard = dashboardService.getDashboard("beds, bookings");
+
+        assertThat(dashboard.body().getBeds()).isEqualTo(Map.of("Available", 4L, "Booked", 6L));
+        assertThat(dashboard.body().getBookings()).isEqualTo(Map.of("Booked", 6L));
+        assertThat(dashboard.body().getPilgrims()).isNull();
+        assertThat(dashboard.body().getTents()).isNull();
+        assertThat(dashboard.serverTiming()).contains("beds;dur=", "bookings;dur=", "total;dur=");
+        verify(collectionVersionService).version(CollectionVersionService.BOOKINGS, 3);
+        verifyNoInteractions(pilgrimRepository);
+    }
+
+    @Test
+    @DisplayName("Should serve a section from cache until one of its collections changes")
+    void shouldCacheSectionsUntilVersionChanges() {
+        when(bookingRepository.countGroupedByStatus(null)).thenReturn(List.<Object[]>of(new Object[]{"Booked", 1L}));
+
+        dashboardService.getDashboard("bookings");
+        DashboardService.Dashboard cached = dashboardService.getDashboard("bookings");
+        when(collectionVersionService.version(CollectionVersionService.BOOKINGS)).thenReturn(1L);
+        dashboardService.getDashboard("bookings");
+
+        assertThat(cached.serverTiming()).startsWith("bookings;desc=\"hit\"");
+        assertThat(cached.body().getBookings()).isEqualTo(Map.of("Booked", 1L));
+        verify(bookingRepository, times(2)).countGroupedByStatus(null);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown sections before loading anything")
+    void shouldRejectUnknownSection() {
+        assertThatThrownBy(() -> dashboardService.getDashboard("beds,users"))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("Unknown dashboard section: users");
+        verifyNoInteractions(bedRepository, authenticationService);
+    }
+
+    @Test
+    @DisplayName("Should pass section failures through to the caller")
+    void shouldPropagateSectionFailures() {
+        when(pilgrimRepository.countByDimensions(any(), any(), any(), any())).thenThrow(new ApiException("boom"));
+
+        assertThatThrownBy(() -> dashboardService.getDashboard("pilgrims"))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("boom");
+    }
+}
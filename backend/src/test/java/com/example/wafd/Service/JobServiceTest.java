@@ -0,0 +1,146 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.Model.Job;
+import com.example.wafd.Model.User;
+import com.example.wafd.Repository.JobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@DisplayName("JobService Unit Tests")
+class JobServiceTest {
+
+    private final JobRepository jobRepository = mock(JobRepository.class);
+    private final AuthenticationService authenticationService = mock(AuthenticationService.class);
+    private final List<String> checkpointsSeen = new ArrayList<>();
+    private JobService jobService;
+
+    private Job job;
+
+    // Three items per batch over ids 1..7
+    private final JobHandler counting = new JobHandler() {
+        @Override
+        public String type() {
+            return "counting";
+        }
+
+        @Override
+        public Integer prepare(Map<String, Object> params) {
+            if (params.containsKey("bad")) {
+                throw new ApiException("bad params");
+            }
+            return 7;
+        }
+
+        @Override
+        public Batch runBatch(Map<String, Object> params, String checkpoint) {
+            checkpointsSeen.add(checkpoint);
+            int from = checkpoint != null ? Integer.parseInt(checkpoint) : 0;
+            int to = Math.min(from + 3, 7);
+            if (params.containsKey("failAt") && to >= ((Number) params.get("failAt")).intValue()) {
+                throw new IllegalStateException("boom");
+            }
+            return new Batch(String.valueOf(to), to - from, to == 7);
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        User admin = new User();
+        admin.setId(1);
+        when(authenticationService.getCurrentUser()).thenReturn(admin);
+        jobService = new JobService(jobRepository, List.of(counting), authenticationService, new ObjectMapper(),
+                mock(PlatformTransactionManager.class), 1, 10, 60_000);
+
+        job = new Job(5, "counting", JobService.QUEUED, "{}", null, 0, 7, null, false, null, 1, null, null, null, null);
+        when(jobRepository.findJobById(5)).thenReturn(job);
+        when(jobRepository.claim(eq(5), anyString(), any())).thenReturn(1);
+        when(jobRepository.saveProgress(eq(5), anyString(), anyString(), anyInt(), any())).thenAnswer(invocation -> {
+            job.setCheckpoint(invocation.getArgument(2));
+            job.setProcessed(job.getProcessed() + (int) invocation.getArgument(3));
+            return 1;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        jobService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run batches until the handler is done, checkpointing each one")
+    void shouldRunToCompletion() {
+        jobService.run(5);
+
+        assertThat(checkpointsSeen).containsExactly(null, "3", "6");
+        assertThat(job.getProcessed()).isEqualTo(7);
+        verify(jobRepository).finish(eq(5), anyString(), eq(JobService.SUCCEEDED), isNull(), any());
+    }
+
+    @Test
+    @DisplayName("Should resume a restarted job after its last checkpoint")
+    void shouldResumeFromCheckpoint() {
+        job.setCheckpoint("3");
+        job.setProcessed(3);
+
+        jobService.run(5);
+
+        assertThat(checkpointsSeen).containsExactly("3", "6");
+        assertThat(job.getProcessed()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should stop a running job between batches when cancellation is requested")
+    void shouldStopWhenCancelled() {
+        when(jobRepository.saveProgress(eq(5), anyString(), anyString(), anyInt(), any())).thenAnswer(invocation -> {
+            job.setCancelRequested(true);
+            return 1;
+        });
+
+        jobService.run(5);
+
+        assertThat(checkpointsSeen).containsExactly((String) null);
+        verify(jobRepository).finish(eq(5), anyString(), eq(JobService.CANCELLED), isNull(), any());
+    }
+
+    @Test
+    @DisplayName("Should mark the job failed with the error and keep the last good checkpoint")
+    void shouldFailOnError() {
+        job.setParams("{\"failAt\":6}");
+
+        jobService.run(5);
+
+        assertThat(job.getCheckpoint()).isEqualTo("3");
+        verify(jobRepository).finish(eq(5), anyString(), eq(JobService.FAILED), eq("boom"), any());
+    }
+
+    @Test
+    @DisplayName("Should not run a job another instance already claimed, and reject unknown types")
+    void shouldSkipClaimedJobs() {
+        when(jobRepository.claim(eq(5), anyString(), any())).thenReturn(0);
+
+        jobService.run(5);
+
+        assertThat(checkpointsSeen).isEmpty();
+        assertThatThrownBy(() -> jobService.submit("missing", Map.of()))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("Unknown job type: missing");
+        assertThatThrownBy(() -> jobService.submit("counting", Map.of("bad", true)))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("bad params");
+    }
+}
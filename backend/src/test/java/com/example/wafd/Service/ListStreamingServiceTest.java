@@ -0,0 +1,134 @@
+package com.example.wafd.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@ActiveProfiles("test")
+@DisplayName("ListStreamingService Unit Tests")
+class ListStreamingServiceTest {
+
+    private final ListStreamingService listStreamingService = streaming(mock(PlatformTransactionManager.class));
+
+    private List<Integer> rows = IntStream.rangeClosed(1, 5).boxed().toList();
+    private final List<Integer> requestedAfter = new ArrayList<>();
+
+    private List<Integer> page(Integer afterId, int size) {
+        requestedAfter.add(afterId);
+        return rows.stream().filter(id -> id > afterId).limit(size).toList();
+    }
+
+    @Test
+    @DisplayName("Should write every row as one array, reading a page after the last id written")
+    void shouldStreamAllPages() throws Exception {
+        ListStreamingService.ListStream stream = listStreamingService.stream(null,
+                (afterId, pageable) -> page(afterId, pageable.getPageSize()), id -> id, id -> Map.of("id", id));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stream.body().writeTo(out);
+
+        assertThat(stream.contentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(out.toString()).isEqualTo("[{\"id\":1},{\"id\":2},{\"id\":3},{\"id\":4},{\"id\":5}]");
+        assertThat(requestedAfter).containsExactly(0, 2, 4);
+    }
+
+    @Test
+    @DisplayName("Should read once more after a full last page, and write an empty array for no rows")
+    void shouldEndOnEmptyPage() throws Exception {
+        rows = List.of(1, 2, 3, 4);
+        ListStreamingService.ListStream stream = listStreamingService.stream("*/*",
+                (afterId, pageable) -> page(afterId, pageable.getPageSize()), id -> id, id -> id);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stream.body().writeTo(out);
+
+        assertThat(out.toString()).isEqualTo("[1,2,3,4]");
+        assertThat(requestedAfter).containsExactly(0, 2, 4);
+
+        rows = List.of();
+        out.reset();
+        listStreamingService.stream(null, (afterId, pageable) -> page(afterId, pageable.getPageSize()),
+                id -> id, id -> id).body().writeTo(out);
+        assertThat(out.toString()).isEqualTo("[]");
+    }
+
+    @Test
+    @DisplayName("Should encode as CBOR or Smile when asked, JSON otherwise")
+    void shouldFollowAccept() throws Exception {
+        ListStreamingService.ListStream cbor = listStreamingService.stream("application/cbor, application/json;q=0.5",
+                (afterId, pageable) -> page(afterId, pageable.getPageSize()), id -> id, id -> id);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cbor.body().writeTo(out);
+
+        assertThat(cbor.contentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(new ObjectMapper(new CBORFactory()).readValue(out.toByteArray(), int[].class))
+                .containsExactly(1, 2, 3, 4, 5);
+        assertThat(listStreamingService.stream("application/x-jackson-smile", (afterId, pageable) -> List.<Integer>of(),
+                id -> id, id -> id).contentType().toString()).isEqualTo("application/x-jackson-smile");
+        assertThat(listStreamingService.stream("application/cbor;q=0, text/html", (afterId, pageable) -> List.<Integer>of(),
+                id -> id, id -> id).contentType()).isEqualTo(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    @DisplayName("Should hold a connection only while a page is read, not while it is written")
+    void shouldReleaseConnectionBetweenPages() throws Exception {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:streaming-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        try (dataSource) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("CREATE TABLE row_ids (id INT PRIMARY KEY)");
+            jdbcTemplate.update("INSERT INTO row_ids (id) VALUES (1), (2), (3), (4), (5)");
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            List<Integer> activeWhileReading = new ArrayList<>();
+            List<Integer> activeWhileWriting = new ArrayList<>();
+
+            ListStreamingService.ListStream stream = streaming(new DataSourceTransactionManager(dataSource)).stream(null,
+                    (afterId, pageable) -> {
+                        List<Integer> ids = jdbcTemplate.queryForList(
+                                "SELECT id FROM row_ids WHERE id > ? ORDER BY id LIMIT ?", Integer.class,
+                                afterId, pageable.getPageSize());
+                        activeWhileReading.add(pool.getActiveConnections());
+                        return ids;
+                    }, id -> id, id -> id);
+            OutputStream out = new FilterOutputStream(new ByteArrayOutputStream()) {
+                @Override
+                public void flush() throws IOException {
+                    activeWhileWriting.add(pool.getActiveConnections());
+                    super.flush();
+                }
+            };
+            stream.body().writeTo(out);
+
+            assertThat(activeWhileReading).containsExactly(1, 1, 1);
+            assertThat(activeWhileWriting).isNotEmpty().containsOnly(0);
+        }
+    }
+
+    private static ListStreamingService streaming(PlatformTransactionManager transactionManager) {
+        return new ListStreamingService(new ObjectMapper(), new MappingJackson2CborHttpMessageConverter(),
+                new MappingJackson2SmileHttpMessageConverter(), transactionManager, 2);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.RateLimitException;
+import com.example.wafd.Util.TokenBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@ActiveProfiles("test")
+@DisplayName("LoginAdmissionService Unit Tests")
+class LoginAdmissionServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoginAdmissionService loginAdmissionService;
+
+    @AfterEach
+    void tearDown() {
+        if (loginAdmissionService != null) {
+            loginAdmissionService.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject an account once its bucket is empty, without touching other accounts")
+    void shouldRateLimitPerAccount() {
+        loginAdmissionService = new LoginAdmissionService(meterRegistry, 1, 4, 1000, 2, 1, 100, 100);
+
+        loginAdmissionService.checkRateLimits("Operator@wafd.sa", "10.0.0.1");
+        loginAdmissionService.checkRateLimits("operator@wafd.sa", "10.0.0.2");
+
+        assertThatThrownBy(() -> loginAdmissionService.checkRateLimits("operator@wafd.sa", "10.0.0.3"))
+                .isInstanceOf(RateLimitException.class)
+                .satisfies(e -> assertThat(((RateLimitException) e).getRetryAfterSeconds()).isPositive());
+        assertThatCode(() -> loginAdmissionService.checkRateLimits("other@wafd.sa", "10.0.0.3")).doesNotThrowAnyException();
+        assertThat(meterRegistry.counter("auth.login.rejected", "reason", "account").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should turn logins away immediately when the hashing pool and queue are full")
+    void shouldRejectWhenPoolIsFull() throws Exception {
+        loginAdmissionService = new LoginAdmissionService(meterRegistry, 1, 1, 5000, 10, 10, 100, 100);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> loginAdmissionService.verify(() -> {
+            running.countDown();
+            await(release);
+            return "first";
+        }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> loginAdmissionService.verify(() -> "queued"));
+        while (meterRegistry.get("executor.queued").tag("name", "login.hash").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> loginAdmissionService.verify(() -> "rejected")).isInstanceOf(RateLimitException.class);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+        assertThat(meterRegistry.counter("auth.login.rejected", "reason", "busy").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should pass verification failures through unchanged")
+    void shouldRethrowVerificationFailure() {
+        loginAdmissionService = new LoginAdmissionService(meterRegistry, 1, 4, 1000, 10, 10, 100, 100);
+
+        assertThatThrownBy(() -> loginAdmissionService.verify(() -> {
+            throw new BadCredentialsException("Bad credentials");
+        })).isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    @DisplayName("Should refill the token bucket over time")
+    void shouldRefillTokenBucket() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(1, 60, now::get);
+
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+        assertThat(bucket.secondsUntilAvailable()).isEqualTo(1);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(bucket.tryConsume()).isTrue();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.Model.Agency;
+import com.example.wafd.Model.OccupancySnapshot;
+import com.example.wafd.Model.ScheduledRun;
+import com.example.wafd.Model.User;
+import com.example.wafd.Repository.AgencyRepository;
+import com.example.wafd.Repository.BedRepository;
+import com.example.wafd.Repository.BookingRepository;
+import com.example.wafd.Repository.OccupancySnapshotRepository;
+import com.example.wafd.Repository.ScheduledRunRepository;
+import com.example.wafd.Repository.TentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@DisplayName("OccupancySnapshotService Unit Tests")
+class OccupancySnapshotServiceTest {
+
+    private final OccupancySnapshotRepository occupancySnapshotRepository = mock(OccupancySnapshotRepository.class);
+    private final BedRepository bedRepository = mock(BedRepository.class);
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final AgencyRepository agencyRepository = mock(AgencyRepository.class);
+    private final TentRepository tentRepository = mock(TentRepository.class);
+    private final ScheduledRunRepository scheduledRunRepository = mock(ScheduledRunRepository.class);
+    private final AuthenticationService authenticationService = mock(AuthenticationService.class);
+    private final List<OccupancySnapshot> saved = new ArrayList<>();
+    private OccupancySnapshotService occupancySnapshotService;
+
+    private User supervisor;
+
+    @BeforeEach
+    void setUp() {
+        occupancySnapshotService = new OccupancySnapshotService(occupancySnapshotRepository, bedRepository,
+                bookingRepository, agencyRepository, tentRepository, scheduledRunRepository, authenticationService);
+        ReflectionTestUtils.setField(occupancySnapshotService, "minuteRetentionHours", 48L);
+        ReflectionTestUtils.setField(occupancySnapshotService, "hourRetentionDays", 90L);
+        when(scheduledRunRepository.claim(anyString(), any())).thenReturn(1);
+        when(occupancySnapshotRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            saved.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+
+        Agency agency = new Agency();
+        agency.setId(4);
+        supervisor = new User();
+        supervisor.setRole("Supervisor");
+        supervisor.setManagedAgency(agency);
+        when(authenticationService.getCurrentUser()).thenReturn(supervisor);
+    }
+
+    @Test
+    @DisplayName("Should record one minute sample per tent and per agency")
+    void shouldRecordTentAndAgencySamples() {
+        when(bedRepository.countOccupancyByTent()).thenReturn(List.of(
+                new Object[]{1, 10L, 6L}, new Object[]{2, 8L, null}));
+        when(bookingRepository.countActiveBookingsByAgency()).thenReturn(List.<Object[]>of(new Object[]{4, 6L}));
+        when(agencyRepository.findCapacities()).thenReturn(List.of(new Object[]{4, 50L}, new Object[]{5, null}));
+
+        occupancySnapshotService.recordSnapshot();
+
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        assertThat(saved).extracting(OccupancySnapshot::getScope, OccupancySnapshot::getScopeId,
+                        OccupancySnapshot::getOccupied, OccupancySnapshot::getCapacity)
+                .containsExactly(tuple("tent", 1, 6, 10), tuple("tent", 2, 0, 8),
+                        tuple("agency", 4, 6, 50), tuple("agency", 5, 0, 0));
+        assertThat(saved).allSatisfy(sample -> {
+            assertThat(sample.getResolution()).isEqualTo("minute");
+            assertThat(sample.getBucketStart()).isBetween(minute.minusMinutes(1), minute);
+        });
+    }
+
+    @Test
+    @DisplayName("Should skip a minute, hour or day another instance has already claimed")
+    void shouldSkipBucketsClaimedElsewhere() {
+        when(scheduledRunRepository.claim(anyString(), any())).thenReturn(0);
+        when(scheduledRunRepository.existsById(anyString())).thenReturn(true);
+
+        occupancySnapshotService.recordSnapshot();
+        occupancySnapshotService.rollupHours();
+        occupancySnapshotService.rollupDays();
+
+        verifyNoInteractions(bedRepository, occupancySnapshotRepository);
+        verify(scheduledRunRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Should add the claim row on a task's first run and go ahead")
+    void shouldCreateClaimOnFirstRun() {
+        when(scheduledRunRepository.claim(anyString(), any())).thenReturn(0);
+        when(scheduledRunRepository.existsById("occupancy-snapshot")).thenReturn(false);
+
+        occupancySnapshotService.recordSnapshot();
+
+        ArgumentCaptor<ScheduledRun> run = ArgumentCaptor.forClass(ScheduledRun.class);
+        verify(scheduledRunRepository).saveAndFlush(run.capture());
+        assertThat(run.getValue().getName()).isEqualTo("occupancy-snapshot");
+        verify(bedRepository).countOccupancyByTent();
+    }
+
+    @Test
+    @DisplayName("Should roll up every complete hour after the last one rolled, then prune old minutes")
+    void shouldRollUpMissedHours() {
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        when(occupancySnapshotRepository.findLatestBucket("hour")).thenReturn(hour.minusHours(3));
+        when(occupancySnapshotRepository.aggregate(eq("minute"), any(), any())).thenReturn(
+                List.<Object[]>of(new Object[]{"tent", 1, 5.6, 8, 10}));
+
+        occupancySnapshotService.rollupHours();
+
+        verify(occupancySnapshotRepository).aggregate("minute", hour.minusHours(2), hour.minusHours(1));
+        verify(occupancySnapshotRepository).aggregate("minute", hour.minusHours(1), hour);
+        verify(occupancySnapshotRepository, never()).aggregate("minute", hour, hour.plusHours(1));
+        assertThat(saved).extracting(OccupancySnapshot::getBucketStart)
+                .containsExactly(hour.minusHours(2), hour.minusHours(1));
+        assertThat(saved).allSatisfy(point -> {
+            assertThat(point.getResolution()).isEqualTo("hour");
+            assertThat(point.getOccupied()).isEqualTo(6);
+            assertThat(point.getPeakOccupied()).isEqualTo(8);
+            assertThat(point.getCapacity()).isEqualTo(10);
+        });
+        verify(occupancySnapshotRepository).deleteOlderThan(eq("minute"), any());
+    }
+
+    @Test
+    @DisplayName("Should roll days up from the earliest hour on the first run")
+    void shouldRollUpDaysFromEarliestHour() {
+        LocalDateTime today = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        when(occupancySnapshotRepository.findEarliestBucket("hour")).thenReturn(today.minusDays(2).plusHours(13));
+        when(occupancySnapshotRepository.aggregate(eq("hour"), any(), any())).thenReturn(
+                List.<Object[]>of(new Object[]{"agency", 4, 20.0, 25, 50}));
+
+        occupancySnapshotService.rollupDays();
+
+        assertThat(saved).extracting(OccupancySnapshot::getBucketStart, OccupancySnapshot::getResolution)
+                .containsExactly(tuple(today.minusDays(2), "day"), tuple(today.minusDays(1), "day"));
+        verify(occupancySnapshotRepository).deleteBucket("day", today.minusDays(2));
+        verify(occupancySnapshotRepository).deleteOlderThan(eq("hour"), any());
+    }
+
+    @Test
+    @DisplayName("Should limit supervisors to their agency and the tents holding its pilgrims")
+    void shouldScopeSupervisorsToTheirPilgrims() {
+        when(tentRepository.hasPilgrimsFromAgency(7, 4)).thenReturn(true);
+
+        assertThatCode(() -> occupancySnapshotService.getSeries("agency", 4, null, null, null)).doesNotThrowAnyException();
+        assertThatCode(() -> occupancySnapshotService.getSeries("tent", 7, null, null, null)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> occupancySnapshotService.getSeries("tent", 8, null, null, null))
+                .isInstanceOf(ApiException.class)
+                .hasMessageContaining("Access denied");
+        assertThatThrownBy(() -> occupancySnapshotService.getSeries("agency", 5, null, null, null))
+                .isInstanceOf(ApiException.class)
+                .hasMessageContaining("Access denied");
+
+        supervisor.setRole("Admin");
+        assertThatCode(() -> occupancySnapshotService.getSeries("tent", 8, null, null, null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Should read the coarsest level that still fits the range, unless one is asked for")
+    void shouldPickResolutionByRange() {
+        LocalDateTime to = LocalDateTime.now();
+
+        occupancySnapshotService.getSeries("agency", 4, to.minusHours(6), to, null);
+        occupancySnapshotService.getSeries("agency", 4, to.minusDays(3), to, null);
+        occupancySnapshotService.getSeries("agency", 4, to.minusDays(60), to, null);
+        occupancySnapshotService.getSeries("agency", 4, to.minusDays(60), to, "HOUR");
+
+        verify(occupancySnapshotRepository).findSeries("agency", 4, "minute", to.minusHours(6), to);
+        verify(occupancySnapshotRepository).findSeries("agency", 4, "hour", to.minusDays(3), to);
+        verify(occupancySnapshotRepository).findSeries("agency", 4, "day", to.minusDays(60), to);
+        verify(occupancySnapshotRepository).findSeries("agency", 4, "hour", to.minusDays(60), to);
+        assertThatThrownBy(() -> occupancySnapshotService.getSeries("agency", 4, to, to.minusDays(1), null))
+                .isInstanceOf(ApiException.class);
+    }
+}
@@ -16,8 +16,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -40,6 +51,21 @@ class PilgrimServiceTest {
     @Mock
     private AuthenticationService authenticationService;
 
+    @Mock
+    private SyncService syncService;
+
+    @Mock
+    private CollectionVersionService collectionVersionService;
+
+    @Mock
+    private AuditService auditService;
+
+    @Mock
+    private TentCounterService tentCounterService;
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager("pilgrims");
+
     @InjectMocks
     private PilgrimService pilgrimService;
 
@@ -53,6 +79,7 @@ class PilgrimServiceTest {
         adminUser.setId(1);
         adminUser.setRole("Admin");
         lenient().when(authenticationService.getCurrentUser()).thenReturn(adminUser);
+        ReflectionTestUtils.setField(pilgrimService, "maxBatchIds", 100);
 
         // Setup test agency
         testAgency = new Agency();
@@ -323,4 +350,153 @@ class PilgrimServiceTest {
                     .hasMessageContaining("Supervisors are not allowed to delete");
         }
     }
+
+    @Nested
+    @DisplayName("Sparse Fieldsets")
+    class SparseFieldsetTests {
+
+        @Test
+        @DisplayName("Should return only the requested fields plus id")
+        void shouldPickRequestedFields() {
+            // Given
+            lenient().when(authenticationService.getCurrentUser()).thenReturn(adminUser);
+            Pilgrim pilgrim = new Pilgrim();
+            pilgrim.setId(7);
+            pilgrim.setFirstName("Ahmed");
+            pilgrim.setStatus("arrived");
+            Pageable pageable = PageRequest.of(0, 10);
+            when(pilgrimRepository.findProjected(eq(Set.of("id", "firstName", "status")), isNull(), eq(pageable)))
+                    .thenReturn(new PageImpl<>(List.of(pilgrim), pageable, 1));
+
+            // When
+            var page = pilgrimService.getAllPilgrims(pageable, "status, firstName");
+
+            // Then
+            assertThat(page.getContent()).containsExactly(Map.of("id", 7, "firstName", "Ahmed", "status", "arrived"));
+            verify(pilgrimRepository, never()).findAllWithDetails(any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should reject unknown fields")
+        void shouldRejectUnknownField() {
+            // When / Then
+            assertThatThrownBy(() -> pilgrimService.getPilgrimById(1, "firstName,password"))
+                    .isInstanceOf(ApiException.class)
+                    .hasMessageContaining("Unknown field: password");
+            verifyNoInteractions(pilgrimRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Statistics")
+    class StatisticsTests {
+
+        @Test
+        @DisplayName("Should fold the grouped counts into every dimension")
+        void shouldFoldGroupedCounts() {
+            // Given
+            when(pilgrimRepository.countByDimensions(null, 3, null, null)).thenReturn(List.of(
+                    new Object[]{"arrived", "male", true, "Wheelchair", "Egypt", "60+", 4L},
+                    new Object[]{"Arrived", "female", false, null, "Egypt", "18-29", 2L},
+                    new Object[]{"expected", "male", true, " ", "", null, 1L},
+                    new Object[]{"no_show", "female", null, null, "Jordan", "60+", 3L}));
+
+            // When
+            var stats = pilgrimService.getStatistics(null, 3, null, null);
+
+            // Then
+            assertThat(stats.getTotal()).isEqualTo(10);
+            assertThat(stats.getArrived()).isEqualTo(6);
+            assertThat(stats.getExpected()).isEqualTo(1);
+            assertThat(stats.getNoShow()).isEqualTo(3);
+            assertThat(stats.getSpecialNeeds()).isEqualTo(5);
+            assertThat(stats.getMaleCount()).isEqualTo(5);
+            assertThat(stats.getFemaleCount()).isEqualTo(5);
+            assertThat(stats.getOccupancyRate()).isEqualTo(60.0);
+            assertThat(stats.getByNationality()).isEqualTo(Map.of("Egypt", 6L, "Jordan", 3L));
+            assertThat(stats.getByAgeGroup()).isEqualTo(Map.of("60+", 7L, "18-29", 2L));
+            assertThat(stats.getBySpecialNeeds()).isEqualTo(Map.of("Wheelchair", 4L));
+        }
+
+        @Test
+        @DisplayName("Should scope supervisors to their own agency")
+        void shouldScopeSupervisorToOwnAgency() {
+            // Given
+            User supervisor = new User();
+            supervisor.setRole("Supervisor");
+            supervisor.setManagedAgency(testAgency);
+            when(authenticationService.getCurrentUser()).thenReturn(supervisor);
+
+            // When
+            var stats = pilgrimService.getStatistics(2, null, null, null);
+
+            // Then
+            verify(pilgrimRepository).countByDimensions(1, null, null, null);
+            assertThat(stats.getTotal()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Read Tests")
+    class BatchReadTests {
+
+        private Pilgrim pilgrim(int id, Agency agency) {
+            Pilgrim pilgrim = new Pilgrim();
+            pilgrim.setId(id);
+            pilgrim.setAgency(agency);
+            return pilgrim;
+        }
+
+        @Test
+        @DisplayName("Should read only cache misses, in one query, and keep the requested order")
+        void shouldReadOnlyCacheMisses() {
+            // Given
+            PilgrimDTOOut cached = PilgrimDTOOut.fromEntity(pilgrim(5, testAgency));
+            cacheManager.getCache("pilgrims").put(5, cached);
+            when(pilgrimRepository.findByIdsWithDetails(List.of(9, 7)))
+                    .thenReturn(List.of(pilgrim(9, testAgency)));
+
+            // When
+            List<PilgrimDTOOut> result = pilgrimService.getPilgrimsByIds(List.of(9, 5, 7, 9));
+
+            // Then
+            assertThat(result).extracting(PilgrimDTOOut::getId).containsExactly(9, 5);
+            assertThat(result.get(1)).isSameAs(cached);
+            assertThat(cacheManager.getCache("pilgrims").get(9, PilgrimDTOOut.class)).isSameAs(result.get(0));
+            verify(pilgrimRepository, times(1)).findByIdsWithDetails(any());
+        }
+
+        @Test
+        @DisplayName("Should leave out pilgrims of other agencies for supervisors")
+        void shouldScopeSupervisorToOwnAgency() {
+            // Given
+            Agency otherAgency = new Agency();
+            otherAgency.setId(2);
+            User supervisor = new User();
+            supervisor.setRole("Supervisor");
+            supervisor.setManagedAgency(testAgency);
+            when(authenticationService.getCurrentUser()).thenReturn(supervisor);
+            when(pilgrimRepository.findByIdsWithDetails(List.of(1, 2)))
+                    .thenReturn(List.of(pilgrim(1, testAgency), pilgrim(2, otherAgency)));
+
+            // When
+            List<PilgrimDTOOut> result = pilgrimService.getPilgrimsByIds(List.of(1, 2));
+
+            // Then
+            assertThat(result).extracting(PilgrimDTOOut::getId).containsExactly(1);
+        }
+
+        @Test
+        @DisplayName("Should reject batches over the limit before reading anything")
+        void shouldRejectOversizedBatch() {
+            // Given
+            ReflectionTestUtils.setField(pilgrimService, "maxBatchIds", 2);
+
+            // When & Then
+            assertThatThrownBy(() -> pilgrimService.getPilgrimsByIds(List.of(1, 2, 3)))
+                    .isInstanceOf(ApiException.class)
+                    .hasMessage("A batch can contain at most 2 ids");
+            verifyNoInteractions(pilgrimRepository);
+        }
+    }
 }
@@ -0,0 +1,111 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.Repository.BedRepository;
+import com.example.wafd.Repository.BookingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@DisplayName("ReconciliationService Unit Tests")
+class ReconciliationServiceTest {
+
+    private final BedRepository bedRepository = mock(BedRepository.class);
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReconciliationService reconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        reconciliationService = new ReconciliationService(bedRepository, bookingRepository, mock(TentCounterService.class),
+                mock(CollectionVersionService.class), mock(AuditService.class), new ConcurrentMapCacheManager("beds"),
+                eventPublisher, mock(PlatformTransactionManager.class), meterRegistry, false, 100, 0, 10, 60000);
+    }
+
+    @Test
+    @DisplayName("Should repair orphaned beds, unmarked beds and stale links")
+    void shouldRepairMismatches() {
+        List<Object[]> rows = List.of(
+                row(1, "Booked", 10, "Booked"),
+                row(2, "Booked", null, null),
+                row(3, "Available", 11, "Booked"),
+                row(4, "Booked", 12, "Cancelled"),
+                row(5, "Reserved", 13, "Booked"),
+                row(6, "Available", null, null));
+        when(bedRepository.findBookingStates(eq(0), any(Pageable.class))).thenReturn(rows);
+        when(bedRepository.lockBookingStates(List.of(2, 3, 4))).thenReturn(List.of(rows.get(1), rows.get(2), rows.get(3)));
+
+        assertThat(reconciliationService.reconcileNextChunk()).isTrue();
+
+        verify(bookingRepository).detachInactive(eq(List.of(12)), any());
+        verify(bedRepository).updateStatus(eq(List.of(2, 4)), eq("Booked"), eq("Available"), any());
+        verify(bedRepository).updateStatus(eq(List.of(3)), eq("Available"), eq("Booked"), any());
+        verify(eventPublisher).publishEvent(new BedsFreedEvent(List.of(2, 4)));
+        assertThat(meterRegistry.counter("reconciler.beds.scanned").count()).isEqualTo(6);
+        assertThat(meterRegistry.counter("reconciler.repairs", "type", ReconciliationService.ORPHANED_BED).count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("reconciler.repairs", "type", ReconciliationService.STALE_LINK).count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should leave beds alone that were fixed before the lock was taken")
+    void shouldSkipBedsFixedConcurrently() {
+        when(bedRepository.findBookingStates(eq(0), any(Pageable.class))).thenReturn(List.<Object[]>of(row(2, "Booked", null, null)));
+        when(bedRepository.lockBookingStates(List.of(2))).thenReturn(List.<Object[]>of(row(2, "Available", null, null)));
+
+        reconciliationService.reconcileNextChunk();
+
+        verify(bedRepository, never()).updateStatus(any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+        assertThat(meterRegistry.counter("reconciler.mismatches", "type", ReconciliationService.ORPHANED_BED).count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("reconciler.repairs", "type", ReconciliationService.ORPHANED_BED).count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should walk the beds in keyset chunks and start over after a short chunk")
+    void shouldWalkInChunks() {
+        reconciliationService.configure(null, 2, null, null);
+        when(bedRepository.findBookingStates(eq(0), any(Pageable.class)))
+                .thenReturn(List.of(row(1, "Available", null, null), row(2, "Available", null, null)));
+        when(bedRepository.findBookingStates(eq(2), any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(row(5, "Available", null, null)));
+
+        assertThat(reconciliationService.reconcileNextChunk()).isFalse();
+        assertThat(reconciliationService.status().getCursor()).isEqualTo(2);
+        assertThat(reconciliationService.reconcileNextChunk()).isTrue();
+        assertThat(reconciliationService.status().getCursor()).isZero();
+        assertThat(reconciliationService.status().getLastPassFinishedAt()).isNotNull();
+        verify(bedRepository, never()).lockBookingStates(any());
+    }
+
+    @Test
+    @DisplayName("Should reject throttling settings out of range")
+    void shouldRejectInvalidSettings() {
+        assertThatThrownBy(() -> reconciliationService.configure(null, 0, null, null))
+                .isInstanceOf(ApiException.class);
+        assertThatThrownBy(() -> reconciliationService.configure(null, null, null, 101))
+                .isInstanceOf(ApiException.class);
+
+        reconciliationService.configure(true, 250, 1000L, 5);
+
+        assertThat(reconciliationService.status().getChunkSize()).isEqualTo(250);
+        assertThat(reconciliationService.status().getMaxDutyPercent()).isEqualTo(5);
+    }
+
+    private static Object[] row(Integer bedId, String bedStatus, Integer bookingId, String bookingStatus) {
+        return new Object[]{bedId, bedStatus, bookingId, bookingStatus};
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.DTO.SyncChangesDTOOut;
+import com.example.wafd.Model.Agency;
+import com.example.wafd.Model.Bed;
+import com.example.wafd.Model.SyncTombstone;
+import com.example.wafd.Model.Tent;
+import com.example.wafd.Model.User;
+import com.example.wafd.Repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@DisplayName("SyncService Unit Tests")
+class SyncServiceTest {
+
+    private final BedRepository bedRepository = mock(BedRepository.class);
+    private final TentRepository tentRepository = mock(TentRepository.class);
+    private final SyncTombstoneRepository syncTombstoneRepository = mock(SyncTombstoneRepository.class);
+    private final AuthenticationService authenticationService = mock(AuthenticationService.class);
+    private final List<SyncTombstone> recorded = new ArrayList<>();
+    private SyncService syncService;
+
+    private User user;
+    private Tent tent;
+
+    @BeforeEach
+    void setUp() {
+        syncService = new SyncService(mock(PilgrimRepository.class), bedRepository, mock(BookingRepository.class),
+                tentRepository, mock(AgencyRepository.class), syncTombstoneRepository, authenticationService);
+        ReflectionTestUtils.setField(syncService, "maxPageSize", 2000);
+        ReflectionTestUtils.setField(syncService, "commitLagMs", 2000L);
+        when(syncTombstoneRepository.save(any(SyncTombstone.class))).thenAnswer(invocation -> {
+            recorded.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+
+        user = new User();
+        user.setRole("Admin");
+        when(authenticationService.getCurrentUser()).thenReturn(user);
+
+        tent = new Tent();
+        tent.setId(7);
+        Bed first = new Bed();
+        first.setId(70);
+        first.setTent(tent);
+        Bed second = new Bed();
+        second.setId(71);
+        second.setTent(tent);
+        tent.setBeds(Set.of(first, second));
+    }
+
+    @Test
+    @DisplayName("Should record a bed deletion for everyone and once more for each agency with pilgrims in its tent")
+    void shouldRecordBedDeletionForAgenciesSeeingTent() {
+        when(tentRepository.findAgencyIdsWithPilgrims(7)).thenReturn(List.of(4, 5));
+
+        syncService.recordBedDeletion(tent.getBeds().iterator().next());
+
+        assertThat(recorded).extracting(SyncTombstone::getEntityType, SyncTombstone::getAgencyId, SyncTombstone::getAgencyOnly)
+                .containsExactly(tuple("beds", null, false), tuple("beds", 4, true), tuple("beds", 5, true));
+    }
+
+    @Test
+    @DisplayName("Should record a tent deletion and its beds for the agencies that could see them")
+    void shouldRecordTentDeletionWithBeds() {
+        when(tentRepository.findAgencyIdsWithPilgrims(7)).thenReturn(List.of(4));
+
+        syncService.recordTentDeletion(tent);
+
+        verify(tentRepository, times(1)).findAgencyIdsWithPilgrims(7);
+        assertThat(recorded).extracting(SyncTombstone::getEntityType, SyncTombstone::getEntityId, SyncTombstone::getAgencyId)
+                .containsExactlyInAnyOrder(tuple("tents", 7, null), tuple("tents", 7, 4),
+                        tuple("beds", 70, null), tuple("beds", 70, 4), tuple("beds", 71, null), tuple("beds", 71, 4));
+    }
+
+    @Test
+    @DisplayName("Should tell an agency to drop a tent and its beds once its last pilgrim there is gone")
+    void shouldRecordScopeExit() {
+        when(tentRepository.hasPilgrimsFromAgency(7, 4)).thenReturn(false);
+        when(tentRepository.hasPilgrimsFromAgency(7, 5)).thenReturn(true);
+        when(bedRepository.findIdsByTentId(7)).thenReturn(List.of(70, 71));
+
+        syncService.recordScopeExit(tent, 5);
+        syncService.recordScopeExit(tent, null);
+        assertThat(recorded).isEmpty();
+
+        syncService.recordScopeExit(tent, 4);
+        assertThat(recorded).extracting(SyncTombstone::getEntityType, SyncTombstone::getEntityId,
+                        SyncTombstone::getAgencyId, SyncTombstone::getAgencyOnly)
+                .containsExactly(tuple("tents", 7, 4, true), tuple("beds", 70, 4, true), tuple("beds", 71, 4, true));
+    }
+
+    @Test
+    @DisplayName("Should read a supervisor's tombstones for their agency only and sort them by type")
+    void shouldReportAgencyTombstonesToSupervisors() {
+        Agency agency = new Agency();
+        agency.setId(4);
+        user.setRole("Supervisor");
+        user.setManagedAgency(agency);
+        LocalDateTime deletedAt = LocalDateTime.now().minusMinutes(5);
+        when(syncTombstoneRepository.findChangedSinceForAgency(eq(4), any(), anyLong(), any(Pageable.class))).thenReturn(List.of(
+                new SyncTombstone(1L, "tents", 7, 4, true, deletedAt),
+                new SyncTombstone(2L, "beds", 70, 4, true, deletedAt),
+                new SyncTombstone(3L, "pilgrims", 12, 4, false, deletedAt)));
+
+        SyncChangesDTOOut changes = syncService.getChanges(null, 100);
+
+        assertThat(changes.getTents().getDeleted()).containsExactly(7);
+        assertThat(changes.getBeds().getDeleted()).containsExactly(70);
+        assertThat(changes.getPilgrims().getDeleted()).containsExactly(12);
+        assertThat(changes.isHasMore()).isFalse();
+        verify(syncTombstoneRepository, never()).findChangedSince(any(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should resume from the last tombstone of a full page and report more")
+    void shouldPageTombstones() {
+        LocalDateTime deletedAt = LocalDateTime.now().minusMinutes(5);
+        when(syncTombstoneRepository.findChangedSince(any(), anyLong(), any(Pageable.class))).thenReturn(List.of(
+                new SyncTombstone(1L, "beds", 70, null, false, deletedAt),
+                new SyncTombstone(2L, "beds", 71, null, false, deletedAt)));
+
+        SyncChangesDTOOut changes = syncService.getChanges(null, 1);
+        assertThat(changes.getBeds().getDeleted()).containsExactly(70);
+        assertThat(changes.isHasMore()).isTrue();
+
+        syncService.getChanges(changes.getWatermark(), 1);
+        verify(syncTombstoneRepository).findChangedSince(eq(deletedAt), eq(1L), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should refuse a limit over the maximum and a malformed watermark")
+    void shouldValidateInput() {
+        assertThatThrownBy(() -> syncService.getChanges(null, 2001)).isInstanceOf(ApiException.class);
+        assertThatThrownBy(() -> syncService.getChanges("bm90LWEtd2F0ZXJtYXJr", 10))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("Invalid watermark");
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Model.Bed;
+import com.example.wafd.Model.Booking;
+import com.example.wafd.Model.Pilgrim;
+import com.example.wafd.Model.Tent;
+import com.example.wafd.Repository.BedRepository;
+import com.example.wafd.Repository.TentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+@DisplayName("TentCounterService Unit Tests")
+class TentCounterServiceTest {
+
+    @Mock
+    private TentRepository tentRepository;
+
+    @Mock
+    private BedRepository bedRepository;
+
+    @InjectMocks
+    private TentCounterService tentCounterService;
+
+    private Bed bed;
+    private Pilgrim pilgrim;
+
+    @BeforeEach
+    void setUp() {
+        Tent tent = new Tent();
+        tent.setId(4);
+        bed = new Bed();
+        bed.setId(9);
+        bed.setTent(tent);
+        pilgrim = new Pilgrim();
+        pilgrim.setHasSpecialNeeds(true);
+    }
+
+    @Test
+    @DisplayName("Should count a booking and its release, including special needs")
+    void shouldCountBookingAndRelease() {
+        tentCounterService.statusChanged(bed, "Available", "Booked", pilgrim);
+        tentCounterService.statusChanged(bed, "Checked_in", "Available", pilgrim);
+
+        verify(tentRepository).adjustCounters(eq(4), eq(1), eq(0), eq(0), eq(1));
+        verify(tentRepository).adjustCounters(eq(4), eq(-1), eq(0), eq(0), eq(-1));
+    }
+
+    @Test
+    @DisplayName("Should move reserved, maintenance and occupied counters between statuses")
+    void shouldMoveBetweenCounters() {
+        Booking booking = new Booking(1, "Booked", pilgrim, bed, null, null);
+        bed.setBooking(booking);
+
+        tentCounterService.statusChanged(bed, "Reserved", "Booked");
+        tentCounterService.statusChanged(bed, "Checked_in", "Checked_out");
+        tentCounterService.statusChanged(bed, "Available", "Maintenance");
+        tentCounterService.statusChanged(bed, "Booked", "Checked_in");
+
+        verify(tentRepository).adjustCounters(eq(4), eq(1), eq(-1), eq(0), eq(1));
+        verify(tentRepository).adjustCounters(eq(4), eq(-1), eq(0), eq(0), eq(-1));
+        verify(tentRepository).adjustCounters(eq(4), eq(0), eq(0), eq(1), eq(0));
+        verifyNoMoreInteractions(tentRepository);
+    }
+
+    @Test
+    @DisplayName("Should count bulk changes per tent, skipping beds not in the expected status")
+    void shouldCountBulkChangesPerTent() {
+        when(bedRepository.lockCounterStates(List.of(1, 2, 3, 4))).thenReturn(List.of(
+                new Object[]{4, "Booked", true},
+                new Object[]{4, "Booked", null},
+                new Object[]{5, "Booked", false},
+                new Object[]{5, "Available", null}));
+
+        tentCounterService.statusChanging(List.of(1, 2, 3, 4), "Booked", "Available");
+
+        verify(tentRepository).adjustCounters(eq(4), eq(-2), eq(0), eq(0), eq(-1));
+        verify(tentRepository).adjustCounters(eq(5), eq(-1), eq(0), eq(0), eq(0));
+        verifyNoMoreInteractions(tentRepository);
+    }
+
+    @Test
+    @DisplayName("Should follow special-needs changes of pilgrims on occupied beds only")
+    void shouldFollowSpecialNeedsChanges() {
+        bed.setStatus("Checked_in");
+        tentCounterService.specialNeedsChanged(bed, false);
+        bed.setStatus("Checked_out");
+        tentCounterService.specialNeedsChanged(bed, true);
+
+        verify(tentRepository).adjustCounters(eq(4), eq(0), eq(0), eq(0), eq(-1));
+        verifyNoMoreInteractions(tentRepository);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Api.ApiException;
+import com.example.wafd.Model.RefreshToken;
+import com.example.wafd.Model.RevokedSession;
+import com.example.wafd.Model.User;
+import com.example.wafd.Repository.RefreshTokenRepository;
+import com.example.wafd.Repository.RevokedSessionRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+@DisplayName("TokenRegistryService Unit Tests")
+class TokenRegistryServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private RevokedSessionRepository revokedSessionRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    @InjectMocks
+    private TokenRegistryService tokenRegistryService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenRegistryService, "reuseGraceMs", 10_000L);
+        user = new User();
+        user.setId(7);
+        user.setEmail("operator@wafd.sa");
+        lenient().when(jwtService.getAccessTokenExpiration()).thenReturn(3_600_000L);
+        lenient().when(jwtService.getRefreshTokenExpiration()).thenReturn(604_800_000L);
+        lenient().when(revokedSessionRepository.findRevokedSince(any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("Should retire the presented refresh token and issue a new one in the same session")
+    void shouldRotateRefreshToken() {
+        RefreshToken current = new RefreshToken("jti-1", 7, "sid-1", LocalDateTime.now().plusDays(7), null, null, null);
+        when(refreshTokenRepository.findForRotation("jti-1")).thenReturn(current);
+        when(jwtService.generateToken(user, "sid-1")).thenReturn("access");
+        when(jwtService.generateRefreshToken(eq(user), eq("sid-1"), anyString())).thenReturn("refresh");
+
+        TokenRegistryService.IssuedTokens tokens = tokenRegistryService.rotate(refreshClaims("jti-1", "sid-1"), user);
+
+        assertThat(tokens).isEqualTo(new TokenRegistryService.IssuedTokens("access", "refresh"));
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertThat(saved.getValue().getSessionId()).isEqualTo("sid-1");
+        assertThat(current.getRevokedAt()).isNotNull();
+        assertThat(current.getReplacedBy()).isEqualTo(saved.getValue().getId());
+        assertThat(tokenRegistryService.isRevoked("sid-1")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should revoke the whole session when a long-rotated refresh token is replayed")
+    void shouldRevokeSessionOnReuse() {
+        RefreshToken rotated = new RefreshToken("jti-1", 7, "sid-1", LocalDateTime.now().plusDays(7),
+                LocalDateTime.now().minusMinutes(5), "jti-2", null);
+        when(refreshTokenRepository.findForRotation("jti-1")).thenReturn(rotated);
+
+        assertThatThrownBy(() -> tokenRegistryService.rotate(refreshClaims("jti-1", "sid-1"), user))
+                .isInstanceOf(ApiException.class);
+
+        verify(refreshTokenRepository).revokeSession(eq("sid-1"), any());
+        verify(revokedSessionRepository).save(any(RevokedSession.class));
+        assertThat(tokenRegistryService.isRevoked("sid-1")).isTrue();
+        assertThat(tokenRegistryService.isRevoked("sid-2")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should refuse a just-rotated refresh token without ending the session")
+    void shouldTolerateConcurrentRefresh() {
+        RefreshToken rotated = new RefreshToken("jti-1", 7, "sid-1", LocalDateTime.now().plusDays(7),
+                LocalDateTime.now().minusSeconds(1), "jti-2", null);
+        when(refreshTokenRepository.findForRotation("jti-1")).thenReturn(rotated);
+
+        assertThatThrownBy(() -> tokenRegistryService.rotate(refreshClaims("jti-1", "sid-1"), user))
+                .isInstanceOf(ApiException.class);
+
+        verify(refreshTokenRepository, never()).revokeSession(any(), any());
+        assertThat(tokenRegistryService.isRevoked("sid-1")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject access tokens and refresh tokens issued before the registry existed")
+    void shouldRejectTokensThatAreNotRegistered() {
+        Claims access = Jwts.claims().subject("operator@wafd.sa").add(JwtService.SESSION_ID, "sid-1").build();
+        Claims legacy = Jwts.claims().subject("operator@wafd.sa").build();
+
+        assertThatThrownBy(() -> tokenRegistryService.rotate(access, user)).isInstanceOf(ApiException.class);
+        assertThatThrownBy(() -> tokenRegistryService.rotate(legacy, user)).isInstanceOf(ApiException.class);
+        verify(refreshTokenRepository, never()).findForRotation(any());
+    }
+
+    @Test
+    @DisplayName("Should load revocations made by other instances")
+    void shouldLoadPersistedRevocations() {
+        when(revokedSessionRepository.findRevokedSince(any(), any())).thenReturn(List.of(
+                new RevokedSession("sid-9", 7, LocalDateTime.now().minusMinutes(1), LocalDateTime.now().plusMinutes(59)),
+                new RevokedSession("sid-old", 7, LocalDateTime.now().minusHours(2), LocalDateTime.now().minusHours(1))));
+
+        assertThat(tokenRegistryService.isRevoked("sid-9")).isTrue();
+        // Its access tokens have all expired, so there is nothing left to block
+        assertThat(tokenRegistryService.isRevoked("sid-old")).isFalse();
+        verify(revokedSessionRepository, times(1)).findRevokedSince(any(), any());
+    }
+
+    private static Claims refreshClaims(String tokenId, String sessionId) {
+        return Jwts.claims()
+                .id(tokenId)
+                .subject("operator@wafd.sa")
+                .add(JwtService.SESSION_ID, sessionId)
+                .add(JwtService.TOKEN_TYPE, JwtService.REFRESH)
+                .build();
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.wafd.Service;
+
+import com.example.wafd.Model.Agency;
+import com.example.wafd.Model.Bed;
+import com.example.wafd.Model.Booking;
+import com.example.wafd.Model.Pilgrim;
+import com.example.wafd.Model.Tent;
+import com.example.wafd.Model.WaitlistEntry;
+import com.example.wafd.Repository.BedRepository;
+import com.example.wafd.Repository.PilgrimRepository;
+import com.example.wafd.Repository.WaitlistEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@DisplayName("WaitlistService Unit Tests")
+class WaitlistServiceTest {
+
+    private final WaitlistEntryRepository waitlistEntryRepository = mock(WaitlistEntryRepository.class);
+    private final PilgrimRepository pilgrimRepository = mock(PilgrimRepository.class);
+    private final BedRepository bedRepository = mock(BedRepository.class);
+    private final BedAssignmentService bedAssignmentService = mock(BedAssignmentService.class);
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("beds", "pilgrims", "pilgrimSearch");
+    private WaitlistService waitlistService;
+
+    private Agency agency;
+    private Bed freeBed;
+
+    @BeforeEach
+    void setUp() {
+        waitlistService = new WaitlistService(waitlistEntryRepository, pilgrimRepository, bedRepository,
+                bedAssignmentService, mock(AuthenticationService.class), mock(AuditService.class),
+                cacheManager, mock(PlatformTransactionManager.class));
+
+        agency = new Agency();
+        agency.setId(4);
+        Tent tent = new Tent();
+        tent.setType("Female");
+        tent.setAgency(agency);
+        freeBed = new Bed();
+        freeBed.setId(9);
+        freeBed.setStatus("Available");
+        freeBed.setTent(tent);
+        when(bedRepository.findBedByIdWithTent(9)).thenReturn(freeBed);
+    }
+
+    @Test
+    @DisplayName("Should queue a pilgrim with their priority fields and keep an existing place")
+    void shouldEnqueuePilgrim() {
+        when(waitlistEntryRepository.save(any(WaitlistEntry.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Pilgrim pilgrim = pilgrim(11);
+        pilgrim.setHasSpecialNeeds(true);
+        pilgrim.setAge(70);
+
+        WaitlistEntry entry = waitlistService.enqueue(pilgrim);
+
+        assertThat(entry.getAgencyId()).isEqualTo(4);
+        assertThat(entry.getGender()).isEqualTo("female");
+        assertThat(entry.getSpecialNeeds()).isTrue();
+        assertThat(entry.getAge()).isEqualTo(70);
+
+        when(waitlistEntryRepository.findByPilgrimId(11)).thenReturn(entry);
+        assertThat(waitlistService.enqueue(pilgrim)).isSameAs(entry);
+        verify(waitlistEntryRepository, times(1)).save(any());
+    }
+
+    @Test
+    @DisplayName("Should book a freed bed for the first waiter of its agency and gender")
+    void shouldPlaceFirstWaiter() {
+        WaitlistEntry first = entry(11);
+        when(waitlistEntryRepository.findNext(eq(4), eq("female"), any())).thenReturn(List.of(first));
+        when(pilgrimRepository.findPilgrimById(11)).thenReturn(pilgrim(11));
+        cacheManager.getCache("beds").put("all", "stale");
+
+        waitlistService.onBedsFreed(new BedsFreedEvent(List.of(9)));
+
+        verify(waitlistEntryRepository).delete(first);
+        verify(bedAssignmentService).assignBed(11, 9);
+        assertThat(cacheManager.getCache("beds").get("all")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should drop waiters who can no longer take the bed and place the next one")
+    void shouldSkipStaleWaiters() {
+        WaitlistEntry moved = entry(11);
+        WaitlistEntry booked = entry(12);
+        WaitlistEntry next = entry(13);
+        when(waitlistEntryRepository.findNext(eq(4), eq("female"), any()))
+                .thenReturn(List.of(moved), List.of(booked), List.of(next));
+        Pilgrim movedPilgrim = pilgrim(11);
+        Agency other = new Agency();
+        other.setId(5);
+        movedPilgrim.setAgency(other);
+        when(pilgrimRepository.findPilgrimById(11)).thenReturn(movedPilgrim);
+        Pilgrim bookedPilgrim = pilgrim(12);
+        Booking booking = new Booking();
+        booking.setStatus("Booked");
+        bookedPilgrim.setBooking(booking);
+        when(pilgrimRepository.findPilgrimById(12)).thenReturn(bookedPilgrim);
+        when(pilgrimRepository.findPilgrimById(13)).thenReturn(pilgrim(13));
+
+        waitlistService.onBedsFreed(new BedsFreedEvent(List.of(9)));
+
+        verify(bedAssignmentService, never()).assignBed(eq(11), any());
+        verify(bedAssignmentService, never()).assignBed(eq(12), any());
+        verify(bedAssignmentService).assignBed(13, 9);
+        verify(waitlistEntryRepository, times(3)).delete(any(WaitlistEntry.class));
+    }
+
+    @Test
+    @DisplayName("Should commit the dropped head waiter and the next waiter's booking in a real transaction")
+    void shouldPlaceNextWaiterWhenHeadFails() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:waitlist-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE waitlist_entry (pilgrim_id INT)");
+        jdbcTemplate.execute("CREATE TABLE booking (pilgrim_id INT, bed_id INT)");
+        jdbcTemplate.update("INSERT INTO waitlist_entry (pilgrim_id) VALUES (11), (12)");
+        PlatformTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        WaitlistEntry head = entry(11);
+        WaitlistEntry next = entry(12);
+        when(waitlistEntryRepository.findNext(eq(4), eq("female"), any())).thenReturn(List.of(head), List.of(next));
+        doAnswer(invocation -> jdbcTemplate.update("DELETE FROM waitlist_entry WHERE pilgrim_id = ?",
+                invocation.<WaitlistEntry>getArgument(0).getPilgrimId()))
+                .when(waitlistEntryRepository).delete(any(WaitlistEntry.class));
+        // Gender changed since queuing, so the real assignBed would throw for the head waiter
+        Pilgrim changed = pilgrim(11);
+        changed.setGender("male");
+        Map<Integer, Pilgrim> pilgrims = Map.of(11, changed, 12, pilgrim(12));
+        when(pilgrimRepository.findPilgrimById(anyInt())).thenAnswer(invocation -> pilgrims.get(invocation.<Integer>getArgument(0)));
+
+        // Stands in for the @Transactional proxy, which joins the placement's transaction
+        TransactionTemplate joining = new TransactionTemplate(transactionManager);
+        when(bedAssignmentService.assignBed(anyInt(), eq(9))).thenAnswer(invocation -> joining.execute(status -> {
+            Integer pilgrimId = invocation.getArgument(0);
+            BedAssignmentService.requireAssignable(pilgrims.get(pilgrimId), freeBed, "Available");
+            jdbcTemplate.update("INSERT INTO booking (pilgrim_id, bed_id) VALUES (?, 9)", pilgrimId);
+            return freeBed;
+        }));
+
+        new WaitlistService(waitlistEntryRepository, pilgrimRepository, bedRepository, bedAssignmentService,
+                mock(AuthenticationService.class), mock(AuditService.class), cacheManager, transactionManager)
+                .onBedsFreed(new BedsFreedEvent(List.of(9)));
+
+        assertThat(jdbcTemplate.queryForList("SELECT pilgrim_id FROM waitlist_entry", Integer.class)).isEmpty();
+        assertThat(jdbcTemplate.queryForList("SELECT pilgrim_id FROM booking", Integer.class)).containsExactly(12);
+    }
+
+    @Test
+    @DisplayName("Should leave the waitlist alone when the bed was taken or has no agency")
+    void shouldIgnoreUnusableBeds() {
+        freeBed.setStatus("Booked");
+        waitlistService.onBedsFreed(new BedsFreedEvent(List.of(9)));
+
+        freeBed.setStatus("Available");
+        freeBed.getTent().setAgency(null);
+        waitlistService.onBedsFreed(new BedsFreedEvent(List.of(9)));
+
+        verify(waitlistEntryRepository, never()).findNext(any(), any(), any());
+        verifyNoInteractions(bedAssignmentService);
+    }
+
+    private Pilgrim pilgrim(Integer id) {
+        Pilgrim pilgrim = new Pilgrim();
+        pilgrim.setId(id);
+        pilgrim.setGender("female");
+        pilgrim.setAge(40);
+        pilgrim.setAgency(agency);
+        return pilgrim;
+    }
+
+    private WaitlistEntry entry(Integer pilgrimId) {
+        return new WaitlistEntry(pilgrimId * 10, pilgrimId, 4, "female", false, 40, LocalDateTime.now());
+    }
+}
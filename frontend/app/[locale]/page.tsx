@@ -4,8 +4,11 @@ import { useEffect, useState } from 'react';
 import { useRouter } from 'next/navigation';
 import { useTranslations, useLocale } from '@/lib/i18n';
 import { useAuth } from '@/lib/auth';
-import { usePilgrimStore } from '@/store/pilgrim-store';
-import { useHallStore } from '@/store/hall-store';
+import { mapStatsResponse } from '@/store/pilgrim-store';
+import { dashboardAPI } from '@/lib/api';
+import { hallStatisticsFromSummaries } from '@/lib/transformers/hall';
+import { PilgrimStatistics } from '@/types/pilgrim';
+import { HallStatistics } from '@/types/hall';
 import { StatisticsCards } from '@/components/dashboard/statistics-cards';
 import { Charts } from '@/components/dashboard/charts';
 
@@ -15,9 +18,7 @@ export default function Home() {
   const router = useRouter();
   const { user } = useAuth();
   const [isMounted, setIsMounted] = useState(false);
-
-  const { getStatistics: getPilgrimStats, fetchPilgrims } = usePilgrimStore();
-  const { getStatistics: getHallStats, fetchHalls } = useHallStore();
+  const [dashboard, setDashboard] = useState<{ pilgrimStats: PilgrimStatistics; hallStats: HallStatistics } | null>(null);
 
   // Check authentication
   useEffect(() => {
@@ -40,12 +41,17 @@ export default function Home() {
   useEffect(() => {
     if (user && user.role === 'Admin') {
       setIsMounted(true);
-      fetchPilgrims();
-      fetchHalls();
+      // One request for both the pilgrim statistics and the tent summaries
+      dashboardAPI.get(['pilgrims', 'tents'])
+        .then((response) => setDashboard({
+          pilgrimStats: mapStatsResponse(response?.pilgrims),
+          hallStats: hallStatisticsFromSummaries(Array.isArray(response?.tents) ? response.tents : []),
+        }))
+        .catch((error) => console.error('Failed to load dashboard:', error));
     }
   }, [user]);
 
-  const pilgrimStats = isMounted ? getPilgrimStats() : {
+  const pilgrimStats = dashboard ? dashboard.pilgrimStats : {
     total: 0,
     arrived: 0,
     expected: 0,
@@ -60,7 +66,7 @@ export default function Home() {
     bySpecialNeeds: {}
   };
 
-  const hallStats = isMounted ? getHallStats() : {
+  const hallStats = dashboard ? dashboard.hallStats : {
     totalHalls: 0,
     totalBeds: 0,
     totalOccupied: 0,
@@ -96,7 +102,7 @@ export default function Home() {
               <StatisticsCards
                 pilgrimStats={pilgrimStats}
                 hallStats={hallStats}
-                isLoading={!isMounted}
+                isLoading={!isMounted || !dashboard}
                 locale={locale}
               />
             </div>
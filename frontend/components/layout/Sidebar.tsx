@@ -7,6 +7,7 @@ import { useTranslations, useLocale } from '@/lib/i18n';
 import { useSidebar } from '@/lib/sidebar-context';
 import { cn } from '@/lib/utils';
 import { useAuth } from '@/lib/auth';
+import { authAPI } from '@/lib/api';
 import {
   PilgrimIcon,
   HallIcon,
@@ -220,7 +221,9 @@ const Sidebar = () => {
                 isCollapsed && (isRtl ? "right-0 w-48" : "left-0 w-48")
               )}>
                 <button
-                  onClick={() => {
+                  onClick={async () => {
+                    // End the session server-side too; clear locally even if that fails
+                    await authAPI.logout().catch(() => {});
                     localStorage.removeItem('accessToken');
                     localStorage.removeItem('refreshToken');
                     localStorage.removeItem('user');
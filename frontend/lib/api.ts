@@ -1,10 +1,32 @@
 import { transformPilgrimToBackend } from './transformers/pilgrim';
 import { transformHallToBackend } from './transformers/hall';
+import { decodeCbor } from './cbor';
 
 type QueryParams = Record<string, string | number | boolean | undefined>;
 
 const API_BASE_URL = process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080/api/v1';
 
+// Set to "cbor" to ask for binary bodies on GET requests; JSON stays the fallback
+const API_ENCODING = process.env.NEXT_PUBLIC_API_ENCODING;
+
+const acceptHeader = (method?: string): Record<string, string> =>
+  API_ENCODING === 'cbor' && (!method || method.toUpperCase() === 'GET')
+    ? { Accept: 'application/cbor, application/json;q=0.9' }
+    : {};
+
+async function parseBody(response: Response) {
+  if (response.headers.get('Content-Type')?.includes('application/cbor')) {
+    return decodeCbor(await response.arrayBuffer());
+  }
+  const text = await response.text();
+  if (!text) return null;
+  try {
+    return JSON.parse(text);
+  } catch {
+    return text;
+  }
+}
+
 const buildQueryString = (params?: QueryParams): string => {
   if (!params) return '';
   const searchParams = new URLSearchParams();
@@ -33,6 +55,7 @@ async function fetchAPI(endpoint: string, options?: ApiRequestOptions) {
   const response = await fetch(url, {
     headers: {
       'Content-Type': 'application/json',
+      ...acceptHeader(fetchOptions.method),
       ...(token && { Authorization: `Bearer ${token}` }),
       ...fetchOptions.headers,
     },
@@ -45,7 +68,7 @@ async function fetchAPI(endpoint: string, options?: ApiRequestOptions) {
     if (skipAuthHandling || isLoginRequest) {
       let errorMessage = 'Unauthorized';
       try {
-        const error: ApiError = await response.json();
+        const error = (await parseBody(response)) as ApiError;
         errorMessage = error.message || errorMessage;
       } catch {
         // swallow parsing errors, keep default message
@@ -65,11 +88,14 @@ async function fetchAPI(endpoint: string, options?: ApiRequestOptions) {
         const data = await refreshResponse.json();
         if (typeof window !== 'undefined') {
           localStorage.setItem('accessToken', data.accessToken);
+          // Refresh tokens are single use, the old one is no longer accepted
+          localStorage.setItem('refreshToken', data.refreshToken);
         }
 
         const retryResponse = await fetch(url, {
           headers: {
             'Content-Type': 'application/json',
+            ...acceptHeader(fetchOptions.method),
             Authorization: `Bearer ${data.accessToken}`,
             ...fetchOptions.headers,
           },
@@ -80,7 +106,7 @@ async function fetchAPI(endpoint: string, options?: ApiRequestOptions) {
         if (!retryResponse.ok) {
           let errorMessage = `API Error: ${retryResponse.statusText}`;
           try {
-            const error: ApiError = await retryResponse.json();
+            const error = (await parseBody(retryResponse)) as ApiError;
             errorMessage = error.message || errorMessage;
           } catch {
             // If JSON parsing fails, use status text
@@ -88,13 +114,7 @@ async function fetchAPI(endpoint: string, options?: ApiRequestOptions) {
           throw new Error(errorMessage);
         }
 
-        const retryText = await retryResponse.text();
-        if (!retryText) return null;
-        try {
-          return JSON.parse(retryText);
-        } catch {
-          return retryText;
-        }
+        return parseBody(retryResponse);
       }
     }
 
@@ -107,7 +127,7 @@ async function fetchAPI(endpoint: string, options?: ApiRequestOptions) {
   if (!response.ok) {
     let errorMessage = `API Error: ${response.statusText}`;
     try {
-      const error: ApiError = await response.json();
+      const error = (await parseBody(response)) as ApiError;
       errorMessage = error.message || errorMessage;
     } catch {
       // If JSON parsing fails, use status text
@@ -115,14 +135,7 @@ async function fetchAPI(endpoint: string, options?: ApiRequestOptions) {
     throw new Error(errorMessage);
   }
 
-  const text = await response.text();
-  if (!text) return null;
-
-  try {
-    return JSON.parse(text);
-  } catch {
-    return text;
-  }
+  return parseBody(response);
 }
 
 type GroupPayload = {
@@ -138,6 +151,14 @@ type GroupPayload = {
   managerPassword?: string;
 };
 
+export type DashboardSection = 'pilgrims' | 'tents' | 'agencies' | 'beds' | 'bookings';
+
+// Dashboard API: the requested summaries in one round trip (all sections when none are given)
+export const dashboardAPI = {
+  get: (sections?: DashboardSection[]) =>
+    fetchAPI(`/dashboard/get${buildQueryString({ sections: sections?.join(',') })}`),
+};
+
 // Group API (backed by /api/v1/agency endpoints)
 export const groupAPI = {
   getAll: () => fetchAPI('/agency/get/all'),
@@ -174,6 +195,7 @@ export const pilgrimAPI = {
     return fetchAPI(`/pilgrim/get/all${query}`);
   },
   getById: (id: number) => fetchAPI(`/pilgrim/get/${id}`),
+  getByIds: (ids: number[]) => fetchAPI(`/pilgrim/get/batch?ids=${ids.join(',')}`),
   create: (data: unknown) => fetchAPI('/pilgrim/add', {
     method: 'POST',
     body: JSON.stringify(transformPilgrimToBackend(data as Partial<any>)),
@@ -196,6 +218,7 @@ export const pilgrimAPI = {
 export const buildingAPI = {
   getAll: () => fetchAPI('/tent/get/all'),
   getById: (id: number) => fetchAPI(`/tent/get/${id}`),
+  getByIds: (ids: number[]) => fetchAPI(`/tent/get/batch?ids=${ids.join(',')}`),
   create: (data: unknown) => fetchAPI('/tent/add', {
     method: 'POST',
     body: JSON.stringify(transformHallToBackend(data as Partial<any>)),
@@ -215,6 +238,7 @@ export const hallAPI = buildingAPI;
 // Bed API (for bed operations)
 export const bedAPI = {
   getAll: () => fetchAPI('/bed/get/all'),
+  getByIds: (ids: number[]) => fetchAPI(`/bed/get/batch?ids=${ids.join(',')}`),
   assignBed: (pilgrimId: number, bedId: number) => fetchAPI('/bed/assign', {
     method: 'POST',
     body: JSON.stringify({ pilgrimId, bedId }),
@@ -270,4 +294,5 @@ export const authAPI = {
     method: 'POST',
     body: JSON.stringify({ email, password }),
   }),
+  logout: () => fetchAPI('/auth/logout', { method: 'POST' }),
 };
@@ -0,0 +1,129 @@
+/**
+ * Minimal CBOR (RFC 8949) decoder for API responses
+ * Covers what the backend's Jackson CBOR encoder emits: maps, arrays, text,
+ * integers, floats, decimals, booleans and null, in definite or indefinite length
+ */
+
+const BREAK = Symbol('break');
+
+export function decodeCbor(buffer: ArrayBuffer): unknown {
+  const view = new DataView(buffer);
+  const bytes = new Uint8Array(buffer);
+  const textDecoder = new TextDecoder();
+  let offset = 0;
+
+  const readLength = (info: number): number => {
+    if (info < 24) return info;
+    if (info === 24) return view.getUint8(offset++);
+    if (info === 25) {
+      const value = view.getUint16(offset);
+      offset += 2;
+      return value;
+    }
+    if (info === 26) {
+      const value = view.getUint32(offset);
+      offset += 4;
+      return value;
+    }
+    if (info === 27) {
+      const value = Number(view.getBigUint64(offset));
+      offset += 8;
+      return value;
+    }
+    if (info === 31) return -1; // indefinite length
+    throw new Error(`Invalid CBOR length encoding: ${info}`);
+  };
+
+  const readHalf = (): number => {
+    const half = view.getUint16(offset);
+    offset += 2;
+    const exponent = (half >> 10) & 0x1f;
+    const mantissa = half & 0x3ff;
+    const sign = half & 0x8000 ? -1 : 1;
+    if (exponent === 0) return sign * 2 ** -14 * (mantissa / 1024);
+    if (exponent === 31) return mantissa ? NaN : sign * Infinity;
+    return sign * 2 ** (exponent - 15) * (1 + mantissa / 1024);
+  };
+
+  const readItem = (): unknown => {
+    const initial = view.getUint8(offset++);
+    const major = initial >> 5;
+    const info = initial & 0x1f;
+
+    switch (major) {
+      case 0:
+        return readLength(info);
+      case 1:
+        return -1 - readLength(info);
+      case 2:
+      case 3: {
+        const length = readLength(info);
+        if (length < 0) {
+          const chunks: unknown[] = [];
+          for (let chunk = readItem(); chunk !== BREAK; chunk = readItem()) chunks.push(chunk);
+          return major === 3 ? chunks.join('') : chunks;
+        }
+        const slice = bytes.subarray(offset, offset + length);
+        offset += length;
+        return major === 3 ? textDecoder.decode(slice) : slice;
+      }
+      case 4: {
+        const length = readLength(info);
+        const array: unknown[] = [];
+        if (length < 0) {
+          for (let item = readItem(); item !== BREAK; item = readItem()) array.push(item);
+        } else {
+          for (let i = 0; i < length; i++) array.push(readItem());
+        }
+        return array;
+      }
+      case 5: {
+        const length = readLength(info);
+        const map: Record<string, unknown> = {};
+        if (length < 0) {
+          for (let key = readItem(); key !== BREAK; key = readItem()) map[String(key)] = readItem();
+        } else {
+          for (let i = 0; i < length; i++) map[String(readItem())] = readItem();
+        }
+        return map;
+      }
+      case 6: {
+        const tag = readLength(info);
+        const content = readItem();
+        // Decimal fraction [exponent, mantissa], used for BigDecimal fields
+        if (tag === 4 && Array.isArray(content)) {
+          return Number(`${content[1]}e${content[0]}`);
+        }
+        return content;
+      }
+      default:
+        switch (info) {
+          case 20:
+            return false;
+          case 21:
+            return true;
+          case 22:
+          case 23:
+            return null;
+          case 25:
+            return readHalf();
+          case 26: {
+            const value = view.getFloat32(offset);
+            offset += 4;
+            return value;
+          }
+          case 27: {
+            const value = view.getFloat64(offset);
+            offset += 8;
+            return value;
+          }
+          case 31:
+            return BREAK;
+          default:
+            throw new Error(`Unsupported CBOR simple value: ${info}`);
+        }
+    }
+  };
+
+  return bytes.length === 0 ? null : readItem();
+}
@@ -1,4 +1,4 @@
-import { Hall, Bed, HallType } from '@/types/hall';
+import { Hall, Bed, HallType, HallStatistics } from '@/types/hall';
 import { BedStatus } from '@/types/pilgrim';
 
 // Backend Tent data structure
@@ -14,6 +14,12 @@ interface BackendTent {
     name: string;
   };
   beds?: BackendBed[];
+  // Occupancy counters, sent with the tent summaries (no beds)
+  currentOccupancy?: number;
+  availableBeds?: number;
+  specialNeedsOccupancy?: number;
+  reservedBeds?: number;
+  maintenanceBeds?: number;
   created_at?: string;
   updated_at?: string;
 }
@@ -132,4 +138,50 @@ export function transformBedAssignmentToBackend(pilgrimId: string, bedId: string
     pilgrimId: parseInt(pilgrimId, 10),
     bedId: parseInt(bedId, 10),
   };
-}
\ No newline at end of file
+}
+
+// Hall statistics from tent summaries, which carry occupancy counters instead of beds
+export function hallStatisticsFromSummaries(tents: BackendTent[]): HallStatistics {
+  const stats: HallStatistics = {
+    totalHalls: tents.length,
+    totalBeds: 0,
+    totalOccupied: 0,
+    totalAvailable: 0,
+    totalMaintenance: 0,
+    totalReserved: 0,
+    occupancyRate: 0,
+    maleHalls: { count: 0, beds: 0, occupied: 0, occupancyRate: 0 },
+    femaleHalls: { count: 0, beds: 0, occupied: 0, occupancyRate: 0 },
+    specialNeedsOccupied: 0,
+    byHall: {},
+  };
+
+  tents.forEach((tent) => {
+    const capacity = tent.capacity || 0;
+    const occupied = tent.currentOccupancy || 0;
+    stats.totalBeds += capacity;
+    stats.totalOccupied += occupied;
+    stats.totalAvailable += tent.availableBeds || 0;
+    stats.totalMaintenance += tent.maintenanceBeds || 0;
+    stats.totalReserved += tent.reservedBeds || 0;
+    stats.specialNeedsOccupied += tent.specialNeedsOccupancy || 0;
+
+    const group = tent.type === 'female' ? stats.femaleHalls : stats.maleHalls;
+    group.count += 1;
+    group.beds += capacity;
+    group.occupied += occupied;
+
+    stats.byHall[tent.id.toString()] = {
+      name: tent.name || tent.location || `Hall ${tent.id}`,
+      occupancy: occupied,
+      capacity,
+      rate: capacity > 0 ? (occupied / capacity) * 100 : 0,
+    };
+  });
+
+  stats.occupancyRate = stats.totalBeds > 0 ? (stats.totalOccupied / stats.totalBeds) * 100 : 0;
+  stats.maleHalls.occupancyRate = stats.maleHalls.beds > 0 ? (stats.maleHalls.occupied / stats.maleHalls.beds) * 100 : 0;
+  stats.femaleHalls.occupancyRate = stats.femaleHalls.beds > 0 ? (stats.femaleHalls.occupied / stats.femaleHalls.beds) * 100 : 0;
+
+  return stats;
+}
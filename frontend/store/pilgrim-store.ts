@@ -82,7 +82,7 @@ const emptyStats: PilgrimStatistics = {
   bySpecialNeeds: {},
 };
 
-const mapStatsResponse = (payload: any): PilgrimStatistics => {
+export const mapStatsResponse = (payload: any): PilgrimStatistics => {
   if (!payload || typeof payload !== 'object') {
     return { ...emptyStats };
   }